@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.benchmark;
+
+import java.lang.reflect.Field;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.impetus.kundera.graph.BillingCounter;
+import com.impetus.kundera.graph.Store;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+
+/**
+ * Entity manager of <code>kunderatest</code> persistence unit, backed by
+ * in-memory <code>CoreTestClient</code>, along with a {@link Store} entity
+ * holding given number of {@link BillingCounter}s.
+ */
+@State(Scope.Thread)
+public class EntityState
+{
+    static final String PU = "kunderatest";
+
+    /** Number of billing counters related to store. */
+    @Param({ "1", "10", "100" })
+    public int counters;
+
+    EntityManagerFactory emf;
+
+    EntityManager em;
+
+    PersistenceDelegator pd;
+
+    KunderaMetadata kunderaMetadata;
+
+    EntityMetadata storeMetadata;
+
+    Store store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory(PU);
+        em = emf.createEntityManager();
+        pd = getPersistenceDelegator(em);
+        kunderaMetadata = ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance();
+        storeMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, Store.class);
+        store = newStore(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Returns a new store, with ids of its counters following store id.
+     */
+    Store newStore(int id)
+    {
+        Store newStore = new Store(id, "store" + id);
+        for (int i = 1; i <= counters; i++)
+        {
+            newStore.addCounter(new BillingCounter(id * 1000 + i, "counter" + i));
+        }
+        return newStore;
+    }
+
+    private static PersistenceDelegator getPersistenceDelegator(EntityManager em) throws Exception
+    {
+        Field pd = em.getClass().getDeclaredField("persistenceDelegator");
+        if (!pd.isAccessible())
+        {
+            pd.setAccessible(true);
+        }
+        return (PersistenceDelegator) pd.get(em);
+    }
+}
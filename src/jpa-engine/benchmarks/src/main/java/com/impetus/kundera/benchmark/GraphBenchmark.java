@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.impetus.kundera.graph.GraphGenerator;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraph;
+import com.impetus.kundera.persistence.context.EventLog.EventType;
+import com.impetus.kundera.persistence.context.FlushManager;
+
+/**
+ * Benchmarks of object graph construction and flush stack building, as done
+ * on every persist and merge.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark
+{
+    private final FlushManager flushManager = new FlushManager();
+
+    private ObjectGraph graph;
+
+    /**
+     * Flush manager marks nodes it has pushed, reset them to be pushed again.
+     */
+    @Setup(Level.Invocation)
+    public void resetGraph(EntityState state)
+    {
+        if (graph == null)
+        {
+            graph = new GraphGenerator().generateGraph(state.store, state.pd);
+        }
+        for (Node node : graph.getNodeMapping().values())
+        {
+            node.setTraversed(false);
+            node.setDirty(true);
+        }
+    }
+
+    @Benchmark
+    public ObjectGraph generateGraph(EntityState state)
+    {
+        return new GraphGenerator().generateGraph(state.store, state.pd);
+    }
+
+    @Benchmark
+    public int buildFlushStack()
+    {
+        flushManager.buildFlushStack(graph.getHeadNode(), EventType.INSERT);
+        int size = flushManager.getFlushStack().size();
+        flushManager.clearFlushStack();
+        return size;
+    }
+}
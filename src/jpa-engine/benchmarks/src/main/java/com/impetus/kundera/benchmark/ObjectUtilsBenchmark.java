@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.impetus.kundera.utils.DeepEquals;
+import com.impetus.kundera.utils.ObjectUtils;
+
+/**
+ * Benchmarks of entity deep copy and deep equality, as done on every find,
+ * merge and dirty check.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectUtilsBenchmark
+{
+    private Object copy;
+
+    @Setup(Level.Trial)
+    public void copy(EntityState state)
+    {
+        copy = ObjectUtils.deepCopy(state.store, state.kunderaMetadata);
+    }
+
+    @Benchmark
+    public Object deepCopy(EntityState state)
+    {
+        return ObjectUtils.deepCopy(state.store, state.kunderaMetadata);
+    }
+
+    @Benchmark
+    public boolean deepEquals(EntityState state)
+    {
+        return DeepEquals.deepEquals(state.store, copy);
+    }
+}
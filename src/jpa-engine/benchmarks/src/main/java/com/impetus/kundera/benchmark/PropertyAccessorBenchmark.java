@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.metamodel.Attribute;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.impetus.kundera.property.PropertyAccessorHelper;
+
+/**
+ * Benchmarks of entity field access, as done for every attribute read or
+ * written by clients.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyAccessorBenchmark
+{
+    private Field nameField;
+
+    private Attribute<?, ?> nameAttribute;
+
+    @Setup(Level.Trial)
+    public void lookupField(EntityState state) throws NoSuchFieldException
+    {
+        nameField = state.store.getClass().getDeclaredField("storeName");
+        nameAttribute = state.kunderaMetadata.getApplicationMetadata()
+                .getMetamodel(EntityState.PU).entity(state.store.getClass()).getAttribute("storeName");
+    }
+
+    @Benchmark
+    public Object getId(EntityState state)
+    {
+        return PropertyAccessorHelper.getId(state.store, state.storeMetadata);
+    }
+
+    @Benchmark
+    public Object getByField(EntityState state)
+    {
+        return PropertyAccessorHelper.getObject(state.store, nameField);
+    }
+
+    @Benchmark
+    public Object getByAttribute(EntityState state)
+    {
+        return PropertyAccessorHelper.getObject(state.store, nameAttribute);
+    }
+
+    @Benchmark
+    public void setByAttribute(EntityState state)
+    {
+        PropertyAccessorHelper.set(state.store, nameAttribute, "store");
+    }
+}
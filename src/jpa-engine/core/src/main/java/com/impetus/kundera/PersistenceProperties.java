@@ -70,6 +70,27 @@ public interface PersistenceProperties
      */
     public static final String KUNDERA_INDEX_HOME_DIR = "index.home.dir";
 
+    /** Lucene index mode, "ram" (default) or "nrt" for memory mapped, near real time searched index. */
+    public static final String KUNDERA_INDEX_MODE = "kundera.index.mode";
+
+    /** Milliseconds between near real time index searcher refreshes, 0 refreshes only on search after changes. */
+    public static final String KUNDERA_INDEX_REFRESH_INTERVAL = "kundera.index.refresh.interval";
+
+    /** Milliseconds between near real time index commits, 0 disables timed commits. */
+    public static final String KUNDERA_INDEX_COMMIT_INTERVAL = "kundera.index.commit.interval";
+
+    /** Number of near real time index changes triggering a commit. */
+    public static final String KUNDERA_INDEX_COMMIT_THRESHOLD = "kundera.index.commit.threshold";
+
+    /** Write-behind indexing durability, "async" or "commit" to wait for queued index mutations on commit. */
+    public static final String KUNDERA_INDEX_WRITE_BEHIND = "kundera.index.write.behind";
+
+    /** Maximum number of queued write-behind index mutations, writers block beyond it. */
+    public static final String KUNDERA_INDEX_QUEUE_SIZE = "kundera.index.queue.size";
+
+    /** Maximum number of write-behind index mutations applied per batch. */
+    public static final String KUNDERA_INDEX_QUEUE_BATCH_SIZE = "kundera.index.queue.batch.size";
+
     /** Option to create schema. */
     public static final String KUNDERA_DDL_AUTO_PREPARE = "kundera.ddl.auto.prepare";
 
@@ -94,4 +115,25 @@ public interface PersistenceProperties
     public static final String KUNDERA_INDEXER_CLASS = "kundera.indexer.class";
     
     public static final String KUNDERA_AUTO_GENERATOR_CLASS = "kundera.auto.generator.class";
+
+    /** Maximum number of parsed JPQL query plans cached, 0 disables caching. */
+    public static final String KUNDERA_QUERY_PLAN_CACHE_SIZE = "kundera.query.plan.cache.size";
+
+    /** Maximum number of query results cached, 0 disables caching. */
+    public static final String KUNDERA_QUERY_RESULT_CACHE_SIZE = "kundera.query.result.cache.size";
+
+    /** Seconds a query result is cached, 0 for no limit. */
+    public static final String KUNDERA_QUERY_RESULT_CACHE_TTL = "kundera.query.result.cache.ttl";
+
+    /** Number of threads running asynchronous operations not supported natively by client. */
+    public static final String KUNDERA_ASYNC_POOL_SIZE = "kundera.async.pool.size";
+
+    /** Number of asynchronous operations allowed to wait for a thread. */
+    public static final String KUNDERA_ASYNC_QUEUE_SIZE = "kundera.async.queue.size";
+
+    /** Number of related entities loaded per findAll call while populating query results, 0 disables batching. */
+    public static final String KUNDERA_FETCH_BATCH_SIZE = "kundera.fetch.batch.size";
+
+    /** Whether flush writes only attributes changed since entity was loaded, "true" enables it. */
+    public static final String KUNDERA_CHANGE_TRACKING = "kundera.change.tracking";
 }
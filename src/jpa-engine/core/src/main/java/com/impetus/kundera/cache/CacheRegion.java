@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides second level cache region settings of an entity class, when
+ * {@link RegionCacheProvider} is in use. Attributes left to their defaults
+ * fall back to persistence unit level region properties.
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheRegion
+{
+
+    /**
+     * Maximum number of entities held in region, zero disables caching of
+     * this entity.
+     * 
+     * @return maximum entries.
+     */
+    public abstract int maxEntries() default -1;
+
+    /**
+     * Seconds an entity stays in region after being put, zero for no limit.
+     * 
+     * @return time to live in seconds.
+     */
+    public abstract long timeToLive() default -1;
+
+    /**
+     * Seconds an entity stays in region after being last read, zero for no
+     * limit.
+     * 
+     * @return time to idle in seconds.
+     */
+    public abstract long timeToIdle() default -1;
+}
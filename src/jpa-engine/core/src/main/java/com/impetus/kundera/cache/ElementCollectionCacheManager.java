@@ -17,7 +17,9 @@ package com.impetus.kundera.cache;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,10 +29,17 @@ import com.impetus.kundera.utils.DeepEquals;
 
 /**
  * Cache for holding element collection column names and corresponding objects
- * This is a singleton class TODO: Improve singleton implementation code, think
- * performance overhead due to synchronization TODO: Think of a better way to
- * handle element collection object handling. better remove this cache
- * altogether
+ * This is a singleton class TODO: Think of a better way to handle element
+ * collection object handling. better remove this cache altogether
+ * 
+ * Row keys are spread over lock striped, least recently used maps, bounding
+ * cache to {@link #DEFAULT_MAX_ROWS} rows. Element collection objects are
+ * looked up by their hash code and deep hash code, instead of scanning all
+ * objects of a row. Cache is shared by all persistence contexts, hence rows
+ * of entities are held as long as any persistence context manages them (see
+ * {@link #acquire(Object)}), even past the bound, and evicted once the last
+ * one releases them. Managed rows are kept apart from eviction order, so
+ * evicting never has to skip over them.
  * 
  * @author amresh.singh
  */
@@ -39,16 +48,47 @@ public class ElementCollectionCacheManager
     /** log for this class. */
     private static Logger log = LoggerFactory.getLogger(ElementCollectionCacheManager.class);
 
+    /** Default maximum number of row keys held. */
+    public static final int DEFAULT_MAX_ROWS = 10000;
+
+    /** Number of lock stripes, a power of two. */
+    private static final int STRIPES = 16;
+
     /* Single instance */
     /** The instance. */
     private static ElementCollectionCacheManager instance;
 
+    /**
+     * Mapping between Row Key and element collection objects of row, striped
+     * by row key.
+     */
+    private final Stripe[] stripes;
+
+    /** Number of row keys held. */
+    private final AtomicInteger rowCount = new AtomicInteger();
+
     /**
      * Instantiates a new element collection cache manager.
      */
     private ElementCollectionCacheManager()
     {
+        this(DEFAULT_MAX_ROWS);
+    }
 
+    /**
+     * Instantiates a new element collection cache manager.
+     * 
+     * @param maxRows
+     *            maximum number of row keys held
+     */
+    ElementCollectionCacheManager(int maxRows)
+    {
+        int stripeCapacity = Math.max(1, (maxRows + STRIPES - 1) / STRIPES);
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+        {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
     }
 
     /**
@@ -66,23 +106,28 @@ public class ElementCollectionCacheManager
     }
 
     /**
-     * Mapping between Row Key and (Map of element collection objects and
-     * element collection object name).
-     */
-    private static Map<Object, Map<Object, String>> elementCollectionCache;
-
-    /**
-     * Gets the element collection cache.
+     * Gets a snapshot of element collection cache.
      * 
      * @return the elementCollectionCache
      */
     public Map<Object, Map<Object, String>> getElementCollectionCache()
     {
-        if (this.elementCollectionCache == null)
+        Map<Object, Map<Object, String>> elementCollectionCache = new HashMap<Object, Map<Object, String>>();
+        for (Stripe stripe : stripes)
         {
-            this.elementCollectionCache = new HashMap<Object, Map<Object, String>>();
+            synchronized (stripe)
+            {
+                for (Map.Entry<Object, Row> entry : stripe.entrySet())
+                {
+                    elementCollectionCache.put(entry.getKey(), new HashMap<Object, String>(entry.getValue().names));
+                }
+                for (Map.Entry<Object, Row> entry : stripe.pinned.entrySet())
+                {
+                    elementCollectionCache.put(entry.getKey(), new HashMap<Object, String>(entry.getValue().names));
+                }
+            }
         }
-        return this.elementCollectionCache;
+        return elementCollectionCache;
     }
 
     /**
@@ -92,7 +137,7 @@ public class ElementCollectionCacheManager
      */
     public boolean isCacheEmpty()
     {
-        return elementCollectionCache == null || elementCollectionCache.isEmpty();
+        return rowCount.get() == 0;
     }
 
     /**
@@ -108,15 +153,17 @@ public class ElementCollectionCacheManager
     public void addElementCollectionCacheMapping(Object rowKey, Object elementCollectionObject,
             String elementCollObjectName)
     {
-        Map embeddedObjectMap = new HashMap<Object, String>();
-        if (getElementCollectionCache().get(rowKey) == null)
+        Stripe stripe = getStripe(rowKey);
+        synchronized (stripe)
         {
-            embeddedObjectMap.put(elementCollectionObject, elementCollObjectName);
-            getElementCollectionCache().put(rowKey, embeddedObjectMap);
-        }
-        else
-        {
-            getElementCollectionCache().get(rowKey).put(elementCollectionObject, elementCollObjectName);
+            Row row = stripe.getRow(rowKey);
+            if (row == null)
+            {
+                row = new Row();
+                rowCount.incrementAndGet();
+                stripe.putRow(rowKey, row);
+            }
+            row.put(elementCollectionObject, elementCollObjectName);
         }
     }
 
@@ -131,37 +178,24 @@ public class ElementCollectionCacheManager
      */
     public String getElementCollectionObjectName(Object rowKey, Object elementCollectionObject)
     {
-        if (getElementCollectionCache().isEmpty() || getElementCollectionCache().get(rowKey) == null)
-        {
-            log.debug("No element collection object map found in cache for Row key " + rowKey);
-            return null;
-        }
-        else
+        Stripe stripe = getStripe(rowKey);
+        String elementCollectionObjectName;
+        synchronized (stripe)
         {
-            Map<Object, String> elementCollectionObjectMap = getElementCollectionCache().get(rowKey);
-            String elementCollectionObjectName = elementCollectionObjectMap.get(elementCollectionObject);
-            if (elementCollectionObjectName == null)
+            Row row = stripe.getRow(rowKey);
+            if (row == null)
             {
-                for (Object obj : elementCollectionObjectMap.keySet())
-                {
-                    if (DeepEquals.deepEquals(elementCollectionObject, obj))
-                    {
-                        elementCollectionObjectName = elementCollectionObjectMap.get(obj);
-                        break;
-                    }
-                }
-            }
-
-            if (elementCollectionObjectName == null)
-            {
-                log.debug("No element collection object name found in cache for object:" + elementCollectionObject);
+                log.debug("No element collection object map found in cache for Row key {}", rowKey);
                 return null;
             }
-            else
-            {
-                return elementCollectionObjectName;
-            }
+            elementCollectionObjectName = row.get(elementCollectionObject);
         }
+
+        if (elementCollectionObjectName == null)
+        {
+            log.debug("No element collection object name found in cache for object: {}", elementCollectionObject);
+        }
+        return elementCollectionObjectName;
     }
 
     /**
@@ -173,15 +207,17 @@ public class ElementCollectionCacheManager
      */
     public int getLastElementCollectionObjectCount(Object rowKey)
     {
-        if (getElementCollectionCache().get(rowKey) == null)
+        Stripe stripe = getStripe(rowKey);
+        synchronized (stripe)
         {
-            log.debug("No element collection object map found in cache for Row key " + rowKey);
-            return -1;
-        }
-        else
-        {
-            Map<Object, String> elementCollectionMap = getElementCollectionCache().get(rowKey);
-            Collection<String> elementCollectionObjectNames = elementCollectionMap.values();
+            Row row = stripe.getRow(rowKey);
+            if (row == null)
+            {
+                log.debug("No element collection object map found in cache for Row key {}", rowKey);
+                return -1;
+            }
+
+            Collection<String> elementCollectionObjectNames = row.names.values();
             int max = 0;
 
             for (String s : elementCollectionObjectNames)
@@ -206,20 +242,232 @@ public class ElementCollectionCacheManager
         }
     }
 
+    /**
+     * Evicts element collection objects of a row.
+     * 
+     * @param rowKey
+     *            the row key
+     */
+    public void evict(Object rowKey)
+    {
+        Stripe stripe = getStripe(rowKey);
+        synchronized (stripe)
+        {
+            if (stripe.removeRow(rowKey))
+            {
+                rowCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Marks row of an entity as managed by one more persistence context. Row
+     * is not evicted to bound cache while it is managed.
+     * 
+     * @param rowKey
+     *            the row key
+     */
+    public void acquire(Object rowKey)
+    {
+        if (rowKey != null)
+        {
+            Stripe stripe = getStripe(rowKey);
+            synchronized (stripe)
+            {
+                Integer count = stripe.managed.get(rowKey);
+                stripe.managed.put(rowKey, count == null ? 1 : count + 1);
+                if (count == null)
+                {
+                    Row row = stripe.remove(rowKey);
+                    if (row != null)
+                    {
+                        stripe.pinned.put(rowKey, row);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks row of an entity as no longer managed by a persistence context,
+     * evicting it once no persistence context manages it.
+     * 
+     * @param rowKey
+     *            the row key
+     */
+    public void release(Object rowKey)
+    {
+        if (rowKey != null)
+        {
+            Stripe stripe = getStripe(rowKey);
+            synchronized (stripe)
+            {
+                Integer count = stripe.managed.get(rowKey);
+                if (count == null)
+                {
+                    return;
+                }
+                if (count > 1)
+                {
+                    stripe.managed.put(rowKey, count - 1);
+                }
+                else
+                {
+                    stripe.managed.remove(rowKey);
+                    if (stripe.removeRow(rowKey))
+                    {
+                        rowCount.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Clear cache.
      */
     public void clearCache()
     {
-        this.elementCollectionCache = null;
-        try
+        for (Stripe stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                rowCount.addAndGet(-(stripe.size() + stripe.pinned.size()));
+                stripe.clear();
+                stripe.pinned.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns stripe holding given row key.
+     * 
+     * @param rowKey
+     *            the row key
+     * @return stripe of row key
+     */
+    private Stripe getStripe(Object rowKey)
+    {
+        int hash = rowKey != null ? rowKey.hashCode() : 0;
+        hash ^= (hash >>> 16);
+        return stripes[hash & (STRIPES - 1)];
+    }
+
+    /**
+     * Least recently used map of row keys not managed by any persistence
+     * context, along with rows of managed ones, guarded by its own monitor.
+     */
+    private final class Stripe extends LinkedHashMap<Object, Row>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        /** Number of persistence contexts managing row, by row key. */
+        private final Map<Object, Integer> managed = new HashMap<Object, Integer>();
+
+        /** Rows of managed row keys, never evicted. */
+        private final Map<Object, Row> pinned = new HashMap<Object, Row>();
+
+        private Stripe(int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /**
+         * Evicts least recently used row, if over capacity. Rows of managed
+         * row keys are not held in this map, hence never evicted.
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Row> eldest)
+        {
+            if (size() > capacity)
+            {
+                rowCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private Row getRow(Object rowKey)
+        {
+            Row row = pinned.get(rowKey);
+            return row != null ? row : get(rowKey);
+        }
+
+        private void putRow(Object rowKey, Row row)
+        {
+            if (managed.containsKey(rowKey))
+            {
+                pinned.put(rowKey, row);
+            }
+            else
+            {
+                put(rowKey, row);
+            }
+        }
+
+        private boolean removeRow(Object rowKey)
+        {
+            return pinned.remove(rowKey) != null || remove(rowKey) != null;
+        }
+    }
+
+    /**
+     * Element collection objects of a row, with their names.
+     */
+    private static final class Row
+    {
+        /** Names by element collection object. */
+        private final Map<Object, String> names = new HashMap<Object, String>();
+
+        /** Names by deep value of element collection object. */
+        private final Map<DeepKey, String> namesByValue = new HashMap<DeepKey, String>();
+
+        private void put(Object elementCollectionObject, String elementCollectionObjectName)
         {
-            finalize();
+            names.put(elementCollectionObject, elementCollectionObjectName);
+            namesByValue.put(new DeepKey(elementCollectionObject), elementCollectionObjectName);
         }
-        catch (Throwable e)
+
+        private String get(Object elementCollectionObject)
         {
-            log.warn("Unable to reclaim memory while clearing ElementCollection cache. Nothing to worry, will be taken care of by GC");
+            String elementCollectionObjectName = names.get(elementCollectionObject);
+            if (elementCollectionObjectName == null)
+            {
+                elementCollectionObjectName = namesByValue.get(new DeepKey(elementCollectionObject));
+            }
+            return elementCollectionObjectName;
         }
     }
 
+    /**
+     * Key comparing element collection objects deeply, hashed once.
+     */
+    private static final class DeepKey
+    {
+        private final Object value;
+
+        private final int hash;
+
+        private DeepKey(Object value)
+        {
+            this.value = value;
+            this.hash = DeepEquals.deepHashCode(value);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof DeepKey && ((DeepKey) obj).hash == hash
+                    && DeepEquals.deepEquals(value, ((DeepKey) obj).value);
+        }
+    }
 }
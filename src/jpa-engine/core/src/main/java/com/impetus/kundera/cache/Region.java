@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second level cache region holding entities of a single class, bounded by
+ * entry count and evicted in segmented LRU order.
+ * 
+ * New entries land in probation segment and are promoted to protected segment
+ * once read again. Protected segment overflow is demoted back to probation,
+ * and eviction always takes least recently used probation entry first. Hence
+ * a scan of entities read only once can not flush out hot ones.
+ * 
+ * Reads take no lock, they look entry up in a concurrent map and only mark it
+ * as referenced. Promotion and recency order are settled under lock on put,
+ * when an entry referenced since it was queued gets a second chance instead
+ * of being evicted or demoted.
+ * 
+ * Entries may additionally expire on time to live (since put) and time to
+ * idle (since last read), which are checked on access. Time of last read is
+ * only tracked when time to idle is set.
+ */
+public final class Region
+{
+    /** Share of region capacity given to protected segment, in percent. */
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final Class<?> entityClass;
+
+    private final int maxEntries;
+
+    private final int maxProtectedEntries;
+
+    private final long timeToLiveMillis;
+
+    private final long timeToIdleMillis;
+
+    /** Entries of both segments, read without locking. */
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+
+    /** Probation segment in queue order, guarded by region lock. */
+    private final LinkedHashMap<Object, Entry> probation = new LinkedHashMap<Object, Entry>();
+
+    /** Protected segment in queue order, guarded by region lock. */
+    private final LinkedHashMap<Object, Entry> protectedSegment = new LinkedHashMap<Object, Entry>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong putCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong expirationCount = new AtomicLong();
+
+    /**
+     * Instantiates a new region.
+     * 
+     * @param entityClass
+     *            entity class cached in this region.
+     * @param maxEntries
+     *            maximum number of entries, zero disables region.
+     * @param timeToLive
+     *            time to live in seconds, zero for no limit.
+     * @param timeToIdle
+     *            time to idle in seconds, zero for no limit.
+     */
+    Region(final Class<?> entityClass, final int maxEntries, final long timeToLive, final long timeToIdle)
+    {
+        if (maxEntries < 0 || timeToLive < 0 || timeToIdle < 0)
+        {
+            throw new IllegalArgumentException("Invalid cache region settings for " + entityClass + ", maxEntries: "
+                    + maxEntries + ", timeToLive: " + timeToLive + ", timeToIdle: " + timeToIdle);
+        }
+        this.entityClass = entityClass;
+        this.maxEntries = maxEntries;
+        this.maxProtectedEntries = (int) ((long) maxEntries * PROTECTED_PERCENTAGE / 100);
+        this.timeToLiveMillis = timeToLive * 1000;
+        this.timeToIdleMillis = timeToIdle * 1000;
+    }
+
+    /**
+     * Returns cached entity for given key, or null if absent or expired.
+     * 
+     * @param key
+     *            cache key.
+     * @return cached entity or null.
+     */
+    Object get(final Object key)
+    {
+        Entry entry = entries.get(key);
+        if (entry == null)
+        {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        long now = isExpiring() ? System.currentTimeMillis() : 0;
+        if (isExpired(entry, now))
+        {
+            removeExpired(key, entry);
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (!entry.referenced)
+        {
+            entry.referenced = true;
+        }
+        if (timeToIdleMillis > 0)
+        {
+            entry.accessed = now;
+        }
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Puts entity against given key, replacing any earlier one.
+     * 
+     * @param key
+     *            cache key.
+     * @param value
+     *            entity.
+     */
+    synchronized void put(final Object key, final Object value)
+    {
+        if (!isEnabled())
+        {
+            return;
+        }
+
+        putCount.incrementAndGet();
+        Entry entry = new Entry(value, System.currentTimeMillis());
+        Entry old = entries.put(key, entry);
+        if (old != null && old.inProtected)
+        {
+            entry.inProtected = true;
+            protectedSegment.put(key, entry);
+            return;
+        }
+
+        probation.put(key, entry);
+        while (entries.size() > maxEntries)
+        {
+            evict();
+        }
+    }
+
+    /**
+     * Checks if region holds a live entry for given key, without counting it
+     * as a read.
+     * 
+     * @param key
+     *            cache key.
+     * @return true, if present and not expired.
+     */
+    boolean contains(final Object key)
+    {
+        Entry entry = entries.get(key);
+        return entry != null && !isExpired(entry, isExpiring() ? System.currentTimeMillis() : 0);
+    }
+
+    /**
+     * Removes entry for given key.
+     * 
+     * @param key
+     *            cache key.
+     */
+    synchronized void remove(final Object key)
+    {
+        Entry entry = entries.remove(key);
+        if (entry != null)
+        {
+            dequeue(key, entry);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    synchronized void clear()
+    {
+        entries.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    /**
+     * Removes an expired entry, unless it has been replaced meanwhile.
+     */
+    private synchronized void removeExpired(final Object key, final Entry entry)
+    {
+        if (entries.remove(key, entry))
+        {
+            dequeue(key, entry);
+            expirationCount.incrementAndGet();
+        }
+    }
+
+    private void dequeue(final Object key, final Entry entry)
+    {
+        (entry.inProtected ? protectedSegment : probation).remove(key);
+    }
+
+    /**
+     * Evicts least recently used probation entry (or protected one, if
+     * probation is empty). Referenced probation entries met on the way are
+     * promoted instead, at most once per entry held so that concurrent reads
+     * can not keep eviction going.
+     */
+    private void evict()
+    {
+        int chances = entries.size();
+        while (true)
+        {
+            boolean fromProbation = !probation.isEmpty();
+            Iterator<Map.Entry<Object, Entry>> eldest = (fromProbation ? probation : protectedSegment).entrySet()
+                    .iterator();
+            Map.Entry<Object, Entry> victim = eldest.next();
+            eldest.remove();
+            if (fromProbation && victim.getValue().referenced && chances-- > 0)
+            {
+                promote(victim.getKey(), victim.getValue());
+                continue;
+            }
+
+            entries.remove(victim.getKey());
+            evictionCount.incrementAndGet();
+            return;
+        }
+    }
+
+    private void promote(final Object key, final Entry entry)
+    {
+        entry.referenced = false;
+        entry.inProtected = true;
+        protectedSegment.put(key, entry);
+        int chances = protectedSegment.size();
+        while (protectedSegment.size() > maxProtectedEntries)
+        {
+            Iterator<Map.Entry<Object, Entry>> eldest = protectedSegment.entrySet().iterator();
+            Map.Entry<Object, Entry> demoted = eldest.next();
+            eldest.remove();
+            if (demoted.getValue().referenced && chances-- > 0)
+            {
+                // read again while protected, hence most recently used.
+                demoted.getValue().referenced = false;
+                protectedSegment.put(demoted.getKey(), demoted.getValue());
+            }
+            else
+            {
+                demoted.getValue().inProtected = false;
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+    }
+
+    private boolean isExpiring()
+    {
+        return timeToLiveMillis > 0 || timeToIdleMillis > 0;
+    }
+
+    private boolean isExpired(final Entry entry, final long now)
+    {
+        return (timeToLiveMillis > 0 && now - entry.created >= timeToLiveMillis)
+                || (timeToIdleMillis > 0 && now - entry.accessed >= timeToIdleMillis);
+    }
+
+    /**
+     * @return entity class cached in this region.
+     */
+    public Class<?> getEntityClass()
+    {
+        return entityClass;
+    }
+
+    /**
+     * @return true, if entities are cached in this region.
+     */
+    public boolean isEnabled()
+    {
+        return maxEntries > 0;
+    }
+
+    /**
+     * @return maximum number of entries held.
+     */
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * @return time to live in seconds, zero if unlimited.
+     */
+    public long getTimeToLive()
+    {
+        return timeToLiveMillis / 1000;
+    }
+
+    /**
+     * @return time to idle in seconds, zero if unlimited.
+     */
+    public long getTimeToIdle()
+    {
+        return timeToIdleMillis / 1000;
+    }
+
+    /**
+     * @return number of entries currently held, including expired ones not
+     *         yet accessed.
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return number of reads served out of region.
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of reads not served out of region.
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * @return share of reads served out of region, zero if never read.
+     */
+    public double getHitRatio()
+    {
+        long hits = hitCount.get();
+        long reads = hits + missCount.get();
+        return reads == 0 ? 0d : (double) hits / reads;
+    }
+
+    /**
+     * @return number of entries put.
+     */
+    public long getPutCount()
+    {
+        return putCount.get();
+    }
+
+    /**
+     * @return number of entries evicted for exceeding size limit.
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return number of entries dropped on expiry.
+     */
+    public long getExpirationCount()
+    {
+        return expirationCount.get();
+    }
+
+    /**
+     * Cached entity along with its timestamps.
+     */
+    private static final class Entry
+    {
+        private final Object value;
+
+        private final long created;
+
+        private volatile long accessed;
+
+        /** Read since queued in its segment. */
+        private volatile boolean referenced;
+
+        /** Segment holding entry, guarded by region lock. */
+        private boolean inProtected;
+
+        private Entry(final Object value, final long created)
+        {
+            this.value = value;
+            this.created = created;
+            this.accessed = created;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.Cacheable;
+import javax.persistence.PersistenceException;
+
+import com.impetus.kundera.Constants;
+import com.impetus.kundera.graph.ObjectGraphUtils;
+
+/**
+ * Second level cache keeping a separate {@link Region} per entity class.
+ * Entities are keyed by node id (see
+ * {@link ObjectGraphUtils#getNodeId(Object, Class)}), region is resolved out
+ * of class name prefix of the key.
+ * 
+ * Region settings are taken from {@link CacheRegion} annotation of entity
+ * class, if present, else from region properties of
+ * {@link RegionCacheProvider}. Entity classes annotated
+ * <code>@Cacheable(false)</code> are never cached.
+ */
+public class RegionCache implements Cache
+{
+    private final String name;
+
+    private final Map<?, ?> properties;
+
+    private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<String, Region>();
+
+    /**
+     * Instantiates a new region cache.
+     * 
+     * @param name
+     *            cache name.
+     * @param properties
+     *            region properties.
+     */
+    RegionCache(final String name, final Map<?, ?> properties)
+    {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#size()
+     */
+    @Override
+    public int size()
+    {
+        int size = 0;
+        for (Region region : regions.values())
+        {
+            size += region.size();
+        }
+        return size;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#put(java.lang.Object,
+     * java.lang.Object)
+     */
+    @Override
+    public void put(final Object key, final Object value)
+    {
+        if (key == null || value == null)
+        {
+            return;
+        }
+
+        Region region = resolveRegion(key);
+        if (region == null)
+        {
+            region = getOrCreateRegion(getEntityClass(key, value.getClass()));
+        }
+        region.put(key, value);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#get(java.lang.Object)
+     */
+    @Override
+    public Object get(final Object key)
+    {
+        Region region = resolveRegion(key);
+        return region != null ? region.get(key) : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#contains(java.lang.Class, java.lang.Object)
+     */
+    @Override
+    public boolean contains(Class paramClass, Object paramObject)
+    {
+        Object key = getKey(paramClass, paramObject);
+        Region region = resolveRegion(key);
+        return region != null && region.contains(key);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#evict(java.lang.Class, java.lang.Object)
+     */
+    @Override
+    public void evict(Class paramClass, Object paramObject)
+    {
+        Object key = getKey(paramClass, paramObject);
+        Region region = resolveRegion(key);
+        if (region != null)
+        {
+            region.remove(key);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#evict(java.lang.Class)
+     */
+    @Override
+    public void evict(Class paramClass)
+    {
+        for (Region region : regions.values())
+        {
+            if (paramClass.isAssignableFrom(region.getEntityClass()))
+            {
+                region.clear();
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#evictAll()
+     */
+    @Override
+    public void evictAll()
+    {
+        for (Region region : regions.values())
+        {
+            region.clear();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#unwrap(java.lang.Class)
+     */
+    @Override
+    public <T> T unwrap(Class<T> cls)
+    {
+        if (cls.isInstance(this))
+        {
+            return cls.cast(this);
+        }
+        throw new PersistenceException("Cache " + name + " can not be unwrapped to " + cls);
+    }
+
+    /**
+     * Returns region of given entity class, or null if nothing of it has been
+     * cached yet.
+     * 
+     * @param entityClass
+     *            entity class.
+     * @return region or null.
+     */
+    public Region getRegion(final Class<?> entityClass)
+    {
+        return regions.get(entityClass.getName());
+    }
+
+    /**
+     * @return all regions created so far.
+     */
+    public Collection<Region> getRegions()
+    {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+
+    /**
+     * @return cache name.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Resolves region out of class name prefix of node id. As class names may
+     * themselves contain separator, each separator position is tried in turn.
+     */
+    private Region resolveRegion(final Object key)
+    {
+        if (!(key instanceof String))
+        {
+            return null;
+        }
+
+        String nodeId = (String) key;
+        int index = nodeId.indexOf(Constants.NODE_ID_SEPARATOR);
+        while (index >= 0)
+        {
+            Region region = regions.get(nodeId.substring(0, index));
+            if (region != null)
+            {
+                return region;
+            }
+            index = nodeId.indexOf(Constants.NODE_ID_SEPARATOR, index + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns given primary key as node id, unless it already is one.
+     */
+    private Object getKey(final Class<?> entityClass, final Object primaryKey)
+    {
+        if (primaryKey instanceof String && resolveRegion(primaryKey) != null)
+        {
+            return primaryKey;
+        }
+        return ObjectGraphUtils.getNodeId(primaryKey, entityClass);
+    }
+
+    /**
+     * Returns class, out of given entity class and its super classes, whose
+     * name node id has been built on. Entity class itself otherwise.
+     */
+    private Class<?> getEntityClass(final Object key, final Class<?> entityClass)
+    {
+        if (key instanceof String)
+        {
+            for (Class<?> clazz = entityClass; clazz != null; clazz = clazz.getSuperclass())
+            {
+                if (((String) key).startsWith(clazz.getName() + Constants.NODE_ID_SEPARATOR))
+                {
+                    return clazz;
+                }
+            }
+        }
+        return entityClass;
+    }
+
+    private Region getOrCreateRegion(final Class<?> entityClass)
+    {
+        Region region = regions.get(entityClass.getName());
+        if (region == null)
+        {
+            Region newRegion = createRegion(entityClass);
+            region = regions.putIfAbsent(entityClass.getName(), newRegion);
+            if (region == null)
+            {
+                region = newRegion;
+            }
+        }
+        return region;
+    }
+
+    private Region createRegion(final Class<?> entityClass)
+    {
+        int maxEntries = (int) getSetting(entityClass, RegionCacheProvider.MAX_ENTRIES,
+                RegionCacheProvider.DEFAULT_MAX_ENTRIES);
+        long timeToLive = getSetting(entityClass, RegionCacheProvider.TIME_TO_LIVE, 0);
+        long timeToIdle = getSetting(entityClass, RegionCacheProvider.TIME_TO_IDLE, 0);
+
+        CacheRegion annotation = entityClass.getAnnotation(CacheRegion.class);
+        if (annotation != null)
+        {
+            maxEntries = annotation.maxEntries() >= 0 ? annotation.maxEntries() : maxEntries;
+            timeToLive = annotation.timeToLive() >= 0 ? annotation.timeToLive() : timeToLive;
+            timeToIdle = annotation.timeToIdle() >= 0 ? annotation.timeToIdle() : timeToIdle;
+        }
+
+        Cacheable cacheable = entityClass.getAnnotation(Cacheable.class);
+        if (cacheable != null && !cacheable.value())
+        {
+            maxEntries = 0;
+        }
+
+        return new Region(entityClass, maxEntries, timeToLive, timeToIdle);
+    }
+
+    /**
+     * Returns region setting of given entity class, falling back to default
+     * region setting and then to given default value.
+     */
+    private long getSetting(final Class<?> entityClass, final String setting, final long defaultValue)
+    {
+        Object value = properties.get(RegionCacheProvider.REGION_PROPERTY_PREFIX + entityClass.getName() + "."
+                + setting);
+        if (value == null)
+        {
+            value = properties.get(RegionCacheProvider.REGION_PROPERTY_PREFIX + RegionCacheProvider.DEFAULT_REGION
+                    + "." + setting);
+        }
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new CacheException("Invalid value " + value + " of cache region setting " + setting + " for "
+                    + entityClass.getName(), e);
+        }
+    }
+}
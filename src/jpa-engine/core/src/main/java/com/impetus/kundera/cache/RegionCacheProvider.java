@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.Cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Built in, in-memory cache provider creating {@link RegionCache}s, which
+ * keep a size bounded {@link Region} per entity class.
+ * 
+ * Region settings are read out of properties (either passed on
+ * {@link #init(Map)} or loaded out of classpath resource given as
+ * <code>kundera.cache.config.resource</code>), keyed as
+ * <code>kundera.cache.region.&lt;entity class name&gt;.&lt;setting&gt;</code>,
+ * with <code>kundera.cache.region.default.&lt;setting&gt;</code> applying to
+ * every region. Supported settings are <code>max.entries</code>,
+ * <code>time.to.live</code> and <code>time.to.idle</code>, the latter two in
+ * seconds.
+ */
+public class RegionCacheProvider implements CacheProvider
+{
+    /** The log. */
+    private static final Logger log = LoggerFactory.getLogger(RegionCacheProvider.class);
+
+    /** Prefix of region properties. */
+    public static final String REGION_PROPERTY_PREFIX = "kundera.cache.region.";
+
+    /** Region name standing for settings shared by every region. */
+    public static final String DEFAULT_REGION = "default";
+
+    /** Maximum number of entities held per region. */
+    public static final String MAX_ENTRIES = "max.entries";
+
+    /** Seconds an entity is held after being put, zero for no limit. */
+    public static final String TIME_TO_LIVE = "time.to.live";
+
+    /** Seconds an entity is held after being last read, zero for no limit. */
+    public static final String TIME_TO_IDLE = "time.to.idle";
+
+    /** Default number of entities held per region, if not configured. */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final ConcurrentMap<String, RegionCache> caches = new ConcurrentHashMap<String, RegionCache>();
+
+    private Map<?, ?> properties = new HashMap<Object, Object>();
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#init(java.util.Map)
+     */
+    @Override
+    public void init(Map<?, ?> properties)
+    {
+        if (properties != null)
+        {
+            this.properties = new HashMap<Object, Object>(properties);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#init(java.lang.String)
+     */
+    @Override
+    public void init(String cacheResourceName)
+    {
+        if (cacheResourceName == null || cacheResourceName.isEmpty())
+        {
+            return;
+        }
+
+        String resourceName = cacheResourceName.startsWith("/") ? cacheResourceName.substring(1) : cacheResourceName;
+        InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(resourceName);
+        if (is == null)
+        {
+            is = RegionCacheProvider.class.getClassLoader().getResourceAsStream(resourceName);
+        }
+        if (is == null)
+        {
+            log.warn("Cache configuration resource {} could not be loaded from classpath, using defaults.",
+                    cacheResourceName);
+            return;
+        }
+
+        try
+        {
+            Properties props = new Properties();
+            props.load(is);
+            init(props);
+        }
+        catch (IOException e)
+        {
+            throw new CacheException("Could not load cache configuration resource " + cacheResourceName, e);
+        }
+        finally
+        {
+            try
+            {
+                is.close();
+            }
+            catch (IOException e)
+            {
+                log.warn("Error while closing cache configuration resource {}.", cacheResourceName);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.cache.CacheProvider#createCache(java.lang.String)
+     */
+    @Override
+    public Cache createCache(String name)
+    {
+        RegionCache cache = caches.get(name);
+        if (cache == null)
+        {
+            RegionCache newCache = new RegionCache(name, properties);
+            cache = caches.putIfAbsent(name, newCache);
+            if (cache == null)
+            {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#getCache(java.lang.String)
+     */
+    @Override
+    public Cache getCache(String name)
+    {
+        return caches.get(name);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#shutdown()
+     */
+    @Override
+    public void shutdown()
+    {
+        for (RegionCache cache : caches.values())
+        {
+            cache.evictAll();
+        }
+        caches.clear();
+    }
+}
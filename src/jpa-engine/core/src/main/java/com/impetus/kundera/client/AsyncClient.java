@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.client;
+
+import java.util.concurrent.Executor;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.impetus.kundera.persistence.api.AsyncEntityManager;
+
+/**
+ * Optional contract for clients able to talk to datastore without holding
+ * calling thread for the round trip. Used by {@link AsyncEntityManager} for
+ * entities having no associations and no lifecycle callbacks, everything else
+ * runs through synchronous {@link Client} API on a bounded executor.
+ * 
+ * An implementation returns null for an operation it can not serve natively
+ * (e.g. entity indexed in lucene), such operation then falls back to executor.
+ * Returned futures must be safe to complete from datastore driver threads. A
+ * client instance is used by one operation at a time and closed once its
+ * future completes.
+ */
+public interface AsyncClient
+{
+
+    /**
+     * Finds an entity by primary key.
+     * 
+     * @param entityClass
+     *            entity class.
+     * @param key
+     *            primary key.
+     * @param executor
+     *            executor to build found entity on, off driver threads.
+     * @return future of found entity (null value if not found) or null.
+     */
+    ListenableFuture<Object> findAsync(Class entityClass, Object key, Executor executor);
+
+    /**
+     * Inserts or updates an entity.
+     * 
+     * @param entity
+     *            entity object.
+     * @param id
+     *            entity id.
+     * @return future completing once entity is written or null.
+     */
+    ListenableFuture<?> persistAsync(Object entity, Object id);
+
+    /**
+     * Deletes an entity.
+     * 
+     * @param entity
+     *            entity object.
+     * @param pKey
+     *            primary key.
+     * @return future completing once entity is deleted or null.
+     */
+    ListenableFuture<?> removeAsync(Object entity, Object pKey);
+}
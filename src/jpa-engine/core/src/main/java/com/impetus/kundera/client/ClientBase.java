@@ -17,10 +17,16 @@ package com.impetus.kundera.client;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.metamodel.Attribute;
 
 import com.impetus.kundera.db.RelationHolder;
+import com.impetus.kundera.generator.PooledIdAllocator;
 import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.graph.NodeLink;
 import com.impetus.kundera.graph.NodeLink.LinkProperty;
@@ -31,6 +37,8 @@ import com.impetus.kundera.metadata.model.ClientMetadata;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.Relation.ForeignKey;
+import com.impetus.kundera.metadata.model.SequenceGeneratorDiscriptor;
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.utils.KunderaCoreUtils;
@@ -62,6 +70,9 @@ public abstract class ClientBase
 
     protected boolean isUpdate;
 
+    /** Names of attributes changed since last flush, null if all are to be written. */
+    protected Set<String> dirtyAttributes;
+
     protected ClientMetadata clientMetadata;
 
     protected final KunderaMetadata kunderaMetadata;
@@ -99,6 +110,32 @@ public abstract class ClientBase
         return persistenceUnit;
     }
 
+    /**
+     * Returns pooled id allocator of given table generator, shared by clients
+     * of the same entity manager factory.
+     * 
+     * @param discriptor
+     *            table generator discriptor.
+     * @return pooled id allocator.
+     */
+    public PooledIdAllocator getIdAllocator(TableGeneratorDiscriptor discriptor)
+    {
+        return kunderaMetadata.getIdAllocatorRegistry().getAllocator(persistenceUnit, discriptor);
+    }
+
+    /**
+     * Returns pooled id allocator of given sequence generator, shared by
+     * clients of the same entity manager factory.
+     * 
+     * @param discriptor
+     *            sequence generator discriptor.
+     * @return pooled id allocator.
+     */
+    public PooledIdAllocator getIdAllocator(SequenceGeneratorDiscriptor discriptor)
+    {
+        return kunderaMetadata.getIdAllocatorRegistry().getAllocator(persistenceUnit, discriptor);
+    }
+
     /**
      * Method to handle
      * 
@@ -110,6 +147,7 @@ public abstract class ClientBase
         Object id = node.getEntityId();
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, node.getDataClass());
         isUpdate = node.isUpdate();
+        dirtyAttributes = getDirtyAttributes(node, metadata);
         List<RelationHolder> relationHolders = getRelationHolders(node);
         onPersist(metadata, entity, id, relationHolders);
         id = PropertyAccessorHelper.getId(entity, metadata);
@@ -117,6 +155,32 @@ public abstract class ClientBase
         indexNode(node, metadata);
     }
 
+    /**
+     * Returns names of attributes changed since node was last flushed.
+     * 
+     * @param node
+     *            node to be flushed
+     * @param metadata
+     *            entity metadata
+     * @return attribute names, null if node is to be written as a whole.
+     */
+    protected Set<String> getDirtyAttributes(Node node, EntityMetadata metadata)
+    {
+        BitSet dirty = node.getDirtyAttributes();
+        if (dirty == null)
+        {
+            return null;
+        }
+
+        List<Attribute> attributes = metadata.getOrderedAttributes();
+        Set<String> attributeNames = new HashSet<String>();
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1))
+        {
+            attributeNames.add(attributes.get(i).getName());
+        }
+        return attributeNames;
+    }
+
     public void remove(Object entity, Object pKey){
         delete(entity, pKey);
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entity.getClass());
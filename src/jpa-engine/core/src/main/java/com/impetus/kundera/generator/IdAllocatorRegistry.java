@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.impetus.kundera.metadata.model.SequenceGeneratorDiscriptor;
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
+
+/**
+ * Pooled id allocators of an entity manager factory, by generator. Allocators
+ * are not shared across factories, closing a factory discards only its own
+ * reserved ids.
+ */
+public class IdAllocatorRegistry
+{
+    /** Allocators by generator name. */
+    private final ConcurrentMap<String, PooledIdAllocator> allocators =
+            new ConcurrentHashMap<String, PooledIdAllocator>();
+
+    /**
+     * Returns allocator for given table generator.
+     * 
+     * @param persistenceUnit
+     *            persistence unit.
+     * @param discriptor
+     *            table generator discriptor.
+     * @return pooled id allocator.
+     */
+    public PooledIdAllocator getAllocator(String persistenceUnit, TableGeneratorDiscriptor discriptor)
+    {
+        return getAllocator(persistenceUnit + ":" + discriptor.getSchema() + "." + discriptor.getTable() + "."
+                + discriptor.getPkColumnValue() + "." + discriptor.getValueColumnName(),
+                discriptor.getAllocationSize());
+    }
+
+    /**
+     * Returns allocator for given sequence generator.
+     * 
+     * @param persistenceUnit
+     *            persistence unit.
+     * @param discriptor
+     *            sequence generator discriptor.
+     * @return pooled id allocator.
+     */
+    public PooledIdAllocator getAllocator(String persistenceUnit, SequenceGeneratorDiscriptor discriptor)
+    {
+        return getAllocator(persistenceUnit + ":" + discriptor.getSchemaName() + "." + discriptor.getSequenceName(),
+                discriptor.getAllocationSize());
+    }
+
+    /**
+     * Returns allocator for given generator name, creating it if needed.
+     * 
+     * @param name
+     *            generator name.
+     * @param allocationSize
+     *            number of ids in a block.
+     * @return pooled id allocator.
+     */
+    public PooledIdAllocator getAllocator(String name, int allocationSize)
+    {
+        PooledIdAllocator allocator = allocators.get(name);
+        if (allocator == null)
+        {
+            allocator = new PooledIdAllocator(allocationSize);
+            PooledIdAllocator existing = allocators.putIfAbsent(name, allocator);
+            if (existing != null)
+            {
+                allocator = existing;
+            }
+        }
+        return allocator;
+    }
+
+    /**
+     * Discards all allocators, along with ids reserved by them.
+     */
+    public void clear()
+    {
+        allocators.clear();
+    }
+}
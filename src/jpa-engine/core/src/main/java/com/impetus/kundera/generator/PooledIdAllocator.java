@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PooledIdAllocator hands out ids from blocks of allocationSize ids, reserved
+ * in one round trip to the database (hi/lo). Ids of the current block are
+ * handed out from memory without locking, the next block being reserved
+ * asynchronously once the current one runs low.
+ * 
+ * Backend generators keep a counter of reserved blocks and plug in through
+ * {@link BlockSource}, one allocator being shared per generator and entity
+ * manager factory through {@link IdAllocatorRegistry}. Ids of a block
+ * reserved, but not handed out before shutdown, are lost.
+ */
+public final class PooledIdAllocator
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(PooledIdAllocator.class);
+
+    /** Executor reserving next blocks. */
+    private static ExecutorService executor;
+
+    /** Number of ids in a block. */
+    private final int allocationSize;
+
+    /** Remaining ids of current block, next block is reserved at. */
+    private final long lowWaterMark;
+
+    /** Block ids are handed out from. */
+    private final AtomicReference<Block> current = new AtomicReference<Block>();
+
+    /** Next block, reserved in advance. */
+    private final AtomicReference<Future<Long>> next = new AtomicReference<Future<Long>>();
+
+    /**
+     * Reserves a block of ids in database.
+     */
+    public interface BlockSource
+    {
+        /**
+         * Reserves next block.
+         * 
+         * @return first id of reserved block.
+         */
+        long reserve();
+    }
+
+    /**
+     * Block of ids, from start to end exclusive.
+     */
+    private static final class Block
+    {
+        private final AtomicLong next;
+
+        private final long end;
+
+        private Block(long start, long end)
+        {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    /**
+     * Instantiates a new pooled id allocator.
+     * 
+     * @param allocationSize
+     *            number of ids in a block.
+     */
+    PooledIdAllocator(int allocationSize)
+    {
+        this.allocationSize = Math.max(1, allocationSize);
+        this.lowWaterMark = Math.max(1, this.allocationSize / 4);
+    }
+
+    /**
+     * Returns first id of a block, given its number in the order blocks are
+     * reserved, starting from 1. Generators whose counters predate pooling
+     * must instead start blocks above ids already issued from those counters.
+     * 
+     * @param blockNumber
+     *            block number.
+     * @param initialValue
+     *            first id of first block.
+     * @param allocationSize
+     *            number of ids in a block.
+     * @return first id of block.
+     */
+    public static long getBlockStart(long blockNumber, int initialValue, int allocationSize)
+    {
+        return initialValue + (blockNumber - 1) * Math.max(1, allocationSize);
+    }
+
+    /**
+     * Returns next id, reserving blocks from given source as needed.
+     * 
+     * @param source
+     *            block source.
+     * @return next id.
+     */
+    public long next(BlockSource source)
+    {
+        if (allocationSize == 1)
+        {
+            return source.reserve();
+        }
+
+        while (true)
+        {
+            Block block = current.get();
+            if (block != null)
+            {
+                long id = block.next.getAndIncrement();
+                if (id < block.end)
+                {
+                    // exactly one caller sees low water mark of a block.
+                    if (block.end - id == lowWaterMark)
+                    {
+                        prefetch(source);
+                    }
+                    return id;
+                }
+            }
+            refill(block, source);
+        }
+    }
+
+    /**
+     * Replaces exhausted block by next one, unless already replaced.
+     * 
+     * @param exhausted
+     *            exhausted block.
+     * @param source
+     *            block source.
+     */
+    private synchronized void refill(Block exhausted, BlockSource source)
+    {
+        if (current.get() == exhausted)
+        {
+            long start = nextBlock(source);
+            current.set(new Block(start, start + allocationSize));
+        }
+    }
+
+    /**
+     * Returns block reserved in advance, or reserves one if there is none.
+     * 
+     * @param source
+     *            block source.
+     * @return first id of block.
+     */
+    private long nextBlock(BlockSource source)
+    {
+        Future<Long> future = next.getAndSet(null);
+        if (future != null)
+        {
+            try
+            {
+                return future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                log.warn("Error while reserving next block of ids, retrying, Caused by: .", e.getCause());
+            }
+        }
+        return source.reserve();
+    }
+
+    /**
+     * Reserves next block asynchronously, unless already reserved.
+     * 
+     * @param source
+     *            block source.
+     */
+    private void prefetch(final BlockSource source)
+    {
+        FutureTask<Long> task = new FutureTask<Long>(new Callable<Long>()
+        {
+            @Override
+            public Long call()
+            {
+                return source.reserve();
+            }
+        });
+
+        if (next.compareAndSet(null, task))
+        {
+            getExecutor().execute(task);
+        }
+    }
+
+    /**
+     * Returns executor reserving next blocks.
+     * 
+     * @return executor.
+     */
+    private static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newCachedThreadPool(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "kundera-id-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.graph;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.metamodel.Attribute;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.Relation;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.proxy.ProxyHelper;
+import com.impetus.kundera.utils.DeepEquals;
+
+/**
+ * Compares node data with an entity attribute by attribute and reports changed
+ * attributes, indexed as per {@link EntityMetadata#getOrderedAttributes()}.
+ * Associations are compared by identity of related entities, their own state
+ * is checked on their own nodes.
+ */
+final class DirtyAttributeChecker
+{
+    private DirtyAttributeChecker()
+    {
+    }
+
+    /**
+     * Returns attributes changed in entity with respect to original.
+     * 
+     * @param original
+     *            node data
+     * @param entity
+     *            entity being flushed
+     * @param metadata
+     *            entity metadata
+     * @param kunderaMetadata
+     *            kundera metadata
+     * @return changed attributes, or null if entities can not be compared
+     *         attribute by attribute.
+     */
+    static BitSet getDirtyAttributes(Object original, Object entity, EntityMetadata metadata,
+            KunderaMetadata kunderaMetadata)
+    {
+        if (original == null || entity == null || !original.getClass().equals(entity.getClass()))
+        {
+            return null;
+        }
+
+        List<Attribute> attributes = metadata.getOrderedAttributes();
+        if (attributes.isEmpty())
+        {
+            return null;
+        }
+
+        BitSet dirtyAttributes = new BitSet(attributes.size());
+        for (int i = 0; i < attributes.size(); i++)
+        {
+            Attribute attribute = attributes.get(i);
+            Object oldValue = PropertyAccessorHelper.getObject(original, attribute);
+            Object newValue = PropertyAccessorHelper.getObject(entity, attribute);
+            if (oldValue == newValue)
+            {
+                continue;
+            }
+
+            Relation relation = metadata.getRelation(attribute.getName());
+            boolean changed = relation != null ? isRelationChanged(oldValue, newValue, relation, kunderaMetadata)
+                    : !DeepEquals.deepEquals(oldValue, newValue);
+            if (changed)
+            {
+                dirtyAttributes.set(i);
+            }
+        }
+        return dirtyAttributes;
+    }
+
+    private static boolean isRelationChanged(Object oldValue, Object newValue, Relation relation,
+            KunderaMetadata kunderaMetadata)
+    {
+        // Lazy association not loaded by user, nothing could have changed.
+        if (ProxyHelper.isProxyOrCollection(newValue))
+        {
+            return false;
+        }
+
+        if (oldValue == null || newValue == null || ProxyHelper.isProxyOrCollection(oldValue))
+        {
+            return true;
+        }
+
+        EntityMetadata targetMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata,
+                relation.getTargetEntity());
+
+        if (oldValue instanceof Collection && newValue instanceof Collection)
+        {
+            return !getIds((Collection) oldValue, targetMetadata).equals(getIds((Collection) newValue, targetMetadata));
+        }
+        else if (oldValue instanceof Map || newValue instanceof Map || targetMetadata == null)
+        {
+            return !DeepEquals.deepEquals(oldValue, newValue);
+        }
+
+        Object oldId = PropertyAccessorHelper.getId(oldValue, targetMetadata);
+        Object newId = PropertyAccessorHelper.getId(newValue, targetMetadata);
+        return oldId == null ? newId != null : !oldId.equals(newId);
+    }
+
+    private static Set<Object> getIds(Collection entities, EntityMetadata targetMetadata)
+    {
+        Set<Object> ids = new HashSet<Object>(entities.size());
+        for (Object entity : entities)
+        {
+            if (entity != null)
+            {
+                ids.add(targetMetadata != null ? PropertyAccessorHelper.getId(entity, targetMetadata) : entity);
+            }
+        }
+        return ids;
+    }
+}
@@ -16,6 +16,7 @@
 package com.impetus.kundera.graph;
 
 import java.lang.reflect.Field;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +31,7 @@ import com.impetus.kundera.lifecycle.states.ManagedState;
 import com.impetus.kundera.lifecycle.states.NodeState;
 import com.impetus.kundera.lifecycle.states.TransientState;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.persistence.PersistenceDelegator;
@@ -351,7 +353,7 @@ public class GraphBuilder
             // Determine whether this node is dirty based on comparison between
             // Node data and entity data
             // If dirty, set the entity data into node and mark it as dirty
-            onDirtyCheck(entity, node);
+            onDirtyCheck(entity, node, entityMetadata, pd);
             node.setData(entity);
 
             return this;
@@ -364,12 +366,31 @@ public class GraphBuilder
          *            entity
          * @param node
          *            node.
+         * @param entityMetadata
+         *            entity metadata
+         * @param pd
+         *            persistence delegator
          */
-        private void onDirtyCheck(Object entity, Node node)
+        private void onDirtyCheck(Object entity, Node node, EntityMetadata entityMetadata, PersistenceDelegator pd)
         {
             if (!node.isInState(TransientState.class))
             {
-                if (!DeepEquals.deepEquals(node.getData(), entity))
+                BitSet dirtyAttributes = MetadataUtils.isChangeTrackingEnabled(entityMetadata.getPersistenceUnit(),
+                        pd.getKunderaMetadata()) ? DirtyAttributeChecker.getDirtyAttributes(node.getData(), entity,
+                        entityMetadata, pd.getKunderaMetadata()) : null;
+
+                if (dirtyAttributes != null)
+                {
+                    if (!dirtyAttributes.isEmpty())
+                    {
+                        node.setDirty(dirtyAttributes);
+                    }
+                    else if (node.isProcessed())
+                    {
+                        node.setDirty(false);
+                    }
+                }
+                else if (!DeepEquals.deepEquals(node.getData(), entity))
                 {
                     node.setDirty(true);
                 }
@@ -15,6 +15,7 @@
  */
 package com.impetus.kundera.graph;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -78,6 +79,9 @@ public class Node implements NodeStateContext
     // Whether this node is dirty
     private boolean dirty;
 
+    // Attributes changed since last flush, null if all are to be written
+    private BitSet dirtyAttributes;
+
     // Whether this node for update.
     private boolean isUpdate;
 
@@ -94,6 +98,9 @@ public class Node implements NodeStateContext
 
     private Node originalNode;
 
+    // Whether original node is to be taken from data on first change
+    private boolean originalDeferred;
+
     private boolean isProcessed;
 
     private EntityEventDispatcher eventDispatcher = new EntityEventDispatcher();
@@ -188,6 +195,13 @@ public class Node implements NodeStateContext
     @Override
     public void setData(Object data)
     {
+        if (originalDeferred && data != null && data != this.data)
+        {
+            // Data loaded by find is replaced, it is no longer shared and can
+            // serve as original without a copy.
+            this.originalNode = snapshot(this.data);
+            this.originalDeferred = false;
+        }
         this.data = data;
     }
 
@@ -368,6 +382,37 @@ public class Node implements NodeStateContext
     public void setDirty(boolean dirty)
     {
         this.dirty = dirty;
+        this.dirtyAttributes = null;
+    }
+
+    /**
+     * Marks given attributes as dirty, in addition to already dirty ones.
+     * 
+     * @param attributes
+     *            changed attributes as indexed by
+     *            {@link EntityMetadata#getOrderedAttributes()}
+     */
+    public void setDirty(BitSet attributes)
+    {
+        if (!this.dirty)
+        {
+            this.dirty = true;
+            this.dirtyAttributes = (BitSet) attributes.clone();
+        }
+        else if (this.dirtyAttributes != null)
+        {
+            this.dirtyAttributes.or(attributes);
+        }
+    }
+
+    /**
+     * Returns attributes changed since node was last flushed.
+     * 
+     * @return dirty attributes, null if node is to be written as a whole.
+     */
+    public BitSet getDirtyAttributes()
+    {
+        return dirtyAttributes;
     }
 
     /**
@@ -599,6 +644,10 @@ public class Node implements NodeStateContext
      */
     public Node getOriginalNode()
     {
+        if (originalDeferred)
+        {
+            return snapshot(this.data);
+        }
         return originalNode;
     }
 
@@ -609,6 +658,17 @@ public class Node implements NodeStateContext
     public void setOriginalNode(Node originalNode)
     {
         this.originalNode = originalNode;
+        this.originalDeferred = false;
+    }
+
+    /**
+     * Uses current data as original node till it is replaced, instead of
+     * keeping a copy of it.
+     */
+    public void deferOriginalNode()
+    {
+        this.originalNode = null;
+        this.originalDeferred = true;
     }
 
     /**
@@ -639,8 +699,12 @@ public class Node implements NodeStateContext
     @Override
     public Node clone()
     {
-        Node cloneCopy = new Node(this.nodeId, ObjectUtils.deepCopy(this.getData(), pd.getKunderaMetadata()), this.persistenceCache,
-                this.entityId, this.pd);
+        return snapshot(ObjectUtils.deepCopy(this.getData(), pd.getKunderaMetadata()));
+    }
+
+    private Node snapshot(Object data)
+    {
+        Node cloneCopy = new Node(this.nodeId, data, this.persistenceCache, this.entityId, this.pd);
         cloneCopy.setChildren(this.children);
         cloneCopy.setParents(this.parents);
         cloneCopy.setDataClass(this.dataClass);
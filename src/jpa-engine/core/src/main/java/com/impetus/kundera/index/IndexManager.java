@@ -16,6 +16,7 @@
 package com.impetus.kundera.index;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,7 +25,10 @@ import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
 
+import org.apache.commons.lang.math.NumberUtils;
+
 import com.impetus.kundera.Constants;
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
@@ -36,6 +40,7 @@ import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.query.KunderaQuery;
+import com.impetus.kundera.utils.ObjectUtils;
 
 /**
  * Manager responsible to co-ordinate with an Indexer. It is bound with
@@ -51,17 +56,68 @@ public class IndexManager
 
     private final KunderaMetadata kunderaMetadata;
 
+    /** Queue of index mutations applied off write path, null if disabled. */
+    private final IndexWriteBehindQueue writeBehind;
+
     /**
      * The Constructor.
      * 
      * @param indexer
      *            the indexer
      */
-    @SuppressWarnings("deprecation")
     public IndexManager(Indexer indexer, final KunderaMetadata kunderaMetadata)
+    {
+        this(indexer, kunderaMetadata, null);
+    }
+
+    /**
+     * The Constructor.
+     * 
+     * @param indexer
+     *            the indexer
+     * @param kunderaMetadata
+     *            kundera metadata
+     * @param properties
+     *            persistence unit properties, see
+     *            {@link PersistenceProperties#KUNDERA_INDEX_WRITE_BEHIND}
+     */
+    @SuppressWarnings("deprecation")
+    public IndexManager(Indexer indexer, final KunderaMetadata kunderaMetadata, Map<?, ?> properties)
     {
         this.indexer = indexer;
         this.kunderaMetadata = kunderaMetadata;
+        this.writeBehind = indexer != null ? createWriteBehindQueue(properties) : null;
+    }
+
+    /**
+     * Creates write-behind queue if enabled by properties.
+     * 
+     * @param properties
+     *            persistence unit properties
+     * @return write-behind queue, null if disabled
+     */
+    private static IndexWriteBehindQueue createWriteBehindQueue(Map<?, ?> properties)
+    {
+        Object durability = properties != null ? properties.get(PersistenceProperties.KUNDERA_INDEX_WRITE_BEHIND)
+                : null;
+        if (durability == null)
+        {
+            return null;
+        }
+
+        boolean flushOnCommit = IndexWriteBehindQueue.COMMIT.equalsIgnoreCase(durability.toString().trim());
+        if (!flushOnCommit && !IndexWriteBehindQueue.ASYNC.equalsIgnoreCase(durability.toString().trim()))
+        {
+            return null;
+        }
+
+        int capacity = NumberUtils.toInt(
+                String.valueOf(properties.get(PersistenceProperties.KUNDERA_INDEX_QUEUE_SIZE)),
+                IndexWriteBehindQueue.DEFAULT_CAPACITY);
+        int batchSize = NumberUtils.toInt(
+                String.valueOf(properties.get(PersistenceProperties.KUNDERA_INDEX_QUEUE_BATCH_SIZE)),
+                IndexWriteBehindQueue.DEFAULT_BATCH_SIZE);
+        return new IndexWriteBehindQueue(capacity, batchSize, flushOnCommit);
     }
 
     /**
@@ -82,7 +138,37 @@ public class IndexManager
      * @param key
      *            the key
      */
-    public final void remove(EntityMetadata metadata, Object entity, Object key)
+    public final void remove(final EntityMetadata metadata, final Object entity, final Object key)
+    {
+        if (writeBehind != null)
+        {
+            final Object snapshot = snapshot(entity);
+            writeBehind.submit(Arrays.asList(metadata.getEntityClazz(), key, null), new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    doRemove(metadata, snapshot, key);
+                }
+            });
+        }
+        else
+        {
+            doRemove(metadata, entity, key);
+        }
+    }
+
+    /**
+     * Removes an object from Index.
+     * 
+     * @param metadata
+     *            the metadata
+     * @param entity
+     *            the entity
+     * @param key
+     *            the key
+     */
+    private void doRemove(EntityMetadata metadata, Object entity, Object key)
     {
         if (indexer != null)
         {
@@ -106,7 +192,37 @@ public class IndexManager
      * @param entity
      *            the entity
      */
-    public final void update(EntityMetadata metadata, Object entity, Object parentId, Class<?> clazz)
+    public final void update(final EntityMetadata metadata, final Object entity, final Object parentId,
+            final Class<?> clazz)
+    {
+        if (writeBehind != null)
+        {
+            final Object snapshot = snapshot(entity);
+            writeBehind.submit(Arrays.asList(metadata.getEntityClazz(), getId(metadata, entity), clazz),
+                    new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            doUpdate(metadata, snapshot, parentId, clazz);
+                        }
+                    });
+        }
+        else
+        {
+            doUpdate(metadata, entity, parentId, clazz);
+        }
+    }
+
+    /**
+     * Updates the index for an object.
+     * 
+     * @param metadata
+     *            the metadata
+     * @param entity
+     *            the entity
+     */
+    private void doUpdate(EntityMetadata metadata, Object entity, Object parentId, Class<?> clazz)
     {
         try
         {
@@ -177,6 +293,40 @@ public class IndexManager
         }
     }
 
+    /**
+     * Returns copy of entity to be indexed behind, as application may go on
+     * changing entity before queued mutation is applied.
+     * 
+     * @param entity
+     *            the entity
+     * @return copy of entity
+     */
+    private Object snapshot(Object entity)
+    {
+        return ObjectUtils.deepCopy(entity, kunderaMetadata);
+    }
+
+    /**
+     * Returns id of entity, used as key of queued index mutations.
+     * 
+     * @param metadata
+     *            the metadata
+     * @param entity
+     *            the entity
+     * @return entity id
+     */
+    private Object getId(EntityMetadata metadata, Object entity)
+    {
+        try
+        {
+            return PropertyAccessorHelper.getId(entity, metadata);
+        }
+        catch (PropertyAccessException e)
+        {
+            throw new IndexingException("Can't access ID from entity class " + metadata.getEntityClazz(), e);
+        }
+    }
+
     /**
      * @param entity
      * @param clazz
@@ -230,13 +380,24 @@ public class IndexManager
      * @param entity
      *            the entity
      */
-    public final void write(EntityMetadata metadata, Object entity)
+    public final void write(final EntityMetadata metadata, final Object entity)
     {
-        if (indexer != null)
+        if (writeBehind != null)
         {
-            MetamodelImpl metamodel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
-                    metadata.getPersistenceUnit());
-            ((com.impetus.kundera.index.lucene.Indexer) indexer).index(metadata, metamodel, entity);
+            final Object snapshot = snapshot(entity);
+            writeBehind.submit(Arrays.asList(metadata.getEntityClazz(), getId(metadata, entity), null),
+                    new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            doWrite(metadata, snapshot, null, null);
+                        }
+                    });
+        }
+        else
+        {
+            doWrite(metadata, entity, null, null);
         }
     }
 
@@ -252,13 +413,55 @@ public class IndexManager
      * @param clazz
      *            class name
      */
-    public final void write(EntityMetadata metadata, Object entity, String parentId, Class<?> clazz)
+    public final void write(final EntityMetadata metadata, final Object entity, final String parentId,
+            final Class<?> clazz)
+    {
+        if (writeBehind != null)
+        {
+            final Object snapshot = snapshot(entity);
+            writeBehind.submit(Arrays.asList(metadata.getEntityClazz(), getId(metadata, entity), clazz),
+                    new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            doWrite(metadata, snapshot, parentId, clazz);
+                        }
+                    });
+        }
+        else
+        {
+            doWrite(metadata, entity, parentId, clazz);
+        }
+    }
+
+    /**
+     * Indexes an object.
+     * 
+     * @param metadata
+     *            the metadata
+     * @param entity
+     *            the entity
+     * @param parentId
+     *            parent Id, null if none.
+     * @param clazz
+     *            parent class, null if none
+     */
+    private void doWrite(EntityMetadata metadata, Object entity, String parentId, Class<?> clazz)
     {
         if (indexer != null)
         {
             MetamodelImpl metamodel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
                     metadata.getPersistenceUnit());
-            ((com.impetus.kundera.index.lucene.Indexer) indexer).index(metadata, metamodel, entity, parentId, clazz);
+            if (parentId == null && clazz == null)
+            {
+                ((com.impetus.kundera.index.lucene.Indexer) indexer).index(metadata, metamodel, entity);
+            }
+            else
+            {
+                ((com.impetus.kundera.index.lucene.Indexer) indexer).index(metadata, metamodel, entity, parentId,
+                        clazz);
+            }
         }
     }
 
@@ -424,13 +627,46 @@ public class IndexManager
     }
 
     /**
-     * Closes the transaction along with RAM directory.
+     * Waits for queued index mutations to be applied, if write-behind indexing
+     * is flushed on commit.
+     * 
+     * @throws IndexingException
+     *             if mutations submitted by calling thread failed to apply
+     */
+    public void onCommit() throws IndexingException
+    {
+        if (writeBehind != null)
+        {
+            writeBehind.awaitApplied();
+        }
+    }
+
+    /**
+     * @return queue of index mutations applied off write path, null if
+     *         write-behind indexing is disabled
+     */
+    public IndexWriteBehindQueue getWriteBehindQueue()
+    {
+        return writeBehind;
+    }
+
+    /**
+     * Closes the transaction along with RAM directory, releasing indexer as
+     * client factory is closed.
      */
     public void close() throws IndexingException
     {
+        if (writeBehind != null)
+        {
+            writeBehind.close();
+        }
         if (indexer != null)
         {
             indexer.close();
+            if (indexer.getClass().getName().equals(IndexingConstants.LUCENE_INDEXER))
+            {
+                ((com.impetus.kundera.index.lucene.Indexer) indexer).shutdown();
+            }
         }
     }
 }
\ No newline at end of file
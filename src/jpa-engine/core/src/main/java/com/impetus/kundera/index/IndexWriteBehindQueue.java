@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.index;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of index mutations, applied in batches by a dedicated worker
+ * thread off the entity write path. Mutations are coalesced by key, so only
+ * the latest pending mutation of an entity is applied. Writers block while
+ * queue is full.
+ * 
+ * Mutations are applied in order of their latest submission, so a removal
+ * followed by a re-index of same entity is never applied the other way round.
+ * 
+ * When flushing on commit, mutations failed to apply are recorded against the
+ * thread that submitted them, and thrown to it out of {@link #awaitApplied()}.
+ */
+public final class IndexWriteBehindQueue
+{
+    /** The log. */
+    private static final Logger log = LoggerFactory.getLogger(IndexWriteBehindQueue.class);
+
+    /** Durability level applying mutations whenever worker gets to them. */
+    public static final String ASYNC = "async";
+
+    /** Durability level waiting for mutations to be applied on commit. */
+    public static final String COMMIT = "commit";
+
+    /** Default maximum number of pending mutations. */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /** Default maximum number of mutations applied per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /** Pending mutations by key, in order of submission. */
+    private final LinkedHashMap<Object, Mutation> pending = new LinkedHashMap<Object, Mutation>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final Condition applied = lock.newCondition();
+
+    /** Failures of applied mutations by submitting thread, until it commits. */
+    private final Map<Thread, List<RuntimeException>> failures = new WeakHashMap<Thread, List<RuntimeException>>();
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final boolean flushOnCommit;
+
+    private final Thread worker;
+
+    /** Sequence of last submitted mutation. */
+    private long submittedSeq;
+
+    /** Sequence up to which mutations are applied. */
+    private long appliedSeq;
+
+    /** Submission time of oldest mutation being applied, 0 if none. */
+    private long inFlightSince;
+
+    private boolean closed;
+
+    private long appliedCount;
+
+    private long coalescedCount;
+
+    private long failedCount;
+
+    /**
+     * Creates queue and starts its worker.
+     * 
+     * @param capacity
+     *            maximum number of pending mutations
+     * @param batchSize
+     *            maximum number of mutations applied per batch
+     * @param flushOnCommit
+     *            whether {@link #awaitApplied()} waits for pending mutations
+     */
+    public IndexWriteBehindQueue(int capacity, int batchSize, boolean flushOnCommit)
+    {
+        if (capacity <= 0 || batchSize <= 0)
+        {
+            throw new IllegalArgumentException("Queue capacity and batch size must be positive.");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushOnCommit = flushOnCommit;
+        this.worker = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                work();
+            }
+        }, "kundera-index-write-behind");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a mutation, replacing pending mutation of same key. Blocks while
+     * queue is full. Mutations submitted after {@link #close()} are applied
+     * by calling thread.
+     * 
+     * @param key
+     *            key of indexed entity
+     * @param mutation
+     *            index mutation
+     */
+    public void submit(Object key, Runnable mutation)
+    {
+        lock.lock();
+        try
+        {
+            if (!closed)
+            {
+                while (!closed && pending.size() >= capacity && !pending.containsKey(key))
+                {
+                    notFull.await();
+                }
+            }
+            if (!closed)
+            {
+                if (pending.remove(key) != null)
+                {
+                    coalescedCount++;
+                }
+                pending.put(key, new Mutation(mutation, ++submittedSeq, System.currentTimeMillis(),
+                        flushOnCommit ? Thread.currentThread() : null));
+                notEmpty.signal();
+                return;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IndexingException("Interrupted while queuing index mutation.", e);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        mutation.run();
+    }
+
+    /**
+     * Waits until mutations submitted so far are applied, if queue flushes on
+     * commit.
+     * 
+     * @throws IndexingException
+     *             if mutations submitted by calling thread failed to apply
+     */
+    public void awaitApplied()
+    {
+        if (flushOnCommit)
+        {
+            awaitApplied(0);
+            throwFailures();
+        }
+    }
+
+    /**
+     * Throws failures of mutations submitted by calling thread, if any,
+     * clearing them.
+     */
+    private void throwFailures()
+    {
+        List<RuntimeException> errors;
+        lock.lock();
+        try
+        {
+            errors = failures.remove(Thread.currentThread());
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (errors != null)
+        {
+            IndexingException ex = new IndexingException(errors.size() + " index mutation(s) failed to apply.",
+                    errors.get(0));
+            for (int i = 1; i < errors.size(); i++)
+            {
+                ex.addSuppressed(errors.get(i));
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits until mutations submitted so far are applied.
+     * 
+     * @param timeout
+     *            milliseconds to wait at most, 0 to wait indefinitely
+     * @return true if mutations were applied in time
+     */
+    public boolean awaitApplied(long timeout)
+    {
+        lock.lock();
+        try
+        {
+            long target = submittedSeq;
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (appliedSeq < target && worker.isAlive())
+            {
+                if (timeout <= 0)
+                {
+                    applied.await();
+                }
+                else if (remaining <= 0)
+                {
+                    return false;
+                }
+                else
+                {
+                    remaining = applied.awaitNanos(remaining);
+                }
+            }
+            return appliedSeq >= target;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IndexingException("Interrupted while waiting for index mutations.", e);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies pending mutations and stops worker.
+     */
+    public void close()
+    {
+        lock.lock();
+        try
+        {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        try
+        {
+            worker.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Worker loop, applying batches of mutations until closed and drained.
+     */
+    private void work()
+    {
+        List<Mutation> batch = new ArrayList<Mutation>(batchSize);
+        while (true)
+        {
+            lock.lock();
+            try
+            {
+                while (pending.isEmpty() && !closed)
+                {
+                    notEmpty.await();
+                }
+                if (pending.isEmpty())
+                {
+                    return;
+                }
+
+                Iterator<Mutation> iter = pending.values().iterator();
+                while (iter.hasNext() && batch.size() < batchSize)
+                {
+                    batch.add(iter.next());
+                    iter.remove();
+                }
+                inFlightSince = batch.get(0).submittedAt;
+                notFull.signalAll();
+            }
+            catch (InterruptedException e)
+            {
+                log.warn("Index write-behind worker interrupted, {} mutations not applied.", pending.size());
+                return;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            List<Mutation> failed = new ArrayList<Mutation>(0);
+            for (Mutation mutation : batch)
+            {
+                try
+                {
+                    mutation.mutation.run();
+                }
+                catch (RuntimeException e)
+                {
+                    mutation.failure = e;
+                    failed.add(mutation);
+                    log.error("Error while applying index mutation, Caused by: ", e);
+                }
+            }
+
+            lock.lock();
+            try
+            {
+                for (Mutation mutation : failed)
+                {
+                    onFailure(mutation);
+                }
+                appliedSeq = batch.get(batch.size() - 1).seq;
+                appliedCount += batch.size() - failed.size();
+                failedCount += failed.size();
+                inFlightSince = 0;
+                applied.signalAll();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Records failure of a mutation against its submitting thread, to be
+     * thrown on its commit. Called under lock.
+     */
+    private void onFailure(Mutation mutation)
+    {
+        if (mutation.owner != null)
+        {
+            List<RuntimeException> errors = failures.get(mutation.owner);
+            if (errors == null)
+            {
+                errors = new ArrayList<RuntimeException>(1);
+                failures.put(mutation.owner, errors);
+            }
+            errors.add(mutation.failure);
+        }
+    }
+
+    /**
+     * @return whether commit waits for mutations to be applied
+     */
+    public boolean isFlushOnCommit()
+    {
+        return flushOnCommit;
+    }
+
+    /**
+     * @return number of mutations waiting to be applied
+     */
+    public int getQueueDepth()
+    {
+        lock.lock();
+        try
+        {
+            return pending.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return milliseconds oldest mutation not yet applied has been waiting, 0
+     *         if none
+     */
+    public long getLag()
+    {
+        lock.lock();
+        try
+        {
+            long oldest = inFlightSince;
+            if (oldest == 0 && !pending.isEmpty())
+            {
+                oldest = pending.values().iterator().next().submittedAt;
+            }
+            return oldest == 0 ? 0 : System.currentTimeMillis() - oldest;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of mutations applied
+     */
+    public long getAppliedCount()
+    {
+        lock.lock();
+        try
+        {
+            return appliedCount;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of mutations replaced by a later one before being applied
+     */
+    public long getCoalescedCount()
+    {
+        lock.lock();
+        try
+        {
+            return coalescedCount;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of mutations failed to apply
+     */
+    public long getFailedCount()
+    {
+        lock.lock();
+        try
+        {
+            return failedCount;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queued mutation.
+     */
+    private static final class Mutation
+    {
+        private final Runnable mutation;
+
+        private final long seq;
+
+        private final long submittedAt;
+
+        /** Submitting thread, null unless flushing on commit. */
+        private final Thread owner;
+
+        private RuntimeException failure;
+
+        private Mutation(Runnable mutation, long seq, long submittedAt, Thread owner)
+        {
+            this.mutation = mutation;
+            this.seq = seq;
+            this.submittedAt = submittedAt;
+            this.owner = owner;
+        }
+    }
+}
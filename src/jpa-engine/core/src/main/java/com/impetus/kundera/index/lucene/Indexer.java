@@ -89,6 +89,12 @@ public interface Indexer extends com.impetus.kundera.index.Indexer
      */
     void close();
 
+    /**
+     * Releases index writer, searchers and background threads, once client
+     * factory using indexer is closed.
+     */
+    void shutdown();
+
     /**
      * Flushes out indexes.
      */
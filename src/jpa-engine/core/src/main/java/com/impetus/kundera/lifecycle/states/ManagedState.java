@@ -25,6 +25,7 @@ import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.lifecycle.NodeStateContext;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.property.PropertyAccessorHelper;
@@ -164,12 +165,21 @@ public class ManagedState extends NodeState
 
             nodeStateContext.setData(nodeData);
             nodeStateContext.getPersistenceCache().getMainCache().processNodeMapping((Node) nodeStateContext);
+            nodeStateContext.getPersistenceCache().getMainCache().addNodeToL2Cache((Node) nodeStateContext);
 
             // This node is fresh and hence NOT dirty
             nodeStateContext.setDirty(false);
             // One time set as required for rollback.
-            Object original = ((Node) nodeStateContext).clone();
-            ((Node) nodeStateContext).setOriginalNode((Node) original);
+            if (MetadataUtils.isChangeTrackingEnabled(entityMetadata.getPersistenceUnit(), nodeStateContext
+                    .getPersistenceDelegator().getKunderaMetadata()))
+            {
+                ((Node) nodeStateContext).deferOriginalNode();
+            }
+            else
+            {
+                Object original = ((Node) nodeStateContext).clone();
+                ((Node) nodeStateContext).setOriginalNode((Node) original);
+            }
         }
 
         // No state change, Node to remain in Managed state
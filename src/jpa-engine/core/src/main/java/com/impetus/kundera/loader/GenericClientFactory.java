@@ -159,6 +159,13 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             clientMetadata.setAutoGenImplementor(autoGenClass);    
         }
 
+        Map<Object, Object> indexerProperties = new HashMap<Object, Object>(kunderaMetadata.getApplicationMetadata()
+                .getPersistenceUnitMetadata(persistenceUnit).getProperties());
+        if (puProperties != null)
+        {
+            indexerProperties.putAll(puProperties);
+        }
+
         // in case set empty via external property, means want to avoid lucene
         // directory set up.
         if (luceneDirectoryPath != null && !StringUtils.isEmpty(luceneDirectoryPath))
@@ -171,10 +178,10 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             try
             {
                 Method method = Class.forName(IndexingConstants.LUCENE_INDEXER).getDeclaredMethod("getInstance",
-                        String.class);
+                        String.class, Map.class);
 
-                Indexer indexer = (Indexer) method.invoke(null, luceneDirectoryPath);
-                indexManager = new IndexManager(indexer, kunderaMetadata);
+                Indexer indexer = (Indexer) method.invoke(null, luceneDirectoryPath, indexerProperties);
+                indexManager = new IndexManager(indexer, kunderaMetadata, indexerProperties);
             }
             catch (Exception e)
             {
@@ -194,7 +201,7 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             {
                 Class<?> indexerClazz = Class.forName(indexerClass);
                 Indexer indexer = (Indexer) indexerClazz.newInstance();
-                indexManager = new IndexManager(indexer, kunderaMetadata);
+                indexManager = new IndexManager(indexer, kunderaMetadata, indexerProperties);
                 clientMetadata.setIndexImplementor(indexerClass);
             }
             catch (Exception cnfex)
@@ -366,7 +373,7 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
 
     protected enum LoadBalancer
     {
-        ROUNDROBIN, LEASTACTIVE;
+        ROUNDROBIN, LEASTACTIVE, LATENCYAWARE;
 
         public static LoadBalancer getValue(String loadBalancename)
         {
@@ -378,6 +385,10 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             {
                 return LEASTACTIVE;
             }
+            else if (loadBalancename != null && loadBalancename.equalsIgnoreCase(LATENCYAWARE.name()))
+            {
+                return LATENCYAWARE;
+            }
             else
             {
                 logger.info("Using default load balancer {} . " + ROUNDROBIN.name());
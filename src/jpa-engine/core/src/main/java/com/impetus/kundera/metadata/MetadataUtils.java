@@ -610,6 +610,23 @@ public class MetadataUtils
 
     }
 
+    /**
+     * Checks whether attribute level change tracking is enabled for given
+     * persistence unit.
+     * 
+     * @param persistenceUnit
+     *            persistence unit
+     * 
+     * @return true, if only changed attributes are to be written on flush.
+     */
+    public static boolean isChangeTrackingEnabled(final String persistenceUnit, final KunderaMetadata kunderaMetadata)
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                persistenceUnit);
+        return puMetadata != null
+                && Boolean.parseBoolean(puMetadata.getProperty(PersistenceProperties.KUNDERA_CHANGE_TRACKING));
+    }
+
     /**
      * Checks whether a given field is Element collection field of BASIC type
      * 
@@ -18,12 +18,15 @@ package com.impetus.kundera.metadata.model;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.persistence.JoinColumn;
 import javax.persistence.PrimaryKeyJoinColumn;
+import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
 
@@ -102,6 +105,12 @@ public final class EntityMetadata
 
     private EntityType entityType;
 
+    // Attributes sorted by name, position is used as dirty attribute index.
+    private volatile List<Attribute> orderedAttributes;
+
+    // Whether it holds a collection of embeddables, computed on first use.
+    private volatile Boolean embeddedCollection;
+
     /**
      * The Enum Type.
      */
@@ -738,4 +747,63 @@ public final class EntityMetadata
         }
     }
 
+    /**
+     * Returns attributes of this entity sorted by name. Position of an
+     * attribute in returned list is its index in dirty attribute set of a node.
+     * 
+     * @return ordered attributes, empty if entity type is not yet known.
+     */
+    public List<Attribute> getOrderedAttributes()
+    {
+        if (this.orderedAttributes == null)
+        {
+            getEntityType();
+            if (this.entityType == null)
+            {
+                return Collections.emptyList();
+            }
+
+            List<Attribute> attributes = new ArrayList<Attribute>(this.entityType.getAttributes());
+            Collections.sort(attributes, new Comparator<Attribute>()
+            {
+                @Override
+                public int compare(Attribute o1, Attribute o2)
+                {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            });
+            this.orderedAttributes = Collections.unmodifiableList(attributes);
+        }
+        return this.orderedAttributes;
+    }
+
+    /**
+     * Checks whether this entity holds an element collection of embeddables,
+     * whose objects are named via element collection cache.
+     * 
+     * @return true, if entity has an embedded collection attribute.
+     */
+    public boolean hasEmbeddedCollection()
+    {
+        if (this.embeddedCollection == null)
+        {
+            boolean found = false;
+            for (Attribute attribute : getOrderedAttributes())
+            {
+                if (attribute.isCollection() && !attribute.isAssociation()
+                        && !MetadataUtils.isBasicElementCollectionField((Field) attribute.getJavaMember()))
+                {
+                    found = true;
+                    break;
+                }
+            }
+            if (this.entityType == null)
+            {
+                return found;
+            }
+            this.embeddedCollection = found;
+        }
+        return this.embeddedCollection;
+    }
+
 }
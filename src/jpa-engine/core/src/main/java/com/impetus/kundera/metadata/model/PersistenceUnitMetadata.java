@@ -568,6 +568,28 @@ public class PersistenceUnitMetadata implements PersistenceUnitInfo
         return 0;
     }
 
+    /**
+     * Return fetch.batch.size value.
+     * 
+     * @return number of related entities to be loaded in one go, 0 if not
+     *         specified.
+     */
+    public int getFetchBatchSize()
+    {
+        String fetchBatchSize = getProperty(PersistenceProperties.KUNDERA_FETCH_BATCH_SIZE);
+        if (fetchBatchSize != null)
+        {
+            int fetch_Batch_Size = Integer.valueOf(fetchBatchSize);
+            if (fetch_Batch_Size < 0)
+            {
+                throw new IllegalArgumentException("kundera.fetch.batch.size property must be numeric and >= 0");
+            }
+            return fetch_Batch_Size;
+        }
+
+        return 0;
+    }
+
     /**
      * @return the mappedUrl
      */
@@ -19,12 +19,14 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.FetchType;
 
+import org.apache.commons.lang.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +36,7 @@ import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.Relation.ForeignKey;
 import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
@@ -43,6 +46,7 @@ import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.proxy.ProxyHelper;
 import com.impetus.kundera.query.KunderaQuery;
 import com.impetus.kundera.utils.KunderaCoreUtils;
+import com.impetus.kundera.utils.ObjectUtils;
 
 /**
  * The Class AbstractEntityReader.
@@ -55,6 +59,9 @@ public class AbstractEntityReader
     /** The log. */
     private static Logger log = LoggerFactory.getLogger(AbstractEntityReader.class);
 
+    /** Marks keys requested by a batch fetch but not found in database. */
+    private static final Object NOT_FOUND = new Object();
+
     private AssociationBuilder associationBuilder;
 
     protected KunderaQuery kunderaQuery;
@@ -217,7 +224,8 @@ public class AbstractEntityReader
         EntityMetadata targetEntityMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata,
                 relation.getTargetEntity());
 
-        List relationalEntities = fetchRelations(relation, metadata, pd, entityId, relationValue, targetEntityMetadata);
+        List relationalEntities = fetchRelations(relation, metadata, pd, entityId, relationValue, targetEntityMetadata,
+                relationStack);
 
         if (relationalEntities != null)
         {
@@ -356,7 +364,7 @@ public class AbstractEntityReader
                         final EntityMetadata targetEntityMetadata = KunderaMetadataManager.getEntityMetadata(
                                 kunderaMetadata, relation.getTargetEntity());
                         List immediateRelations = fetchRelations(relation, metadata, pd, entityId, relationValue,
-                                targetEntityMetadata);
+                                targetEntityMetadata, relationStack);
                         // Here in case of one-to-many/many-to-one we should
                         // skip
                         // this
@@ -464,19 +472,32 @@ public class AbstractEntityReader
      *            relational value
      * @param targetEntityMetadata
      *            relational entity's metadata.
+     * @param relationStack
+     *            relation stack, holding batch fetched relations (if any).
      * 
      * @return list of fetched relations.
      */
     private List fetchRelations(final Relation relation, final EntityMetadata metadata, final PersistenceDelegator pd,
-            final Object entityId, Object relationValue, EntityMetadata targetEntityMetadata)
+            final Object entityId, Object relationValue, EntityMetadata targetEntityMetadata,
+            Map<Object, Object> relationStack)
     {
         List relationalEntities = new ArrayList();
 
         if ((relationValue != null && relation.isUnary()) || (relation.isJoinedByPrimaryKey()))
         {
-            // Call it
-            Object relationEntity = pd.getClient(targetEntityMetadata).find(relation.getTargetEntity(),
-                    relationValue != null ? relationValue : entityId);
+            Object key = relationValue != null ? relationValue : entityId;
+            Object relationEntity = relationStack != null ? relationStack.get(new FetchKey(targetEntityMetadata,
+                    key)) : null;
+            if (relationEntity == null)
+            {
+                // Call it
+                relationEntity = pd.getClient(targetEntityMetadata).find(relation.getTargetEntity(), key);
+            }
+            else
+            {
+                // prefetched, hand over a copy as find would.
+                relationEntity = relationEntity == NOT_FOUND ? null : copyOf(relationEntity);
+            }
             if (relationEntity != null)
             {
                 relationalEntities.add(relationEntity);
@@ -505,6 +526,160 @@ public class AbstractEntityReader
         return relationalEntities;
     }
 
+    /**
+     * Loads eagerly fetched unary relations of given entities in batches of
+     * {@link PersistenceUnitMetadata#getFetchBatchSize()} keys, using
+     * {@link Client#findAll(Class, String[], Object...)}. Loaded entities are
+     * kept in relation stack and picked up by
+     * {@link #recursivelyFindEntities(Object, Map, EntityMetadata, PersistenceDelegator, boolean, Map)}
+     * instead of one find per entity.
+     * 
+     * @param entities
+     *            entities (or enhance entities) returned by query
+     * @param m
+     *            entity metadata
+     * @param pd
+     *            persistence delegator
+     * @param relationStack
+     *            relation stack of query
+     */
+    public void prefetchRelations(List entities, EntityMetadata m, PersistenceDelegator pd,
+            Map<Object, Object> relationStack)
+    {
+        if (entities == null || entities.size() < 2 || m.getRelations() == null)
+        {
+            return;
+        }
+
+        for (Relation relation : m.getRelations())
+        {
+            if (relation == null || !relation.isUnary() || relation.getFetchType().equals(FetchType.LAZY))
+            {
+                continue;
+            }
+
+            EntityMetadata targetEntityMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata,
+                    relation.getTargetEntity());
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                    targetEntityMetadata.getPersistenceUnit());
+            int batchSize = puMetadata != null ? puMetadata.getFetchBatchSize() : 0;
+            if (batchSize <= 0)
+            {
+                continue;
+            }
+
+            Set<Object> keys = new LinkedHashSet<Object>();
+            for (Object e : entities)
+            {
+                Object key = getRelationKey(e, m, relation);
+                if (key != null && !relationStack.containsKey(new FetchKey(targetEntityMetadata, key)))
+                {
+                    keys.add(key);
+                }
+            }
+
+            if (!keys.isEmpty())
+            {
+                batchFetch(relation.getTargetEntity(), targetEntityMetadata, new ArrayList<Object>(keys), batchSize,
+                        pd.getClient(targetEntityMetadata), relationStack);
+            }
+        }
+    }
+
+    /**
+     * Returns key of relation entity to be fetched for given entity, or null if
+     * relation is already populated or does not need to be fetched by id.
+     * 
+     * @param e
+     * @param m
+     * @param relation
+     * @return
+     */
+    private Object getRelationKey(Object e, EntityMetadata m, Relation relation)
+    {
+        Object entity = getEntity(e);
+        Object relationalObject = PropertyAccessorHelper.getObject(entity, relation.getProperty());
+        if (!KunderaCoreUtils.isEmptyOrNull(relationalObject) && !ProxyHelper.isProxyOrCollection(relationalObject))
+        {
+            return null;
+        }
+
+        Map<String, Object> relationsMap = getPersistedRelations(e);
+        Object relationValue = relationsMap != null ? relationsMap.get(relation.getJoinColumnName(kunderaMetadata))
+                : null;
+        if (relationValue == null && relation.isJoinedByPrimaryKey())
+        {
+            return PropertyAccessorHelper.getId(entity, m);
+        }
+        return relationValue;
+    }
+
+    /**
+     * Fetches given keys chunk by chunk and puts found entities into relation
+     * stack. Keys not found are marked, so that they are not fetched again.
+     * 
+     * @param targetEntity
+     * @param targetEntityMetadata
+     * @param keys
+     * @param batchSize
+     * @param client
+     * @param relationStack
+     */
+    private void batchFetch(Class targetEntity, EntityMetadata targetEntityMetadata, List<Object> keys,
+            int batchSize, Client client, Map<Object, Object> relationStack)
+    {
+        for (int i = 0; i < keys.size(); i += batchSize)
+        {
+            List<Object> chunk = keys.subList(i, Math.min(i + batchSize, keys.size()));
+            List found = client.findAll(targetEntity, null, chunk.toArray());
+            if (found == null)
+            {
+                // client does not support multi get, fall back to find.
+                log.debug("Client {} does not support findAll, relations of {} will be fetched one by one.", client,
+                        targetEntity.getSimpleName());
+                return;
+            }
+
+            Set<FetchKey> missing = new HashSet<FetchKey>();
+            for (Object key : chunk)
+            {
+                missing.add(new FetchKey(targetEntityMetadata, key));
+            }
+            for (Object relationEntity : found)
+            {
+                if (relationEntity != null)
+                {
+                    FetchKey fetchKey = new FetchKey(targetEntityMetadata, PropertyAccessorHelper.getId(
+                            getEntity(relationEntity), targetEntityMetadata));
+                    relationStack.put(fetchKey, relationEntity);
+                    missing.remove(fetchKey);
+                }
+            }
+            for (FetchKey fetchKey : missing)
+            {
+                relationStack.put(fetchKey, NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of batch fetched relation entity, as every owning entity
+     * must hold its own instance (same as with find).
+     * 
+     * @param relationEntity
+     * @return
+     */
+    private Object copyOf(Object relationEntity)
+    {
+        if (relationEntity instanceof EnhanceEntity)
+        {
+            EnhanceEntity ee = (EnhanceEntity) relationEntity;
+            return new EnhanceEntity(ObjectUtils.deepCopy(ee.getEntity(), kunderaMetadata), ee.getEntityId(),
+                    ee.getRelations());
+        }
+        return ObjectUtils.deepCopy(relationEntity, kunderaMetadata);
+    }
+
     /**
      * Recursively fetches associated entities for a given <code>entity</code>
      * 
@@ -676,4 +851,41 @@ public class AbstractEntityReader
         return this.associationBuilder;
 
     }
+
+    /**
+     * Relation stack key of batch fetched entity. Keys are compared by id's own
+     * equals, relation values read from database being converted to entity's
+     * id type first, as they may differ in type from it.
+     */
+    private static final class FetchKey
+    {
+        private final Class<?> entityClass;
+
+        private final Object key;
+
+        private FetchKey(EntityMetadata metadata, Object key)
+        {
+            this.entityClass = metadata.getEntityClazz();
+            Class<?> idClass = ClassUtils.primitiveToWrapper(metadata.getIdAttribute().getBindableJavaType());
+            this.key = key == null || idClass.isInstance(key) ? key : PropertyAccessorHelper.fromSourceToTargetClass(
+                    idClass, key.getClass(), key);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof FetchKey))
+            {
+                return false;
+            }
+            FetchKey other = (FetchKey) obj;
+            return entityClass.equals(other.entityClass) && (key == null ? other.key == null : key.equals(other.key));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * entityClass.hashCode() + (key != null ? key.hashCode() : 0);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,423 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.client.AsyncClient;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.graph.ObjectGraphUtils;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.persistence.api.AsyncEntityManager;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+
+/**
+ * Implementation of {@link AsyncEntityManager}. Find, merge and remove are
+ * handed over to {@link AsyncClient} where possible, each one on a client of
+ * its own as clients are not thread safe. Persist and everything else run on
+ * executor of entity manager factory, each one within an entity manager of its
+ * own, so that persist goes through same checks as synchronous one.
+ */
+class AsyncEntityManagerImpl implements AsyncEntityManager
+{
+    /** The log. */
+    private static final Logger log = LoggerFactory.getLogger(AsyncEntityManagerImpl.class);
+
+    private final EntityManagerFactoryImpl factory;
+
+    /** Properties of entity manager, passed on to ones created per operation. */
+    private final Map properties;
+
+    /** Validates entities written natively, as synchronous merge does. */
+    private final PersistenceValidator validator = new PersistenceValidator();
+
+    /**
+     * Builds entities out of rows read natively, so that driver I/O threads
+     * are not held. Once factory executor is full, task runs on calling thread
+     * instead, pushing back on driver.
+     */
+    private final Executor readExecutor = new Executor()
+    {
+        @Override
+        public void execute(Runnable command)
+        {
+            try
+            {
+                factory.getAsyncExecutor().execute(command);
+            }
+            catch (RejectedExecutionException e)
+            {
+                command.run();
+            }
+        }
+    };
+
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a new async entity manager.
+     * 
+     * @param factory
+     *            the factory
+     * @param properties
+     *            entity manager properties, may be null
+     */
+    AsyncEntityManagerImpl(final EntityManagerFactoryImpl factory, final Map properties)
+    {
+        this.factory = factory;
+        this.properties = properties;
+    }
+
+    @Override
+    public <E> ListenableFuture<E> find(final Class<E> entityClass, final Object primaryKey)
+    {
+        if (entityClass == null || primaryKey == null)
+        {
+            throw new IllegalArgumentException("Entity class and primary key must not be null.");
+        }
+
+        Client client = getAsyncClient(getMetadata(entityClass));
+        ListenableFuture<Object> future = client != null ? ((AsyncClient) client).findAsync(entityClass, primaryKey,
+                readExecutor) : null;
+        if (future != null)
+        {
+            return (ListenableFuture<E>) closeOnCompletion(future, client);
+        }
+        close(client);
+
+        return submit(new Operation<E>()
+        {
+            @Override
+            E execute(EntityManager em)
+            {
+                return em.find(entityClass, primaryKey);
+            }
+        });
+    }
+
+    @Override
+    public <E> ListenableFuture<E> persist(final E entity)
+    {
+        return submit(new Operation<E>()
+        {
+            @Override
+            E execute(EntityManager em)
+            {
+                em.persist(entity);
+                return entity;
+            }
+        });
+    }
+
+    @Override
+    public <E> ListenableFuture<E> merge(final E entity)
+    {
+        ListenableFuture<E> future = write(entity);
+        if (future != null)
+        {
+            return future;
+        }
+
+        return submit(new Operation<E>()
+        {
+            @Override
+            E execute(EntityManager em)
+            {
+                return em.merge(entity);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Void> remove(final Object entity)
+    {
+        EntityMetadata metadata = getMetadata(entity);
+        final Object id = PropertyAccessorHelper.getId(entity, metadata);
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Primary key of entity to be removed must not be null.");
+        }
+
+        Client client = getAsyncClient(metadata);
+        ListenableFuture<?> future = client != null ? ((AsyncClient) client).removeAsync(entity, id) : null;
+        if (future != null)
+        {
+            onWrite(future, entity.getClass(), id);
+            return closeOnCompletion(Futures.transform(future, new Function<Object, Void>()
+            {
+                @Override
+                public Void apply(Object input)
+                {
+                    return null;
+                }
+            }), client);
+        }
+        close(client);
+
+        return submit(new Operation<Void>()
+        {
+            @Override
+            Void execute(EntityManager em)
+            {
+                Object managed = em.find(entity.getClass(), id);
+                if (managed != null)
+                {
+                    em.remove(managed);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public <E> ListenableFuture<List<E>> getResultList(final String jpaQuery, final Map<String, Object> parameters)
+    {
+        return submit(new Operation<List<E>>()
+        {
+            @Override
+            List<E> execute(EntityManager em)
+            {
+                Query query = em.createQuery(jpaQuery);
+                if (parameters != null)
+                {
+                    for (Map.Entry<String, Object> parameter : parameters.entrySet())
+                    {
+                        query.setParameter(parameter.getKey(), parameter.getValue());
+                    }
+                }
+                return query.getResultList();
+            }
+        });
+    }
+
+    /**
+     * Marks async entity manager closed. Clients of operations still in flight
+     * are closed as each one completes.
+     */
+    void close()
+    {
+        closed = true;
+    }
+
+    /**
+     * Writes entity natively, if possible.
+     * 
+     * @return future of written entity or null.
+     */
+    private <E> ListenableFuture<E> write(final E entity)
+    {
+        EntityMetadata metadata = getMetadata(entity);
+        Object id = PropertyAccessorHelper.getId(entity, metadata);
+
+        // generated ids are left to synchronous merge.
+        Client client = id != null ? getAsyncClient(metadata) : null;
+        if (client == null)
+        {
+            return null;
+        }
+
+        ListenableFuture<?> future;
+        try
+        {
+            validator.validate(entity, factory.getKunderaMetadataInstance());
+            future = ((AsyncClient) client).persistAsync(entity, id);
+        }
+        catch (RuntimeException e)
+        {
+            close(client);
+            throw e;
+        }
+        if (future == null)
+        {
+            close(client);
+            return null;
+        }
+        onWrite(future, entity.getClass(), id);
+
+        return closeOnCompletion(Futures.transform(future, new Function<Object, E>()
+        {
+            @Override
+            public E apply(Object input)
+            {
+                return entity;
+            }
+        }), client);
+    }
+
+    /**
+     * Closes client of a native operation once its future completes.
+     */
+    private <T> ListenableFuture<T> closeOnCompletion(final ListenableFuture<T> future, final Client client)
+    {
+        future.addListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                close(client);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return future;
+    }
+
+    private void close(final Client client)
+    {
+        if (client != null)
+        {
+            client.close();
+        }
+    }
+
+    /**
+     * Evicts written entity from second level cache and invalidates cached
+     * query results of its class, once native write completes. Done on
+     * failure as well, as a failed write may have reached database in part.
+     * 
+     * @param future
+     *            future of native write
+     * @param entityClass
+     *            entity class written to
+     * @param id
+     *            entity id
+     */
+    private void onWrite(final ListenableFuture<?> future, final Class<?> entityClass, final Object id)
+    {
+        future.addListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Cache l2Cache = factory.isOpen() ? factory.getCache() : null;
+                if (l2Cache != null)
+                {
+                    l2Cache.evict(entityClass, ObjectGraphUtils.getNodeId(id, entityClass));
+                }
+
+                KunderaMetadata kunderaMetadata = factory.getKunderaMetadataInstance();
+                if (kunderaMetadata.getQueryResultCache() != null)
+                {
+                    kunderaMetadata.getQueryResultCache().invalidate(entityClass);
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * Returns a new async client for given entity, if entity is simple enough
+     * to be handled by client alone (i.e. has no associations and no
+     * callbacks). Caller closes returned client.
+     */
+    private Client getAsyncClient(final EntityMetadata metadata)
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("EntityManager has already been closed.");
+        }
+
+        List<String> relations = metadata.getRelationNames();
+        Map callbacks = metadata.getCallbackMethodsMap();
+        if ((relations != null && !relations.isEmpty()) || (callbacks != null && !callbacks.isEmpty()))
+        {
+            return null;
+        }
+
+        Client client = factory.getClientFactory(metadata.getPersistenceUnit()).getClientInstance();
+        if (client instanceof AsyncClient)
+        {
+            return client;
+        }
+        client.close();
+        return null;
+    }
+
+    private EntityMetadata getMetadata(final Object entity)
+    {
+        if (entity == null)
+        {
+            throw new IllegalArgumentException("Entity object is invalid, operation failed.");
+        }
+        return getMetadata(entity.getClass());
+    }
+
+    private EntityMetadata getMetadata(final Class<?> entityClass)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(factory.getKunderaMetadataInstance(),
+                entityClass);
+        if (metadata == null)
+        {
+            throw new KunderaException("Entity metadata not found for " + entityClass.getName());
+        }
+        return metadata;
+    }
+
+    private <T> ListenableFuture<T> submit(final Operation<T> operation)
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("EntityManager has already been closed.");
+        }
+        try
+        {
+            return factory.getAsyncExecutor().submit(operation);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.warn("Asynchronous operation rejected, executor queue is full.");
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    /**
+     * An operation run within an entity manager of its own.
+     */
+    private abstract class Operation<T> implements Callable<T>
+    {
+        @Override
+        public T call() throws Exception
+        {
+            EntityManager em = properties != null ? factory.createEntityManager(properties) : factory
+                    .createEntityManager();
+            try
+            {
+                return execute(em);
+            }
+            finally
+            {
+                em.close();
+            }
+        }
+
+        abstract T execute(EntityManager em);
+    }
+}
@@ -21,6 +21,9 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.persistence.Cache;
 import javax.persistence.EntityGraph;
@@ -39,6 +42,9 @@ import javax.persistence.spi.PersistenceUnitTransactionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.KunderaPersistence;
@@ -51,6 +57,7 @@ import com.impetus.kundera.client.ClientResolverException;
 import com.impetus.kundera.configure.ClientMetadataBuilder;
 import com.impetus.kundera.configure.MetamodelConfiguration;
 import com.impetus.kundera.configure.PersistenceUnitConfiguration;
+import com.impetus.kundera.generator.IdAllocatorRegistry;
 import com.impetus.kundera.loader.ClientFactory;
 import com.impetus.kundera.loader.ClientLifeCycleManager;
 import com.impetus.kundera.loader.CoreLoader;
@@ -61,6 +68,8 @@ import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.query.QueryPlanCache;
+import com.impetus.kundera.query.QueryResultCache;
 
 /**
  * Implementation class for {@link EntityManagerFactory}
@@ -105,6 +114,9 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
     /** The Constant INSTANCE holds all application and core metadata. */
     private final KunderaMetadata kunderaMetadata = new KunderaMetadata();
 
+    /** Executor of asynchronous operations, created on first use. */
+    private ListeningExecutorService asyncExecutor;
+
     public EntityManagerFactoryImpl(PersistenceUnitInfo puInfo, Map<String, Object> properties)
     {
         // Load Core
@@ -175,6 +187,14 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
                 this.cacheProvider = initSecondLevelCache(puMetadata);
                 this.cacheProvider.createCache(Constants.KUNDERA_SECONDARY_CACHE_NAME);
             }
+            if (kunderaMetadata.getQueryPlanCache() == null)
+            {
+                kunderaMetadata.setQueryPlanCache(initQueryPlanCache(puMetadata));
+            }
+            if (kunderaMetadata.getQueryResultCache() == null)
+            {
+                kunderaMetadata.setQueryResultCache(initQueryResultCache(puMetadata));
+            }
         }
 
         if (txTypes.size() != 1)
@@ -217,10 +237,32 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
                 cacheProvider.shutdown();
             }
 
+            if (kunderaMetadata.getQueryPlanCache() != null)
+            {
+                kunderaMetadata.getQueryPlanCache().clear();
+            }
+
+            if (kunderaMetadata.getQueryResultCache() != null)
+            {
+                kunderaMetadata.getQueryResultCache().clear();
+            }
+
+            synchronized (this)
+            {
+                if (asyncExecutor != null)
+                {
+                    asyncExecutor.shutdown();
+                    asyncExecutor = null;
+                }
+            }
+
             for (String pu : persistenceUnits)
             {
                 ((ClientLifeCycleManager) clientFactories.get(pu)).destroy();
             }
+
+            // ids reserved in advance are not valid beyond factory.
+            kunderaMetadata.getIdAllocatorRegistry().clear();
             this.persistenceUnits = null;
             this.properties = null;
             clientFactories.clear();
@@ -457,6 +499,82 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
         return cacheProvider;
     }
 
+    /**
+     * Inits the query plan cache.
+     * 
+     * @return the query plan cache
+     */
+    private QueryPlanCache initQueryPlanCache(final PersistenceUnitMetadata puMetadata)
+    {
+        return new QueryPlanCache(getIntProperty(puMetadata, PersistenceProperties.KUNDERA_QUERY_PLAN_CACHE_SIZE,
+                QueryPlanCache.DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * Inits the query result cache.
+     * 
+     * @return the query result cache
+     */
+    private QueryResultCache initQueryResultCache(final PersistenceUnitMetadata puMetadata)
+    {
+        return new QueryResultCache(getIntProperty(puMetadata,
+                PersistenceProperties.KUNDERA_QUERY_RESULT_CACHE_SIZE, QueryResultCache.DEFAULT_MAX_SIZE),
+                getIntProperty(puMetadata, PersistenceProperties.KUNDERA_QUERY_RESULT_CACHE_TTL, 0));
+    }
+
+    /**
+     * Returns executor of asynchronous operations, creating it on first call.
+     * Executor is bounded in threads as well as in queued operations.
+     * 
+     * @return the async executor
+     */
+    synchronized ListeningExecutorService getAsyncExecutor()
+    {
+        if (!isOpen())
+        {
+            throw new IllegalStateException("Entity manager factory has been closed.");
+        }
+        if (asyncExecutor == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                    persistenceUnits[0]);
+            int poolSize = getIntProperty(puMetadata, PersistenceProperties.KUNDERA_ASYNC_POOL_SIZE, Runtime
+                    .getRuntime().availableProcessors() * 2);
+            int queueSize = getIntProperty(puMetadata, PersistenceProperties.KUNDERA_ASYNC_QUEUE_SIZE, 1000);
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(queueSize), new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("kundera-async-%d").build());
+            executor.allowCoreThreadTimeOut(true);
+            asyncExecutor = MoreExecutors.listeningDecorator(executor);
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Reads an integer property out of factory properties, falling back to
+     * persistence unit properties.
+     */
+    private int getIntProperty(final PersistenceUnitMetadata puMetadata, final String name, final int defaultValue)
+    {
+        Object value = getProperties().get(name);
+
+        value = value != null ? value : puMetadata.getProperty(name);
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt(value.toString().trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new KunderaException("Invalid value " + value + " for " + name + ", it should be a number", e);
+        }
+    }
+
     /**
      * Gets the persistence units.
      * 
@@ -507,6 +625,15 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
         /** The application metadata. */
         private ApplicationMetadata applicationMetadata;
 
+        /** Parsed JPQL plans, shared by all entity managers of factory. */
+        private QueryPlanCache queryPlanCache;
+
+        /** Cached query results, shared by all entity managers of factory. */
+        private QueryResultCache queryResultCache;
+
+        /** Pooled id allocators, shared by all entity managers of factory. */
+        private final IdAllocatorRegistry idAllocatorRegistry = new IdAllocatorRegistry();
+
         /**
          * Instantiates a new kundera metadata.
          */
@@ -560,6 +687,58 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
         {
             this.coreMetadata = coreMetadata;
         }
+
+        /**
+         * Gets the query plan cache.
+         * 
+         * @return the queryPlanCache
+         */
+        public QueryPlanCache getQueryPlanCache()
+        {
+            return queryPlanCache;
+        }
+
+        /**
+         * Sets the query plan cache.
+         * 
+         * @param queryPlanCache
+         *            the queryPlanCache to set
+         */
+        public void setQueryPlanCache(QueryPlanCache queryPlanCache)
+        {
+            this.queryPlanCache = queryPlanCache;
+        }
+
+        /**
+         * Gets the query result cache.
+         * 
+         * @return the queryResultCache
+         */
+        public QueryResultCache getQueryResultCache()
+        {
+            return queryResultCache;
+        }
+
+        /**
+         * Sets the query result cache.
+         * 
+         * @param queryResultCache
+         *            the queryResultCache to set
+         */
+        public void setQueryResultCache(QueryResultCache queryResultCache)
+        {
+            this.queryResultCache = queryResultCache;
+        }
+
+        /**
+         * Gets the id allocator registry.
+         * 
+         * @return the idAllocatorRegistry
+         */
+        public IdAllocatorRegistry getIdAllocatorRegistry()
+        {
+            return idAllocatorRegistry;
+        }
     }
 
     /**
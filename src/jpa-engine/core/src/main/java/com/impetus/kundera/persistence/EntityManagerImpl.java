@@ -53,6 +53,7 @@ import com.impetus.kundera.cache.Cache;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientResolverException;
 import com.impetus.kundera.loader.ClientFactory;
+import com.impetus.kundera.persistence.api.AsyncEntityManager;
 import com.impetus.kundera.persistence.context.PersistenceCache;
 import com.impetus.kundera.persistence.jta.KunderaJTAUserTransaction;
 import com.impetus.kundera.query.KunderaTypedQuery;
@@ -96,6 +97,9 @@ public class EntityManagerImpl implements EntityManager, ResourceManager
 
     private EntityTransaction entityTransaction;
 
+    /** Asynchronous view of this entity manager, created on first unwrap. */
+    private AsyncEntityManagerImpl asyncEntityManager;
+
     /**
      * Instantiates a new entity manager impl.
      * 
@@ -350,6 +354,12 @@ public class EntityManagerImpl implements EntityManager, ResourceManager
 
         getPersistenceDelegator().close();
 
+        if (asyncEntityManager != null)
+        {
+            asyncEntityManager.close();
+            asyncEntityManager = null;
+        }
+
         this.closed = true;
     }
 
@@ -745,6 +755,14 @@ public class EntityManagerImpl implements EntityManager, ResourceManager
     public <T> T unwrap(Class<T> paramClass)
     {
         checkClosed();
+        if (AsyncEntityManager.class.equals(paramClass))
+        {
+            if (asyncEntityManager == null)
+            {
+                asyncEntityManager = new AsyncEntityManagerImpl((EntityManagerFactoryImpl) factory, properties);
+            }
+            return (T) asyncEntityManager;
+        }
         throw new NotImplementedException("Unwrap currently not supported by Kundera");
     }
 
@@ -74,6 +74,23 @@ public interface EntityReader
     Object recursivelyFindEntities(Object entity, Map<String, Object> relationsMap, EntityMetadata m,
             PersistenceDelegator pd, boolean lazilyLoaded, Map<Object, Object> relationStack);
 
+    /**
+     * Loads eagerly fetched unary relations of given entities in batches (if
+     * kundera.fetch.batch.size is set) and keeps them in relation stack to be
+     * used by recursivelyFindEntities.
+     * 
+     * @param entities
+     *            entities or enhance entities
+     * @param m
+     *            entity meta data
+     * @param pd
+     *            persistence delegator
+     * @param relationStack
+     *            relation stack
+     */
+    void prefetchRelations(List entities, EntityMetadata m, PersistenceDelegator pd,
+            Map<Object, Object> relationStack);
+
     /**
      * Find by id.
      * 
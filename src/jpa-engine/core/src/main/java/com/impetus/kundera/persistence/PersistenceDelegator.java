@@ -96,6 +96,9 @@ public final class PersistenceDelegator
 
     private final KunderaMetadata kunderaMetadata;
 
+    /** Entity classes written to since last commit, see query result cache. */
+    private final Set<Class<?>> writtenClasses = new HashSet<Class<?>>();
+
     /**
      * Instantiates a new persistence delegator.
      * 
@@ -402,6 +405,7 @@ public final class PersistenceDelegator
                     {
                         node.flush();
                     }
+                    onWrite(node.getDataClass());
                 }
 
             }
@@ -734,6 +738,8 @@ public final class PersistenceDelegator
         flushManager.clearFlushStack();
         isTransactionInProgress = false;
         enableFlush = false;
+        invalidateQueryResults();
+        awaitIndexes();
     }
 
     /**
@@ -747,14 +753,67 @@ public final class PersistenceDelegator
         enableFlush = false;
         flushManager.commit();
         flushManager.clearFlushStack();
+        invalidateQueryResults();
+        awaitIndexes();
     }
 
     void rollback()
     {
         flushManager.rollback(this);
         flushManager.clearFlushStack();
+        getPersistenceCache().getMainCache().evictNodesFromL2Cache();
         getPersistenceCache().clean();
         isTransactionInProgress = false;
+        invalidateQueryResults();
+    }
+
+    /**
+     * Invalidates cached query results of entity class written to. Classes
+     * are remembered to be invalidated once more on commit, as batched and
+     * transactional writes reach database only then.
+     * 
+     * @param entityClass
+     *            entity class written to.
+     */
+    private void onWrite(Class<?> entityClass)
+    {
+        if (kunderaMetadata.getQueryResultCache() != null)
+        {
+            kunderaMetadata.getQueryResultCache().invalidate(entityClass);
+            writtenClasses.add(entityClass);
+        }
+    }
+
+    /**
+     * Invalidates cached query results of entity classes written to since last
+     * commit.
+     */
+    private void invalidateQueryResults()
+    {
+        if (kunderaMetadata.getQueryResultCache() != null)
+        {
+            for (Class<?> entityClass : writtenClasses)
+            {
+                kunderaMetadata.getQueryResultCache().invalidate(entityClass);
+            }
+        }
+        writtenClasses.clear();
+    }
+
+    /**
+     * Waits for write-behind index mutations of clients to be applied, when
+     * configured to flush on commit. Fails if any mutation submitted by this
+     * thread failed to apply.
+     */
+    private void awaitIndexes()
+    {
+        for (Client client : clientMap.values())
+        {
+            if (client != null && client.getIndexManager() != null)
+            {
+                client.getIndexManager().onCommit();
+            }
+        }
     }
 
     /**
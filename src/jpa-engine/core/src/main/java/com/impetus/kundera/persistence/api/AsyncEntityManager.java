@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence.api;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.AsyncClient;
+
+/**
+ * Non blocking counterpart of {@link EntityManager} CRUD and query operations,
+ * obtained via {@link EntityManager#unwrap(Class)}.
+ * 
+ * Operations do not take part in persistence context or transaction of entity
+ * manager they are obtained from, each one is executed and flushed on its own
+ * and entities returned are detached. Find, merge and remove of entities
+ * without associations and lifecycle callbacks are handed over to
+ * {@link AsyncClient} when client implements it. Persist, queries and rest run
+ * on a bounded executor shared by entity
+ * manager factory, sized via {@link PersistenceProperties#KUNDERA_ASYNC_POOL_SIZE}
+ * and {@link PersistenceProperties#KUNDERA_ASYNC_QUEUE_SIZE}. Once its queue is
+ * full, operations fail with a
+ * {@link java.util.concurrent.RejectedExecutionException}.
+ * 
+ * Entity manager must be kept open until returned futures are complete.
+ */
+public interface AsyncEntityManager
+{
+
+    /**
+     * Finds an entity by primary key.
+     * 
+     * @param entityClass
+     *            entity class.
+     * @param primaryKey
+     *            primary key.
+     * @return future of found entity, null value if not found.
+     */
+    <E> ListenableFuture<E> find(Class<E> entityClass, Object primaryKey);
+
+    /**
+     * Persists an entity.
+     * 
+     * @param entity
+     *            entity object.
+     * @return future of persisted entity.
+     */
+    <E> ListenableFuture<E> persist(E entity);
+
+    /**
+     * Merges an entity.
+     * 
+     * @param entity
+     *            entity object.
+     * @return future of merged entity.
+     */
+    <E> ListenableFuture<E> merge(E entity);
+
+    /**
+     * Removes an entity.
+     * 
+     * @param entity
+     *            entity object.
+     * @return future completing once entity is removed.
+     */
+    ListenableFuture<Void> remove(Object entity);
+
+    /**
+     * Executes a JPQL query.
+     * 
+     * @param jpaQuery
+     *            JPQL query.
+     * @param parameters
+     *            named parameter values, may be null.
+     * @return future of query results.
+     */
+    <E> ListenableFuture<List<E>> getResultList(String jpaQuery, Map<String, Object> parameters);
+}
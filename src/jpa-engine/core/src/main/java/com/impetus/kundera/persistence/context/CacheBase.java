@@ -26,11 +26,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.impetus.kundera.cache.ElementCollectionCacheManager;
 import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.graph.NodeLink;
 import com.impetus.kundera.graph.ObjectGraph;
 import com.impetus.kundera.graph.ObjectGraphUtils;
 import com.impetus.kundera.lifecycle.states.ManagedState;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.property.PropertyAccessorHelper;
@@ -106,6 +108,22 @@ public class CacheBase
         }
     }
 
+    /**
+     * Puts a copy of node data, as just read out of datastore, into second
+     * level cache.
+     * 
+     * @param node
+     *            node found.
+     */
+    public void addNodeToL2Cache(Node node)
+    {
+        if (l2Cache != null && node.getData() != null)
+        {
+            l2Cache.put(node.getNodeId(),
+                    ObjectUtils.deepCopy(node.getData(), node.getPersistenceDelegator().getKunderaMetadata()));
+        }
+    }
+
     public void processNodeMapping(Node node)
     {
         if (nodeMappings.containsKey(node.getNodeId()))
@@ -136,7 +154,10 @@ public class CacheBase
         else
         {
             logCacheEvent("ADDED TO ", node.getNodeId());
-            nodeMappings.put(node.getNodeId(), node);
+            if (nodeMappings.put(node.getNodeId(), node) == null && hasEmbeddedCollection(node))
+            {
+                ElementCollectionCacheManager.getInstance().acquire(node.getEntityId());
+            }
         }
 
         // If it's a head node, add this to the list of head nodes in
@@ -154,9 +175,9 @@ public class CacheBase
             getHeadNodes().remove(node);
         }
 
-        if (nodeMappings.get(node.getNodeId()) != null)
+        if (nodeMappings.remove(node.getNodeId()) != null && hasEmbeddedCollection(node))
         {
-            nodeMappings.remove(node.getNodeId());
+            ElementCollectionCacheManager.getInstance().release(node.getEntityId());
         }
 
         evictFroml2Cache(node);
@@ -183,6 +204,19 @@ public class CacheBase
         addHeadNode(graph.getHeadNode());
     }
 
+    /**
+     * Checks whether entity of node keeps element collection object names in
+     * {@link ElementCollectionCacheManager}, hence has to be held there while
+     * managed. Assumed so when metadata can not be looked up.
+     */
+    private boolean hasEmbeddedCollection(Node node)
+    {
+        PersistenceDelegator pd = node.getPersistenceDelegator();
+        EntityMetadata metadata = pd != null && node.getDataClass() != null ? KunderaMetadataManager
+                .getEntityMetadata(pd.getKunderaMetadata(), node.getDataClass()) : null;
+        return metadata == null || metadata.hasEmbeddedCollection();
+    }
+
     private void logCacheEvent(String eventType, String nodeId)
     {
         if (log.isDebugEnabled())
@@ -216,12 +250,26 @@ public class CacheBase
     }
 
     /**
-     * 
+     * Clears this persistence context. Second level cache is shared among
+     * persistence contexts, hence only entries of nodes left dirty (i.e.
+     * never flushed) are evicted out of it. Element collection object names
+     * of nodes are released, see {@link ElementCollectionCacheManager}.
      */
     public void clear()
     {
         if (this.nodeMappings != null)
         {
+            for (Node node : nodeMappings.values())
+            {
+                if (node.isDirty())
+                {
+                    evictFroml2Cache(node);
+                }
+                if (hasEmbeddedCollection(node))
+                {
+                    ElementCollectionCacheManager.getInstance().release(node.getEntityId());
+                }
+            }
             this.nodeMappings.clear();
         }
 
@@ -229,10 +277,20 @@ public class CacheBase
         {
             this.headNodes.clear();
         }
+    }
 
-        if (this.l2Cache != null)
+    /**
+     * Evicts entries of all nodes of this persistence context out of second
+     * level cache, e.g. when their changes are rolled back.
+     */
+    public void evictNodesFromL2Cache()
+    {
+        if (this.l2Cache != null && this.nodeMappings != null)
         {
-            l2Cache.evictAll();
+            for (Node node : nodeMappings.values())
+            {
+                evictFroml2Cache(node);
+            }
         }
     }
 
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -163,6 +164,78 @@ public class KunderaQuery
         initiateJPQLObject(jpaQuery);
     }
 
+    /**
+     * Instantiates a new kundera query out of an already parsed query plan.
+     * Parsed state (JPQL expression tree, clauses, entity metadata) is shared
+     * with the plan, whereas parameter binding state (filter clauses, update
+     * clauses and typed parameters) is copied, so that binding values on this
+     * instance never leaks into the plan or its other copies.
+     * 
+     * @param plan
+     *            parsed kundera query.
+     */
+    private KunderaQuery(final KunderaQuery plan)
+    {
+        this.jpaQuery = plan.jpaQuery;
+        this.kunderaMetadata = plan.kunderaMetadata;
+        this.jpqlExpression = plan.jpqlExpression;
+        this.expressionFactory = plan.expressionFactory;
+        this.selectStatement = plan.selectStatement;
+        this.updateStatement = plan.updateStatement;
+        this.deleteStatement = plan.deleteStatement;
+        this.result = plan.result;
+        this.aggregationResult = plan.aggregationResult;
+        this.from = plan.from;
+        this.filter = plan.filter;
+        this.ordering = plan.ordering;
+        this.sortOrders = plan.sortOrders;
+        this.entityName = plan.entityName;
+        this.entityAlias = plan.entityAlias;
+        this.entityClass = plan.entityClass;
+        this.isAggregate = plan.isAggregate;
+        this.persistenceUnit = plan.persistenceUnit;
+        this.isDeleteUpdate = plan.isDeleteUpdate;
+        this.isNativeQuery = plan.isNativeQuery;
+
+        Map<Object, Object> copies = new IdentityHashMap<Object, Object>();
+        for (Object clause : plan.filtersQueue)
+        {
+            if (clause instanceof FilterClause)
+            {
+                FilterClause copy = new FilterClause((FilterClause) clause);
+                copies.put(clause, copy);
+                this.filtersQueue.add(copy);
+            }
+            else
+            {
+                this.filtersQueue.add(clause);
+            }
+        }
+
+        for (UpdateClause clause : plan.updateClauseQueue)
+        {
+            UpdateClause copy = new UpdateClause(clause);
+            copies.put(clause, copy);
+            this.updateClauseQueue.add(copy);
+        }
+
+        if (plan.typedParameter != null)
+        {
+            this.typedParameter = new TypedParameter(plan.typedParameter, copies);
+        }
+    }
+
+    /**
+     * Returns a copy of this parsed query, which can be bound with its own
+     * parameter values.
+     * 
+     * @return copy of kundera query.
+     */
+    KunderaQuery copy()
+    {
+        return new KunderaQuery(this);
+    }
+
     private void initiateJPQLObject(final String jpaQuery)
     {
         JPQLGrammar jpqlGrammar = EclipseLinkJPQLGrammar2_4.instance();
@@ -981,6 +1054,20 @@ public class KunderaQuery
             }
         }
 
+        /**
+         * Copies supplied filter clause.
+         * 
+         * @param clause
+         *            filter clause to copy.
+         */
+        private FilterClause(FilterClause clause)
+        {
+            this.property = clause.property;
+            this.condition = clause.condition;
+            this.fieldName = clause.fieldName;
+            this.value = new ArrayList<Object>(clause.value);
+        }
+
         /**
          * Gets the property.
          * 
@@ -1070,6 +1157,18 @@ public class KunderaQuery
             this.value = KunderaQuery.getValue(value);
         }
 
+        /**
+         * Copies supplied update clause.
+         * 
+         * @param clause
+         *            update clause to copy.
+         */
+        private UpdateClause(final UpdateClause clause)
+        {
+            this.property = clause.property;
+            this.value = clause.value;
+        }
+
         /**
          * @return the property
          */
@@ -1352,6 +1451,45 @@ public class KunderaQuery
             this.type = type;
         }
 
+        /**
+         * Copies supplied typed parameter, pointing it to copied clauses.
+         * 
+         * @param typedParameter
+         *            typed parameter to copy.
+         * @param clauses
+         *            original to copied clause mapping.
+         */
+        TypedParameter(TypedParameter typedParameter, Map<Object, Object> clauses)
+        {
+            this.type = typedParameter.type;
+            this.jpaParameters.addAll(typedParameter.jpaParameters);
+
+            if (typedParameter.parameters != null)
+            {
+                parameters = new HashMap<String, List<FilterClause>>();
+                for (Map.Entry<String, List<FilterClause>> entry : typedParameter.parameters.entrySet())
+                {
+                    List<FilterClause> copies = new ArrayList<KunderaQuery.FilterClause>();
+                    for (FilterClause clause : entry.getValue())
+                    {
+                        FilterClause copy = (FilterClause) clauses.get(clause);
+                        copies.add(copy != null ? copy : new FilterClause(clause));
+                    }
+                    parameters.put(entry.getKey(), copies);
+                }
+            }
+
+            if (typedParameter.updateParameters != null)
+            {
+                updateParameters = new HashMap<String, UpdateClause>();
+                for (Map.Entry<String, UpdateClause> entry : typedParameter.updateParameters.entrySet())
+                {
+                    UpdateClause copy = (UpdateClause) clauses.get(entry.getValue());
+                    updateParameters.put(entry.getKey(), copy != null ? copy : new UpdateClause(entry.getValue()));
+                }
+            }
+        }
+
         /**
          * @return the type
          */
@@ -50,6 +50,8 @@ import org.slf4j.LoggerFactory;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraphUtils;
 import com.impetus.kundera.index.IndexingConstants;
 import com.impetus.kundera.metadata.model.ApplicationMetadata;
 import com.impetus.kundera.metadata.model.EntityMetadata;
@@ -59,6 +61,7 @@ import com.impetus.kundera.metadata.model.type.DefaultEntityType;
 import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
 import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.persistence.context.CacheBase;
 import com.impetus.kundera.persistence.context.PersistenceCacheManager;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
@@ -156,7 +159,12 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
     @Override
     public int executeUpdate()
     {
-        return onExecuteUpdate();
+        int result = onExecuteUpdate();
+        if (getEntityMetadata() != null && kunderaMetadata.getQueryResultCache() != null)
+        {
+            kunderaMetadata.getQueryResultCache().invalidate(getEntityMetadata().getEntityClazz());
+        }
+        return result;
     }
 
     /*
@@ -197,7 +205,7 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
             }
             else
             {
-                results = fetch();
+                results = isResultCacheable() ? fetchCached() : fetch();
                 assignReferenceToProxy(results);
             }
         }
@@ -233,6 +241,7 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
             {
                 addToRelationStack(relationStack, e, m);
             }
+            getReader().prefetchRelations(enhanceEntities, m, persistenceDelegeator, relationStack);
         }
 
         if (enhanceEntities != null)
@@ -1379,6 +1388,134 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
         return results;
     }
 
+    /**
+     * Returns collection of fetched entities, resolving them out of cached
+     * entity ids if this query has been run with same parameters before.
+     * 
+     * @return the list
+     */
+    private List fetchCached()
+    {
+        QueryResultCache resultCache = kunderaMetadata.getQueryResultCache();
+        EntityMetadata metadata = getEntityMetadata();
+        Class<?> entityClass = metadata.getEntityClazz();
+        QueryResultCache.Key key = new QueryResultCache.Key(getJPAQuery(), kunderaQuery.getParametersMap(),
+                firstResult, maxResult);
+
+        List<Object> ids = resultCache.get(key);
+        if (ids != null)
+        {
+            List<Object> results = resolveCached(metadata, ids);
+            if (results != null)
+            {
+                return results;
+            }
+        }
+
+        long generation = resultCache.getGeneration(entityClass);
+        List results = fetch();
+        if (results != null)
+        {
+            List<Object> resultIds = new ArrayList<Object>(results.size());
+            for (Object result : results)
+            {
+                // Sub class instances can not be resolved by id of queried
+                // class, leave such results uncached.
+                if (result == null || !result.getClass().equals(entityClass))
+                {
+                    return results;
+                }
+                resultIds.add(PropertyAccessorHelper.getId(result, metadata));
+            }
+            resultCache.put(key, entityClass, resultIds, generation);
+        }
+        return results;
+    }
+
+    /**
+     * Resolves cached entity ids into entities. Ids held in persistence
+     * context or second level cache are resolved there, hence hot entities are
+     * not read out of database, rest are read together by a single client
+     * call.
+     * 
+     * @param metadata
+     *            the entity metadata
+     * @param ids
+     *            cached entity ids
+     * @return entities in order of ids, or null if query is to be run instead
+     */
+    private List<Object> resolveCached(EntityMetadata metadata, List<Object> ids)
+    {
+        Class<?> entityClass = metadata.getEntityClazz();
+        CacheBase mainCache = persistenceDelegeator.getPersistenceCache().getMainCache();
+        Map<String, Object> entities = new HashMap<String, Object>();
+        List<Object> missingIds = new ArrayList<Object>();
+        for (Object id : ids)
+        {
+            String nodeId = ObjectGraphUtils.getNodeId(id, entityClass);
+            Node node = mainCache.getNodeFromCache(nodeId, persistenceDelegeator);
+            if (node != null && !node.isDirty() && node.getData() != null)
+            {
+                entities.put(nodeId, persistenceDelegeator.findById(entityClass, id));
+            }
+            else
+            {
+                missingIds.add(id);
+            }
+        }
+
+        if (!missingIds.isEmpty())
+        {
+            // relations are populated by query only, as it reads all at once.
+            if (isRelational(metadata))
+            {
+                return null;
+            }
+
+            Client client = persistenceDelegeator.getClient(metadata);
+            List found = client.findAll(entityClass, null, missingIds.toArray());
+            if (found != null)
+            {
+                for (Object entity : found)
+                {
+                    entity = entity instanceof EnhanceEntity ? ((EnhanceEntity) entity).getEntity() : entity;
+                    if (entity != null)
+                    {
+                        entities.put(ObjectGraphUtils.getNodeId(PropertyAccessorHelper.getId(entity, metadata),
+                                entityClass), entity);
+                    }
+                }
+            }
+        }
+
+        List<Object> results = new ArrayList<Object>(ids.size());
+        for (Object id : ids)
+        {
+            Object entity = entities.get(ObjectGraphUtils.getNodeId(id, entityClass));
+            if (entity == null)
+            {
+                // Removed meanwhile by some other factory, run query.
+                return null;
+            }
+            results.add(entity);
+        }
+        return results;
+    }
+
+    /**
+     * Returns true, if result caching is hinted for this query and its
+     * results are complete entities.
+     * 
+     * @return true, if results are to be cached.
+     */
+    private boolean isResultCacheable()
+    {
+        Object hint = hints.get(QueryResultCache.QUERY_RESULT_CACHE_HINT);
+        QueryResultCache resultCache = kunderaMetadata.getQueryResultCache();
+        return hint != null && Boolean.valueOf(hint.toString()) && resultCache != null && resultCache.isEnabled()
+                && !kunderaQuery.isNative() && kunderaQuery.isAliasOnly() && !kunderaQuery.isAggregated();
+    }
+
     /**
      * On validate single result.
      * 
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.query;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.persistence.jpa.jpql.parser.Expression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded, concurrent cache of parsed JPQL query plans, held one per entity
+ * manager factory. Cached {@link KunderaQuery} instances are never handed out
+ * as such, each lookup returns a {@link KunderaQuery#copy()} carrying its own
+ * parameter binding state.
+ * 
+ * Plans are evicted in insertion order once configured size is exceeded.
+ * Setting size to zero disables caching.
+ */
+public final class QueryPlanCache
+{
+    /** The log. */
+    private static Logger log = LoggerFactory.getLogger(QueryPlanCache.class);
+
+    /** Default number of plans held, if not configured. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final int maxSize;
+
+    private final ConcurrentMap<String, KunderaQuery> plans = new ConcurrentHashMap<String, KunderaQuery>();
+
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<String>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Instantiates a new query plan cache.
+     * 
+     * @param maxSize
+     *            maximum number of plans to hold.
+     */
+    public QueryPlanCache(final int maxSize)
+    {
+        if (maxSize < 0)
+        {
+            throw new IllegalArgumentException("Query plan cache size can not be negative, but is " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns copy of cached plan for given JPQL, or null if not cached.
+     * 
+     * @param jpaQuery
+     *            JPQL query string.
+     * @return copy of parsed query or null.
+     */
+    KunderaQuery get(final String jpaQuery)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+
+        KunderaQuery plan = plans.get(jpaQuery);
+        if (plan == null)
+        {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        return plan.copy();
+    }
+
+    /**
+     * Caches parsed plan for given JPQL and returns a copy of it to be bound
+     * by caller. Supplied plan must not be used afterwards.
+     * 
+     * @param jpaQuery
+     *            JPQL query string.
+     * @param plan
+     *            parsed and initialized kundera query.
+     * @return copy of cached plan.
+     */
+    KunderaQuery put(final String jpaQuery, final KunderaQuery plan)
+    {
+        if (!isEnabled())
+        {
+            return plan;
+        }
+
+        // Expression tree lazily builds its children, initialize them before
+        // plan gets shared among threads.
+        initialize(plan.getJpqlExpression());
+
+        KunderaQuery existing = plans.putIfAbsent(jpaQuery, plan);
+        if (existing != null)
+        {
+            return existing.copy();
+        }
+
+        insertionOrder.offer(jpaQuery);
+        while (plans.size() > maxSize)
+        {
+            String eldest = insertionOrder.poll();
+            if (eldest == null)
+            {
+                break;
+            }
+            if (plans.remove(eldest) != null)
+            {
+                evictionCount.incrementAndGet();
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Evicted query plan for {}.", eldest);
+                }
+            }
+        }
+        return plan.copy();
+    }
+
+    /**
+     * Removes all cached plans.
+     */
+    public void clear()
+    {
+        plans.clear();
+        insertionOrder.clear();
+    }
+
+    /**
+     * @return true, if plans are cached.
+     */
+    public boolean isEnabled()
+    {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return maximum number of plans held.
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * @return number of plans currently held.
+     */
+    public int size()
+    {
+        return plans.size();
+    }
+
+    /**
+     * @return number of lookups served out of cache.
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of lookups which required parsing.
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of plans evicted for exceeding size limit.
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
+    private static void initialize(final Expression expression)
+    {
+        if (expression != null)
+        {
+            expression.orderedChildren();
+            for (Expression child : expression.children())
+            {
+                initialize(child);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append("QueryPlanCache [size=");
+        builder.append(size());
+        builder.append(", maxSize=");
+        builder.append(maxSize);
+        builder.append(", hits=");
+        builder.append(getHitCount());
+        builder.append(", misses=");
+        builder.append(getMissCount());
+        builder.append(", evictions=");
+        builder.append(getEvictionCount());
+        builder.append("]");
+        return builder.toString();
+    }
+}
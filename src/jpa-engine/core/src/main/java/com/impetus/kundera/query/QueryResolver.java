@@ -18,6 +18,8 @@ package com.impetus.kundera.query;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.persistence.Query;
 
@@ -43,6 +45,9 @@ public class QueryResolver
     /** The log. */
     private static Logger log = LoggerFactory.getLogger(QueryResolver.class);
 
+    /** Query implementor constructors, looked up once per implementor class. */
+    private static final ConcurrentMap<Class, Constructor> queryConstructors = new ConcurrentHashMap<Class, Constructor>();
+
     /**
      * Gets the query implementation.
      * 
@@ -78,12 +83,7 @@ public class QueryResolver
         // In case of named native query
         if (!isNative)
         {
-            kunderaQuery = new KunderaQuery(mappedQuery != null ? mappedQuery : jpaQuery, kunderaMetadata);
-            KunderaQueryParser parser = new KunderaQueryParser(kunderaQuery);
-
-            parser.parse();
-
-            kunderaQuery.postParsingInit();
+            kunderaQuery = parse(mappedQuery != null ? mappedQuery : jpaQuery, kunderaMetadata);
             m = kunderaQuery.getEntityMetadata();
         }
         else
@@ -132,6 +132,36 @@ public class QueryResolver
         return query;
     }
 
+    /**
+     * Returns parsed kundera query for given JPQL, reusing plan cached with
+     * factory if any.
+     * 
+     * @param jpaQuery
+     *            the jpa query
+     * @param kunderaMetadata
+     *            the kundera metadata
+     * @return parsed kundera query, ready for parameter binding
+     */
+    private KunderaQuery parse(final String jpaQuery, final KunderaMetadata kunderaMetadata)
+    {
+        QueryPlanCache planCache = kunderaMetadata.getQueryPlanCache();
+
+        KunderaQuery kunderaQuery = planCache != null ? planCache.get(jpaQuery) : null;
+        if (kunderaQuery != null)
+        {
+            return kunderaQuery;
+        }
+
+        kunderaQuery = new KunderaQuery(jpaQuery, kunderaMetadata);
+        KunderaQueryParser parser = new KunderaQueryParser(kunderaQuery);
+
+        parser.parse();
+
+        kunderaQuery.postParsingInit();
+
+        return planCache != null ? planCache.put(jpaQuery, kunderaQuery) : kunderaQuery;
+    }
+
     /**
      * Gets the query instance.
      * 
@@ -167,13 +197,34 @@ public class QueryResolver
         Class clazz = persistenceDelegator.getClient(m).getQueryImplementor();
 
         @SuppressWarnings("rawtypes")
-        Constructor constructor = clazz.getConstructor(KunderaQuery.class, PersistenceDelegator.class,
-                KunderaMetadata.class);
+        Constructor constructor = getQueryConstructor(clazz);
         query = (Query) constructor.newInstance(kunderaQuery, persistenceDelegator, kunderaMetadata);
 
         return query;
     }
 
+    /**
+     * Returns query implementor's constructor, taking kundera query,
+     * persistence delegator and kundera metadata.
+     * 
+     * @param queryClazz
+     *            query implementor class
+     * @return the constructor
+     * @throws NoSuchMethodException
+     *             the no such method exception
+     */
+    private Constructor getQueryConstructor(Class queryClazz) throws NoSuchMethodException
+    {
+        Constructor constructor = queryConstructors.get(queryClazz);
+        if (constructor == null)
+        {
+            constructor = queryClazz.getConstructor(KunderaQuery.class, PersistenceDelegator.class,
+                    KunderaMetadata.class);
+            queryConstructors.putIfAbsent(queryClazz, constructor);
+        }
+        return constructor;
+    }
+
     /**
      * 
      * @param jpaQuery
@@ -212,8 +263,7 @@ public class QueryResolver
 
         try
         {
-            Constructor constructor = queryClazz.getConstructor(KunderaQuery.class, PersistenceDelegator.class,
-                    KunderaMetadata.class);
+            Constructor constructor = getQueryConstructor(queryClazz);
             query = (Query) constructor.newInstance(kunderaQuery, persistenceDelegator,
                     persistenceDelegator.getKunderaMetadata());
         }
@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.query;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of entity query results, held one per entity manager factory.
+ * Only ids of resulting entities are cached, keyed by JPQL, bound parameters
+ * and result window. Entities themselves are resolved through persistence
+ * context and second level cache.
+ * 
+ * Caching is opted in per query, by setting {@link #QUERY_RESULT_CACHE_HINT}
+ * hint to true. Any write to an entity class invalidates cached results of
+ * that class and of its super classes. Results are evicted in least recently
+ * used order once configured size is exceeded, and expire after configured
+ * time to live. Setting size to zero disables caching.
+ */
+public final class QueryResultCache
+{
+    /** Query hint enabling result caching of a query, "true" enables it. */
+    public static final String QUERY_RESULT_CACHE_HINT = "kundera.query.result.cache";
+
+    /** Default number of results held, if not configured. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final int maxSize;
+
+    private final long timeToLiveMillis;
+
+    private final Map<Key, Entry> results;
+
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<Class<?>, AtomicLong>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * Instantiates a new query result cache.
+     * 
+     * @param maxSize
+     *            maximum number of results to hold.
+     * @param timeToLive
+     *            seconds a result is held, zero for no limit.
+     */
+    public QueryResultCache(final int maxSize, final long timeToLive)
+    {
+        if (maxSize < 0 || timeToLive < 0)
+        {
+            throw new IllegalArgumentException("Query result cache size and time to live can not be negative, but are "
+                    + maxSize + " and " + timeToLive);
+        }
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = timeToLive * 1000;
+        this.results = Collections.synchronizedMap(new LinkedHashMap<Key, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+            {
+                if (size() > QueryResultCache.this.maxSize)
+                {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Returns cached entity ids for given key, or null if not cached, expired
+     * or invalidated by a write since.
+     * 
+     * @param key
+     *            result key.
+     * @return list of entity ids or null.
+     */
+    List<Object> get(final Key key)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+
+        Entry entry = results.get(key);
+        if (entry != null && (entry.generation != getGeneration(entry.entityClass) || isExpired(entry)))
+        {
+            results.remove(key);
+            entry = null;
+        }
+
+        if (entry == null)
+        {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        return entry.ids;
+    }
+
+    /**
+     * Caches entity ids resulting out of query, unless entity class has been
+     * written to after given generation was read.
+     * 
+     * @param key
+     *            result key.
+     * @param entityClass
+     *            entity class queried.
+     * @param ids
+     *            ids of resulting entities.
+     * @param generation
+     *            generation of entity class, read before query was run.
+     */
+    void put(final Key key, final Class<?> entityClass, final List<Object> ids, final long generation)
+    {
+        if (isEnabled() && generation == getGeneration(entityClass))
+        {
+            results.put(key, new Entry(entityClass, Collections.unmodifiableList(ids), generation));
+        }
+    }
+
+    /**
+     * Returns count of writes to given entity class (or any of its sub
+     * classes) seen so far.
+     * 
+     * @param entityClass
+     *            entity class.
+     * @return generation of entity class.
+     */
+    long getGeneration(final Class<?> entityClass)
+    {
+        AtomicLong generation = generations.get(entityClass);
+        return generation != null ? generation.get() : 0;
+    }
+
+    /**
+     * Invalidates cached results of given entity class and of its super
+     * classes, on a write to it.
+     * 
+     * @param entityClass
+     *            entity class written to.
+     */
+    public void invalidate(final Class<?> entityClass)
+    {
+        if (!isEnabled())
+        {
+            return;
+        }
+
+        for (Class<?> clazz = entityClass; clazz != null && !clazz.equals(Object.class); clazz = clazz
+                .getSuperclass())
+        {
+            AtomicLong generation = generations.get(clazz);
+            if (generation == null)
+            {
+                AtomicLong newGeneration = new AtomicLong();
+                generation = generations.putIfAbsent(clazz, newGeneration);
+                if (generation == null)
+                {
+                    generation = newGeneration;
+                }
+            }
+            generation.incrementAndGet();
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear()
+    {
+        results.clear();
+    }
+
+    private boolean isExpired(final Entry entry)
+    {
+        return timeToLiveMillis > 0 && System.currentTimeMillis() - entry.created >= timeToLiveMillis;
+    }
+
+    /**
+     * @return true, if results are cached.
+     */
+    public boolean isEnabled()
+    {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return maximum number of results held.
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * @return seconds a result is held, zero if unlimited.
+     */
+    public long getTimeToLive()
+    {
+        return timeToLiveMillis / 1000;
+    }
+
+    /**
+     * @return number of results currently held.
+     */
+    public int size()
+    {
+        return results.size();
+    }
+
+    /**
+     * @return number of lookups served out of cache.
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of lookups which required running query.
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of results evicted for exceeding size limit.
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return number of writes which invalidated results.
+     */
+    public long getInvalidationCount()
+    {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Identifies result of a query, by JPQL, bound parameters and result
+     * window.
+     */
+    static final class Key
+    {
+        private final String jpaQuery;
+
+        private final Map<String, Object> parameters;
+
+        private final int firstResult;
+
+        private final int maxResults;
+
+        Key(final String jpaQuery, final Map<String, Object> parameters, final int firstResult, final int maxResults)
+        {
+            this.jpaQuery = jpaQuery;
+            this.parameters = parameters != null ? new HashMap<String, Object>(parameters)
+                    : Collections.<String, Object> emptyMap();
+            this.firstResult = firstResult;
+            this.maxResults = maxResults;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = jpaQuery.hashCode();
+            result = 31 * result + parameters.hashCode();
+            result = 31 * result + firstResult;
+            return 31 * result + maxResults;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return firstResult == other.firstResult && maxResults == other.maxResults
+                    && jpaQuery.equals(other.jpaQuery) && parameters.equals(other.parameters);
+        }
+    }
+
+    /**
+     * Cached entity ids along with generation of entity class they were read
+     * at.
+     */
+    private static final class Entry
+    {
+        private final Class<?> entityClass;
+
+        private final List<Object> ids;
+
+        private final long generation;
+
+        private final long created;
+
+        private Entry(final Class<?> entityClass, final List<Object> ids, final long generation)
+        {
+            this.entityClass = entityClass;
+            this.ids = ids;
+            this.generation = generation;
+            this.created = System.currentTimeMillis();
+        }
+    }
+}
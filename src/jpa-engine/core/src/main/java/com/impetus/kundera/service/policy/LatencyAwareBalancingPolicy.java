@@ -0,0 +1,404 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.service.policy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * LatencyAwareBalancingPolicy returns pool using power of two choices: two
+ * pools are picked at random and the one with lower score is returned. Score
+ * of a pool is exponentially weighted moving average of its response times,
+ * multiplied by number of requests in flight on it. Averages decay with time,
+ * so that a pool gone idle is probed again. A pool responding much slower
+ * than the others, or failing, is penalized for a while and returned only if
+ * both picks are penalized.
+ * 
+ * Client factories report usage of returned pools through
+ * {@link #onAcquire(Object, Object)}, {@link #onRelease(Object)} and
+ * {@link #onFailure(Object)}.
+ */
+public final class LatencyAwareBalancingPolicy implements LoadBalancingPolicy
+{
+    /** Default time over which response times are averaged, in milliseconds. */
+    public static final long DEFAULT_DECAY_MILLIS = 10000;
+
+    /** Default ratio to average of other pools, response time is slow beyond. */
+    public static final double DEFAULT_PENALTY_THRESHOLD = 3.0;
+
+    /** Default time a pool is penalized for, in milliseconds. */
+    public static final long DEFAULT_PENALTY_MILLIS = 5000;
+
+    /** Time over which response times are averaged, in nanoseconds. */
+    private final double decayNanos;
+
+    /** Ratio to average of other pools, response time is slow beyond. */
+    private final double penaltyThreshold;
+
+    /** Time a pool is penalized for, in nanoseconds. */
+    private final long penaltyNanos;
+
+    /** Statistics by pool. */
+    private final ConcurrentMap<Object, PoolStats> stats = new ConcurrentHashMap<Object, PoolStats>();
+
+    /** Connections in use, with pool and time they are acquired at. */
+    private final ConcurrentMap<Object, Lease> leases = new ConcurrentHashMap<Object, Lease>();
+
+    public LatencyAwareBalancingPolicy()
+    {
+        this(DEFAULT_DECAY_MILLIS, DEFAULT_PENALTY_THRESHOLD, DEFAULT_PENALTY_MILLIS);
+    }
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param decayMillis
+     *            time over which response times are averaged
+     * @param penaltyThreshold
+     *            ratio to average of other pools, response time is slow beyond
+     * @param penaltyMillis
+     *            time a pool is penalized for
+     */
+    public LatencyAwareBalancingPolicy(long decayMillis, double penaltyThreshold, long penaltyMillis)
+    {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.penaltyThreshold = penaltyThreshold;
+        this.penaltyNanos = TimeUnit.MILLISECONDS.toNanos(penaltyMillis);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.service.policy.LoadBalancingPolicy#getPool(java.util
+     * .Collection)
+     */
+    @Override
+    public Object getPool(Collection<Object> pools)
+    {
+        int size = pools.size();
+        if (size <= 1)
+        {
+            return pools.iterator().next();
+        }
+
+        try
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            Object pool1 = Iterables.get(pools, first);
+            Object pool2 = Iterables.get(pools, second >= first ? second + 1 : second);
+
+            long now = System.nanoTime();
+            return getScore(pool2, now) < getScore(pool1, now) ? pool2 : pool1;
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            // pool removed meanwhile.
+            return pools.iterator().next();
+        }
+    }
+
+    /**
+     * Records connection acquired from pool.
+     * 
+     * @param pool
+     *            the pool
+     * @param connection
+     *            the connection
+     */
+    public void onAcquire(Object pool, Object connection)
+    {
+        PoolStats poolStats = getStats(pool);
+        poolStats.inFlight.incrementAndGet();
+        Lease previous = leases.put(connection, new Lease(poolStats, System.nanoTime()));
+        if (previous != null)
+        {
+            // never released, not to be counted any more.
+            previous.poolStats.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Records connection released to its pool, response time of pool is
+     * updated with time it was in use. Pool is penalized if its response time
+     * gets slower than configured ratio to average of other pools.
+     * 
+     * @param connection
+     *            the connection
+     */
+    public void onRelease(Object connection)
+    {
+        Lease lease = leases.remove(connection);
+        if (lease != null)
+        {
+            lease.poolStats.inFlight.decrementAndGet();
+            long now = System.nanoTime();
+            lease.poolStats.update(now - lease.acquiredAt, now);
+
+            double others = getAverageLatency(lease.poolStats, now);
+            if (others > 0 && lease.poolStats.getLatency(now) > others * penaltyThreshold)
+            {
+                lease.poolStats.penalizedUntil = now + penaltyNanos;
+            }
+        }
+    }
+
+    /**
+     * Penalizes pool, failed to provide connection.
+     * 
+     * @param pool
+     *            the pool
+     */
+    public void onFailure(Object pool)
+    {
+        getStats(pool).penalizedUntil = System.nanoTime() + penaltyNanos;
+    }
+
+    /**
+     * Returns averaged response time of pool.
+     * 
+     * @param pool
+     *            the pool
+     * @return response time in milliseconds
+     */
+    public double getLatency(Object pool)
+    {
+        PoolStats poolStats = stats.get(pool);
+        return poolStats != null ? poolStats.getLatency(System.nanoTime()) / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+
+    /**
+     * Returns number of connections of pool in use.
+     * 
+     * @param pool
+     *            the pool
+     * @return number of requests in flight
+     */
+    public int getInFlight(Object pool)
+    {
+        PoolStats poolStats = stats.get(pool);
+        return poolStats != null ? poolStats.inFlight.get() : 0;
+    }
+
+    /**
+     * Checks if pool is penalized.
+     * 
+     * @param pool
+     *            the pool
+     * @return true, if penalized
+     */
+    public boolean isPenalized(Object pool)
+    {
+        PoolStats poolStats = stats.get(pool);
+        return poolStats != null && poolStats.isPenalized(System.nanoTime());
+    }
+
+    /**
+     * Returns scores of pools seen so far, lower is better.
+     * 
+     * @return scores by pool
+     */
+    public Map<Object, Double> getScores()
+    {
+        long now = System.nanoTime();
+        Map<Object, Double> scores = new HashMap<Object, Double>();
+        for (Object pool : stats.keySet())
+        {
+            scores.put(pool, getScore(pool, now));
+        }
+        return scores;
+    }
+
+    /**
+     * Forgets statistics of pool, no longer in use.
+     * 
+     * @param pool
+     *            the pool
+     */
+    public void remove(Object pool)
+    {
+        stats.remove(pool);
+    }
+
+    /**
+     * Returns score of pool.
+     * 
+     * @param pool
+     *            the pool
+     * @param now
+     *            current nano time
+     * @return the score
+     */
+    private double getScore(Object pool, long now)
+    {
+        PoolStats poolStats = stats.get(pool);
+        if (poolStats == null)
+        {
+            return 0;
+        }
+        if (poolStats.isPenalized(now))
+        {
+            return Double.MAX_VALUE;
+        }
+        return (poolStats.getLatency(now) + 1) * (poolStats.inFlight.get() + 1);
+    }
+
+    /**
+     * Returns average response time of pools, other than given one.
+     * 
+     * @param excluded
+     *            the pool to exclude
+     * @param now
+     *            current nano time
+     * @return average response time in nanoseconds, 0 if unknown
+     */
+    private double getAverageLatency(PoolStats excluded, long now)
+    {
+        double sum = 0;
+        int count = 0;
+        for (PoolStats poolStats : stats.values())
+        {
+            double latency = poolStats.getLatency(now);
+            if (poolStats != excluded && latency > 0)
+            {
+                sum += latency;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : 0;
+    }
+
+    /**
+     * Gets statistics of pool, created on first use.
+     * 
+     * @param pool
+     *            the pool
+     * @return pool statistics
+     */
+    private PoolStats getStats(Object pool)
+    {
+        PoolStats poolStats = stats.get(pool);
+        if (poolStats == null)
+        {
+            PoolStats created = new PoolStats();
+            poolStats = stats.putIfAbsent(pool, created);
+            poolStats = poolStats != null ? poolStats : created;
+        }
+        return poolStats;
+    }
+
+    /**
+     * Response time and load of a pool.
+     */
+    private final class PoolStats
+    {
+        /** Number of connections in use. */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /** Averaged response time, in nanoseconds. */
+        private double latency;
+
+        /** Nano time average was last updated at. */
+        private long updatedAt;
+
+        /** Nano time pool is penalized till. */
+        private volatile long penalizedUntil;
+
+        /**
+         * Adds response time to average, weighting previous average by time
+         * elapsed since its update.
+         * 
+         * @param sample
+         *            response time in nanoseconds
+         * @param now
+         *            current nano time
+         */
+        private synchronized void update(long sample, long now)
+        {
+            if (updatedAt == 0)
+            {
+                latency = sample;
+            }
+            else
+            {
+                double weight = Math.exp(-Math.max(0, now - updatedAt) / decayNanos);
+                latency = latency * weight + sample * (1 - weight);
+            }
+            updatedAt = now;
+        }
+
+        /**
+         * Returns averaged response time, decayed by time elapsed since its
+         * update.
+         * 
+         * @param now
+         *            current nano time
+         * @return response time in nanoseconds
+         */
+        private synchronized double getLatency(long now)
+        {
+            return updatedAt == 0 ? 0 : latency * Math.exp(-Math.max(0, now - updatedAt) / decayNanos);
+        }
+
+        /**
+         * Checks if penalized.
+         * 
+         * @param now
+         *            current nano time
+         * @return true, if penalized
+         */
+        private boolean isPenalized(long now)
+        {
+            return penalizedUntil != 0 && now - penalizedUntil < 0;
+        }
+    }
+
+    /**
+     * Connection in use.
+     */
+    private static final class Lease
+    {
+        /** Statistics of pool connection belongs to. */
+        private final PoolStats poolStats;
+
+        /** Nano time connection is acquired at. */
+        private final long acquiredAt;
+
+        /**
+         * Instantiates a new lease.
+         * 
+         * @param poolStats
+         *            statistics of pool
+         * @param acquiredAt
+         *            nano time connection is acquired at
+         */
+        private Lease(PoolStats poolStats, long acquiredAt)
+        {
+            this.poolStats = poolStats;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.service.policy;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.impetus.kundera.KunderaException;
+
+/**
+ * SpeculativeExecutionPolicy decides when an idempotent read, not completed
+ * in time, is sent once more to another host, the first response winning.
+ * Delay is either fixed or a percentile of recently observed response times,
+ * fixed delay applying until enough of those are observed. Speculative
+ * requests are capped to a ratio of all requests.
+ * 
+ * Clients with asynchronous api drive speculation themselves, through
+ * {@link #getDelay(TimeUnit)}, {@link #tryAcquire()} and related methods,
+ * others run reads through {@link #execute(Callable, Callable)}. A read that
+ * cannot be sent speculatively runs on calling thread, others on a bounded
+ * pool of threads.
+ */
+public final class SpeculativeExecutionPolicy
+{
+    /** Number of response times, percentile is computed over. */
+    private static final int SAMPLES = 1024;
+
+    /** Number of response times, percentile delay is recomputed after. */
+    private static final int RECOMPUTE_INTERVAL = 128;
+
+    /** Maximum number of speculative requests, sent in a burst. */
+    private static final double MAX_CREDITS = 10;
+
+    /**
+     * Maximum number of threads running reads, reads beyond it running on
+     * calling thread without speculation.
+     */
+    private static final int MAX_THREADS = 64;
+
+    /** Fixed delay, in nanoseconds. */
+    private final long fixedDelay;
+
+    /** Percentile of response times used as delay, 0 for fixed delay. */
+    private final double percentile;
+
+    /** Ratio of speculative to all requests, not to exceed. */
+    private final double maxExtraLoad;
+
+    /** Recent response times, in nanoseconds. */
+    private final long[] samples = new long[SAMPLES];
+
+    /** Number of response times recorded. */
+    private long sampleCount;
+
+    /** Current delay, in nanoseconds. */
+    private volatile long delay;
+
+    /** Speculative requests, that can be sent now. */
+    private double credits = 1;
+
+    /** Number of requests. */
+    private final AtomicLong requests = new AtomicLong();
+
+    /** Number of speculative requests. */
+    private final AtomicLong speculativeAttempts = new AtomicLong();
+
+    /** Number of speculative requests, responding first. */
+    private final AtomicLong speculativeWins = new AtomicLong();
+
+    /** Runs reads of synchronous clients, created on first use. */
+    private ExecutorService executor;
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param fixedDelayMillis
+     *            fixed delay, in milliseconds
+     * @param percentile
+     *            percentile of response times used as delay, 0 for fixed
+     *            delay
+     * @param maxExtraLoad
+     *            ratio of speculative to all requests, not to exceed
+     */
+    public SpeculativeExecutionPolicy(long fixedDelayMillis, double percentile, double maxExtraLoad)
+    {
+        if (fixedDelayMillis < 0 || percentile < 0 || percentile >= 100 || maxExtraLoad <= 0)
+        {
+            throw new IllegalArgumentException("Invalid speculative execution delay " + fixedDelayMillis
+                    + ", percentile " + percentile + " or max load " + maxExtraLoad + ".");
+        }
+        this.fixedDelay = TimeUnit.MILLISECONDS.toNanos(fixedDelayMillis);
+        this.percentile = percentile;
+        this.maxExtraLoad = maxExtraLoad;
+        this.delay = fixedDelay;
+    }
+
+    /**
+     * Runs read, sending speculative one if it does not complete within
+     * delay. Result of whichever completes first is returned, failure only if
+     * both fail, and the other one is cancelled. Read runs on calling thread
+     * if there is no speculative one, or none can be sent now.
+     * 
+     * @param primary
+     *            the read
+     * @param speculative
+     *            same read against another host, over a connection of its
+     *            own, null if there is none
+     * @return result of the read
+     */
+    public <T> T execute(Callable<T> primary, Callable<T> speculative)
+    {
+        onRequest();
+        long start = System.nanoTime();
+        try
+        {
+            if (speculative == null || !hasCredits())
+            {
+                return primary.call();
+            }
+
+            CompletionService<T> completed = new ExecutorCompletionService<T>(getExecutor());
+            Future<T> first;
+            try
+            {
+                first = completed.submit(primary);
+            }
+            catch (RejectedExecutionException e)
+            {
+                return primary.call();
+            }
+
+            Future<T> second = null;
+            try
+            {
+                Future<T> done = completed.poll(delay, TimeUnit.NANOSECONDS);
+                if (done == null && tryAcquire())
+                {
+                    try
+                    {
+                        second = completed.submit(speculative);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        release();
+                    }
+                }
+                if (done == null)
+                {
+                    done = completed.take();
+                }
+                if (second != null)
+                {
+                    try
+                    {
+                        return getResult(done, second);
+                    }
+                    catch (ExecutionException e)
+                    {
+                        // the other one may still succeed.
+                        done = completed.take();
+                    }
+                }
+                return getResult(done, second);
+            }
+            finally
+            {
+                first.cancel(true);
+                if (second != null)
+                {
+                    second.cancel(true);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new KunderaException(e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new KunderaException(e.getCause());
+        }
+        catch (RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new KunderaException(e);
+        }
+        finally
+        {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns result of completed read, recording a speculative win.
+     * 
+     * @param done
+     *            the completed read
+     * @param speculative
+     *            the speculative read, null if none was sent
+     * @return result of the read
+     * @throws ExecutionException
+     *             if the read failed
+     * @throws InterruptedException
+     *             never, as the read is complete
+     */
+    private <T> T getResult(Future<T> done, Future<T> speculative) throws ExecutionException, InterruptedException
+    {
+        T result = done.get();
+        if (done == speculative)
+        {
+            onSpeculativeWin();
+        }
+        return result;
+    }
+
+    /**
+     * Records a request, increasing number of speculative ones allowed.
+     */
+    public void onRequest()
+    {
+        requests.incrementAndGet();
+        synchronized (this)
+        {
+            credits = Math.min(MAX_CREDITS, credits + maxExtraLoad);
+        }
+    }
+
+    /**
+     * Checks if a speculative request can be sent, counting it if so.
+     * 
+     * @return true, if allowed
+     */
+    public boolean tryAcquire()
+    {
+        synchronized (this)
+        {
+            if (credits < 1)
+            {
+                return false;
+            }
+            credits--;
+        }
+        speculativeAttempts.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Checks if a speculative request could be sent now, without counting it.
+     * 
+     * @return true, if allowed
+     */
+    private synchronized boolean hasCredits()
+    {
+        return credits >= 1;
+    }
+
+    /**
+     * Takes back a speculative request acquired but not sent.
+     */
+    private void release()
+    {
+        synchronized (this)
+        {
+            credits = Math.min(MAX_CREDITS, credits + 1);
+        }
+        speculativeAttempts.decrementAndGet();
+    }
+
+    /**
+     * Records speculative request, responding first.
+     */
+    public void onSpeculativeWin()
+    {
+        speculativeWins.incrementAndGet();
+    }
+
+    /**
+     * Records response time of a request, for percentile delay.
+     * 
+     * @param latencyNanos
+     *            response time in nanoseconds
+     */
+    public void record(long latencyNanos)
+    {
+        if (percentile <= 0)
+        {
+            return;
+        }
+
+        long[] snapshot = null;
+        synchronized (samples)
+        {
+            samples[(int) (sampleCount++ % SAMPLES)] = latencyNanos;
+            if (sampleCount >= RECOMPUTE_INTERVAL && sampleCount % RECOMPUTE_INTERVAL == 0)
+            {
+                snapshot = Arrays.copyOf(samples, (int) Math.min(sampleCount, SAMPLES));
+            }
+        }
+
+        if (snapshot != null)
+        {
+            Arrays.sort(snapshot);
+            delay = snapshot[Math.min(snapshot.length - 1, (int) (snapshot.length * percentile / 100))];
+        }
+    }
+
+    /**
+     * Returns time a request is waited for, before speculative one is sent.
+     * 
+     * @param unit
+     *            time unit
+     * @return the delay
+     */
+    public long getDelay(TimeUnit unit)
+    {
+        return unit.convert(delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets number of requests.
+     * 
+     * @return the request count
+     */
+    public long getRequestCount()
+    {
+        return requests.get();
+    }
+
+    /**
+     * Gets number of speculative requests sent.
+     * 
+     * @return the speculative attempt count
+     */
+    public long getSpeculativeAttemptCount()
+    {
+        return speculativeAttempts.get();
+    }
+
+    /**
+     * Gets number of speculative requests, responding first.
+     * 
+     * @return the speculative win count
+     */
+    public long getSpeculativeWinCount()
+    {
+        return speculativeWins.get();
+    }
+
+    /**
+     * Stops threads running reads.
+     */
+    public synchronized void shutdown()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Gets the executor.
+     * 
+     * @return the executor
+     */
+    private synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(), new ThreadFactory()
+                    {
+                        @Override
+                        public Thread newThread(Runnable r)
+                        {
+                            Thread thread = new Thread(r, "kundera-speculative-read");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return executor;
+    }
+}
@@ -66,4 +66,90 @@ public class ElementCollectionCacheManagerTest
 
     }
 
+    @Test
+    public void testLookupByValue()
+    {
+        Person p = new Person();
+        p.setAge(23);
+        p.setPersonId("personId");
+
+        Person copy = new Person();
+        copy.setAge(23);
+        copy.setPersonId("personId");
+
+        ElementCollectionCacheManager manager = new ElementCollectionCacheManager(100);
+        manager.addElementCollectionCacheMapping("rowKey", p, "person#0");
+        Assert.assertEquals("person#0", manager.getElementCollectionObjectName("rowKey", copy));
+
+        copy.setAge(24);
+        Assert.assertNull(manager.getElementCollectionObjectName("rowKey", copy));
+        Assert.assertNull(manager.getElementCollectionObjectName("otherRowKey", p));
+
+        manager.evict("rowKey");
+        Assert.assertTrue(manager.isCacheEmpty());
+        Assert.assertNull(manager.getElementCollectionObjectName("rowKey", p));
+    }
+
+    @Test
+    public void testMaxRows()
+    {
+        ElementCollectionCacheManager manager = new ElementCollectionCacheManager(32);
+        for (int i = 0; i < 1000; i++)
+        {
+            manager.addElementCollectionCacheMapping("rowKey" + i, "element" + i, "element#" + i);
+        }
+
+        Assert.assertTrue(manager.getElementCollectionCache().size() <= 32);
+        Assert.assertEquals("element#999", manager.getElementCollectionObjectName("rowKey999", "element999"));
+
+        manager.clearCache();
+        Assert.assertTrue(manager.isCacheEmpty());
+        Assert.assertTrue(manager.getElementCollectionCache().isEmpty());
+    }
+
+    @Test
+    public void testManagedRows()
+    {
+        ElementCollectionCacheManager manager = new ElementCollectionCacheManager(32);
+
+        // managed by two persistence contexts.
+        manager.acquire("managed");
+        manager.acquire("managed");
+        manager.addElementCollectionCacheMapping("managed", "element", "element#0");
+        for (int i = 0; i < 1000; i++)
+        {
+            manager.addElementCollectionCacheMapping("rowKey" + i, "element" + i, "element#" + i);
+        }
+        Assert.assertEquals("element#0", manager.getElementCollectionObjectName("managed", "element"));
+
+        manager.release("managed");
+        Assert.assertEquals("element#0", manager.getElementCollectionObjectName("managed", "element"));
+
+        manager.release("managed");
+        Assert.assertNull(manager.getElementCollectionObjectName("managed", "element"));
+        Assert.assertEquals(-1, manager.getLastElementCollectionObjectCount("managed"));
+
+        manager.release("managed");
+        manager.release(null);
+    }
+
+    @Test
+    public void testRowManagedAfterAdded()
+    {
+        ElementCollectionCacheManager manager = new ElementCollectionCacheManager(32);
+        manager.addElementCollectionCacheMapping("managed", "element", "element#0");
+        manager.acquire("managed");
+        for (int i = 0; i < 1000; i++)
+        {
+            manager.addElementCollectionCacheMapping("rowKey" + i, "element" + i, "element#" + i);
+        }
+
+        Assert.assertEquals("element#0", manager.getElementCollectionObjectName("managed", "element"));
+        Assert.assertTrue(manager.getElementCollectionCache().containsKey("managed"));
+        Assert.assertTrue(manager.getElementCollectionCache().size() <= 33);
+
+        manager.release("managed");
+        Assert.assertNull(manager.getElementCollectionObjectName("managed", "element"));
+    }
+
 }
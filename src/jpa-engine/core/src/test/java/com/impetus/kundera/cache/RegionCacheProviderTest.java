@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Cacheable;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.Constants;
+import com.impetus.kundera.graph.ObjectGraphUtils;
+
+/**
+ * junit for {@link RegionCacheProvider}.
+ */
+public class RegionCacheProviderTest
+{
+    private RegionCacheProvider cacheProvider;
+
+    private RegionCache cache;
+
+    @Before
+    public void setUp()
+    {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(RegionCacheProvider.REGION_PROPERTY_PREFIX + RegionCacheProvider.DEFAULT_REGION + "."
+                + RegionCacheProvider.MAX_ENTRIES, "100");
+        properties.put(RegionCacheProvider.REGION_PROPERTY_PREFIX + Reference.class.getName() + "."
+                + RegionCacheProvider.MAX_ENTRIES, "5");
+
+        cacheProvider = new RegionCacheProvider();
+        cacheProvider.init(properties);
+        cache = (RegionCache) cacheProvider.createCache(Constants.KUNDERA_SECONDARY_CACHE_NAME);
+    }
+
+    @After
+    public void tearDown()
+    {
+        cacheProvider.shutdown();
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        Assert.assertSame(cache, cacheProvider.getCache(Constants.KUNDERA_SECONDARY_CACHE_NAME));
+        Assert.assertSame(cache, cache.unwrap(RegionCache.class));
+
+        Reference reference = new Reference();
+        cache.put(ObjectGraphUtils.getNodeId(1, Reference.class), reference);
+        Order order = new Order();
+        cache.put(ObjectGraphUtils.getNodeId(1, Order.class), order);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(2, cache.getRegions().size());
+        Assert.assertSame(reference, cache.get(ObjectGraphUtils.getNodeId(1, Reference.class)));
+        Assert.assertSame(order, cache.get(ObjectGraphUtils.getNodeId(1, Order.class)));
+        Assert.assertNull(cache.get(ObjectGraphUtils.getNodeId(2, Order.class)));
+
+        Assert.assertTrue(cache.contains(Reference.class, 1));
+        Assert.assertTrue(cache.contains(Order.class, ObjectGraphUtils.getNodeId(1, Order.class)));
+
+        Region region = cache.getRegion(Order.class);
+        Assert.assertEquals(1, region.getHitCount());
+        Assert.assertEquals(1, region.getMissCount());
+        Assert.assertEquals(0.5d, region.getHitRatio());
+        Assert.assertEquals(2, region.getMaxEntries());
+        Assert.assertEquals(5, cache.getRegion(Reference.class).getMaxEntries());
+
+        cache.evict(Order.class, 1);
+        Assert.assertFalse(cache.contains(Order.class, 1));
+        Assert.assertTrue(cache.contains(Reference.class, 1));
+
+        cache.evict(Object.class);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSegmentedLruEviction()
+    {
+        cache.put(ObjectGraphUtils.getNodeId(0, Reference.class), new Reference());
+        // read once more, hence promoted to protected segment.
+        Assert.assertNotNull(cache.get(ObjectGraphUtils.getNodeId(0, Reference.class)));
+
+        // scan of entities read only once.
+        for (int i = 1; i <= 10; i++)
+        {
+            cache.put(ObjectGraphUtils.getNodeId(i, Reference.class), new Reference());
+        }
+
+        Region region = cache.getRegion(Reference.class);
+        Assert.assertEquals(5, region.size());
+        Assert.assertEquals(6, region.getEvictionCount());
+        Assert.assertNotNull(cache.get(ObjectGraphUtils.getNodeId(0, Reference.class)));
+        Assert.assertNull(cache.get(ObjectGraphUtils.getNodeId(1, Reference.class)));
+        Assert.assertNotNull(cache.get(ObjectGraphUtils.getNodeId(10, Reference.class)));
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception
+    {
+        final Region region = cache.getRegion(Reference.class);
+        for (int i = 0; i < 5; i++)
+        {
+            region.put(i, new Reference());
+        }
+        Assert.assertNotNull(region.get(0));
+        Assert.assertNotNull(region.get(1));
+
+        // readers hit hot entries while a writer keeps evicting.
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++)
+        {
+            readers.add(new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = 0; i < 10000; i++)
+                    {
+                        region.get(i % 2);
+                    }
+                }
+            });
+        }
+        for (Thread reader : readers)
+        {
+            reader.start();
+        }
+        for (int i = 5; i < 1000; i++)
+        {
+            region.put(i, new Reference());
+            Assert.assertTrue(region.size() <= 5);
+        }
+        for (Thread reader : readers)
+        {
+            reader.join();
+        }
+
+        Assert.assertEquals(5, region.size());
+        Assert.assertNotNull(region.get(0));
+        Assert.assertNotNull(region.get(1));
+        Assert.assertEquals(40004, region.getHitCount() + region.getMissCount());
+    }
+
+    @Test
+    public void testRegionAnnotations() throws InterruptedException
+    {
+        cache.put(ObjectGraphUtils.getNodeId(1, NotCached.class), new NotCached());
+        Assert.assertNull(cache.get(ObjectGraphUtils.getNodeId(1, NotCached.class)));
+        Assert.assertFalse(cache.getRegion(NotCached.class).isEnabled());
+
+        cache.put(ObjectGraphUtils.getNodeId(1, Order.class), new Order());
+        cache.put(ObjectGraphUtils.getNodeId(2, Order.class), new Order());
+        cache.put(ObjectGraphUtils.getNodeId(3, Order.class), new Order());
+
+        Region region = cache.getRegion(Order.class);
+        Assert.assertEquals(2, region.size());
+        Assert.assertEquals(1, region.getTimeToLive());
+        Assert.assertNotNull(cache.get(ObjectGraphUtils.getNodeId(3, Order.class)));
+
+        Thread.sleep(1100);
+
+        Assert.assertNull(cache.get(ObjectGraphUtils.getNodeId(3, Order.class)));
+        Assert.assertEquals(1, region.getExpirationCount());
+    }
+
+    /**
+     * Reference data, sized by properties.
+     */
+    private static class Reference
+    {
+    }
+
+    @CacheRegion(maxEntries = 2, timeToLive = 1)
+    private static class Order
+    {
+    }
+
+    @Cacheable(false)
+    private static class NotCached
+    {
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.generator.PooledIdAllocator.BlockSource;
+
+/**
+ * To test pooled id allocation.
+ */
+public class PooledIdAllocatorTest
+{
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.generator.PooledIdAllocator#next(BlockSource)}
+     * .
+     */
+    @Test
+    public void testNext()
+    {
+        CounterSource source = new CounterSource(100, 30);
+        PooledIdAllocator allocator = new PooledIdAllocator(30);
+
+        for (long id = 100; id < 100 + 30 * 5; id++)
+        {
+            Assert.assertEquals(id, allocator.next(source));
+        }
+
+        // current block and one reserved in advance.
+        Assert.assertTrue(source.counter.get() <= 6);
+    }
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.generator.PooledIdAllocator#next(BlockSource)}
+     * with an allocation size of 1.
+     */
+    @Test
+    public void testNextWithoutPooling()
+    {
+        CounterSource source = new CounterSource(1, 1);
+        PooledIdAllocator allocator = new PooledIdAllocator(1);
+
+        Assert.assertEquals(1, allocator.next(source));
+        Assert.assertEquals(2, allocator.next(source));
+        Assert.assertEquals(2, source.counter.get());
+    }
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.generator.PooledIdAllocator#next(BlockSource)}
+     * with concurrent callers.
+     */
+    @Test
+    public void testConcurrentNext() throws Exception
+    {
+        final CounterSource source = new CounterSource(1, 50);
+        final PooledIdAllocator allocator = new PooledIdAllocator(50);
+        final Set<Long> generated = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        final CountDownLatch latch = new CountDownLatch(8);
+
+        for (int i = 0; i < 8; i++)
+        {
+            new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int j = 0; j < 1000; j++)
+                    {
+                        generated.add(allocator.next(source));
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+
+        latch.await();
+
+        // no id handed out twice.
+        Assert.assertEquals(8000, generated.size());
+    }
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.generator.IdAllocatorRegistry#getAllocator(String, int)}
+     * and {@link com.impetus.kundera.generator.IdAllocatorRegistry#clear()}.
+     */
+    @Test
+    public void testGetAllocator()
+    {
+        IdAllocatorRegistry registry = new IdAllocatorRegistry();
+        IdAllocatorRegistry otherRegistry = new IdAllocatorRegistry();
+
+        PooledIdAllocator allocator = registry.getAllocator("pu:schema.sequence", 10);
+        PooledIdAllocator otherAllocator = otherRegistry.getAllocator("pu:schema.sequence", 10);
+        Assert.assertSame(allocator, registry.getAllocator("pu:schema.sequence", 10));
+        Assert.assertNotSame(allocator, registry.getAllocator("pu:schema.other", 10));
+        Assert.assertNotSame(allocator, otherAllocator);
+
+        // other factories keep their allocators.
+        registry.clear();
+        Assert.assertNotSame(allocator, registry.getAllocator("pu:schema.sequence", 10));
+        Assert.assertSame(otherAllocator, otherRegistry.getAllocator("pu:schema.sequence", 10));
+        Assert.assertEquals(100, PooledIdAllocator.getBlockStart(1, 100, 30));
+        Assert.assertEquals(160, PooledIdAllocator.getBlockStart(3, 100, 30));
+    }
+
+    /**
+     * Block source over an in memory counter of blocks.
+     */
+    private static class CounterSource implements BlockSource
+    {
+        private final AtomicLong counter = new AtomicLong();
+
+        private final int initialValue;
+
+        private final int allocationSize;
+
+        private CounterSource(int initialValue, int allocationSize)
+        {
+            this.initialValue = initialValue;
+            this.allocationSize = allocationSize;
+        }
+
+        @Override
+        public long reserve()
+        {
+            return PooledIdAllocator.getBlockStart(counter.incrementAndGet(), initialValue, allocationSize);
+        }
+    }
+}
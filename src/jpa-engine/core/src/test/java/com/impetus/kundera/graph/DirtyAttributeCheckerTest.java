@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.graph;
+
+import java.util.BitSet;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.metamodel.Attribute;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.persistence.context.PersistenceCache;
+
+/**
+ * Test case for {@link DirtyAttributeChecker} and dirty attributes of
+ * {@link Node}.
+ */
+public class DirtyAttributeCheckerTest
+{
+    private EntityManagerFactory emf;
+
+    private KunderaMetadata kunderaMetadata;
+
+    private EntityMetadata metadata;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory("kunderatest");
+        kunderaMetadata = ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance();
+        metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, Store.class);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        emf.close();
+    }
+
+    @Test
+    public void testChangedAttributes()
+    {
+        Store original = new Store(1, "Gurgaon");
+        original.addCounter(newCounter(11, "A"));
+
+        Store store = new Store(1, "Gurgaon");
+        store.addCounter(newCounter(11, "B"));
+
+        BitSet dirty = DirtyAttributeChecker.getDirtyAttributes(original, store, metadata, kunderaMetadata);
+        Assert.assertNotNull(dirty);
+        Assert.assertTrue(dirty.isEmpty());
+
+        store.setStoreName("Noida");
+        store.addCounter(newCounter(12, "C"));
+        dirty = DirtyAttributeChecker.getDirtyAttributes(original, store, metadata, kunderaMetadata);
+
+        List<Attribute> attributes = metadata.getOrderedAttributes();
+        Assert.assertEquals(2, dirty.cardinality());
+        Assert.assertTrue(dirty.get(indexOf(attributes, "storeName")));
+        Assert.assertTrue(dirty.get(indexOf(attributes, "counters")));
+        Assert.assertFalse(dirty.get(indexOf(attributes, "storeId")));
+
+        Assert.assertNull(DirtyAttributeChecker.getDirtyAttributes(null, store, metadata, kunderaMetadata));
+    }
+
+    @Test
+    public void testNodeDirtyAttributes()
+    {
+        Store store = new Store(1, "Gurgaon");
+        Node node = new Node(ObjectGraphUtils.getNodeId(1, Store.class), store, null, new PersistenceCache(), 1, null);
+        Assert.assertTrue(node.isDirty());
+        Assert.assertNull(node.getDirtyAttributes());
+
+        node.setDirty(false);
+        BitSet attributes = new BitSet();
+        attributes.set(1);
+        node.setDirty(attributes);
+        Assert.assertTrue(node.isDirty());
+        Assert.assertEquals(attributes, node.getDirtyAttributes());
+
+        attributes = new BitSet();
+        attributes.set(2);
+        node.setDirty(attributes);
+        Assert.assertEquals(2, node.getDirtyAttributes().cardinality());
+
+        node.setDirty(true);
+        Assert.assertNull(node.getDirtyAttributes());
+    }
+
+    @Test
+    public void testDeferredOriginalNode()
+    {
+        Store loaded = new Store(1, "Gurgaon");
+        Node node = new Node(ObjectGraphUtils.getNodeId(1, Store.class), loaded, null, new PersistenceCache(), 1, null);
+        node.deferOriginalNode();
+        Assert.assertSame(loaded, node.getOriginalNode().getData());
+
+        Store merged = new Store(1, "Noida");
+        node.setData(merged);
+        Assert.assertSame(merged, node.getData());
+        Assert.assertSame(loaded, node.getOriginalNode().getData());
+    }
+
+    private BillingCounter newCounter(int id, String code)
+    {
+        BillingCounter counter = new BillingCounter();
+        counter.setCounterId(id);
+        counter.setCounterCode(code);
+        return counter;
+    }
+
+    private int indexOf(List<Attribute> attributes, String name)
+    {
+        for (int i = 0; i < attributes.size(); i++)
+        {
+            if (attributes.get(i).getName().equals(name))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
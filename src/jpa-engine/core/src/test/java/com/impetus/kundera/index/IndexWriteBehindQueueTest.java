@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit for {@link IndexWriteBehindQueue}.
+ */
+public class IndexWriteBehindQueueTest
+{
+    private final List<String> appliedMutations = Collections.synchronizedList(new ArrayList<String>());
+
+    private IndexWriteBehindQueue queue;
+
+    @After
+    public void tearDown()
+    {
+        if (queue != null)
+        {
+            queue.close();
+        }
+    }
+
+    @Test
+    public void testMutationsCoalescedAndAppliedInOrder() throws InterruptedException
+    {
+        queue = new IndexWriteBehindQueue(10, 10, true);
+        CountDownLatch blocked = block();
+
+        queue.submit("a", mutation("a1"));
+        queue.submit("b", mutation("b1"));
+        queue.submit("a", mutation("a2"));
+        Assert.assertEquals(2, queue.getQueueDepth());
+        Assert.assertEquals(1, queue.getCoalescedCount());
+
+        blocked.countDown();
+        queue.awaitApplied();
+
+        Assert.assertEquals(0, queue.getQueueDepth());
+        Assert.assertEquals(0, queue.getLag());
+        Assert.assertEquals(3, queue.getAppliedCount());
+        Assert.assertEquals(Arrays.asList("block", "b1", "a2"), appliedMutations);
+    }
+
+    @Test
+    public void testBackpressure() throws InterruptedException
+    {
+        queue = new IndexWriteBehindQueue(1, 1, false);
+        CountDownLatch blocked = block();
+
+        queue.submit("a", mutation("a1"));
+        // same key is coalesced even when queue is full.
+        queue.submit("a", mutation("a2"));
+
+        final CountDownLatch submitted = new CountDownLatch(1);
+        Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                queue.submit("b", mutation("b1"));
+                submitted.countDown();
+            }
+        });
+        writer.start();
+        Assert.assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(queue.getLag() >= 200);
+
+        blocked.countDown();
+        Assert.assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(queue.awaitApplied(5000));
+        Assert.assertEquals(Arrays.asList("block", "a2", "b1"), appliedMutations);
+    }
+
+    @Test
+    public void testFailedMutation()
+    {
+        queue = new IndexWriteBehindQueue(10, 10, true);
+        queue.submit("a", failure("failed"));
+        queue.submit("b", mutation("b1"));
+        try
+        {
+            queue.awaitApplied();
+            Assert.fail("Failed mutation should be thrown on commit.");
+        }
+        catch (IndexingException e)
+        {
+            Assert.assertEquals("failed", e.getCause().getMessage());
+        }
+
+        Assert.assertEquals(1, queue.getFailedCount());
+        Assert.assertEquals(1, queue.getAppliedCount());
+        Assert.assertEquals(Collections.singletonList("b1"), appliedMutations);
+
+        // thrown once only.
+        queue.awaitApplied();
+    }
+
+    @Test
+    public void testFailureThrownToSubmittingThread() throws InterruptedException
+    {
+        queue = new IndexWriteBehindQueue(10, 10, true);
+        final List<Throwable> thrown = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                queue.submit("a", failure("failed"));
+                try
+                {
+                    queue.awaitApplied();
+                }
+                catch (IndexingException e)
+                {
+                    thrown.add(e);
+                }
+            }
+        });
+        writer.start();
+        writer.join();
+
+        // failure of another thread's mutation is not thrown here.
+        queue.submit("b", mutation("b1"));
+        queue.awaitApplied();
+
+        Assert.assertEquals(1, thrown.size());
+        Assert.assertEquals(1, queue.getFailedCount());
+    }
+
+    @Test
+    public void testFailedMutationAsync()
+    {
+        queue = new IndexWriteBehindQueue(10, 10, false);
+        queue.submit("a", failure("failed"));
+        Assert.assertTrue(queue.awaitApplied(10000));
+        queue.awaitApplied();
+        Assert.assertEquals(1, queue.getFailedCount());
+    }
+
+    @Test
+    public void testClose()
+    {
+        queue = new IndexWriteBehindQueue(10, 2, false);
+        for (int i = 0; i < 5; i++)
+        {
+            queue.submit(i, mutation("m" + i));
+        }
+        queue.close();
+        Assert.assertEquals(5, appliedMutations.size());
+
+        // applied by caller once closed.
+        queue.submit("a", mutation("a1"));
+        Assert.assertEquals("a1", appliedMutations.get(5));
+    }
+
+    /**
+     * Keeps worker busy until returned latch is counted down.
+     */
+    private CountDownLatch block() throws InterruptedException
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        queue.submit("block", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                started.countDown();
+                try
+                {
+                    blocked.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                appliedMutations.add("block");
+            }
+        });
+        started.await();
+        return blocked;
+    }
+
+    private Runnable failure(final String message)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                throw new IndexingException(message);
+            }
+        };
+    }
+
+    private Runnable mutation(final String name)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                appliedMutations.add(name);
+            }
+        };
+    }
+}
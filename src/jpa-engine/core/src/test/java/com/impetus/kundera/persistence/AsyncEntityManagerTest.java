@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.DummyDatabase;
+import com.impetus.kundera.persistence.api.AsyncEntityManager;
+import com.impetus.kundera.query.Person;
+
+/**
+ * Junit for {@link AsyncEntityManager}.
+ */
+public class AsyncEntityManagerTest
+{
+    private static final String PU = "patest";
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    private AsyncEntityManager asyncEm;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(PersistenceProperties.KUNDERA_ASYNC_POOL_SIZE, "4");
+        emf = Persistence.createEntityManagerFactory(PU, properties);
+        em = emf.createEntityManager();
+        asyncEm = em.unwrap(AsyncEntityManager.class);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+        DummyDatabase.INSTANCE.dropDatabase();
+    }
+
+    @Test
+    public void testCrud() throws Exception
+    {
+        Assert.assertSame(asyncEm, em.unwrap(AsyncEntityManager.class));
+
+        Person person = prepare("1", "vivek", 10);
+        Assert.assertSame(person, get(asyncEm.persist(person)));
+
+        Person found = get(asyncEm.find(Person.class, "1"));
+        Assert.assertNotNull(found);
+        Assert.assertEquals("vivek", found.getPersonName());
+
+        // not part of entity manager's persistence context.
+        Assert.assertFalse(em.contains(found));
+
+        found.setPersonName("kuldeep");
+        get(asyncEm.merge(found));
+        Assert.assertEquals("kuldeep", get(asyncEm.find(Person.class, "1")).getPersonName());
+        Assert.assertEquals("kuldeep", em.find(Person.class, "1").getPersonName());
+
+        get(asyncEm.remove(found));
+        Assert.assertNull(get(asyncEm.find(Person.class, "1")));
+    }
+
+    @Test
+    public void testConcurrentFind() throws Exception
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            get(asyncEm.persist(prepare("" + i, "name" + i, i)));
+        }
+
+        List<ListenableFuture<Person>> futures = new ArrayList<ListenableFuture<Person>>();
+        for (int i = 0; i < 20; i++)
+        {
+            futures.add(asyncEm.find(Person.class, "" + i));
+        }
+
+        List<Person> persons = get(Futures.allAsList(futures));
+        for (int i = 0; i < 20; i++)
+        {
+            Assert.assertEquals("name" + i, persons.get(i).getPersonName());
+        }
+    }
+
+    @Test
+    public void testClosed() throws Exception
+    {
+        em.close();
+        try
+        {
+            asyncEm.find(Person.class, "1");
+            Assert.fail("Should have failed on closed entity manager.");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected.
+        }
+        em = emf.createEntityManager();
+    }
+
+    private Person prepare(String id, String name, int age)
+    {
+        Person person = new Person();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        return person;
+    }
+
+    private <T> T get(ListenableFuture<T> future) throws Exception
+    {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
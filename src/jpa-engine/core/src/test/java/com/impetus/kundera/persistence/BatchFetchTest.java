@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.CoreTestUtilities;
+import com.impetus.kundera.client.DummyDatabase;
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.client.crud.associations.MobileHandset;
+import com.impetus.kundera.client.crud.associations.MobileManufacturer;
+import com.impetus.kundera.client.crud.associations.MobileOperatingSystem;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.query.CoreTestEntityReader;
+import com.impetus.kundera.utils.LuceneCleanupUtilities;
+
+/**
+ * Test case for batch fetching of unary relations (kundera.fetch.batch.size).
+ */
+public class BatchFetchTest
+{
+
+    private static final String PU = "batchFetchTest";
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    private KunderaMetadata kunderaMetadata;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory(PU);
+        em = emf.createEntityManager();
+        kunderaMetadata = ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance();
+    }
+
+    @Test
+    public void testPrefetchRelations() throws Exception
+    {
+        MobileOperatingSystem os = new MobileOperatingSystem();
+        os.setId("os1");
+        os.setName("android");
+        em.persist(os);
+
+        MobileManufacturer m1 = new MobileManufacturer();
+        m1.setId("m1");
+        m1.setName("first");
+        em.persist(m1);
+
+        MobileManufacturer m2 = new MobileManufacturer();
+        m2.setId("m2");
+        m2.setName("second");
+        em.persist(m2);
+
+        em.clear();
+
+        List<EnhanceEntity> handsets = new ArrayList<EnhanceEntity>();
+        handsets.add(handset("h1", "os1", "m1"));
+        handsets.add(handset("h2", "os1", "m2"));
+        handsets.add(handset("h3", "os1", "m1"));
+        handsets.add(handset("h4", "os1", "m9"));
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, MobileHandset.class);
+        PersistenceDelegator delegator = CoreTestUtilities.getDelegator(em);
+        EntityReader reader = new CoreTestEntityReader(kunderaMetadata);
+
+        Map<Object, Object> relationStack = new HashMap<Object, Object>();
+        reader.prefetchRelations(handsets, metadata, delegator, relationStack);
+
+        // os1, m1, m2 found and m9 marked as missing.
+        Assert.assertEquals(4, relationStack.size());
+
+        // Prefetched relations must be used, not fetched again.
+        EntityMetadata manufacturerMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata,
+                MobileManufacturer.class);
+        DummyDatabase.INSTANCE.getSchema(manufacturerMetadata.getSchema())
+                .getTable(manufacturerMetadata.getTableName()).removeRecord("m1");
+
+        List<MobileHandset> results = new ArrayList<MobileHandset>();
+        for (EnhanceEntity ee : handsets)
+        {
+            results.add((MobileHandset) reader.recursivelyFindEntities(ee.getEntity(), ee.getRelations(), metadata,
+                    delegator, false, relationStack));
+        }
+
+        Assert.assertEquals("m1", results.get(0).getManufacturer().getId());
+        Assert.assertEquals("first", results.get(0).getManufacturer().getName());
+        Assert.assertEquals("m2", results.get(1).getManufacturer().getId());
+        Assert.assertEquals("m1", results.get(2).getManufacturer().getId());
+        Assert.assertNull(results.get(3).getManufacturer());
+        for (MobileHandset handset : results)
+        {
+            Assert.assertEquals("os1", handset.getOs().getId());
+        }
+
+        // each owner holds its own instance.
+        Assert.assertNotSame(results.get(0).getManufacturer(), results.get(2).getManufacturer());
+        Assert.assertNotSame(results.get(0).getOs(), results.get(1).getOs());
+    }
+
+    @Test
+    public void testPrefetchWithoutRelationValues() throws Exception
+    {
+        List<EnhanceEntity> handsets = new ArrayList<EnhanceEntity>();
+        handsets.add(handset("h1", null, null));
+        handsets.add(handset("h2", null, null));
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, MobileHandset.class);
+        Map<Object, Object> relationStack = new HashMap<Object, Object>();
+        new CoreTestEntityReader(kunderaMetadata).prefetchRelations(handsets, metadata,
+                CoreTestUtilities.getDelegator(em), relationStack);
+
+        Assert.assertTrue(relationStack.isEmpty());
+    }
+
+    private EnhanceEntity handset(String id, String osId, String manufacturerId)
+    {
+        MobileHandset handset = new MobileHandset();
+        handset.setId(id);
+        handset.setName("handset " + id);
+
+        Map<String, Object> relations = new HashMap<String, Object>();
+        relations.put("os", osId);
+        relations.put("manufacturer", manufacturerId);
+        return new EnhanceEntity(handset, id, relations);
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (em != null)
+        {
+            em.close();
+        }
+
+        if (emf != null)
+        {
+            emf.close();
+        }
+
+        LuceneCleanupUtilities.cleanLuceneDirectory(kunderaMetadata.getApplicationMetadata()
+                .getPersistenceUnitMetadata(PU));
+        DummyDatabase.INSTANCE.dropDatabase();
+    }
+}
@@ -17,6 +17,7 @@ package com.impetus.kundera.query;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -24,6 +25,7 @@ import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
 import javax.persistence.Persistence;
+import javax.persistence.Query;
 import javax.persistence.TemporalType;
 
 import junit.framework.Assert;
@@ -291,4 +293,38 @@ public class QueryImplTest
         }
 
     }
+
+    @Test
+    public void testCachedResults()
+    {
+        Person person = new Person();
+        person.setPersonId("1");
+        person.setPersonName("amresh");
+        person.setAge(10);
+        em.persist(person);
+
+        Query query = em.createQuery("Select p from Person p where p.personId = :personId");
+        query.setParameter("personId", "1");
+        query.setHint(QueryResultCache.QUERY_RESULT_CACHE_HINT, true);
+        Assert.assertEquals(1, query.getResultList().size());
+        QueryResultCache resultCache = kunderaMetadata.getQueryResultCache();
+        Assert.assertEquals(1, resultCache.size());
+
+        // resolved out of persistence context.
+        List<Person> results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("amresh", results.get(0).getPersonName());
+        Assert.assertEquals(1, resultCache.getHitCount());
+
+        // resolved by client, once not in persistence context.
+        em.clear();
+        results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("amresh", results.get(0).getPersonName());
+        Assert.assertEquals(2, resultCache.getHitCount());
+
+        // removal invalidates cached results.
+        em.remove(em.find(Person.class, "1"));
+        Assert.assertTrue(query.getResultList().isEmpty());
+    }
 }
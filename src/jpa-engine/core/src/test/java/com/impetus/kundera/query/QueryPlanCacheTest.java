@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.query;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.query.KunderaQuery.FilterClause;
+
+/**
+ * Junit for {@link QueryPlanCache}.
+ */
+public class QueryPlanCacheTest
+{
+    private static final String PU = "patest";
+
+    private static final String QUERY = "Select p from Person p where p.personName = :name and p.age = :age";
+
+    private EntityManagerFactory emf;
+
+    private KunderaMetadata kunderaMetadata;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory(PU);
+        kunderaMetadata = ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        emf.close();
+    }
+
+    @Test
+    public void testHitAndMiss()
+    {
+        QueryPlanCache cache = new QueryPlanCache(10);
+
+        Assert.assertNull(cache.get(QUERY));
+        Assert.assertEquals(1, cache.getMissCount());
+
+        KunderaQuery first = cache.put(QUERY, parse(QUERY));
+        KunderaQuery second = cache.get(QUERY);
+
+        Assert.assertNotNull(second);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(Person.class, second.getEntityClass());
+        Assert.assertEquals(PU, second.getPersistenceUnit());
+        Assert.assertEquals(2, second.getParameters().size());
+    }
+
+    @Test
+    public void testParameterBindingIsolation()
+    {
+        QueryPlanCache cache = new QueryPlanCache(10);
+        KunderaQuery first = cache.put(QUERY, parse(QUERY));
+        KunderaQuery second = cache.get(QUERY);
+
+        first.setParameter("name", "amresh");
+        first.setParameter("age", 32);
+        second.setParameter("name", "vivek");
+
+        Assert.assertEquals("amresh", first.getClauseValue(":name").get(0));
+        Assert.assertEquals("vivek", second.getClauseValue(":name").get(0));
+        Assert.assertEquals(":age", second.getClauseValue(":age").get(0));
+        Assert.assertTrue(second.getParametersMap().containsKey(":name"));
+        Assert.assertFalse(second.getParametersMap().containsKey(":age"));
+
+        FilterClause clause = (FilterClause) cache.get(QUERY).getFilterClauseQueue().peek();
+        Assert.assertEquals(":name", clause.getValue().get(0));
+    }
+
+    @Test
+    public void testEviction()
+    {
+        QueryPlanCache cache = new QueryPlanCache(1);
+        String other = "Select p from Person p where p.age = :age";
+
+        cache.put(QUERY, parse(QUERY));
+        cache.put(other, parse(other));
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNull(cache.get(QUERY));
+        Assert.assertNotNull(cache.get(other));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        QueryPlanCache cache = new QueryPlanCache(0);
+        KunderaQuery plan = parse(QUERY);
+
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertSame(plan, cache.put(QUERY, plan));
+        Assert.assertNull(cache.get(QUERY));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testFactoryCache()
+    {
+        QueryPlanCache cache = kunderaMetadata.getQueryPlanCache();
+        Assert.assertNotNull(cache);
+        Assert.assertEquals(QueryPlanCache.DEFAULT_MAX_SIZE, cache.getMaxSize());
+
+        emf.createEntityManager().createQuery(QUERY);
+        emf.createEntityManager().createQuery(QUERY);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    private KunderaQuery parse(String query)
+    {
+        KunderaQuery kunderaQuery = new KunderaQuery(query, kunderaMetadata);
+        new KunderaQueryParser(kunderaQuery).parse();
+        kunderaQuery.postParsingInit();
+        return kunderaQuery;
+    }
+}
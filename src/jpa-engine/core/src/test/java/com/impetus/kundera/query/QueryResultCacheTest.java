@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Junit for {@link QueryResultCache}.
+ */
+public class QueryResultCacheTest
+{
+    private static final String QUERY = "Select p from Person p where p.personName = :name";
+
+    @Test
+    public void testHitAndMiss()
+    {
+        QueryResultCache cache = new QueryResultCache(10, 0);
+
+        QueryResultCache.Key key = newKey("amresh", 0, 100);
+        Assert.assertNull(cache.get(key));
+
+        List<Object> ids = Arrays.<Object> asList("1", "2");
+        cache.put(key, Person.class, ids, cache.getGeneration(Person.class));
+
+        Assert.assertEquals(ids, cache.get(newKey("amresh", 0, 100)));
+        Assert.assertNull(cache.get(newKey("vivek", 0, 100)));
+        Assert.assertNull(cache.get(newKey("amresh", 10, 100)));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidation()
+    {
+        QueryResultCache cache = new QueryResultCache(10, 0);
+        QueryResultCache.Key key = newKey("amresh", 0, 100);
+
+        cache.put(key, Person.class, Collections.<Object> singletonList("1"), cache.getGeneration(Person.class));
+        cache.invalidate(Person.class);
+        Assert.assertNull(cache.get(key));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(1, cache.getInvalidationCount());
+
+        // query run before a write, must not be cached after it.
+        long generation = cache.getGeneration(Person.class);
+        cache.invalidate(Person.class);
+        cache.put(key, Person.class, Collections.<Object> singletonList("1"), generation);
+        Assert.assertNull(cache.get(key));
+
+        // write to a sub class invalidates results of super class.
+        cache.put(key, Person.class, Collections.<Object> singletonList("1"), cache.getGeneration(Person.class));
+        cache.invalidate(Employee.class);
+        Assert.assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testEviction()
+    {
+        QueryResultCache cache = new QueryResultCache(2, 0);
+        cache.put(newKey("a", 0, 100), Person.class, Collections.<Object> singletonList("1"), 0);
+        cache.put(newKey("b", 0, 100), Person.class, Collections.<Object> singletonList("2"), 0);
+
+        // recently read, hence retained.
+        Assert.assertNotNull(cache.get(newKey("a", 0, 100)));
+        cache.put(newKey("c", 0, 100), Person.class, Collections.<Object> singletonList("3"), 0);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNotNull(cache.get(newKey("a", 0, 100)));
+        Assert.assertNull(cache.get(newKey("b", 0, 100)));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        QueryResultCache cache = new QueryResultCache(0, 0);
+        Assert.assertFalse(cache.isEnabled());
+
+        QueryResultCache.Key key = newKey("amresh", 0, 100);
+        cache.put(key, Person.class, Collections.<Object> singletonList("1"), 0);
+        Assert.assertNull(cache.get(key));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private QueryResultCache.Key newKey(String name, int firstResult, int maxResults)
+    {
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put(":name", name);
+        return new QueryResultCache.Key(QUERY, parameters, firstResult, maxResults);
+    }
+
+    private static class Employee extends Person
+    {
+    }
+}
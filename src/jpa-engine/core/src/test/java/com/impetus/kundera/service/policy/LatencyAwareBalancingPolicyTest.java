@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.service.policy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * To test latency aware balancing.
+ */
+public class LatencyAwareBalancingPolicyTest
+{
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.service.policy.LatencyAwareBalancingPolicy#getPool(java.util.Collection)}
+     * .
+     */
+    @Test
+    public void testGetPool() throws Exception
+    {
+        Object fast = new Object();
+        Object slow = new Object();
+        List<Object> pools = new ArrayList<Object>();
+        pools.add(fast);
+        pools.add(slow);
+
+        LatencyAwareBalancingPolicy balancingPolicy = new LatencyAwareBalancingPolicy(60000, 1000, 5000);
+        use(balancingPolicy, fast, 0);
+        use(balancingPolicy, slow, 20);
+
+        Assert.assertTrue(balancingPolicy.getLatency(slow) > balancingPolicy.getLatency(fast));
+        Assert.assertTrue(balancingPolicy.getScores().get(slow) > balancingPolicy.getScores().get(fast));
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertEquals(fast, balancingPolicy.getPool(pools));
+        }
+
+        // in flight requests count against fast pool.
+        for (int i = 0; i < 100000; i++)
+        {
+            balancingPolicy.onAcquire(fast, new Object());
+        }
+        Assert.assertEquals(100000, balancingPolicy.getInFlight(fast));
+        Assert.assertEquals(slow, balancingPolicy.getPool(pools));
+    }
+
+    /**
+     * Test method for penalizing slow and failing pools.
+     */
+    @Test
+    public void testPenalty() throws Exception
+    {
+        Object first = new Object();
+        Object second = new Object();
+        List<Object> pools = new ArrayList<Object>();
+        pools.add(first);
+        pools.add(second);
+
+        LatencyAwareBalancingPolicy balancingPolicy = new LatencyAwareBalancingPolicy(60000, 3, 60000);
+        use(balancingPolicy, first, 1);
+        use(balancingPolicy, second, 50);
+        Assert.assertFalse(balancingPolicy.isPenalized(first));
+        Assert.assertTrue(balancingPolicy.isPenalized(second));
+
+        balancingPolicy.onFailure(first);
+        Assert.assertTrue(balancingPolicy.isPenalized(first));
+
+        balancingPolicy.remove(second);
+        Assert.assertFalse(balancingPolicy.isPenalized(second));
+        Assert.assertEquals(second, balancingPolicy.getPool(pools));
+    }
+
+    private void use(LatencyAwareBalancingPolicy balancingPolicy, Object pool, long millis) throws Exception
+    {
+        Object connection = new Object();
+        balancingPolicy.onAcquire(pool, connection);
+        Thread.sleep(millis);
+        balancingPolicy.onRelease(connection);
+    }
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.service.policy;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * To test speculative execution of reads.
+ */
+public class SpeculativeExecutionPolicyTest
+{
+    private SpeculativeExecutionPolicy policy;
+
+    @After
+    public void tearDown() throws Exception
+    {
+        if (policy != null)
+        {
+            policy.shutdown();
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.service.policy.SpeculativeExecutionPolicy#execute(Callable, Callable)}
+     * .
+     */
+    @Test
+    public void testExecute()
+    {
+        policy = new SpeculativeExecutionPolicy(10, 0, 0.1);
+
+        Assert.assertEquals("fast", policy.execute(read("fast", 0), read("speculative", 0)));
+        Assert.assertEquals(0, policy.getSpeculativeAttemptCount());
+
+        Assert.assertEquals("speculative", policy.execute(read("slow", 1000), read("speculative", 0)));
+        Assert.assertEquals(1, policy.getSpeculativeAttemptCount());
+        Assert.assertEquals(1, policy.getSpeculativeWinCount());
+
+        // extra load is capped, a fraction of speculative read is left.
+        Assert.assertEquals("slow", policy.execute(read("slow", 100), read("speculative", 0)));
+        Assert.assertEquals(3, policy.getRequestCount());
+        Assert.assertEquals(1, policy.getSpeculativeAttemptCount());
+    }
+
+    /**
+     * Test method for failing reads.
+     */
+    @Test
+    public void testFailure()
+    {
+        policy = new SpeculativeExecutionPolicy(10, 0, 1);
+
+        Assert.assertEquals("speculative", policy.execute(fail(50), read("speculative", 100)));
+        Assert.assertEquals(1, policy.getSpeculativeWinCount());
+
+        try
+        {
+            policy.execute(fail(50), fail(0));
+            Assert.fail();
+        }
+        catch (IllegalStateException e)
+        {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+    }
+
+    /**
+     * Test method for reads, that cannot be sent speculatively.
+     */
+    @Test
+    public void testInline()
+    {
+        policy = new SpeculativeExecutionPolicy(10, 0, 0.1);
+        Callable<Thread> current = new Callable<Thread>()
+        {
+            @Override
+            public Thread call() throws Exception
+            {
+                return Thread.currentThread();
+            }
+        };
+        Assert.assertSame(Thread.currentThread(), policy.execute(current, null));
+        Assert.assertEquals(0, policy.getSpeculativeAttemptCount());
+    }
+
+    /**
+     * Test method for cancelling read, responding last.
+     */
+    @Test
+    public void testLoserCancelled() throws Exception
+    {
+        policy = new SpeculativeExecutionPolicy(10, 0, 1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        Callable<String> slow = new Callable<String>()
+        {
+            @Override
+            public String call() throws Exception
+            {
+                try
+                {
+                    Thread.sleep(5000);
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "slow";
+            }
+        };
+        Assert.assertEquals("speculative", policy.execute(slow, read("speculative", 0)));
+        Assert.assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test method for percentile delay.
+     */
+    @Test
+    public void testPercentileDelay()
+    {
+        policy = new SpeculativeExecutionPolicy(5, 90, 0.1);
+        Assert.assertEquals(5, policy.getDelay(TimeUnit.MILLISECONDS));
+
+        for (int i = 1; i <= 1024; i++)
+        {
+            policy.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Assert.assertEquals(922, policy.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    private Callable<String> read(final String result, final long millis)
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call() throws Exception
+            {
+                Thread.sleep(millis);
+                return result;
+            }
+        };
+    }
+
+    private Callable<String> fail(final long millis)
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call() throws Exception
+            {
+                Thread.sleep(millis);
+                throw new IllegalStateException("failed");
+            }
+        };
+    }
+}
@@ -23,6 +23,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EmbeddableType;
@@ -40,16 +46,19 @@ import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.Constants;
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.cache.ElementCollectionCacheManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
@@ -73,42 +82,87 @@ public class LuceneIndexer extends DocumentIndexer
     /** log for this class. */
     private static Logger log = LoggerFactory.getLogger(LuceneIndexer.class);
 
+    /** Index mode keeping index in memory, copied to file system on commit. */
+    public static final String RAM_MODE = "ram";
+
+    /** Index mode keeping index in memory mapped files, searched near real time. */
+    public static final String NRT_MODE = "nrt";
+
+    /** Default milliseconds between background searcher refreshes. */
+    private static final long DEFAULT_REFRESH_INTERVAL = 1000;
+
+    /** Default milliseconds between background commits. */
+    private static final long DEFAULT_COMMIT_INTERVAL = 5000;
+
+    /** Default number of uncommitted changes triggering a commit. */
+    private static final long DEFAULT_COMMIT_THRESHOLD = 1000;
+
     /** The w. */
-    private static IndexWriter w;
+    private IndexWriter w;
 
     /** The reader. */
-    private static IndexReader reader;
+    private IndexReader reader;
 
     /** The index. */
-    private static Directory index;
+    private Directory index;
 
     /** The is initialized. */
-    private static boolean isInitialized;
+    private boolean isInitialized;
 
     /** The indexer. */
     private static LuceneIndexer indexer;
 
+    /** Number of client factories sharing indexer, each shutting it down once. */
+    private static int users;
+
     /** The ready for commit. */
-    private static boolean readyForCommit;
+    private boolean readyForCommit;
 
     /** The lucene dir path. */
-    private static String luceneDirPath;
+    private String luceneDirPath;
+
+    /** Whether index is searched near real time from memory mapped files. */
+    private boolean nearRealTime;
+
+    /** Near real time searchers, shared across searching threads. */
+    private SearcherManager searcherManager;
+
+    /** Refreshes searchers and commits changes in background. */
+    private ScheduledExecutorService scheduler;
+
+    /** Number of changes made to index. */
+    private final AtomicLong changes = new AtomicLong();
+
+    /** Number of changes visible to current searcher. */
+    private volatile long refreshedChanges;
+
+    /** Number of changes not yet committed. */
+    private final AtomicInteger uncommittedChanges = new AtomicInteger();
+
+    /** Number of uncommitted changes triggering a commit. */
+    private long commitThreshold;
 
     /**
      * Instantiates a new lucene indexer.
      * 
-     * @param analyzer
-     *            the analyzer
      * @param lucDirPath
      *            the luc dir path
+     * @param properties
+     *            indexer properties, may be null
      */
-    private LuceneIndexer(String lucDirPath)
+    LuceneIndexer(String lucDirPath, Map<?, ?> properties)
     {
         try
         {
             luceneDirPath = lucDirPath;
             File file = new File(luceneDirPath);
-            if (file.exists())
+            nearRealTime = properties != null
+                    && NRT_MODE.equalsIgnoreCase(String.valueOf(properties.get(PersistenceProperties.KUNDERA_INDEX_MODE)));
+            if (nearRealTime)
+            {
+                index = new MMapDirectory(getIndexDirectory());
+            }
+            else if (file.exists())
             {
                 Directory sourceDir = FSDirectory.open(getIndexDirectory());
 
@@ -130,6 +184,10 @@ public class LuceneIndexer extends DocumentIndexer
             indexWriterConfig.setMergePolicy(logDocMergePolicy);
             w = new IndexWriter(index, indexWriterConfig);
             w.getConfig().setRAMBufferSizeMB(32);
+            if (nearRealTime)
+            {
+                initNearRealTime(properties);
+            }
         }
         catch (Exception e)
         {
@@ -141,23 +199,225 @@ public class LuceneIndexer extends DocumentIndexer
     /**
      * Gets the single instance of LuceneIndexer.
      * 
-     * @param analyzer
-     *            the analyzer
      * @param lucDirPath
      *            the luc dir path
      * @return single instance of LuceneIndexer
      */
-    public static synchronized LuceneIndexer getInstance(String lucDirPath)
+    public static LuceneIndexer getInstance(String lucDirPath)
+    {
+        return getInstance(lucDirPath, null);
+    }
+
+    /**
+     * Gets the single instance of LuceneIndexer, created with given properties
+     * on first call.
+     * 
+     * @param lucDirPath
+     *            the luc dir path
+     * @param properties
+     *            indexer properties, see
+     *            {@link PersistenceProperties#KUNDERA_INDEX_MODE}
+     * @return single instance of LuceneIndexer
+     */
+    public static synchronized LuceneIndexer getInstance(String lucDirPath, Map<?, ?> properties)
     {
-        // super(analyzer);
         if (indexer == null && lucDirPath != null)
         {
-            indexer = new LuceneIndexer(lucDirPath);
-
+            indexer = new LuceneIndexer(lucDirPath, properties);
+            users = 0;
+        }
+        if (indexer != null)
+        {
+            users++;
         }
         return indexer;
     }
 
+    /**
+     * Opens near real time searchers over index writer and schedules their
+     * refresh and commit of changes.
+     * 
+     * @param properties
+     *            indexer properties
+     * @throws IOException
+     *             if searcher could not be opened
+     */
+    private void initNearRealTime(Map<?, ?> properties) throws IOException
+    {
+        long refreshInterval = getLongProperty(properties, PersistenceProperties.KUNDERA_INDEX_REFRESH_INTERVAL,
+                DEFAULT_REFRESH_INTERVAL);
+        long commitInterval = getLongProperty(properties, PersistenceProperties.KUNDERA_INDEX_COMMIT_INTERVAL,
+                DEFAULT_COMMIT_INTERVAL);
+        commitThreshold = getLongProperty(properties, PersistenceProperties.KUNDERA_INDEX_COMMIT_THRESHOLD,
+                DEFAULT_COMMIT_THRESHOLD);
+
+        searcherManager = new SearcherManager(w, true, null);
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "kundera-lucene-nrt");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        if (refreshInterval > 0)
+        {
+            scheduler.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    refreshSearcher();
+                }
+            }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
+        if (commitInterval > 0)
+        {
+            scheduler.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        commitChanges();
+                    }
+                    catch (LuceneIndexingException e)
+                    {
+                        log.error("Error while committing Lucene indexes in background, Caused by: ", e);
+                    }
+                }
+            }, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reads a numeric indexer property.
+     * 
+     * @param properties
+     *            indexer properties
+     * @param name
+     *            property name
+     * @param defaultValue
+     *            value if property is missing or invalid
+     * @return property value
+     */
+    private static long getLongProperty(Map<?, ?> properties, String name, long defaultValue)
+    {
+        Object value = properties != null ? properties.get(name) : null;
+        if (value == null || value.toString().trim().isEmpty())
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Long.parseLong(value.toString().trim());
+        }
+        catch (NumberFormatException nfex)
+        {
+            log.warn("Invalid value {} for property {}, using default.", value, name);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Makes changes made so far visible to searchers acquired afterwards, if
+     * no other thread is refreshing already.
+     */
+    private void refreshSearcher()
+    {
+        long current = changes.get();
+        try
+        {
+            if (current != refreshedChanges && searcherManager.maybeRefresh())
+            {
+                refreshedChanges = current;
+            }
+        }
+        catch (IOException ioe)
+        {
+            log.warn("Error while refreshing Lucene searcher, Caused by: ", ioe);
+        }
+    }
+
+    /**
+     * Commits changes to file system, if any.
+     */
+    private void commitChanges()
+    {
+        if (uncommittedChanges.getAndSet(0) > 0)
+        {
+            try
+            {
+                w.commit();
+            }
+            catch (IOException ioe)
+            {
+                log.error("Error while committing Lucene indexes, Caused by: ", ioe);
+                throw new LuceneIndexingException("Error while committing Lucene indexes", ioe);
+            }
+        }
+    }
+
+    /**
+     * Acquires a searcher over latest index. Near real time searchers must be
+     * released with {@link #releaseSearcher(IndexSearcher)}.
+     * 
+     * @return index searcher, null if no index exists
+     */
+    private IndexSearcher acquireSearcher()
+    {
+        if (!nearRealTime)
+        {
+            reader = getIndexReader();
+            return reader != null ? new IndexSearcher(reader) : null;
+        }
+
+        long current = changes.get();
+        try
+        {
+            // Changes made by searching thread must be visible to it.
+            if (current != refreshedChanges)
+            {
+                searcherManager.maybeRefreshBlocking();
+                refreshedChanges = current;
+            }
+            return searcherManager.acquire();
+        }
+        catch (IOException ioe)
+        {
+            log.error("Error while acquiring Lucene searcher, Caused by: ", ioe);
+            throw new LuceneIndexingException(ioe);
+        }
+    }
+
+    /**
+     * Releases searcher acquired by {@link #acquireSearcher()}.
+     * 
+     * @param searcher
+     *            the searcher
+     */
+    private void releaseSearcher(IndexSearcher searcher)
+    {
+        if (!nearRealTime)
+        {
+            reader = null;
+            return;
+        }
+
+        try
+        {
+            searcherManager.release(searcher);
+        }
+        catch (IOException ioe)
+        {
+            log.warn("Error while releasing Lucene searcher, Caused by: ", ioe);
+        }
+    }
+
     /**
      * Added for HBase support.
      * 
@@ -252,6 +512,11 @@ public class LuceneIndexer extends DocumentIndexer
             Query q = qp.parse(luceneQuery);
 
             w.deleteDocuments(q);
+            if (nearRealTime)
+            {
+                onCommit();
+                return;
+            }
             w.commit();
             w.close();
             IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
@@ -386,8 +651,6 @@ public class LuceneIndexer extends DocumentIndexer
                     metadata.getPersistenceUnit());
             isEmbeddedId = metaModel.isEmbeddable(metadata.getIdAttribute().getBindableJavaType());
         }
-        reader = getIndexReader();
-
         if (Constants.INVALID == count)
         {
             count = 100;
@@ -401,7 +664,8 @@ public class LuceneIndexer extends DocumentIndexer
         // Set<String> entityIds = new HashSet<String>();
         Map<String, Object> indexCol = new HashMap<String, Object>();
 
-        if (reader == null)
+        IndexSearcher searcher = acquireSearcher();
+        if (searcher == null)
         {
 
             return indexCol;
@@ -409,7 +673,6 @@ public class LuceneIndexer extends DocumentIndexer
             // LuceneIndexingException("Index reader is not initialized!");
         }
         QueryParser qp = null;
-        IndexSearcher searcher = new IndexSearcher(reader);
 
         qp = new QueryParser(Version.LUCENE_34, DEFAULT_SEARCHABLE_FIELD, new StandardAnalyzer(Version.LUCENE_34));
 
@@ -456,8 +719,11 @@ public class LuceneIndexer extends DocumentIndexer
             log.error("Error while parsing Lucene Query {} ", luceneQuery, e);
             throw new LuceneIndexingException(e);
         }
+        finally
+        {
+            releaseSearcher(searcher);
+        }
 
-        reader = null;
         return indexCol;
     }
 
@@ -560,6 +826,12 @@ public class LuceneIndexer extends DocumentIndexer
      */
     public void close()
     {
+        if (nearRealTime)
+        {
+            commitChanges();
+            return;
+        }
+
         try
         {
             if (w != null && readyForCommit)
@@ -576,6 +848,46 @@ public class LuceneIndexer extends DocumentIndexer
         }
     }
 
+    /**
+     * Commits pending changes and releases near real time searchers, writer
+     * and background thread. Shared instance is released only once every
+     * client factory which got it shut it down. Indexer is not usable
+     * afterwards.
+     */
+    @Override
+    public void shutdown()
+    {
+        if (!nearRealTime)
+        {
+            return;
+        }
+
+        synchronized (LuceneIndexer.class)
+        {
+            if (indexer == this)
+            {
+                if (--users > 0)
+                {
+                    return;
+                }
+                indexer = null;
+            }
+        }
+        scheduler.shutdownNow();
+        try
+        {
+            commitChanges();
+            searcherManager.close();
+            w.close();
+            index.close();
+        }
+        catch (IOException ioe)
+        {
+            log.error("Error while closing Lucene indexes, Caused by: ", ioe);
+            throw new LuceneIndexingException("Error while closing Lucene indexes.", ioe);
+        }
+    }
+
     @Override
     public void flush()
     {
@@ -937,6 +1249,16 @@ public class LuceneIndexer extends DocumentIndexer
      */
     private void onCommit()
     {
+        if (nearRealTime)
+        {
+            changes.incrementAndGet();
+            if (uncommittedChanges.incrementAndGet() >= commitThreshold)
+            {
+                commitChanges();
+            }
+            return;
+        }
+
         // TODO: Sadly this required to keep lucene happy, in case of indexing
         // and searching with same entityManager.
         // Other alternative would be to issue flush on each search
@@ -15,6 +15,8 @@
  ******************************************************************************/
 package com.impetus.kundera.index;
 
+import java.lang.reflect.Field;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +29,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
@@ -47,6 +50,8 @@ public class LuceneIndexerTest
 
     private static final String LUCENE_DIR_PATH = "./lucene";
 
+    private static final String NRT_LUCENE_DIR_PATH = "./lucene-nrt";
+
     @Before
     public void setup()
     {
@@ -145,6 +150,72 @@ public class LuceneIndexerTest
         indexer.close();
     }
 
+    @Test
+    public void testNearRealTimeMode()
+    {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(PersistenceProperties.KUNDERA_INDEX_MODE, LuceneIndexer.NRT_MODE);
+        properties.put(PersistenceProperties.KUNDERA_INDEX_COMMIT_INTERVAL, "0");
+        LuceneIndexer indexer = new LuceneIndexer(NRT_LUCENE_DIR_PATH, properties);
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(
+                ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance(), Person.class);
+        MetamodelImpl metamodel = (MetamodelImpl) ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance()
+                .getApplicationMetadata().getMetamodel("patest");
+        Person p = new Person();
+        p.setAge(32);
+        p.setDay(Day.TUESDAY);
+        p.setPersonId("p1");
+        indexer.index(metadata, metamodel, p);
+
+        // searches see changes without waiting for commit or refresh.
+        String luceneQuery = "+Person.AGE:32 AND +entity.class:com.impetus.kundera.query.Person";
+        Map<String, Object> results = indexer.search(luceneQuery, 0, 10, false,
+                ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance(), metadata);
+        Assert.assertEquals(1, results.size());
+
+        indexer.unindex(metadata, "p1", ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance(), null);
+        results = indexer.search(luceneQuery, 0, 10, false,
+                ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance(), metadata);
+        Assert.assertTrue(results.isEmpty());
+
+        indexer.close();
+        indexer.shutdown();
+    }
+
+    @Test
+    public void testSharedShutdown() throws Exception
+    {
+        Field instance = LuceneIndexer.class.getDeclaredField("indexer");
+        instance.setAccessible(true);
+        Field users = LuceneIndexer.class.getDeclaredField("users");
+        users.setAccessible(true);
+        Object previous = instance.get(null);
+        Object previousUsers = users.get(null);
+        instance.set(null, null);
+        try
+        {
+            Map<String, String> properties = new HashMap<String, String>();
+            properties.put(PersistenceProperties.KUNDERA_INDEX_MODE, LuceneIndexer.NRT_MODE);
+            properties.put(PersistenceProperties.KUNDERA_INDEX_COMMIT_INTERVAL, "0");
+
+            // two client factories share indexer.
+            LuceneIndexer indexer = LuceneIndexer.getInstance(NRT_LUCENE_DIR_PATH, properties);
+            Assert.assertSame(indexer, LuceneIndexer.getInstance(NRT_LUCENE_DIR_PATH, properties));
+
+            indexer.shutdown();
+            Assert.assertSame(indexer, instance.get(null));
+
+            indexer.shutdown();
+            Assert.assertNull(instance.get(null));
+        }
+        finally
+        {
+            instance.set(null, previous);
+            users.set(null, previousUsers);
+        }
+    }
+
     @Test
     public void testOnUnsupportedMethods()
     {
@@ -189,6 +260,7 @@ public class LuceneIndexerTest
     public void tearDown()
     {
         LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+        LuceneCleanupUtilities.cleanDir(NRT_LUCENE_DIR_PATH);
     }
 
 }
@@ -23,9 +23,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javassist.Modifier;
 
@@ -68,6 +76,7 @@ import org.apache.cassandra.thrift.TimedOutException;
 import org.apache.cassandra.thrift.UnavailableException;
 import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +85,7 @@ import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.common.CassandraUtilities;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.datahandler.CassandraDataHandler;
+import com.impetus.client.cassandra.query.CassQuery;
 import com.impetus.client.cassandra.schemamanager.CassandraDataTranslator;
 import com.impetus.client.cassandra.schemamanager.CassandraValidationClassMapper;
 import com.impetus.client.cassandra.thrift.CQLTranslator;
@@ -109,7 +119,9 @@ import com.impetus.kundera.property.PropertyAccessor;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.property.accessor.StringAccessor;
+import com.impetus.kundera.query.IResultIterator;
 import com.impetus.kundera.utils.KunderaCoreUtils;
+import com.impetus.kundera.utils.ReflectUtils;
 import com.impetus.kundera.utils.TimestampGenerator;
 
 /**
@@ -148,6 +160,18 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
     /** batch size. */
     private int batchSize;
 
+    /** Whether queued statements are sent as unlogged batches per partition. */
+    private boolean unloggedBatch;
+
+    /** Maximum number of statements in an unlogged batch. */
+    private int batchStatements = 100;
+
+    /** Number of unlogged batches sent at a time. */
+    private int batchParallelism = 4;
+
+    /** Sends unlogged batches, created on first use. */
+    private ExecutorService batchExecutor;
+
     /** The cql client. */
     protected final CQLClient cqlClient;
 
@@ -176,6 +200,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         this.cqlClient = new CQLClient();
         this.generator = generator;
         setBatchSize(persistenceUnit, this.externalProperties);
+        populateBatchOptions(persistenceUnit, this.externalProperties);
         populateCqlVersion(externalProperties);
     }
 
@@ -1053,6 +1078,25 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
     }
 
+    /**
+     * Returns iterator over results of cql3 query, fetched page by page using
+     * native paging of underlying driver. Not supported by default.
+     * 
+     * @param query
+     *            the query
+     * @param m
+     *            the entity metadata
+     * @param cqlQuery
+     *            cql3 query without limit
+     * @param maxResults
+     *            maximum number of entities iterated over
+     * @return the iterator, or null if native paging is not supported
+     */
+    public <E> IResultIterator<E> getPagingIterator(CassQuery query, EntityMetadata m, String cqlQuery, int maxResults)
+    {
+        return null;
+    }
+
     /**
      * Gets the external properties.
      * 
@@ -1134,11 +1178,36 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
      */
     protected List<String> createInsertQuery(EntityMetadata entityMetadata, Object entity,
             Cassandra.Client cassandra_client, List<RelationHolder> rlHolders, Object ttlColumns)
+    {
+        return createInsertQuery(entityMetadata, entity, cassandra_client, rlHolders, ttlColumns, null);
+    }
+
+    /**
+     * Return insert query string for given attributes of entity. As insert is
+     * an upsert in CQL, columns left out of it are not touched.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param entity
+     *            the entity
+     * @param cassandra_client
+     *            the cassandra_client
+     * @param rlHolders
+     *            the rl holders
+     * @param ttlColumns
+     *            TTL values for each columns
+     * @param attributeNames
+     *            names of attributes to be written, null for all attributes
+     * @return the list
+     */
+    protected List<String> createInsertQuery(EntityMetadata entityMetadata, Object entity,
+            Cassandra.Client cassandra_client, List<RelationHolder> rlHolders, Object ttlColumns,
+            Set<String> attributeNames)
     {
         List<String> insert_Queries = new ArrayList<String>();
         CQLTranslator translator = new CQLTranslator();
         HashMap<TranslationType, Map<String, StringBuilder>> translation = translator.prepareColumnOrColumnValues(
-                entity, entityMetadata, TranslationType.ALL, externalProperties, kunderaMetadata);
+                entity, entityMetadata, TranslationType.ALL, externalProperties, kunderaMetadata, attributeNames);
 
         Map<String, StringBuilder> columnNamesMap = translation.get(TranslationType.COLUMN);
         Map<String, StringBuilder> columnValuesMap = translation.get(TranslationType.VALUE);
@@ -1336,6 +1405,30 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
      */
     protected List<String> getPersistQueries(EntityMetadata entityMetadata, Object entity,
             org.apache.cassandra.thrift.Cassandra.Client conn, List<RelationHolder> rlHolders, Object ttlColumns)
+    {
+        return getPersistQueries(entityMetadata, entity, conn, rlHolders, ttlColumns, null);
+    }
+
+    /**
+     * Gets the persist queries writing given attributes only.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param entity
+     *            the entity
+     * @param conn
+     *            the conn
+     * @param rlHolders
+     *            the rl holders
+     * @param ttlColumns
+     *            the ttl columns
+     * @param attributeNames
+     *            names of changed attributes, null if all are to be written
+     * @return the persist queries
+     */
+    protected List<String> getPersistQueries(EntityMetadata entityMetadata, Object entity,
+            org.apache.cassandra.thrift.Cassandra.Client conn, List<RelationHolder> rlHolders, Object ttlColumns,
+            Set<String> attributeNames)
     {
         List<String> queries;
         if (entityMetadata.isCounterColumnType())
@@ -1344,7 +1437,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         }
         else
         {
-            queries = createInsertQuery(entityMetadata, entity, conn, rlHolders, ttlColumns);
+            queries = createInsertQuery(entityMetadata, entity, conn, rlHolders, ttlColumns, attributeNames);
         }
         return queries;
     }
@@ -1394,6 +1487,11 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
     public void close()
     {
         clear();
+        if (batchExecutor != null)
+        {
+            batchExecutor.shutdown();
+            batchExecutor = null;
+        }
         setCqlVersion(CassandraConstants.CQL_VERSION_2_0);
         closed = true;
         externalProperties = null;
@@ -1741,6 +1839,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         String batchQuery = CQLTranslator.BATCH_QUERY;
         batchQuery = StringUtils.replace(batchQuery, CQLTranslator.STATEMENT, "");
         StringBuilder batchQueryBuilder = new StringBuilder(batchQuery);
+        Map<List<Object>, PartitionBatch> partitionBatches = new LinkedHashMap<List<Object>, PartitionBatch>();
         try
         {
             boolean isCql3Enabled = false;
@@ -1771,18 +1870,32 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
                     {
                         isCql3Enabled = true;
                         List<RelationHolder> relationHolders = getRelationHolders(node);
+                        List<String> queries;
                         if (node.isInState(RemovedState.class))
                         {
-                            String query;
-                            query = onDeleteQuery(metadata, metadata.getTableName(), metaModel, id);
-                            batchQueryBuilder.append(Constants.SPACE);
-                            batchQueryBuilder.append(query);
+                            queries = Arrays.asList(onDeleteQuery(metadata, metadata.getTableName(), metaModel, id));
+                        }
+                        else
+                        {
+                            queries = getPersistQueries(metadata, entity, conn, relationHolders, getTtlValues()
+                                    .get(metadata.getTableName()), getDirtyAttributes(node, metadata));
+                        }
+
+                        if (unloggedBatch)
+                        {
+                            List<Object> partition = Arrays.asList(metadata.getTableName(),
+                                    getPartitionKey(metadata, metaModel, id));
+                            PartitionBatch partitionBatch = partitionBatches.get(partition);
+                            if (partitionBatch == null)
+                            {
+                                partitionBatch = new PartitionBatch(metadata.isCounterColumnType());
+                                partitionBatches.put(partition, partitionBatch);
+                            }
+                            partitionBatch.statements.addAll(queries);
                         }
                         else
                         {
-                            List<String> insertQueries = getPersistQueries(metadata, entity, conn, relationHolders,
-                                    getTtlValues().get(metadata.getTableName()));
-                            for (String query : insertQueries)
+                            for (String query : queries)
                             {
                                 batchQueryBuilder.append(Constants.SPACE);
                                 batchQueryBuilder.append(query);
@@ -1831,7 +1944,11 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
                 }
             }
 
-            if (!nodes.isEmpty() && isCql3Enabled)
+            if (!nodes.isEmpty() && isCql3Enabled && unloggedBatch)
+            {
+                executePartitionBatches(partitionBatches.values());
+            }
+            else if (!nodes.isEmpty() && isCql3Enabled)
             {
                 batchQueryBuilder.append(CQLTranslator.APPLY_BATCH);
                 executeCQLQuery(batchQueryBuilder.toString(), isCql3Enabled);
@@ -1854,6 +1971,187 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         return recordsExecuted;
     }
 
+    /**
+     * Returns partition key value of given row key, first field of a compound
+     * key. If that field is itself embeddable, all of its fields make up the
+     * partition key and their values are returned as a list, so that
+     * partitions are told apart by value rather than by embeddable's equals.
+     * 
+     * @param metadata
+     *            the entity metadata
+     * @param metaModel
+     *            the meta model
+     * @param id
+     *            the row key
+     * @return the partition key value
+     */
+    private Object getPartitionKey(EntityMetadata metadata, MetamodelImpl metaModel, Object id)
+    {
+        if (id != null && metaModel.isEmbeddable(metadata.getIdAttribute().getBindableJavaType()))
+        {
+            for (Field field : metadata.getIdAttribute().getBindableJavaType().getDeclaredFields())
+            {
+                if (!ReflectUtils.isTransientOrStatic(field))
+                {
+                    Object partitionKey = PropertyAccessorHelper.getObject(id, field);
+                    if (partitionKey == null || !metaModel.isEmbeddable(field.getType()))
+                    {
+                        return partitionKey;
+                    }
+
+                    List<Object> partitionKeyValues = new ArrayList<Object>();
+                    for (Field partitionKeyField : field.getType().getDeclaredFields())
+                    {
+                        if (!ReflectUtils.isTransientOrStatic(partitionKeyField))
+                        {
+                            partitionKeyValues.add(PropertyAccessorHelper.getObject(partitionKey, partitionKeyField));
+                        }
+                    }
+                    return partitionKeyValues;
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Sends partition batches, each as unlogged batches of at most
+     * configured number of statements. Batches of different partitions are
+     * sent concurrently, those of the same partition one after another.
+     * 
+     * @param partitionBatches
+     *            the partition batches
+     */
+    void executePartitionBatches(Collection<PartitionBatch> partitionBatches)
+    {
+        if (partitionBatches.size() <= 1 || batchParallelism <= 1)
+        {
+            for (PartitionBatch partitionBatch : partitionBatches)
+            {
+                executePartitionBatch(partitionBatch);
+            }
+            return;
+        }
+
+        ExecutorService executor = getBatchExecutor();
+        List<Future<?>> futures = new ArrayList<Future<?>>(partitionBatches.size());
+        for (final PartitionBatch partitionBatch : partitionBatches)
+        {
+            futures.add(executor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    executePartitionBatch(partitionBatch);
+                }
+            }));
+        }
+
+        // wait for all, so that none is left running after a failure.
+        Throwable failure = null;
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (ExecutionException e)
+            {
+                failure = failure != null ? failure : e.getCause();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException("Interrupted while executing batch.", e);
+            }
+        }
+
+        if (failure != null)
+        {
+            throw new PersistenceException(failure);
+        }
+    }
+
+    /**
+     * Sends statements of a single partition, a lone statement is sent
+     * without batch.
+     * 
+     * @param partitionBatch
+     *            the partition batch
+     */
+    private void executePartitionBatch(PartitionBatch partitionBatch)
+    {
+        List<String> statements = partitionBatch.statements;
+        for (int from = 0; from < statements.size(); from += batchStatements)
+        {
+            List<String> chunk = statements.subList(from, Math.min(from + batchStatements, statements.size()));
+            if (chunk.size() == 1)
+            {
+                executeCQLQuery(chunk.get(0), true);
+                continue;
+            }
+
+            StringBuilder builder = new StringBuilder(partitionBatch.counter ? CQLTranslator.BEGIN_COUNTER_BATCH
+                    : CQLTranslator.BEGIN_UNLOGGED_BATCH);
+            for (String statement : chunk)
+            {
+                builder.append(Constants.SPACE);
+                builder.append(statement);
+            }
+            builder.append(CQLTranslator.APPLY_BATCH);
+            executeCQLQuery(builder.toString(), true);
+        }
+    }
+
+    /**
+     * Gets the batch executor.
+     * 
+     * @return the batch executor
+     */
+    private ExecutorService getBatchExecutor()
+    {
+        if (batchExecutor == null)
+        {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(batchParallelism, batchParallelism, 60,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+                    {
+                        @Override
+                        public Thread newThread(Runnable r)
+                        {
+                            Thread thread = new Thread(r, "kundera-cassandra-batch");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            batchExecutor = executor;
+        }
+        return batchExecutor;
+    }
+
+    /**
+     * Statements of a single partition, queued for unlogged batch.
+     */
+    static final class PartitionBatch
+    {
+        /** Whether statements update counter columns. */
+        private final boolean counter;
+
+        /** The statements. */
+        final List<String> statements = new ArrayList<String>();
+
+        /**
+         * Instantiates a new partition batch.
+         * 
+         * @param counter
+         *            whether statements update counter columns
+         */
+        PartitionBatch(boolean counter)
+        {
+            this.counter = counter;
+        }
+    }
+
     /**
      * Prepare mutation.
      * 
@@ -2034,6 +2332,30 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
     }
 
+    /**
+     * Returns class name of partitioner of cluster connected to.
+     * 
+     * @return partitioner class name
+     */
+    public String getPartitioner()
+    {
+        Object pooledConnection = getConnection();
+        Cassandra.Client conn = (org.apache.cassandra.thrift.Cassandra.Client) getConnection(pooledConnection);
+        try
+        {
+            return conn.describe_partitioner();
+        }
+        catch (Exception e)
+        {
+            log.error("Error while describing partitioner, Caused by: {}.", e);
+            throw new PersistenceException(e);
+        }
+        finally
+        {
+            releaseConnection(pooledConnection);
+        }
+    }
+
     /**
      * Executes query string using cql3.
      * 
@@ -2127,6 +2449,78 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         setBatchSize(batch_Size);
     }
 
+    /**
+     * Populates batch type and unlogged batch options from external or
+     * persistence unit properties.
+     * 
+     * @param persistenceUnit
+     *            the persistence unit
+     * @param puProperties
+     *            the pu properties
+     */
+    private void populateBatchOptions(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                persistenceUnit);
+        for (String property : new String[] { CassandraConstants.BATCH_TYPE, CassandraConstants.BATCH_STATEMENTS,
+                CassandraConstants.BATCH_PARALLELISM })
+        {
+            Object value = puProperties != null ? puProperties.get(property) : null;
+            if (value == null && puMetadata != null)
+            {
+                value = puMetadata.getProperty(property);
+            }
+
+            if (value != null)
+            {
+                setBatchOption(property, value.toString());
+            }
+        }
+    }
+
+    /**
+     * Sets batch type or an unlogged batch option.
+     * 
+     * @param property
+     *            the property name
+     * @param value
+     *            the value
+     */
+    void setBatchOption(String property, String value)
+    {
+        if (property.equals(CassandraConstants.BATCH_TYPE))
+        {
+            if (!CassandraConstants.BATCH_TYPE_LOGGED.equalsIgnoreCase(value)
+                    && !CassandraConstants.BATCH_TYPE_UNLOGGED.equalsIgnoreCase(value))
+            {
+                throw new IllegalArgumentException(property + " property must be either logged or unlogged.");
+            }
+            unloggedBatch = CassandraConstants.BATCH_TYPE_UNLOGGED.equalsIgnoreCase(value);
+        }
+        else
+        {
+            int intValue = NumberUtils.toInt(value.trim(), 0);
+            if (intValue <= 0)
+            {
+                throw new IllegalArgumentException(property + " property must be numeric and > 0.");
+            }
+
+            if (property.equals(CassandraConstants.BATCH_STATEMENTS))
+            {
+                batchStatements = intValue;
+            }
+            else
+            {
+                batchParallelism = intValue;
+                if (batchExecutor != null)
+                {
+                    batchExecutor.shutdown();
+                    batchExecutor = null;
+                }
+            }
+        }
+    }
+
     /**
      * Sets the batch size.
      * 
@@ -2238,7 +2632,8 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
                 throws UnsupportedEncodingException, InvalidRequestException, TException, UnavailableException,
                 TimedOutException, SchemaDisagreementException
         {
-            List<String> queries = getPersistQueries(entityMetadata, entity, conn, rlHolders, ttlColumns);
+            List<String> queries = getPersistQueries(entityMetadata, entity, conn, rlHolders, ttlColumns,
+                    dirtyAttributes);
 
             for (String query : queries)
             {
@@ -96,6 +96,12 @@ class CassandraClientProperties
                     {
                         this.cassandraClientBase.setBatchSize(value.toString());
                     }
+                    else if (key.equals(CassandraConstants.BATCH_TYPE)
+                            || key.equals(CassandraConstants.BATCH_STATEMENTS)
+                            || key.equals(CassandraConstants.BATCH_PARALLELISM))
+                    {
+                        this.cassandraClientBase.setBatchOption(key, value.toString());
+                    }
 
                     // Add more properties as needed
                 }
@@ -37,6 +37,8 @@ import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientBase;
 import com.impetus.kundera.generator.AutoGenerator;
+import com.impetus.kundera.generator.PooledIdAllocator;
+import com.impetus.kundera.generator.PooledIdAllocator.BlockSource;
 import com.impetus.kundera.generator.TableGenerator;
 import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 
@@ -94,26 +96,65 @@ public class CassandraIdGenerator implements AutoGenerator, TableGenerator
      * com.impetus.kundera.client.ClientBase, java.lang.Object)
      */
     @Override
-    public Object generate(TableGeneratorDiscriptor discriptor, ClientBase client, String dataType)
+    public Object generate(final TableGeneratorDiscriptor discriptor, final ClientBase client, String dataType)
     {
-        Cassandra.Client conn = ((CassandraClientBase) client).getRawClient(discriptor.getSchema());
+        return client.getIdAllocator(discriptor).next(new BlockSource()
+        {
+            @Override
+            public long reserve()
+            {
+                return getBlockStart(incrementCounter(discriptor, (CassandraClientBase) client), discriptor);
+            }
+        });
+    }
+
+    /**
+     * Returns first id of a block. Before pooling, counter value n issued id
+     * (n + 1) * allocationSize at most, so block n starts above n *
+     * allocationSize to never hand out ids issued from an existing counter.
+     * 
+     * @param blockNumber
+     *            block number, starting from 1.
+     * @param discriptor
+     *            the discriptor
+     * @return first id of block.
+     */
+    static long getBlockStart(long blockNumber, TableGeneratorDiscriptor discriptor)
+    {
+        long allocationSize = Math.max(1, discriptor.getAllocationSize());
+        return Math.max(PooledIdAllocator.getBlockStart(blockNumber, discriptor.getInitialValue(),
+                discriptor.getAllocationSize()), blockNumber * allocationSize + 1);
+    }
+
+    /**
+     * Increments counter of reserved blocks.
+     * 
+     * @param discriptor
+     *            the discriptor
+     * @param client
+     *            the client
+     * @return number of blocks reserved, including this one.
+     */
+    private long incrementCounter(TableGeneratorDiscriptor discriptor, CassandraClientBase client)
+    {
+        Cassandra.Client conn = client.getRawClient(discriptor.getSchema());
         long latestCount = 0l;
         try
         {
             conn.set_keyspace(discriptor.getSchema());
 
-            if (((CassandraClientBase) client).isCql3Enabled())
+            if (client.isCql3Enabled())
             {
                 CQLTranslator translator = new CQLTranslator();
-                ((CassandraClientBase) client).execute(translator.buildUpdateQuery(discriptor).toString(), conn);
+                client.execute(translator.buildUpdateQuery(discriptor).toString(), conn);
 
-                CqlResult result = ((CassandraClientBase) client).execute(translator.buildSelectQuery(discriptor)
-                        .toString(), conn);
+                CqlResult result = client.execute(translator.buildSelectQuery(discriptor).toString(), conn);
 
                 for (CqlRow row : result.getRows())
                 {
                     latestCount = ByteBufferUtil.toLong(ByteBuffer.wrap(row.getColumns().get(0).getValue()));
                 }
+                return latestCount;
             }
             else
             {
@@ -124,7 +165,7 @@ public class CassandraIdGenerator implements AutoGenerator, TableGenerator
                 try
                 {
                     latestCount = conn.get(ByteBuffer.wrap(discriptor.getPkColumnValue().getBytes()), columnPath,
-                            ((CassandraClientBase) client).getConsistencyLevel()).counter_column.value;
+                            client.getConsistencyLevel()).counter_column.value;
                 }
                 catch (NotFoundException e)
                 {
@@ -137,15 +178,8 @@ public class CassandraIdGenerator implements AutoGenerator, TableGenerator
                         .getBytes()), 1);
 
                 conn.add(ByteBuffer.wrap(discriptor.getPkColumnValue().getBytes()), columnParent, counterColumn,
-                        ((CassandraClientBase) client).getConsistencyLevel());
-            }
-            if (latestCount == 0)
-            {
-                return (long) discriptor.getInitialValue();
-            }
-            else
-            {
-                return (latestCount + 1) * discriptor.getAllocationSize();
+                        client.getConsistencyLevel());
+                return latestCount + 1;
             }
         }
         catch (UnavailableException e)
@@ -18,6 +18,7 @@ package com.impetus.client.cassandra.common;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +27,7 @@ import com.impetus.client.cassandra.service.CassandraHost;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.loader.GenericClientFactory;
+import com.impetus.kundera.service.policy.SpeculativeExecutionPolicy;
 import com.impetus.kundera.utils.DefaultTimestampGenerator;
 import com.impetus.kundera.utils.TimestampGenerator;
 
@@ -44,6 +46,9 @@ public abstract class CassandraClientFactory extends GenericClientFactory
     /** The Timestamp Generator. */
     protected TimestampGenerator timestampGenerator = new DefaultTimestampGenerator();;
 
+    /** The speculative execution policy, null if disabled. */
+    protected SpeculativeExecutionPolicy speculativeExecutionPolicy;
+
     /**
      * Add cassandra host.
      * 
@@ -82,4 +87,51 @@ public abstract class CassandraClientFactory extends GenericClientFactory
             }
         }
     }
+
+    /**
+     * Initialize speculative execution of idempotent reads, enabled if its
+     * delay or percentile is configured. Delay of 100 milliseconds applies
+     * until enough response times are observed for percentile.
+     * 
+     * @param externalProperty
+     */
+    protected void initializeSpeculativeExecution(Map<String, Object> externalProperty)
+    {
+        String delay = getConnectionProperty(externalProperty, CassandraConstants.SPECULATIVE_EXECUTION_DELAY);
+        String percentile = getConnectionProperty(externalProperty,
+                CassandraConstants.SPECULATIVE_EXECUTION_PERCENTILE);
+        if (StringUtils.isBlank(delay) && StringUtils.isBlank(percentile))
+        {
+            return;
+        }
+
+        String maxLoad = getConnectionProperty(externalProperty, CassandraConstants.SPECULATIVE_EXECUTION_MAX_LOAD);
+        speculativeExecutionPolicy = new SpeculativeExecutionPolicy(NumberUtils.toLong(delay, 100),
+                NumberUtils.toDouble(percentile, 0), NumberUtils.toDouble(maxLoad, 0.1));
+    }
+
+    /**
+     * Gets the speculative execution policy.
+     * 
+     * @return the speculative execution policy, null if disabled
+     */
+    public SpeculativeExecutionPolicy getSpeculativeExecutionPolicy()
+    {
+        return speculativeExecutionPolicy;
+    }
+
+    /**
+     * Returns property value out of external properties, falling back to
+     * connection properties.
+     */
+    private String getConnectionProperty(Map<String, Object> externalProperty, String name)
+    {
+        Object value = externalProperty != null ? externalProperty.get(name) : null;
+        if (value != null)
+        {
+            return value.toString().trim();
+        }
+        return CassandraPropertyReader.csmd != null ? StringUtils.trimToNull(CassandraPropertyReader.csmd
+                .getConnectionProperties().getProperty(name)) : null;
+    }
 }
@@ -95,4 +95,51 @@ public interface CassandraConstants
     public static final String SOCKET_TIMEOUT = "socket.timeout";
 
     public static final String MAX_WAIT = "max.wait";
+
+    /** Query hint, number of token ranges a query iteration is scanned in parallel by. */
+    public static final String SCAN_SPLITS = "kundera.cassandra.scan.splits";
+
+    /** Query hint, number of token ranges scanned at a time, 4 by default. */
+    public static final String SCAN_PARALLELISM = "kundera.cassandra.scan.parallelism";
+
+    /** Query hint, number of rows fetched by a single token range scan query, 5000 by default. */
+    public static final String SCAN_PAGE_SIZE = "kundera.cassandra.scan.page.size";
+
+    /** Query hint, number of times a failed token range scan query is retried, 2 by default. */
+    public static final String SCAN_RETRIES = "kundera.cassandra.scan.retries";
+
+    /**
+     * Query hint, paging state to resume iteration over datastax driver from,
+     * empty to start from first page. Once all entities of a page are
+     * iterated, it is updated with paging state of next page, null after last
+     * one.
+     */
+    public static final String PAGING_STATE = "kundera.cassandra.paging.state";
+
+    /**
+     * Property, batch type used on flush: "logged" (default) sends all queued
+     * statements as one atomic batch, "unlogged" groups them by partition.
+     */
+    public static final String BATCH_TYPE = "kundera.cassandra.batch.type";
+
+    /** Logged batch type. */
+    public static final String BATCH_TYPE_LOGGED = "logged";
+
+    /** Unlogged batch type. */
+    public static final String BATCH_TYPE_UNLOGGED = "unlogged";
+
+    /** Property, maximum number of statements in an unlogged batch, 100 by default. */
+    public static final String BATCH_STATEMENTS = "kundera.cassandra.batch.statements";
+
+    /** Property, number of unlogged batches sent at a time, 4 by default. */
+    public static final String BATCH_PARALLELISM = "kundera.cassandra.batch.parallelism";
+
+    /** Property, time in milliseconds an idempotent read is waited for before it is sent to another host. */
+    public static final String SPECULATIVE_EXECUTION_DELAY = "speculative.execution.delay";
+
+    /** Property, percentile of observed response times to use as speculative execution delay. */
+    public static final String SPECULATIVE_EXECUTION_PERCENTILE = "speculative.execution.percentile";
+
+    /** Property, ratio of speculative to all reads not to exceed, 0.1 by default. */
+    public static final String SPECULATIVE_EXECUTION_MAX_LOAD = "speculative.execution.max.load";
 }
@@ -344,4 +344,16 @@ public class CassandraUtilities
         prop.setMaxWait(maxWaitInMilli);
         return prop;
     }
+
+    /**
+     * Checks if given cql query is a select, and so idempotent.
+     * 
+     * @param cqlQuery
+     *            the cql query
+     * @return true, if select query
+     */
+    public static boolean isSelectQuery(String cqlQuery)
+    {
+        return cqlQuery != null && cqlQuery.trim().regionMatches(true, 0, "SELECT", 0, 6);
+    }
 }
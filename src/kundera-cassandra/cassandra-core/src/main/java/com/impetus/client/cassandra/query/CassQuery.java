@@ -25,6 +25,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javassist.Modifier;
 
@@ -39,6 +41,7 @@ import org.apache.cassandra.thrift.IndexExpression;
 import org.apache.cassandra.thrift.IndexOperator;
 import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.eclipse.persistence.jpa.jpql.parser.CountFunction;
 import org.eclipse.persistence.jpa.jpql.parser.Expression;
 import org.eclipse.persistence.jpa.jpql.parser.SelectClause;
@@ -46,6 +49,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.CassandraClientBase;
+import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.common.CassandraUtilities;
 import com.impetus.client.cassandra.index.CassandraIndexHelper;
 import com.impetus.client.cassandra.thrift.CQLTranslator;
@@ -86,6 +90,10 @@ public class CassQuery extends QueryImpl
     /** the log used by this class. */
     private static Logger log = LoggerFactory.getLogger(CassQuery.class);
 
+    /** Limit clause, ending query or followed by filtering clause only. */
+    private static final Pattern LIMIT_CLAUSE = Pattern.compile(CQLTranslator.LIMIT
+            + "\\d+(?=\\s*(ALLOW FILTERING)?\\s*$)");
+
     /** The reader. */
     private EntityReader reader;
 
@@ -1303,10 +1311,69 @@ public class CassQuery extends QueryImpl
             throw new UnsupportedOperationException("Scrolling over cassandra is unsupported for lucene queries");
         }
 
+        int splits = getIntHint(CassandraConstants.SCAN_SPLITS, 0);
+        if (splits > 0)
+        {
+            if (!((CassandraClientBase) client).isCql3Enabled(m))
+            {
+                throw new UnsupportedOperationException("Parallel scan over cassandra is supported for CQL3 only");
+            }
+            return new TokenRangeScanIterator(this, m, client, getFetchSize() != null ? getFetchSize()
+                    : this.maxResult, splits, getIntHint(CassandraConstants.SCAN_PARALLELISM, 4), getIntHint(
+                    CassandraConstants.SCAN_PAGE_SIZE, 5000), getIntHint(CassandraConstants.SCAN_RETRIES, 2),
+                    kunderaMetadata);
+        }
+
+        if (((CassandraClientBase) client).isCql3Enabled(m))
+        {
+            MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                    m.getPersistenceUnit());
+            Iterator pagingIterator = ((CassandraClientBase) client).getPagingIterator(this, m,
+                    removeLimit(onQueryOverCQL3(m, client, metaModel, null)), getFetchSize() != null ? getFetchSize()
+                            : this.maxResult);
+            if (pagingIterator != null)
+            {
+                return pagingIterator;
+            }
+        }
+
         return new ResultIterator(this, m, persistenceDelegeator.getClient(m), this.getReader(),
                 getFetchSize() != null ? getFetchSize() : this.maxResult, kunderaMetadata);
     }
 
+    /**
+     * Removes limit clause from parsed query, as paging restricts number of
+     * rows fetched instead.
+     * 
+     * @param parsedQuery
+     *            parsed cql3 query
+     * @return query without limit
+     */
+    static String removeLimit(String parsedQuery)
+    {
+        Matcher matcher = LIMIT_CLAUSE.matcher(parsedQuery);
+        if (!matcher.find())
+        {
+            return parsedQuery;
+        }
+        return parsedQuery.substring(0, matcher.start()) + parsedQuery.substring(matcher.end());
+    }
+
+    /**
+     * Returns numeric value of query hint.
+     * 
+     * @param hintName
+     *            hint name
+     * @param defaultValue
+     *            value if hint is not set or not numeric
+     * @return hint value
+     */
+    private int getIntHint(String hintName, int defaultValue)
+    {
+        Object value = getHints().get(hintName);
+        return value != null ? NumberUtils.toInt(value.toString().trim(), defaultValue) : defaultValue;
+    }
+
     /**
      * Sets the relational entities.
      * 
@@ -1317,7 +1384,7 @@ public class CassQuery extends QueryImpl
      * @param m
      *            the m
      */
-    void setRelationalEntities(List enhanceEntities, Client client, EntityMetadata m)
+    public void setRelationalEntities(List enhanceEntities, Client client, EntityMetadata m)
     {
         super.setRelationEntities(enhanceEntities, client, m);
     }
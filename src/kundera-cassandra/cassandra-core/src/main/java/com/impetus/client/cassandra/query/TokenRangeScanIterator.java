@@ -0,0 +1,693 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.query;
+
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EmbeddableType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.client.cassandra.CassandraClientBase;
+import com.impetus.client.cassandra.common.CassandraUtilities;
+import com.impetus.client.cassandra.thrift.CQLTranslator;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.query.IResultIterator;
+import com.impetus.kundera.utils.ReflectUtils;
+
+/**
+ * Iterates over CQL3 query results by splitting token ring of cluster
+ * partitioner into ranges, scanned concurrently with bounded parallelism. Token
+ * rings of Murmur3, random and byte ordered partitioners are supported.
+ * Each range is scanned page by page, a page continuing after token of last
+ * partition of previous one, so at most one page per range scanned at a time
+ * is held in memory. Pages are delivered as soon as they are fetched, so
+ * entities are not returned in token order. A failed page query is retried on
+ * its own before iteration fails.
+ * 
+ * @param <E>
+ *            the element type
+ */
+class TokenRangeScanIterator<E> implements IResultIterator<E>
+{
+    /** The log. */
+    private static Logger log = LoggerFactory.getLogger(TokenRangeScanIterator.class);
+
+    /** The query. */
+    private final CassQuery query;
+
+    /** The entity metadata. */
+    private final EntityMetadata entityMetadata;
+
+    /** The client. */
+    private final Client client;
+
+    /** Maximum number of entities iterated over. */
+    private final int maxResults;
+
+    /** Maximum number of rows fetched by a single query. */
+    private final int pageSize;
+
+    /** Number of times a failed page query is retried. */
+    private final int retries;
+
+    /** Token ranges not yet submitted for scan. */
+    private final LinkedList<String[]> pendingRanges;
+
+    /** Scans range queries. */
+    private final ExecutorService executor;
+
+    /** Scanned pages. */
+    private final CompletionService<RangeScan> completed;
+
+    /** Query without limit, to be appended with token range condition. */
+    private final String rangeQuery;
+
+    /** Where or and clause, token range condition is appended with. */
+    private final String rangeClause;
+
+    /** Token function of partition key columns. */
+    private final String tokenFunction;
+
+    /** First field of compound key, null if key is not compound. */
+    private Field partitionKeyField;
+
+    /** Fields of embeddable partition key, null if partition key is a single column. */
+    private List<Field> partitionKeyFields;
+
+    /** Number of page scans submitted but not yet taken. */
+    private int inFlight;
+
+    /** Results of last scanned page. */
+    private Iterator<Object> current = Collections.emptyList().iterator();
+
+    /** Number of entities iterated over. */
+    private int count;
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param query
+     *            the query
+     * @param m
+     *            the entity metadata
+     * @param client
+     *            the client
+     * @param maxResults
+     *            maximum number of entities iterated over
+     * @param splits
+     *            number of token ranges
+     * @param parallelism
+     *            number of token ranges scanned at a time
+     * @param pageSize
+     *            maximum number of rows fetched by a single query
+     * @param retries
+     *            number of times a failed page query is retried
+     * @param kunderaMetadata
+     *            the kundera metadata
+     */
+    TokenRangeScanIterator(final CassQuery query, final EntityMetadata m, final Client client, final int maxResults,
+            final int splits, final int parallelism, final int pageSize, final int retries,
+            final KunderaMetadata kunderaMetadata)
+    {
+        this.query = query;
+        this.entityMetadata = m;
+        this.client = client;
+        this.maxResults = maxResults;
+        this.pageSize = Math.max(1, pageSize);
+        this.retries = Math.max(0, retries);
+        this.pendingRanges = new LinkedList<String[]>(splitRing(((CassandraClientBase) client).getPartitioner(),
+                splits));
+
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        this.rangeQuery = CassQuery.removeLimit(query.onQueryOverCQL3(m, client, metaModel, null));
+        this.rangeClause = query.getKunderaQuery().getFilterClauseQueue().isEmpty() ? CQLTranslator.ADD_WHERE_CLAUSE
+                : CQLTranslator.AND_CLAUSE;
+        this.tokenFunction = getTokenFunction(metaModel, kunderaMetadata);
+
+        int threads = Math.max(1, Math.min(parallelism, splits));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "kundera-cassandra-scan");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        // threads of an abandoned iteration must not linger.
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+        this.completed = new ExecutorCompletionService<RangeScan>(executor);
+        for (int i = 0; i < parallelism && !pendingRanges.isEmpty(); i++)
+        {
+            submit(new RangeScan(pendingRanges.removeFirst()));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.Iterator#hasNext()
+     */
+    @Override
+    public boolean hasNext()
+    {
+        if (count >= maxResults)
+        {
+            close();
+            return false;
+        }
+
+        while (!current.hasNext() && inFlight > 0)
+        {
+            current = takeCompleted().iterator();
+        }
+
+        if (!current.hasNext())
+        {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.Iterator#next()
+     */
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + entityMetadata.getEntityClazz());
+        }
+        count++;
+        return getEntity(current.next());
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.Iterator#remove()
+     */
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.IResultIterator#next(int)
+     */
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> chunk = new ArrayList<E>(chunkSize);
+        while (chunk.size() < chunkSize && hasNext())
+        {
+            chunk.add(next());
+        }
+        return chunk;
+    }
+
+    /**
+     * Splits token ring of given partitioner into contiguous ranges of about
+     * equal width. Each range is exclusive of its lower and inclusive of its
+     * upper bound. Byte ordered tokens are split over their first two bytes,
+     * with first range unbounded below and last one unbounded above.
+     * 
+     * @param partitioner
+     *            partitioner class name
+     * @param splits
+     *            number of ranges
+     * @return token ranges, as pairs of lower and upper bound cql literals,
+     *         null if unbounded
+     */
+    static List<String[]> splitRing(String partitioner, int splits)
+    {
+        if (partitioner.endsWith(".Murmur3Partitioner"))
+        {
+            return splitRing(BigInteger.valueOf(Long.MIN_VALUE), BigInteger.valueOf(Long.MAX_VALUE), splits);
+        }
+        if (partitioner.endsWith(".RandomPartitioner"))
+        {
+            return splitRing(BigInteger.ONE.negate(), BigInteger.ONE.shiftLeft(127), splits);
+        }
+        if (partitioner.endsWith(".ByteOrderedPartitioner"))
+        {
+            List<String[]> ranges = new ArrayList<String[]>();
+            String lower = null;
+            for (BigInteger upper : split(BigInteger.ZERO, BigInteger.ONE.shiftLeft(16), Math.min(splits, 1 << 16)))
+            {
+                String bound = upper.bitLength() > 16 ? null : String.format("0x%04x", upper);
+                ranges.add(new String[] { lower, bound });
+                lower = bound;
+            }
+            return ranges;
+        }
+        throw new UnsupportedOperationException("Parallel scan over cassandra is unsupported for partitioner "
+                + partitioner);
+    }
+
+    /**
+     * Splits numeric token ring into contiguous ranges.
+     * 
+     * @param min
+     *            minimum token, excluded from ring
+     * @param max
+     *            maximum token
+     * @param splits
+     *            number of ranges
+     * @return token ranges, as pairs of lower and upper bound cql literals
+     */
+    private static List<String[]> splitRing(BigInteger min, BigInteger max, int splits)
+    {
+        List<String[]> ranges = new ArrayList<String[]>(splits);
+        String lower = min.toString();
+        for (BigInteger upper : split(min, max, splits))
+        {
+            ranges.add(new String[] { lower, upper.toString() });
+            lower = upper.toString();
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns upper bounds of given number of contiguous ranges of about
+     * equal width between given bounds.
+     * 
+     * @param min
+     *            lower bound of first range
+     * @param max
+     *            upper bound of last range
+     * @param splits
+     *            number of ranges
+     * @return upper bounds of ranges
+     */
+    private static List<BigInteger> split(BigInteger min, BigInteger max, int splits)
+    {
+        BigInteger width = max.subtract(min);
+        List<BigInteger> bounds = new ArrayList<BigInteger>(splits);
+        for (int i = 1; i <= splits; i++)
+        {
+            bounds.add(i == splits ? max : min.add(width.multiply(BigInteger.valueOf(i)).divide(
+                    BigInteger.valueOf(splits))));
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns query fetching next page of given range scan.
+     * 
+     * @param scan
+     *            the range scan
+     * @return cql3 query
+     */
+    private String getPageQuery(RangeScan scan)
+    {
+        StringBuilder builder = new StringBuilder(rangeQuery);
+        String clause = rangeClause;
+        if (scan.lowerBound != null)
+        {
+            builder.append(clause).append(tokenFunction).append(" > ").append(scan.lowerBound);
+            clause = CQLTranslator.AND_CLAUSE;
+        }
+        if (scan.range[1] != null)
+        {
+            builder.append(clause).append(tokenFunction).append(" <= ").append(scan.range[1]);
+        }
+        builder.append(CQLTranslator.LIMIT).append(pageSize);
+        new CQLTranslator().buildFilteringClause(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Returns query fetching all rows of token of given partition.
+     * 
+     * @param partitionToken
+     *            token function of partition key values
+     * @return cql3 query
+     */
+    private String getPartitionQuery(String partitionToken)
+    {
+        StringBuilder builder = new StringBuilder(rangeQuery);
+        builder.append(rangeClause).append(tokenFunction).append(" = ").append(partitionToken);
+        new CQLTranslator().buildFilteringClause(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Returns token function over partition key columns, token ranges apply
+     * to. With compound key, these are columns of its first field, or of all
+     * fields of that one if it is embeddable, whose fields are kept to read
+     * partition key values of entities.
+     * 
+     * @param metaModel
+     *            the meta model
+     * @param kunderaMetadata
+     *            the kundera metadata
+     * @return token function
+     */
+    private String getTokenFunction(MetamodelImpl metaModel, KunderaMetadata kunderaMetadata)
+    {
+        CQLTranslator translator = new CQLTranslator();
+        StringBuilder builder = new StringBuilder(CQLTranslator.TOKEN);
+        Class<?> idClass = entityMetadata.getIdAttribute().getBindableJavaType();
+        if (metaModel.isEmbeddable(idClass))
+        {
+            partitionKeyField = getFirstField(idClass);
+            if (metaModel.isEmbeddable(partitionKeyField.getType()))
+            {
+                EmbeddableType partitionKeyType = metaModel.embeddable(partitionKeyField.getType());
+                partitionKeyFields = new ArrayList<Field>();
+                for (Field field : partitionKeyField.getType().getDeclaredFields())
+                {
+                    if (!ReflectUtils.isTransientOrStatic(field))
+                    {
+                        if (!partitionKeyFields.isEmpty())
+                        {
+                            builder.append(CQLTranslator.COMMA_STR);
+                        }
+                        partitionKeyFields.add(field);
+                        Attribute partitionKey = partitionKeyType.getAttribute(field.getName());
+                        translator.appendColumnName(builder, ((AbstractAttribute) partitionKey).getJPAColumnName());
+                    }
+                }
+            }
+            else
+            {
+                Attribute partitionKey = metaModel.embeddable(idClass).getAttribute(partitionKeyField.getName());
+                translator.appendColumnName(builder, ((AbstractAttribute) partitionKey).getJPAColumnName());
+            }
+        }
+        else
+        {
+            translator.appendColumnName(builder, CassandraUtilities.getIdColumnName(kunderaMetadata, entityMetadata,
+                    ((CassandraClientBase) client).getExternalProperties(), true));
+        }
+        return builder.append(CQLTranslator.CLOSE_BRACKET).toString();
+    }
+
+    /**
+     * Returns first persistent field of embeddable class.
+     * 
+     * @param embeddableClass
+     *            the embeddable class
+     * @return first field
+     */
+    private Field getFirstField(Class<?> embeddableClass)
+    {
+        for (Field field : embeddableClass.getDeclaredFields())
+        {
+            if (!ReflectUtils.isTransientOrStatic(field))
+            {
+                return field;
+            }
+        }
+        throw new PersistenceException("No persistent field found in " + embeddableClass);
+    }
+
+    /**
+     * Returns partition key values of given entity.
+     * 
+     * @param result
+     *            the entity, possibly enhanced
+     * @return partition key values
+     */
+    private List<Object> getPartitionKey(Object result)
+    {
+        Object key = PropertyAccessorHelper.getId(getEntity(result), entityMetadata);
+        if (partitionKeyField != null)
+        {
+            key = PropertyAccessorHelper.getObject(key, partitionKeyField);
+        }
+        if (partitionKeyFields == null)
+        {
+            return Collections.singletonList(key);
+        }
+
+        List<Object> values = new ArrayList<Object>(partitionKeyFields.size());
+        for (Field field : partitionKeyFields)
+        {
+            values.add(PropertyAccessorHelper.getObject(key, field));
+        }
+        return values;
+    }
+
+    /**
+     * Returns token function of given partition key values.
+     * 
+     * @param partitionKey
+     *            partition key values
+     * @return token function
+     */
+    private String getPartitionToken(List<Object> partitionKey)
+    {
+        CQLTranslator translator = new CQLTranslator();
+        StringBuilder builder = new StringBuilder(CQLTranslator.TOKEN);
+        for (Object value : partitionKey)
+        {
+            if (builder.length() > CQLTranslator.TOKEN.length())
+            {
+                builder.append(CQLTranslator.COMMA_STR);
+            }
+            translator.appendValue(builder, value.getClass(), value, false, false);
+        }
+        return builder.append(CQLTranslator.CLOSE_BRACKET).toString();
+    }
+
+    /**
+     * Submits scan of next page of given token range.
+     * 
+     * @param scan
+     *            the range scan
+     */
+    private void submit(RangeScan scan)
+    {
+        completed.submit(scan);
+        inFlight++;
+    }
+
+    /**
+     * Scans next page of a token range. If page is full, rows of its last
+     * partition are fetched whole, as they may continue beyond page, and next
+     * page starts after token of that partition.
+     * 
+     * @param scan
+     *            the range scan
+     * @return entities of page
+     */
+    private List<Object> scanPage(RangeScan scan)
+    {
+        List<Object> results = execute(getPageQuery(scan), scan.range);
+        if (results.size() < pageSize)
+        {
+            scan.done = true;
+            return results;
+        }
+
+        List<Object> lastPartition = getPartitionKey(results.get(results.size() - 1));
+        String partitionToken = getPartitionToken(lastPartition);
+        if (partitionKeyField != null)
+        {
+            int end = results.size();
+            while (end > 0 && lastPartition.equals(getPartitionKey(results.get(end - 1))))
+            {
+                end--;
+            }
+            results = new ArrayList<Object>(results.subList(0, end));
+            results.addAll(execute(getPartitionQuery(partitionToken), scan.range));
+        }
+        scan.lowerBound = partitionToken;
+        return results;
+    }
+
+    /**
+     * Executes a page query, retrying on failure.
+     * 
+     * @param cqlQuery
+     *            the query
+     * @param range
+     *            token range scanned
+     * @return entities
+     */
+    private List<Object> execute(String cqlQuery, String[] range)
+    {
+        for (int attempt = 0;; attempt++)
+        {
+            try
+            {
+                List<Object> results = ((CassandraClientBase) client).executeQuery(entityMetadata.getEntityClazz(),
+                        entityMetadata.getRelationNames(), false, cqlQuery);
+                return results != null ? results : Collections.emptyList();
+            }
+            catch (RuntimeException e)
+            {
+                if (attempt >= retries)
+                {
+                    throw e;
+                }
+                log.warn("Error while scanning token range ({}, {}], retrying.", range[0], range[1]);
+            }
+        }
+    }
+
+    /**
+     * Takes next scanned page and submits scan of following page, or of a
+     * pending token range once range of that page is scanned through.
+     * 
+     * @return entities of scanned page
+     */
+    private List<Object> takeCompleted()
+    {
+        try
+        {
+            RangeScan scan = completed.take().get();
+            List<Object> results = scan.results;
+            scan.results = null;
+            inFlight--;
+            if (!scan.done)
+            {
+                submit(scan);
+            }
+            else if (!pendingRanges.isEmpty())
+            {
+                submit(new RangeScan(pendingRanges.removeFirst()));
+            }
+
+            if (!results.isEmpty()
+                    && (entityMetadata.isRelationViaJoinTable() || (entityMetadata.getRelationNames() != null && !(entityMetadata
+                            .getRelationNames().isEmpty()))))
+            {
+                query.setRelationalEntities(results, client, entityMetadata);
+            }
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            close();
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted while scanning token ranges.", e);
+        }
+        catch (ExecutionException e)
+        {
+            close();
+            throw new PersistenceException("Error while scanning token ranges, Caused by :.", e.getCause());
+        }
+    }
+
+    /**
+     * Stops scanning remaining token ranges.
+     */
+    private void close()
+    {
+        pendingRanges.clear();
+        inFlight = 0;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Extract wrapped entity object from enhanced entity.
+     * 
+     * @param entity
+     *            enhanced entity.
+     * 
+     * @return returns extracted instance of E.
+     */
+    private E getEntity(Object entity)
+    {
+        return (E) (entity.getClass().isAssignableFrom(EnhanceEntity.class) ? ((EnhanceEntity) entity).getEntity()
+                : entity);
+    }
+
+    /**
+     * Scan of a token range, a page at a time.
+     */
+    private final class RangeScan implements Callable<RangeScan>
+    {
+        /** Token range, as lower and upper bound pair. */
+        private final String[] range;
+
+        /**
+         * Exclusive lower bound of next page, a token or token function, null
+         * if unbounded.
+         */
+        private String lowerBound;
+
+        /** Entities of last scanned page. */
+        private List<Object> results;
+
+        /** Whether range is scanned through. */
+        private boolean done;
+
+        /**
+         * Instantiates a new range scan.
+         * 
+         * @param range
+         *            token range
+         */
+        private RangeScan(String[] range)
+        {
+            this.range = range;
+            this.lowerBound = range[0];
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.util.concurrent.Callable#call()
+         */
+        @Override
+        public RangeScan call() throws Exception
+        {
+            results = scanPage(this);
+            return this;
+        }
+    }
+}
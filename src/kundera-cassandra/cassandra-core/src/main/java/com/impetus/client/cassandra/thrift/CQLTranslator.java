@@ -210,6 +210,9 @@ public final class CQLTranslator
     /** The Constant BEGIN_BATCH. */
     public static final String BEGIN_BATCH = "BEGIN BATCH";
 
+    /** The Constant BEGIN_UNLOGGED_BATCH. */
+    public static final String BEGIN_UNLOGGED_BATCH = "BEGIN UNLOGGED BATCH";
+
     /**
      * Instantiates a new CQL translator.
      */
@@ -251,6 +254,32 @@ public final class CQLTranslator
     public HashMap<TranslationType, Map<String, StringBuilder>> prepareColumnOrColumnValues(final Object record,
             final EntityMetadata entityMetadata, TranslationType type, Map<String, Object> externalProperties,
             final KunderaMetadata kunderaMetadata)
+    {
+        return prepareColumnOrColumnValues(record, entityMetadata, type, externalProperties, kunderaMetadata, null);
+    }
+
+    /**
+     * Prepares column name or column values for given attributes only. Id
+     * columns are always included.
+     * 
+     * @param record
+     *            entity.
+     * @param entityMetadata
+     *            entity meta data
+     * @param type
+     *            translation type.
+     * @param externalProperties
+     *            the external properties
+     * @param kunderaMetadata
+     *            the kundera metadata
+     * @param attributeNames
+     *            names of attributes to translate, null for all attributes
+     * @return Map containing translation type as key and string as translated
+     *         CQL string.
+     */
+    public HashMap<TranslationType, Map<String, StringBuilder>> prepareColumnOrColumnValues(final Object record,
+            final EntityMetadata entityMetadata, TranslationType type, Map<String, Object> externalProperties,
+            final KunderaMetadata kunderaMetadata, Set<String> attributeNames)
     {
         HashMap<TranslationType, Map<String, StringBuilder>> parsedColumnOrColumnValue = new HashMap<CQLTranslator.TranslationType, Map<String, StringBuilder>>();
         if (type == null)
@@ -266,7 +295,7 @@ public final class CQLTranslator
         Map<String, StringBuilder> columnBuilders = new HashMap<String, StringBuilder>();
 
         onTranslation(record, entityMetadata, type, metaModel, entityClazz, entityType, builders, columnBuilders,
-                externalProperties, kunderaMetadata);
+                externalProperties, kunderaMetadata, attributeNames);
 
         for (String tableName : columnBuilders.keySet())
         {
@@ -337,11 +366,13 @@ public final class CQLTranslator
      *            the external properties
      * @param kunderaMetadata
      *            the kundera metadata
+     * @param attributeNames
+     *            names of attributes to translate, null for all attributes
      */
     private void onTranslation(final Object record, final EntityMetadata m, TranslationType type,
             MetamodelImpl metaModel, Class entityClazz, EntityType entityType, Map<String, StringBuilder> builders,
             Map<String, StringBuilder> columnBuilders, Map<String, Object> externalProperties,
-            final KunderaMetadata kunderaMetadata)
+            final KunderaMetadata kunderaMetadata, Set<String> attributeNames)
     {
         Set<Attribute> attributes = entityType.getAttributes();
         Iterator<Attribute> iterator = attributes.iterator();
@@ -367,6 +398,11 @@ public final class CQLTranslator
                 builders.put(tableName, builder);
             }
             Field field = (Field) attribute.getJavaMember();
+            if (attributeNames != null && !attributeNames.contains(attribute.getName()))
+            {
+                continue;
+            }
+
             if (!attribute.equals(m.getIdAttribute())
                     && !((AbstractAttribute) attribute).getJPAColumnName().equals(
                             ((AbstractAttribute) m.getIdAttribute()).getJPAColumnName()))
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.EntityType;
@@ -90,6 +91,7 @@ import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.property.PropertyAccessor;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.service.policy.SpeculativeExecutionPolicy;
 import com.impetus.kundera.utils.KunderaCoreUtils;
 import com.impetus.kundera.utils.TimestampGenerator;
 
@@ -385,14 +387,94 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
      * @return the list
      */
     @Override
-    public final List find(Class entityClass, List<String> relationNames, boolean isWrapReq, EntityMetadata metadata,
-            Object... rowIds)
+    public final List find(final Class entityClass, final List<String> relationNames, final boolean isWrapReq,
+            final EntityMetadata metadata, final Object... rowIds)
     {
         if (!isOpen())
         {
             throw new PersistenceException("ThriftClient is closed.");
         }
-        return findByRowKeys(entityClass, relationNames, isWrapReq, metadata, rowIds);
+        if (clientFactory.getSpeculativeExecutionPolicy() == null)
+        {
+            return findByRowKeys(entityClass, relationNames, isWrapReq, metadata, rowIds);
+        }
+        return speculate(new Read<List>()
+        {
+            @Override
+            public List read(ThriftClient client)
+            {
+                return client.findByRowKeys(entityClass, relationNames, isWrapReq, metadata, rowIds);
+            }
+        });
+    }
+
+    /**
+     * Runs idempotent read, speculatively sending it to another host as well
+     * if it is slow. A read run off calling thread uses a client of its own,
+     * as this one is not thread safe and may be used again once the other
+     * read responds.
+     * 
+     * @param read
+     *            the read
+     * @return result of the read
+     */
+    private <T> T speculate(final Read<T> read)
+    {
+        SpeculativeExecutionPolicy policy = clientFactory.getSpeculativeExecutionPolicy();
+        final Thread caller = Thread.currentThread();
+        Callable<T> primary = new Callable<T>()
+        {
+            @Override
+            public T call()
+            {
+                return read.read(Thread.currentThread() == caller ? ThriftClient.this : fork(pool));
+            }
+        };
+        final ConnectionPool alternatePool = clientFactory.getAlternatePool(pool);
+        Callable<T> speculative = alternatePool == null ? null : new Callable<T>()
+        {
+            @Override
+            public T call()
+            {
+                return read.read(fork(alternatePool));
+            }
+        };
+        return policy.execute(primary, speculative);
+    }
+
+    /**
+     * Creates a client reading over given pool with consistency level and cql
+     * version of this one.
+     * 
+     * @param connectionPool
+     *            the pool
+     * @return the client
+     */
+    private ThriftClient fork(ConnectionPool connectionPool)
+    {
+        ThriftClient client = new ThriftClient(clientFactory, indexManager, reader, getPersistenceUnit(),
+                connectionPool, externalProperties, kunderaMetadata, generator);
+        client.setConsistencyLevel(getConsistencyLevel());
+        client.setCqlVersion(getCqlVersion());
+        return client;
+    }
+
+    /**
+     * Idempotent read, run against a client.
+     * 
+     * @param <T>
+     *            the result type
+     */
+    private interface Read<T>
+    {
+        /**
+         * Runs the read.
+         * 
+         * @param client
+         *            the client
+         * @return result of the read
+         */
+        T read(ThriftClient client);
     }
 
     /**
@@ -1053,13 +1135,26 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
      */
 
     @Override
-    public List executeQuery(Class clazz, List<String> relationalField, boolean isNative, String cqlQuery)
+    public List executeQuery(final Class clazz, final List<String> relationalField, final boolean isNative,
+            final String cqlQuery)
     {
         if (clazz == null)
         {
             return super.executeScalarQuery(cqlQuery);
         }
-        return super.executeSelectQuery(clazz, relationalField, dataHandler, isNative, cqlQuery);
+        if (clientFactory.getSpeculativeExecutionPolicy() == null
+                || !CassandraUtilities.isSelectQuery(cqlQuery))
+        {
+            return super.executeSelectQuery(clazz, relationalField, dataHandler, isNative, cqlQuery);
+        }
+        return speculate(new Read<List>()
+        {
+            @Override
+            public List read(ThriftClient client)
+            {
+                return client.executeSelectQuery(clazz, relationalField, client.dataHandler, isNative, cqlQuery);
+            }
+        });
     }
 
     /*
@@ -15,6 +15,7 @@
  */
 package com.impetus.client.cassandra.thrift;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -50,6 +51,7 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.service.Host;
 import com.impetus.kundera.service.HostConfiguration;
+import com.impetus.kundera.service.policy.LatencyAwareBalancingPolicy;
 import com.impetus.kundera.service.policy.LeastActiveBalancingPolicy;
 import com.impetus.kundera.service.policy.RoundRobinBalancingPolicy;
 
@@ -121,6 +123,10 @@ public class ThriftClientFactory extends CassandraClientFactory
             }
         }
         ((CassandraRetryService) hostRetryService).shutdown();
+        if (speculativeExecutionPolicy != null)
+        {
+            speculativeExecutionPolicy.shutdown();
+        }
     }
 
     /* (non-Javadoc)
@@ -141,6 +147,7 @@ public class ThriftClientFactory extends CassandraClientFactory
 
         // initialize timestamp generator.
         initializeTimestampGenerator(externalProperty);
+        initializeSpeculativeExecution(externalProperty);
     }
 
     /* (non-Javadoc)
@@ -224,6 +231,19 @@ public class ThriftClientFactory extends CassandraClientFactory
         return false;
     }
 
+    /**
+     * Gets pool of another host, speculative reads are sent to.
+     *
+     * @param pool the pool of primary read
+     * @return pool of another host, null if there is none
+     */
+    ConnectionPool getAlternatePool(ConnectionPool pool)
+    {
+        List<Object> pools = new ArrayList<Object>(hostPools.values());
+        pools.remove(pool);
+        return pools.isEmpty() ? null : (ConnectionPool) loadBalancingPolicy.getPool(pools);
+    }
+
     /**
      * Gets the new pool.
      *
@@ -261,12 +281,18 @@ public class ThriftClientFactory extends CassandraClientFactory
             case LEASTACTIVE:
                 loadBalancingPolicy = new ThriftLeastActiveBalancingPolcy();
                 break;
+            case LATENCYAWARE:
+                loadBalancingPolicy = new LatencyAwareBalancingPolicy();
+                break;
             default:
                 loadBalancingPolicy = new RoundRobinBalancingPolicy();
                 break;
             }
         }
-        loadBalancingPolicy = new RoundRobinBalancingPolicy();
+        else
+        {
+            loadBalancingPolicy = new RoundRobinBalancingPolicy();
+        }
     }
 
     /**
@@ -285,6 +311,10 @@ public class ThriftClientFactory extends CassandraClientFactory
             {
                 success = true;
                 Cassandra.Client client = connectionPool.getConnection();
+                if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+                {
+                    ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onAcquire(connectionPool, client);
+                }
 
                 if (logger.isDebugEnabled())
                 {
@@ -299,6 +329,10 @@ public class ThriftClientFactory extends CassandraClientFactory
                 success = false;
                 logger.warn("{} :{}  host appears to be down, trying for next ", pool.getPoolProperties().getHost(),
                         pool.getPoolProperties().getPort());
+                if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+                {
+                    ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onFailure(connectionPool);
+                }
                 connectionPool = getNewPool(pool.getPoolProperties().getHost(), pool.getPoolProperties().getPort());
             }
         }
@@ -316,6 +350,10 @@ public class ThriftClientFactory extends CassandraClientFactory
     {
         if (pool != null && conn != null)
         {
+            if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+            {
+                ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onRelease(conn);
+            }
             pool.release(conn);
         }
     }
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
+
+/**
+ * To test block starts of pooled table generator ids.
+ */
+public class CassandraIdGeneratorTest
+{
+
+    /**
+     * Test method for
+     * {@link com.impetus.client.cassandra.CassandraIdGenerator#getBlockStart(long, TableGeneratorDiscriptor)}
+     * .
+     */
+    @Test
+    public void testGetBlockStart()
+    {
+        TableGeneratorDiscriptor discriptor = new TableGeneratorDiscriptor("KunderaExamples", "test");
+        int allocationSize = discriptor.getAllocationSize();
+
+        for (long counter = 1; counter < 100; counter++)
+        {
+            long start = CassandraIdGenerator.getBlockStart(counter, discriptor);
+
+            // ids issued before pooling, by thrift and CQL3 counters.
+            Assert.assertTrue(start > discriptor.getInitialValue());
+            Assert.assertTrue(start > counter * allocationSize);
+
+            // blocks do not overlap.
+            Assert.assertEquals(start + allocationSize, CassandraIdGenerator.getBlockStart(counter + 1, discriptor));
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.client.cassandra.CassandraClientBase.PartitionBatch;
+import com.impetus.client.cassandra.common.CassandraConstants;
+import com.impetus.client.cassandra.thrift.CQLTranslator;
+import com.impetus.client.crud.compositeType.EntityWithMultiplePartitionKey;
+import com.impetus.client.crud.compositeType.IdWithMultiplePartitionKey;
+import com.impetus.client.crud.compositeType.PartitionKey;
+import com.impetus.client.crud.countercolumns.Counters;
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.cassandra.persistence.CassandraCli;
+
+/**
+ * Test case for batch type options, checks statements sent to cassandra as
+ * printed with kundera.show.query enabled.
+ */
+public class CassandraPartitionBatchTest
+{
+    private static final String _PU = "compositedatatype";
+
+    private static final String _keyspace = "CompositeCassandra";
+
+    private static final String COUNTERS_PU = "CassandraCounterTest";
+
+    private static final String COUNTERS_KEYSPACE = "KunderaCounterColumn";
+
+    /** The Constant logger. */
+    private static final Logger log = LoggerFactory.getLogger(CassandraPartitionBatchTest.class);
+
+    private EntityManagerFactory emf;
+
+    private PrintStream out;
+
+    private ByteArrayOutputStream queries;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        CassandraCli.initClient();
+        CassandraCli.createKeySpace(_keyspace);
+        try
+        {
+            CassandraCli
+                    .executeCqlQuery(
+                            "create table \"EntityWithMultiplePartitionKey\"(\"partitionKey1\" text, \"partitionKey2\" int, \"clusterkey1\" text, \"clusterkey2\" int, \"entityDiscription\" text, action text, PRIMARY KEY((\"partitionKey1\", \"partitionKey2\"), \"clusterkey1\", \"clusterkey2\"))",
+                            _keyspace);
+        }
+        catch (Exception e)
+        {
+            log.warn(e.getMessage());
+        }
+        out = System.out;
+        queries = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(queries, true));
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        System.setOut(out);
+        if (emf != null)
+        {
+            emf.close();
+        }
+        CassandraCli.dropKeySpace(_keyspace);
+    }
+
+    /**
+     * Rows of a partition go in one unlogged batch, whichever instance holds
+     * their compound partition key.
+     */
+    @Test
+    public void testUnloggedBatchPerPartition()
+    {
+        emf = createEntityManagerFactory(_PU, "", CassandraConstants.BATCH_TYPE_UNLOGGED, null, null);
+        EntityManager em = emf.createEntityManager();
+        for (int i = 0; i < 3; i++)
+        {
+            em.persist(prepareData("partitionKey1", 1, i));
+            em.persist(prepareData("partitionKey1", 2, i));
+        }
+        em.flush();
+
+        String[] batches = getQueries(CQLTranslator.BEGIN_UNLOGGED_BATCH);
+        Assert.assertEquals(2, batches.length);
+        for (String batch : batches)
+        {
+            Assert.assertEquals(3, StringUtils.countMatches(batch, "INSERT INTO"));
+        }
+        Assert.assertEquals(0, getQueries(CQLTranslator.BEGIN_BATCH).length);
+
+        em.clear();
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertNotNull(em.find(EntityWithMultiplePartitionKey.class, prepareId("partitionKey1", 1, i)));
+            Assert.assertNotNull(em.find(EntityWithMultiplePartitionKey.class, prepareId("partitionKey1", 2, i)));
+        }
+        em.close();
+    }
+
+    /**
+     * Statements of a partition beyond the cap go in a further batch, a lone
+     * one without batch.
+     */
+    @Test
+    public void testStatementsCap()
+    {
+        emf = createEntityManagerFactory(_PU, "", CassandraConstants.BATCH_TYPE_UNLOGGED, "2", null);
+        EntityManager em = emf.createEntityManager();
+        for (int i = 0; i < 3; i++)
+        {
+            em.persist(prepareData("partitionKey1", 1, i));
+        }
+        em.flush();
+
+        String[] batches = getQueries(CQLTranslator.BEGIN_UNLOGGED_BATCH);
+        Assert.assertEquals(1, batches.length);
+        Assert.assertEquals(2, StringUtils.countMatches(batches[0], "INSERT INTO"));
+        Assert.assertEquals(2, getQueries("INSERT INTO").length);
+
+        em.clear();
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertNotNull(em.find(EntityWithMultiplePartitionKey.class, prepareId("partitionKey1", 1, i)));
+        }
+        em.close();
+    }
+
+    /**
+     * Without batch type all rows go in a single logged batch.
+     */
+    @Test
+    public void testLoggedBatchByDefault()
+    {
+        emf = createEntityManagerFactory(_PU, "", null, null, null);
+        EntityManager em = emf.createEntityManager();
+        for (int i = 0; i < 2; i++)
+        {
+            em.persist(prepareData("partitionKey1", 1, i));
+            em.persist(prepareData("partitionKey1", 2, i));
+        }
+        em.flush();
+
+        String[] batches = getQueries(CQLTranslator.BEGIN_BATCH);
+        Assert.assertEquals(1, batches.length);
+        Assert.assertEquals(4, StringUtils.countMatches(batches[0], "INSERT INTO"));
+        Assert.assertEquals(0, getQueries(CQLTranslator.BEGIN_UNLOGGED_BATCH).length);
+
+        em.clear();
+        Assert.assertNotNull(em.find(EntityWithMultiplePartitionKey.class, prepareId("partitionKey1", 2, 1)));
+        em.close();
+    }
+
+    /**
+     * Partitions are sent one after another with parallelism 1, concurrently
+     * otherwise.
+     */
+    @Test
+    public void testParallelism() throws Exception
+    {
+        emf = createEntityManagerFactory(_PU, "", CassandraConstants.BATCH_TYPE_UNLOGGED, null, "1");
+        EntityManager em = emf.createEntityManager();
+        em.persist(prepareData("partitionKey1", 1, 0));
+        em.persist(prepareData("partitionKey1", 2, 0));
+        em.flush();
+
+        CassandraClientBase client = getClient(em, _PU);
+        Assert.assertNull(getBatchExecutor(client));
+
+        client.setBatchOption(CassandraConstants.BATCH_PARALLELISM, "2");
+        em.persist(prepareData("partitionKey1", 3, 0));
+        em.persist(prepareData("partitionKey1", 4, 0));
+        em.flush();
+
+        ExecutorService executor = getBatchExecutor(client);
+        Assert.assertNotNull(executor);
+
+        // executor is renewed on change of parallelism.
+        client.setBatchOption(CassandraConstants.BATCH_PARALLELISM, "3");
+        Assert.assertTrue(executor.isShutdown());
+        Assert.assertNull(getBatchExecutor(client));
+
+        try
+        {
+            client.setBatchOption(CassandraConstants.BATCH_PARALLELISM, "0");
+            Assert.fail("Should have gone to catch block!");
+        }
+        catch (IllegalArgumentException iaex)
+        {
+            Assert.assertEquals(CassandraConstants.BATCH_PARALLELISM + " property must be numeric and > 0.",
+                    iaex.getMessage());
+        }
+
+        em.clear();
+        for (int i = 1; i <= 4; i++)
+        {
+            Assert.assertNotNull(em.find(EntityWithMultiplePartitionKey.class, prepareId("partitionKey1", i, 0)));
+        }
+        em.close();
+    }
+
+    /**
+     * Counter updates of a partition go in a counter batch.
+     */
+    @Test
+    public void testCounterBatch()
+    {
+        emf = createEntityManagerFactory(COUNTERS_PU, "create", CassandraConstants.BATCH_TYPE_UNLOGGED, null, null);
+        EntityManager em = emf.createEntityManager();
+        try
+        {
+            Assert.assertNull(em.find(Counters.class, "1"));
+
+            PartitionBatch partitionBatch = new PartitionBatch(true);
+            partitionBatch.statements.add("UPDATE \"counters\" SET \"counter\" = \"counter\" + 1 WHERE \"id\" = '1'");
+            partitionBatch.statements.add("UPDATE \"counters\" SET \"counter\" = \"counter\" + 2 WHERE \"id\" = '1'");
+            getClient(em, COUNTERS_PU).executePartitionBatches(Arrays.asList(partitionBatch));
+
+            Assert.assertEquals(1, getQueries(CQLTranslator.BEGIN_COUNTER_BATCH).length);
+            Assert.assertEquals(0, getQueries(CQLTranslator.BEGIN_UNLOGGED_BATCH).length);
+
+            em.clear();
+            Counters counters = em.find(Counters.class, "1");
+            Assert.assertNotNull(counters);
+            Assert.assertEquals(3, counters.getCounter());
+            em.close();
+        }
+        finally
+        {
+            CassandraCli.dropKeySpace(COUNTERS_KEYSPACE);
+        }
+    }
+
+    private EntityManagerFactory createEntityManagerFactory(String persistenceUnit, String ddl, String batchType,
+            String statements, String parallelism)
+    {
+        Map<String, String> propertyMap = new HashMap<String, String>();
+        propertyMap.put(PersistenceProperties.KUNDERA_DDL_AUTO_PREPARE, ddl);
+        propertyMap.put(CassandraConstants.CQL_VERSION, CassandraConstants.CQL_VERSION_3_0);
+        propertyMap.put(PersistenceProperties.KUNDERA_BATCH_SIZE, "100");
+        propertyMap.put(PersistenceProperties.KUNDERA_SHOW_QUERY, "true");
+        if (batchType != null)
+        {
+            propertyMap.put(CassandraConstants.BATCH_TYPE, batchType);
+        }
+        if (statements != null)
+        {
+            propertyMap.put(CassandraConstants.BATCH_STATEMENTS, statements);
+        }
+        if (parallelism != null)
+        {
+            propertyMap.put(CassandraConstants.BATCH_PARALLELISM, parallelism);
+        }
+        return Persistence.createEntityManagerFactory(persistenceUnit, propertyMap);
+    }
+
+    /**
+     * Returns printed queries containing given text.
+     */
+    private String[] getQueries(String text)
+    {
+        StringBuilder matched = new StringBuilder();
+        for (String query : StringUtils.split(queries.toString(), "\r\n"))
+        {
+            if (query.contains(text))
+            {
+                matched.append(query).append('\n');
+            }
+        }
+        return StringUtils.split(matched.toString(), '\n');
+    }
+
+    private CassandraClientBase getClient(EntityManager em, String persistenceUnit)
+    {
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        return (CassandraClientBase) clients.get(persistenceUnit);
+    }
+
+    private ExecutorService getBatchExecutor(CassandraClientBase client) throws Exception
+    {
+        Field batchExecutor = CassandraClientBase.class.getDeclaredField("batchExecutor");
+        batchExecutor.setAccessible(true);
+        return (ExecutorService) batchExecutor.get(client);
+    }
+
+    private EntityWithMultiplePartitionKey prepareData(String partitionKey1, int partitionKey2, int clusterkey2)
+    {
+        EntityWithMultiplePartitionKey entity = new EntityWithMultiplePartitionKey();
+        entity.setId(prepareId(partitionKey1, partitionKey2, clusterkey2));
+        entity.setEntityDiscription("Entity to test partition batches.");
+        entity.setAction("Persisting");
+        return entity;
+    }
+
+    private IdWithMultiplePartitionKey prepareId(String partitionKey1, int partitionKey2, int clusterkey2)
+    {
+        // new instances on each call, partition key does not override equals.
+        PartitionKey partitionKey = new PartitionKey();
+        partitionKey.setPartitionKey1(partitionKey1);
+        partitionKey.setPartitionKey2(partitionKey2);
+
+        IdWithMultiplePartitionKey id = new IdWithMultiplePartitionKey();
+        id.setPartitionKey(partitionKey);
+        id.setClusterkey1("clusterkey1");
+        id.setClusterkey2(clusterkey2);
+        return id;
+    }
+}
@@ -589,6 +589,35 @@ public class CassQueryTest
         CassandraCli.dropKeySpace("CompositeCassandra");
     }
 
+    /**
+     * Test method for
+     * {@link com.impetus.client.cassandra.query.CassQuery#removeLimit(java.lang.String)}
+     * .
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testRemoveLimit() throws Exception
+    {
+        Method removeLimit = CassQuery.class.getDeclaredMethod("removeLimit", String.class);
+        removeLimit.setAccessible(true);
+
+        Assert.assertEquals("SELECT * FROM \"PERSONCASSANDRA\"",
+                removeLimit.invoke(null, "SELECT * FROM \"PERSONCASSANDRA\" LIMIT 200"));
+
+        Assert.assertEquals("SELECT * FROM \"PERSONCASSANDRA\" WHERE \"AGE\" = 10  ALLOW FILTERING",
+                removeLimit.invoke(null,
+                        "SELECT * FROM \"PERSONCASSANDRA\" WHERE \"AGE\" = 10 LIMIT 100  ALLOW FILTERING"));
+
+        // limit like text within a value is kept.
+        Assert.assertEquals("SELECT * FROM \"PERSONCASSANDRA\" WHERE \"PERSON_NAME\" = 'a LIMIT 5'",
+                removeLimit.invoke(null, "SELECT * FROM \"PERSONCASSANDRA\" WHERE \"PERSON_NAME\" = 'a LIMIT 5'"));
+        Assert.assertEquals("SELECT * FROM \"PERSONCASSANDRA\" WHERE \"PERSON_NAME\" = 'a LIMIT 5'  ALLOW FILTERING",
+                removeLimit.invoke(null,
+                        "SELECT * FROM \"PERSONCASSANDRA\" WHERE \"PERSON_NAME\" = 'a LIMIT 5' LIMIT 100"
+                                + "  ALLOW FILTERING"));
+    }
+
     /**
      * 
      * @param kunderaQuery
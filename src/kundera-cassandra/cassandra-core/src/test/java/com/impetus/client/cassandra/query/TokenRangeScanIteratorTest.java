@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.query;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.client.cassandra.common.CassandraConstants;
+import com.impetus.client.crud.PersonCassandra;
+import com.impetus.client.crud.compositeType.EntityWithMultiplePartitionKey;
+import com.impetus.client.crud.compositeType.IdWithMultiplePartitionKey;
+import com.impetus.client.crud.compositeType.PartitionKey;
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.cassandra.persistence.CassandraCli;
+
+/**
+ * Junit for token ring splitting and iteration of
+ * {@link TokenRangeScanIterator}.
+ */
+public class TokenRangeScanIteratorTest
+{
+    /** The Constant logger. */
+    private static final Logger log = LoggerFactory.getLogger(TokenRangeScanIteratorTest.class);
+
+    @Test
+    public void testSplitRing()
+    {
+        List<String[]> ranges = TokenRangeScanIterator.splitRing("org.apache.cassandra.dht.Murmur3Partitioner", 4);
+        Assert.assertEquals(4, ranges.size());
+        Assert.assertEquals(String.valueOf(Long.MIN_VALUE), ranges.get(0)[0]);
+        Assert.assertEquals(String.valueOf(Long.MAX_VALUE), ranges.get(3)[1]);
+        Assert.assertEquals("-4611686018427387905", ranges.get(0)[1]);
+        Assert.assertEquals("-1", ranges.get(1)[1]);
+
+        // ranges are contiguous.
+        for (int i = 1; i < ranges.size(); i++)
+        {
+            Assert.assertEquals(ranges.get(i - 1)[1], ranges.get(i)[0]);
+            Assert.assertTrue(new BigInteger(ranges.get(i)[0]).compareTo(new BigInteger(ranges.get(i)[1])) < 0);
+        }
+    }
+
+    @Test
+    public void testSingleSplit()
+    {
+        List<String[]> ranges = TokenRangeScanIterator.splitRing("org.apache.cassandra.dht.Murmur3Partitioner", 1);
+        Assert.assertEquals(1, ranges.size());
+        Assert.assertEquals(String.valueOf(Long.MIN_VALUE), ranges.get(0)[0]);
+        Assert.assertEquals(String.valueOf(Long.MAX_VALUE), ranges.get(0)[1]);
+    }
+
+    @Test
+    public void testSplitRandomRing()
+    {
+        List<String[]> ranges = TokenRangeScanIterator.splitRing("org.apache.cassandra.dht.RandomPartitioner", 2);
+        Assert.assertEquals(2, ranges.size());
+        Assert.assertEquals("-1", ranges.get(0)[0]);
+        Assert.assertEquals(BigInteger.ONE.shiftLeft(126).subtract(BigInteger.ONE).toString(), ranges.get(0)[1]);
+        Assert.assertEquals(ranges.get(0)[1], ranges.get(1)[0]);
+
+        // tokens above Long.MAX_VALUE are covered.
+        Assert.assertEquals(BigInteger.ONE.shiftLeft(127).toString(), ranges.get(1)[1]);
+    }
+
+    @Test
+    public void testSplitByteOrderedRing()
+    {
+        List<String[]> ranges = TokenRangeScanIterator.splitRing("org.apache.cassandra.dht.ByteOrderedPartitioner", 4);
+        Assert.assertEquals(4, ranges.size());
+        Assert.assertNull(ranges.get(0)[0]);
+        Assert.assertEquals("0x4000", ranges.get(0)[1]);
+        Assert.assertEquals("0x4000", ranges.get(1)[0]);
+        Assert.assertEquals("0xc000", ranges.get(2)[1]);
+        Assert.assertEquals("0xc000", ranges.get(3)[0]);
+        Assert.assertNull(ranges.get(3)[1]);
+
+        ranges = TokenRangeScanIterator.splitRing("org.apache.cassandra.dht.ByteOrderedPartitioner", 1);
+        Assert.assertEquals(1, ranges.size());
+        Assert.assertNull(ranges.get(0)[0]);
+        Assert.assertNull(ranges.get(0)[1]);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSplitUnsupportedRing()
+    {
+        TokenRangeScanIterator.splitRing("org.apache.cassandra.dht.OrderPreservingPartitioner", 4);
+    }
+
+    /**
+     * Iterates over single column partition keys, ranges holding more rows
+     * than a page. Test cluster runs byte ordered partitioner, whose blob
+     * tokens ranges are bound with.
+     */
+    @Test
+    public void testIterate() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        CassandraCli.createKeySpace("KunderaExamples");
+        EntityManagerFactory emf = createEntityManagerFactory("genericCassandraTest", "create");
+        try
+        {
+            EntityManager em = emf.createEntityManager();
+            for (int i = 0; i < 25; i++)
+            {
+                PersonCassandra person = new PersonCassandra();
+                person.setPersonId("" + i);
+                person.setPersonName("vivek");
+                person.setAge(i);
+                em.persist(person);
+            }
+            em.clear();
+
+            Query query = createQuery(em, "Select p from PersonCassandra p", 4, 3);
+            Set<String> ids = new HashSet<String>();
+            Iterator<PersonCassandra> persons = ((com.impetus.kundera.query.Query) query).iterate();
+            while (persons.hasNext())
+            {
+                Assert.assertTrue(ids.add(persons.next().getPersonId()));
+            }
+            Assert.assertEquals(25, ids.size());
+
+            // bound by fetch size.
+            ((com.impetus.kundera.query.Query) query).setFetchSize(10);
+            persons = ((com.impetus.kundera.query.Query) query).iterate();
+            int count = 0;
+            while (persons.hasNext())
+            {
+                Assert.assertNotNull(persons.next());
+                count++;
+            }
+            Assert.assertEquals(10, count);
+            em.close();
+        }
+        finally
+        {
+            emf.close();
+            CassandraCli.dropKeySpace("KunderaExamples");
+        }
+    }
+
+    /**
+     * Iterates over compound partition keys, partitions holding more rows
+     * than a page.
+     */
+    @Test
+    public void testIterateCompoundPartitionKey() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        CassandraCli.initClient();
+        CassandraCli.createKeySpace("CompositeCassandra");
+        try
+        {
+            CassandraCli
+                    .executeCqlQuery(
+                            "create table \"EntityWithMultiplePartitionKey\"(\"partitionKey1\" text, \"partitionKey2\" int, \"clusterkey1\" text, \"clusterkey2\" int, \"entityDiscription\" text, action text, PRIMARY KEY((\"partitionKey1\", \"partitionKey2\"), \"clusterkey1\", \"clusterkey2\"))",
+                            "CompositeCassandra");
+        }
+        catch (Exception e)
+        {
+            log.warn(e.getMessage());
+        }
+        EntityManagerFactory emf = createEntityManagerFactory("compositedatatype", "");
+        try
+        {
+            EntityManager em = emf.createEntityManager();
+            for (int partition = 0; partition < 3; partition++)
+            {
+                for (int row = 0; row < 4; row++)
+                {
+                    PartitionKey partitionKey = new PartitionKey();
+                    partitionKey.setPartitionKey1("partitionKey1");
+                    partitionKey.setPartitionKey2(partition);
+                    IdWithMultiplePartitionKey id = new IdWithMultiplePartitionKey();
+                    id.setPartitionKey(partitionKey);
+                    id.setClusterkey1("clusterkey1");
+                    id.setClusterkey2(row);
+                    EntityWithMultiplePartitionKey entity = new EntityWithMultiplePartitionKey();
+                    entity.setId(id);
+                    entity.setAction("Persisting");
+                    em.persist(entity);
+                }
+            }
+            em.clear();
+
+            for (int splits : new int[] { 1, 4 })
+            {
+                Query query = createQuery(em, "Select e from EntityWithMultiplePartitionKey e", splits, 3);
+                Set<String> rows = new HashSet<String>();
+                Iterator<EntityWithMultiplePartitionKey> entities = ((com.impetus.kundera.query.Query) query)
+                        .iterate();
+                while (entities.hasNext())
+                {
+                    IdWithMultiplePartitionKey id = entities.next().getId();
+                    Assert.assertTrue(rows.add(id.getPartitionKey().getPartitionKey2() + ":" + id.getClusterkey2()));
+                }
+                Assert.assertEquals(12, rows.size());
+            }
+            em.close();
+        }
+        finally
+        {
+            emf.close();
+            CassandraCli.dropKeySpace("CompositeCassandra");
+        }
+    }
+
+    private EntityManagerFactory createEntityManagerFactory(String persistenceUnit, String ddl)
+    {
+        Map<String, String> propertyMap = new HashMap<String, String>();
+        propertyMap.put(PersistenceProperties.KUNDERA_DDL_AUTO_PREPARE, ddl);
+        propertyMap.put(CassandraConstants.CQL_VERSION, CassandraConstants.CQL_VERSION_3_0);
+        return Persistence.createEntityManagerFactory(persistenceUnit, propertyMap);
+    }
+
+    private Query createQuery(EntityManager em, String jpaQuery, int splits, int pageSize)
+    {
+        Query query = em.createQuery(jpaQuery);
+        query.setHint(CassandraConstants.SCAN_SPLITS, splits);
+        query.setHint(CassandraConstants.SCAN_PAGE_SIZE, pageSize);
+        return query;
+    }
+}
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.impetus.client.crud.compositeType;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -85,6 +86,26 @@ public class CQLTranslatorTest
 //        Assert.assertEquals(columnAsCsv, translatedSql);
     }
     
+    @Test
+    public void testPrepareChangedColumns()
+    {
+        CQLTranslator translator = new CQLTranslator();
+        CassandraCompoundKey key = new CassandraCompoundKey("mevivs", 1, UUID.randomUUID());
+        CassandraPrimeUser user = new CassandraPrimeUser(key);
+        user.setTweetBody("my first tweet");
+        user.setTweetDate(new Date());
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(((EntityManagerFactoryImpl)emf).getKunderaMetadataInstance(), CassandraPrimeUser.class);
+        Map<String, StringBuilder> translatedColumns = translator
+                .prepareColumnOrColumnValues(user, entityMetadata, TranslationType.COLUMN, null,
+                        ((EntityManagerFactoryImpl) emf).getKunderaMetadataInstance(),
+                        Collections.singleton("tweetBody")).get(TranslationType.COLUMN);
+
+        String columns = translatedColumns.get(entityMetadata.getTableName()).toString();
+        Assert.assertTrue(StringUtils.contains(columns, "\"tweetBody\""));
+        Assert.assertTrue(StringUtils.contains(columns, "\"userId\""));
+        Assert.assertFalse(StringUtils.contains(columns, "\"tweetDate\""));
+    }
+
     @Test
     public void testGetKeyword()
     {
@@ -0,0 +1,549 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits CQL statements generated by kundera into a statement template, having
+ * bind markers in place of inlined values, and list of values taken out of
+ * it. Templates are used as prepared statement keys, hence all statements of
+ * same entity and same operation shape share one prepared statement. Values of
+ * an IN clause are taken out as a single list, bound to "IN ?", so that IN
+ * clauses of any length share one template.
+ * 
+ * Only SELECT, INSERT, UPDATE, DELETE and BATCH of those are parameterized.
+ * Anything else (e.g. DDL, collection or UDT literals, statements carrying
+ * bind markers already) is left as it is and a null is returned.
+ */
+final class CQLParameterizer
+{
+    /** Literal value types. */
+    enum LiteralType
+    {
+        STRING, NUMBER, UUID, BLOB, BOOLEAN, LIST;
+    }
+
+    private static final Pattern UUID_PATTERN = Pattern
+            .compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    private static final Pattern BLOB_PATTERN = Pattern.compile("0[xX][0-9a-fA-F]*");
+
+    private static final Pattern BATCH_START = Pattern.compile("^\\s*BEGIN\\s+((UNLOGGED|COUNTER)\\s+)?BATCH\\s+",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern BATCH_END = Pattern.compile("\\s*APPLY\\s+BATCH\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    private CQLParameterizer()
+    {
+    }
+
+    /**
+     * Parameterizes given DML statement.
+     * 
+     * @param cql
+     *            CQL statement.
+     * @return parameterized statement or null, if statement can not be
+     *         parameterized.
+     */
+    static ParameterizedStatement parameterize(final String cql)
+    {
+        String statement = cql.trim();
+        String verb = firstWord(statement);
+        if (!("SELECT".equalsIgnoreCase(verb) || isModification(verb)))
+        {
+            return null;
+        }
+
+        StringBuilder template = new StringBuilder(statement.length());
+        List<Literal> literals = new ArrayList<Literal>();
+
+        int length = statement.length();
+        int i = 0;
+        while (i < length)
+        {
+            char c = statement.charAt(i);
+            if (c == '\'')
+            {
+                int end = closingQuote(statement, i, '\'');
+                if (end < 0)
+                {
+                    return null;
+                }
+                literals.add(new Literal(LiteralType.STRING, statement.substring(i + 1, end).replace("''", "'")));
+                template.append('?');
+                i = end + 1;
+            }
+            else if (c == '"')
+            {
+                int end = closingQuote(statement, i, '"');
+                if (end < 0)
+                {
+                    return null;
+                }
+                template.append(statement, i, end + 1);
+                i = end + 1;
+            }
+            else if (c == '?' || c == ':' || c == '[' || c == '{')
+            {
+                // bind markers or collection/UDT literals.
+                return null;
+            }
+            else if (Character.isLetter(c) || c == '_')
+            {
+                int end = i;
+                while (end < length && isWordChar(statement.charAt(end)))
+                {
+                    end++;
+                }
+                String word = statement.substring(i, end);
+                if ("IN".equalsIgnoreCase(word) && isInList(statement, end))
+                {
+                    template.append(word).append(' ');
+                    i = addInList(statement, end, template, literals);
+                    if (i < 0)
+                    {
+                        return null;
+                    }
+                    continue;
+                }
+                else if ("true".equalsIgnoreCase(word) || "false".equalsIgnoreCase(word))
+                {
+                    literals.add(new Literal(LiteralType.BOOLEAN, word));
+                    template.append('?');
+                }
+                else if (isHexDigit(c) && matches(UUID_PATTERN, statement, i))
+                {
+                    i = addLiteral(LiteralType.UUID, UUID_PATTERN, statement, i, template, literals);
+                    continue;
+                }
+                else
+                {
+                    template.append(word);
+                }
+                i = end;
+            }
+            else if (Character.isDigit(c) || isNegativeNumber(statement, i, template))
+            {
+                if (matches(UUID_PATTERN, statement, i))
+                {
+                    i = addLiteral(LiteralType.UUID, UUID_PATTERN, statement, i, template, literals);
+                }
+                else if (matches(BLOB_PATTERN, statement, i))
+                {
+                    i = addLiteral(LiteralType.BLOB, BLOB_PATTERN, statement, i, template, literals);
+                }
+                else if (matches(NUMBER_PATTERN, statement, i))
+                {
+                    i = addLiteral(LiteralType.NUMBER, NUMBER_PATTERN, statement, i, template, literals);
+                }
+                else
+                {
+                    return null;
+                }
+            }
+            else
+            {
+                template.append(c);
+                i++;
+            }
+        }
+
+        return new ParameterizedStatement(template.toString(), literals);
+    }
+
+    /**
+     * Splits given batch statement into its DML statements.
+     * 
+     * @param cql
+     *            CQL batch statement.
+     * @return parameterized batch or null, if statement is not a batch or can
+     *         not be parameterized.
+     */
+    static ParameterizedBatch parameterizeBatch(final String cql)
+    {
+        Matcher start = BATCH_START.matcher(cql);
+        Matcher end = BATCH_END.matcher(cql);
+        if (!start.find() || !end.find() || end.start() < start.end())
+        {
+            return null;
+        }
+
+        String type = start.group(2);
+        String body = cql.substring(start.end(), end.start());
+
+        List<ParameterizedStatement> statements = new ArrayList<ParameterizedStatement>();
+        for (String statement : splitStatements(body))
+        {
+            ParameterizedStatement parameterized = parameterize(statement);
+            if (parameterized == null)
+            {
+                return null;
+            }
+            statements.add(parameterized);
+        }
+        return new ParameterizedBatch(type != null ? type.toUpperCase() : null, statements);
+    }
+
+    /**
+     * Splits batch body on INSERT, UPDATE and DELETE keywords appearing out of
+     * quotes.
+     */
+    private static List<String> splitStatements(final String body)
+    {
+        List<String> statements = new ArrayList<String>();
+        int length = body.length();
+        int statementStart = -1;
+        int i = 0;
+        while (i < length)
+        {
+            char c = body.charAt(i);
+            if (c == '\'' || c == '"')
+            {
+                int end = closingQuote(body, i, c);
+                i = end < 0 ? length : end + 1;
+            }
+            else if (Character.isLetter(c))
+            {
+                int end = i;
+                while (end < length && isWordChar(body.charAt(end)))
+                {
+                    end++;
+                }
+                String word = body.substring(i, end);
+                if ((i == 0 || !isWordChar(body.charAt(i - 1))) && isModification(word))
+                {
+                    if (statementStart >= 0)
+                    {
+                        statements.add(stripSemicolon(body.substring(statementStart, i)));
+                    }
+                    statementStart = i;
+                }
+                i = end;
+            }
+            else
+            {
+                i++;
+            }
+        }
+
+        if (statementStart >= 0)
+        {
+            statements.add(stripSemicolon(body.substring(statementStart)));
+        }
+        return statements;
+    }
+
+    private static String stripSemicolon(String statement)
+    {
+        statement = statement.trim();
+        return statement.endsWith(";") ? statement.substring(0, statement.length() - 1) : statement;
+    }
+
+    private static int addLiteral(LiteralType type, Pattern pattern, String statement, int start,
+            StringBuilder template, List<Literal> literals)
+    {
+        Matcher matcher = pattern.matcher(statement);
+        matcher.region(start, statement.length());
+        matcher.lookingAt();
+        literals.add(new Literal(type, matcher.group()));
+        template.append('?');
+        return matcher.end();
+    }
+
+    private static boolean isInList(String statement, int start)
+    {
+        int i = skipWhitespace(statement, start);
+        return i < statement.length() && statement.charAt(i) == '(';
+    }
+
+    /**
+     * Takes values of IN clause out as one list literal.
+     * 
+     * @return index past closing bracket, or -1 if clause holds anything but
+     *         literals.
+     */
+    private static int addInList(String statement, int start, StringBuilder template, List<Literal> literals)
+    {
+        List<Literal> elements = new ArrayList<Literal>();
+        int i = skipWhitespace(statement, start) + 1;
+        while (true)
+        {
+            i = skipWhitespace(statement, i);
+            i = i < statement.length() ? addElement(statement, i, elements) : -1;
+            if (i < 0)
+            {
+                return -1;
+            }
+            i = skipWhitespace(statement, i);
+            if (i >= statement.length())
+            {
+                return -1;
+            }
+            if (statement.charAt(i) == ')')
+            {
+                break;
+            }
+            if (statement.charAt(i) != ',')
+            {
+                return -1;
+            }
+            i++;
+        }
+
+        literals.add(new Literal(elements));
+        template.append('?');
+        return i + 1;
+    }
+
+    /**
+     * Adds literal starting at given index to elements of an IN clause.
+     * 
+     * @return index past literal, or -1 if there is no literal.
+     */
+    private static int addElement(String statement, int i, List<Literal> elements)
+    {
+        char c = statement.charAt(i);
+        if (c == '\'')
+        {
+            int end = closingQuote(statement, i, '\'');
+            if (end >= 0)
+            {
+                elements.add(new Literal(LiteralType.STRING, statement.substring(i + 1, end).replace("''", "'")));
+                return end + 1;
+            }
+            return -1;
+        }
+
+        StringBuilder ignored = new StringBuilder();
+        if (matches(UUID_PATTERN, statement, i))
+        {
+            return addLiteral(LiteralType.UUID, UUID_PATTERN, statement, i, ignored, elements);
+        }
+        if (matches(BLOB_PATTERN, statement, i))
+        {
+            return addLiteral(LiteralType.BLOB, BLOB_PATTERN, statement, i, ignored, elements);
+        }
+        if (matches(NUMBER_PATTERN, statement, i))
+        {
+            return addLiteral(LiteralType.NUMBER, NUMBER_PATTERN, statement, i, ignored, elements);
+        }
+        for (String word : new String[] { "true", "false" })
+        {
+            if (statement.regionMatches(true, i, word, 0, word.length())
+                    && (i + word.length() == statement.length() || !isWordChar(statement.charAt(i + word.length()))))
+            {
+                elements.add(new Literal(LiteralType.BOOLEAN, statement.substring(i, i + word.length())));
+                return i + word.length();
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String statement, int i)
+    {
+        while (i < statement.length() && Character.isWhitespace(statement.charAt(i)))
+        {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean matches(Pattern pattern, String statement, int start)
+    {
+        Matcher matcher = pattern.matcher(statement);
+        matcher.region(start, statement.length());
+        if (!matcher.lookingAt())
+        {
+            return false;
+        }
+        int end = matcher.end();
+        return end == statement.length() || !isWordChar(statement.charAt(end));
+    }
+
+    /**
+     * A minus sign starts a negative number only after an operator, an opening
+     * bracket, comma or keyword.
+     */
+    private static boolean isNegativeNumber(String statement, int i, StringBuilder template)
+    {
+        if (statement.charAt(i) != '-' || i + 1 >= statement.length() || !Character.isDigit(statement.charAt(i + 1)))
+        {
+            return false;
+        }
+        for (int j = template.length() - 1; j >= 0; j--)
+        {
+            char c = template.charAt(j);
+            if (!Character.isWhitespace(c))
+            {
+                return c == '=' || c == '<' || c == '>' || c == '(' || c == ',' || c == '+' || Character.isLetter(c);
+            }
+        }
+        return false;
+    }
+
+    private static int closingQuote(String statement, int start, char quote)
+    {
+        int i = start + 1;
+        while (i < statement.length())
+        {
+            if (statement.charAt(i) == quote)
+            {
+                if (i + 1 < statement.length() && statement.charAt(i + 1) == quote)
+                {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static boolean isWordChar(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isModification(String word)
+    {
+        return "INSERT".equalsIgnoreCase(word) || "UPDATE".equalsIgnoreCase(word) || "DELETE".equalsIgnoreCase(word);
+    }
+
+    private static boolean isHexDigit(char c)
+    {
+        return Character.digit(c, 16) >= 0;
+    }
+
+    private static String firstWord(String statement)
+    {
+        int end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end)))
+        {
+            end++;
+        }
+        return statement.substring(0, end);
+    }
+
+    /**
+     * A value taken out of CQL statement.
+     */
+    static final class Literal
+    {
+        private final LiteralType type;
+
+        private final String value;
+
+        /** Values of a list literal, else null. */
+        private final List<Literal> elements;
+
+        Literal(LiteralType type, String value)
+        {
+            this.type = type;
+            this.value = value;
+            this.elements = null;
+        }
+
+        Literal(List<Literal> elements)
+        {
+            this.type = LiteralType.LIST;
+            this.value = elements.toString();
+            this.elements = Collections.unmodifiableList(elements);
+        }
+
+        LiteralType getType()
+        {
+            return type;
+        }
+
+        String getValue()
+        {
+            return value;
+        }
+
+        List<Literal> getElements()
+        {
+            return elements;
+        }
+
+        @Override
+        public String toString()
+        {
+            return type + "[" + value + "]";
+        }
+    }
+
+    /**
+     * Statement template along with values to be bound.
+     */
+    static final class ParameterizedStatement
+    {
+        private final String template;
+
+        private final List<Literal> literals;
+
+        ParameterizedStatement(String template, List<Literal> literals)
+        {
+            this.template = template;
+            this.literals = Collections.unmodifiableList(literals);
+        }
+
+        String getTemplate()
+        {
+            return template;
+        }
+
+        List<Literal> getLiterals()
+        {
+            return literals;
+        }
+    }
+
+    /**
+     * Parameterized statements of a batch.
+     */
+    static final class ParameterizedBatch
+    {
+        /** UNLOGGED, COUNTER or null for logged batch. */
+        private final String type;
+
+        private final List<ParameterizedStatement> statements;
+
+        ParameterizedBatch(String type, List<ParameterizedStatement> statements)
+        {
+            this.type = type;
+            this.statements = Collections.unmodifiableList(statements);
+        }
+
+        String getType()
+        {
+            return type;
+        }
+
+        List<ParameterizedStatement> getStatements()
+        {
+            return statements;
+        }
+    }
+}
@@ -18,17 +18,28 @@ package com.impetus.kundera.client.cassandra.dsdriver;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.PersistenceException;
+import javax.persistence.Transient;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
 
 import org.apache.cassandra.thrift.IndexClause;
 import org.apache.cassandra.thrift.IndexExpression;
@@ -39,28 +50,40 @@ import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ColumnDefinitions;
 import com.datastax.driver.core.ColumnDefinitions.Definition;
 import com.datastax.driver.core.ColumnMetadata;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.SimpleStatement;
 import com.datastax.driver.core.Statement;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.impetus.client.cassandra.CassandraClientBase;
 import com.impetus.client.cassandra.common.CassandraConstants;
+import com.impetus.client.cassandra.common.CassandraUtilities;
 import com.impetus.client.cassandra.datahandler.CassandraDataHandler;
 import com.impetus.client.cassandra.query.CassQuery;
 import com.impetus.client.cassandra.thrift.CQLTranslator;
 import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.client.AsyncClient;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.db.RelationHolder;
 import com.impetus.kundera.db.SearchResult;
 import com.impetus.kundera.generator.Generator;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.MetadataUtils;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.annotation.DefaultEntityAnnotationProcessor;
@@ -73,6 +96,8 @@ import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.property.PropertyAccessor;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.query.IResultIterator;
+import com.impetus.kundera.service.policy.SpeculativeExecutionPolicy;
 import com.impetus.kundera.utils.KunderaCoreUtils;
 import com.impetus.kundera.utils.TimestampGenerator;
 
@@ -82,7 +107,7 @@ import com.impetus.kundera.utils.TimestampGenerator;
  * @author vivek.mishra
  * 
  */
-public class DSClient extends CassandraClientBase implements Client<CassQuery>, Batcher
+public class DSClient extends CassandraClientBase implements Client<CassQuery>, Batcher, AsyncClient
 {
 
     /** log for this class. */
@@ -94,6 +119,12 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
     /** The reader. */
     private EntityReader reader;
 
+    /** Operation of prepared statement finding entity by id. */
+    private static final String FIND_BY_ID = "findById";
+
+    /** Operation of prepared statement deleting entity by id. */
+    private static final String DELETE_BY_ID = "deleteById";
+
     /**
      * Instantiates a new DS client.
      * 
@@ -168,12 +199,132 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
     public Object find(Class entityClass, Object rowId)
     {
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClass);
-        StringBuilder builder = createSelectQuery(rowId, metadata, metadata.getTableName());
-        ResultSet rSet = this.execute(builder.toString(), null);
+        BoundStatement statement = createKeyStatement(FIND_BY_ID, metadata, metadata.getTableName(), rowId);
+        ResultSet rSet = statement != null ? execute(statement.preparedStatement().getQueryString(), statement)
+                : (ResultSet) this.execute(createSelectQuery(rowId, metadata, metadata.getTableName()).toString(),
+                        null);
         List results = iterateAndReturn(rSet, entityClass, metadata);
         return results.isEmpty() ? null : results.get(0);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.client.AsyncClient#findAsync(java.lang.Class,
+     * java.lang.Object, java.util.concurrent.Executor)
+     */
+    @Override
+    public ListenableFuture<Object> findAsync(final Class entityClass, Object rowId, Executor executor)
+    {
+        final EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClass);
+
+        // secondary tables are read one by one, after main table.
+        if (!getSecondaryTables(metadata).isEmpty())
+        {
+            return null;
+        }
+
+        BoundStatement statement = createKeyStatement(FIND_BY_ID, metadata, metadata.getTableName(), rowId);
+        ResultSetFuture future = statement != null ? executeAsync(statement.preparedStatement().getQueryString(),
+                statement) : executeAsync(createSelectQuery(rowId, metadata, metadata.getTableName()).toString());
+        return Futures.transform(future, new Function<ResultSet, Object>()
+        {
+            @Override
+            public Object apply(ResultSet rSet)
+            {
+                List results = iterateAndReturn(rSet, entityClass, metadata);
+                return results.isEmpty() ? null : results.get(0);
+            }
+        }, executor);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.AsyncClient#persistAsync(java.lang.Object,
+     * java.lang.Object)
+     */
+    @Override
+    public ListenableFuture<?> persistAsync(Object entity, Object id)
+    {
+        // lucene index is written by synchronous persist only.
+        if (isIndexedInLucene())
+        {
+            return null;
+        }
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entity.getClass());
+        List<String> queries = getPersistQueries(metadata, entity, null, new ArrayList<RelationHolder>(0),
+                getTtlValues().get(metadata.getTableName()));
+
+        List<ResultSetFuture> futures = new ArrayList<ResultSetFuture>(queries.size());
+        for (String query : queries)
+        {
+            futures.add(executeAsync(query));
+        }
+        return Futures.allAsList(futures);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.AsyncClient#removeAsync(java.lang.Object,
+     * java.lang.Object)
+     */
+    @Override
+    public ListenableFuture<?> removeAsync(Object entity, Object pKey)
+    {
+        if (isIndexedInLucene())
+        {
+            return null;
+        }
+
+        EntityMetadata m = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entity.getClass());
+
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+
+        List<String> tables = new ArrayList<String>(getSecondaryTables(m));
+        tables.add(m.getTableName());
+
+        List<ResultSetFuture> futures = new ArrayList<ResultSetFuture>(tables.size());
+        for (String tableName : tables)
+        {
+            BoundStatement statement = createKeyStatement(DELETE_BY_ID, m, tableName, pKey);
+            futures.add(statement != null ? executeAsync(statement.preparedStatement().getQueryString(), statement)
+                    : executeAsync(onDeleteQuery(m, tableName, metaModel, pKey)));
+        }
+        return Futures.allAsList(futures);
+    }
+
+    /**
+     * Checks whether entities are indexed in lucene, rather than through
+     * Cassandra secondary indexes.
+     * 
+     * @return true, if entities are indexed in lucene
+     */
+    private boolean isIndexedInLucene()
+    {
+        return getIndexManager() != null && !MetadataUtils.useSecondryIndex(getClientMetadata());
+    }
+
+    /**
+     * Gets secondary tables of entity.
+     * 
+     * @param metadata
+     *            the metadata
+     * @return the secondary table names
+     */
+    private List<String> getSecondaryTables(EntityMetadata metadata)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+        AbstractManagedType managedType = (AbstractManagedType) metaModel.entity(metadata.getEntityClazz());
+        return ((DefaultEntityAnnotationProcessor) managedType.getEntityAnnotation()).getSecondaryTablesName();
+    }
+
     /**
      * Creates the select query.
      * 
@@ -204,6 +355,155 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
         return builder;
     }
 
+    /**
+     * Creates statement for an operation on entity by its id, if prepared
+     * statements are enabled. Statement is prepared once per entity class,
+     * operation and table, out of a template built with bind markers.
+     * 
+     * @param operation
+     *            {@link #FIND_BY_ID} or {@link #DELETE_BY_ID}
+     * @param metadata
+     *            the metadata
+     * @param tableName
+     *            the table name
+     * @param key
+     *            the id
+     * @return bound statement or null, if query is to be executed as CQL text
+     */
+    private BoundStatement createKeyStatement(String operation, EntityMetadata metadata, String tableName, Object key)
+    {
+        DSPreparedStatementCache statementCache = factory.getStatementCache();
+        if (statementCache == null || key == null)
+        {
+            return null;
+        }
+
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+        List<String> columns = new ArrayList<String>();
+        List<Object> values = new ArrayList<Object>();
+        addKeyColumns(metadata, key, metaModel, metadata.getIdAttribute(), columns, values);
+
+        List<Object> statementKey = Arrays.<Object> asList(metadata.getEntityClazz(), operation, tableName);
+        PreparedStatement prepared = statementCache.get(statementKey);
+        if (prepared == null)
+        {
+            prepared = statementCache.prepare(statementKey, createKeyTemplate(operation, tableName, columns));
+        }
+        return prepared != null ? statementCache.bind(prepared, values.toArray()) : null;
+    }
+
+    /**
+     * Creates template of a statement selecting or deleting by key columns.
+     * 
+     * @param operation
+     *            {@link #FIND_BY_ID} or {@link #DELETE_BY_ID}
+     * @param tableName
+     *            the table name
+     * @param columns
+     *            key columns
+     * @return template having a bind marker per key column
+     */
+    private String createKeyTemplate(String operation, String tableName, List<String> columns)
+    {
+        CQLTranslator translator = new CQLTranslator();
+        String query = FIND_BY_ID.equals(operation) ? CQLTranslator.SELECTALL_QUERY : CQLTranslator.DELETE_QUERY;
+        StringBuilder builder = new StringBuilder(StringUtils.replace(query, CQLTranslator.COLUMN_FAMILY, translator
+                .ensureCase(new StringBuilder(), tableName, false).toString()));
+
+        builder.append(CQLTranslator.ADD_WHERE_CLAUSE);
+        for (int i = 0; i < columns.size(); i++)
+        {
+            if (i > 0)
+            {
+                builder.append(CQLTranslator.AND_CLAUSE);
+            }
+            translator.ensureCase(builder, columns.get(i), false).append(CQLTranslator.EQ_CLAUSE).append('?');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Adds key columns and their values of given id, same as
+     * {@link #onWhereClause(EntityMetadata, Object, CQLTranslator, StringBuilder, MetamodelImpl, SingularAttribute)}
+     * adds them to where clause.
+     * 
+     * @param metadata
+     *            the metadata
+     * @param key
+     *            the id or part of compound id
+     * @param metaModel
+     *            the meta model
+     * @param attribute
+     *            the id attribute
+     * @param columns
+     *            key columns
+     * @param values
+     *            values of key columns
+     */
+    private void addKeyColumns(EntityMetadata metadata, Object key, MetamodelImpl metaModel,
+            SingularAttribute attribute, List<String> columns, List<Object> values)
+    {
+        if (metaModel.isEmbeddable(attribute.getBindableJavaType()))
+        {
+            EmbeddableType compoundKey = metaModel.embeddable(attribute.getBindableJavaType());
+            for (Field field : attribute.getBindableJavaType().getDeclaredFields())
+            {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())
+                        && !field.isAnnotationPresent(Transient.class))
+                {
+                    SingularAttribute keyAttribute = (SingularAttribute) compoundKey.getAttribute(field.getName());
+                    Object value = PropertyAccessorHelper.getObject(key, field);
+                    if (metaModel.isEmbeddable(((AbstractAttribute) keyAttribute).getBindableJavaType()))
+                    {
+                        addKeyColumns(metadata, value, metaModel, keyAttribute, columns, values);
+                    }
+                    else
+                    {
+                        columns.add(((AbstractAttribute) keyAttribute).getJPAColumnName());
+                        values.add(toBindValue(value));
+                    }
+                }
+            }
+        }
+        else
+        {
+            columns.add(CassandraUtilities.getIdColumnName(kunderaMetadata, metadata, getExternalProperties(),
+                    isCql3Enabled(metadata)));
+            values.add(toBindValue(key));
+        }
+    }
+
+    /**
+     * Converts id value to java type expected by driver, where kundera stores
+     * it as a different CQL type. Values not matching column type are caught
+     * on binding, and query is executed as CQL text then.
+     * 
+     * @param value
+     *            the value
+     * @return value to be bound
+     */
+    private static Object toBindValue(Object value)
+    {
+        if (value instanceof Enum)
+        {
+            return ((Enum) value).name();
+        }
+        else if (value instanceof Character)
+        {
+            return value.toString();
+        }
+        else if (value instanceof Calendar)
+        {
+            return ((Calendar) value).getTime();
+        }
+        else if (value instanceof byte[])
+        {
+            return ByteBuffer.wrap((byte[]) value);
+        }
+        return value;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -472,6 +772,20 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
         return this.reader;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.client.cassandra.CassandraClientBase#getPagingIterator(com
+     * .impetus.client.cassandra.query.CassQuery,
+     * com.impetus.kundera.metadata.model.EntityMetadata, java.lang.String, int)
+     */
+    @Override
+    public <E> IResultIterator<E> getPagingIterator(CassQuery query, EntityMetadata m, String cqlQuery, int maxResults)
+    {
+        return new DSPagingIterator<E>(this, query, m, cqlQuery, maxResults, kunderaMetadata);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -657,7 +971,15 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
 
         for (String tableName : secondaryTables)
         {
-            this.execute(onDeleteQuery(m, tableName, metaModel, pKey), null);
+            BoundStatement statement = createKeyStatement(DELETE_BY_ID, m, tableName, pKey);
+            if (statement != null)
+            {
+                execute(statement.preparedStatement().getQueryString(), statement);
+            }
+            else
+            {
+                this.execute(onDeleteQuery(m, tableName, metaModel, pKey), null);
+            }
         }
     }
 
@@ -686,6 +1008,18 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
         return null;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.client.cassandra.CassandraClientBase#getPartitioner()
+     */
+    @Override
+    public String getPartitioner()
+    {
+        Session session = factory.getConnection();
+        return session.execute("SELECT partitioner FROM system.local").one().getString("partitioner");
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -709,14 +1043,31 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
     @Override
     public <T> T execute(final String query, Object connection)
     {
+        return (T) execute(query, createStatement(query));
+    }
 
+    /**
+     * Executes statement of given query.
+     * 
+     * @param query
+     *            the query, or template of bound statement
+     * @param queryStmt
+     *            the statement
+     * @return the result set
+     */
+    private ResultSet execute(final String query, final Statement queryStmt)
+    {
         Session session = factory.getConnection();
         try
         {
-            Statement queryStmt = new SimpleStatement(query);
-            KunderaCoreUtils.printQuery(query, showQuery);
             queryStmt.setConsistencyLevel(ConsistencyLevel.valueOf(this.consistencyLevel.name()));
-            return (T) session.execute(queryStmt);
+            SpeculativeExecutionPolicy policy = factory.getSpeculativeExecutionPolicy();
+            if (policy != null && CassandraUtilities.isSelectQuery(query))
+            {
+                return executeSpeculatively(session, query, queryStmt, policy);
+            }
+            KunderaCoreUtils.printQuery(query, showQuery);
+            return session.execute(queryStmt);
         }
         catch (Exception e)
         {
@@ -729,6 +1080,173 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
         }
     }
 
+    /**
+     * Executes idempotent query, sending it once more if it does not complete
+     * within speculative execution delay. Second request is routed by load
+     * balancing policy like any other, usually to another coordinator. Result
+     * of whichever completes first is returned.
+     * 
+     * @param session
+     *            the session
+     * @param query
+     *            the query
+     * @param queryStmt
+     *            statement of query, sent twice
+     * @param policy
+     *            the speculative execution policy
+     * @return the result set
+     * @throws Exception
+     *             if both requests fail
+     */
+    private ResultSet executeSpeculatively(Session session, String query, Statement queryStmt,
+            final SpeculativeExecutionPolicy policy) throws Exception
+    {
+        policy.onRequest();
+        long start = System.nanoTime();
+        KunderaCoreUtils.printQuery(query, showQuery);
+        ResultSetFuture primary = session.executeAsync(queryStmt);
+        try
+        {
+            return primary.get(policy.getDelay(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            if (!policy.tryAcquire())
+            {
+                return primary.getUninterruptibly();
+            }
+
+            ResultSetFuture speculative = session.executeAsync(queryStmt);
+            final SettableFuture<ResultSet> result = SettableFuture.create();
+            final AtomicInteger failures = new AtomicInteger();
+            for (final ResultSetFuture future : new ResultSetFuture[] { primary, speculative })
+            {
+                final boolean isSpeculative = future == speculative;
+                Futures.addCallback(future, new FutureCallback<ResultSet>()
+                {
+                    @Override
+                    public void onSuccess(ResultSet rSet)
+                    {
+                        if (result.set(rSet) && isSpeculative)
+                        {
+                            policy.onSpeculativeWin();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t)
+                    {
+                        // fails only if the other one fails as well.
+                        if (failures.incrementAndGet() == 2)
+                        {
+                            result.setException(t);
+                        }
+                    }
+                });
+            }
+
+            try
+            {
+                return result.get();
+            }
+            catch (ExecutionException ee)
+            {
+                throw ee.getCause() instanceof Exception ? (Exception) ee.getCause() : ee;
+            }
+        }
+        finally
+        {
+            policy.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes query fetching a single page of its result.
+     * 
+     * @param query
+     *            the query
+     * @param fetchSize
+     *            number of rows in page
+     * @param pagingState
+     *            paging state of page, null for first one
+     * @return the result set
+     */
+    ResultSet executePage(final String query, int fetchSize, PagingState pagingState)
+    {
+        Session session = factory.getConnection();
+        try
+        {
+            Statement queryStmt = createStatement(query);
+            KunderaCoreUtils.printQuery(query, showQuery);
+            queryStmt.setConsistencyLevel(ConsistencyLevel.valueOf(this.consistencyLevel.name()));
+            queryStmt.setFetchSize(fetchSize);
+            if (pagingState != null)
+            {
+                queryStmt.setPagingState(pagingState);
+            }
+            return session.execute(queryStmt);
+        }
+        catch (Exception e)
+        {
+            log.error("Error while executing query {}.", query);
+            throw new KunderaException(e);
+        }
+    }
+
+    /**
+     * Executes query without waiting for its result.
+     * 
+     * @param query
+     *            the query
+     * @return the result set future
+     */
+    private ResultSetFuture executeAsync(final String query)
+    {
+        return executeAsync(query, createStatement(query));
+    }
+
+    /**
+     * Executes statement of given query without waiting for its result.
+     * 
+     * @param query
+     *            the query, or template of bound statement
+     * @param queryStmt
+     *            the statement
+     * @return the result set future
+     */
+    private ResultSetFuture executeAsync(final String query, final Statement queryStmt)
+    {
+        Session session = factory.getConnection();
+        KunderaCoreUtils.printQuery(query, showQuery);
+        queryStmt.setConsistencyLevel(ConsistencyLevel.valueOf(this.consistencyLevel.name()));
+        return session.executeAsync(queryStmt);
+    }
+
+    /**
+     * Gets the client factory.
+     * 
+     * @return the client factory
+     */
+    DSClientFactory getClientFactory()
+    {
+        return factory;
+    }
+
+    /**
+     * Creates statement for given query, bound prepared statement if enabled
+     * else a simple statement.
+     * 
+     * @param query
+     *            the query
+     * @return the statement
+     */
+    private Statement createStatement(final String query)
+    {
+        DSPreparedStatementCache statementCache = factory.getStatementCache();
+        Statement statement = statementCache != null ? statementCache.getStatement(query) : null;
+        return statement != null ? statement : new SimpleStatement(query);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -747,7 +1265,7 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
             }
             session = factory.getConnection();
             KunderaCoreUtils.printQuery(cqlQuery, showQuery);
-            session.execute(cqlQuery);
+            session.execute(createStatement(cqlQuery));
         }
         finally
         {
@@ -782,35 +1300,52 @@ public class DSClient extends CassandraClientBase implements Client<CassQuery>,
 
         while (rowIter.hasNext())
         {
-            Object entity = null;
-            Row row = rowIter.next();
-            ColumnDefinitions columnDefs = row.getColumnDefinitions();
-            Iterator<Definition> columnDefIter = columnDefs.iterator();
+            Object entity = populateEntity(rowIter.next(), metadata, metaModel, entityType, relationalValues);
+            if (entity != null)
+            {
+                results.add(entity);
+            }
+        }
+        return results;
+    }
 
-            entity = iteratorColumns(metadata, metaModel, entityType, relationalValues, entity, row, columnDefIter);
+    /**
+     * Populates entity from row, wrapped into enhance entity if it holds
+     * relational values.
+     * 
+     * @param row
+     *            the row
+     * @param metadata
+     *            the metadata
+     * @param metaModel
+     *            the meta model
+     * @param entityType
+     *            the entity type
+     * @param relationalValues
+     *            the relational values
+     * @return the entity, or null if row holds no entity
+     */
+    Object populateEntity(Row row, EntityMetadata metadata, MetamodelImpl metaModel, EntityType entityType,
+            Map<String, Object> relationalValues)
+    {
+        ColumnDefinitions columnDefs = row.getColumnDefinitions();
+        Iterator<Definition> columnDefIter = columnDefs.iterator();
 
-            if (entity != null && entity.getClass().isAssignableFrom(metadata.getEntityClazz()))
-            {
-                Object rowKey = PropertyAccessorHelper.getId(entity, metadata);
+        Object entity = iteratorColumns(metadata, metaModel, entityType, relationalValues, null, row, columnDefIter);
 
-                // populate secondary tables data if there is any.
-                populateSecondaryTableData(rowKey, entity, metaModel, metadata);
+        if (entity != null && entity.getClass().isAssignableFrom(metadata.getEntityClazz()))
+        {
+            Object rowKey = PropertyAccessorHelper.getId(entity, metadata);
 
-                if (!relationalValues.isEmpty())
-                {
-                    results.add(new EnhanceEntity(entity, rowKey, relationalValues));
-                }
-                else
-                {
-                    results.add(entity);
-                }
-            }
-            else if (entity != null)
+            // populate secondary tables data if there is any.
+            populateSecondaryTableData(rowKey, entity, metaModel, metadata);
+
+            if (!relationalValues.isEmpty())
             {
-                results.add(entity);
+                return new EnhanceEntity(entity, rowKey, relationalValues);
             }
         }
-        return results;
+        return entity;
     }
 
     /**
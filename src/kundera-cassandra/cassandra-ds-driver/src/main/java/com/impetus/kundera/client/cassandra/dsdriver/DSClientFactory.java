@@ -73,6 +73,12 @@ public class DSClientFactory extends CassandraClientFactory
     /** The Constant CUSTOM_RETRY_POLICY. */
     private static final String CUSTOM_RETRY_POLICY = "customRetryPolicy";
 
+    /** The Constant PREPARED_STATEMENTS, enables prepared statement execution. */
+    static final String PREPARED_STATEMENTS = "prepared.statements";
+
+    /** The Constant PREPARED_STATEMENT_CACHE_SIZE. */
+    static final String PREPARED_STATEMENT_CACHE_SIZE = "prepared.statement.cache.size";
+
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(DSClientFactory.class);
 
@@ -85,6 +91,9 @@ public class DSClientFactory extends CassandraClientFactory
     /** The session. */
     private Session session;
 
+    /** Prepared statements of session, null if disabled. */
+    private DSPreparedStatementCache statementCache;
+
     /*
      * (non-Javadoc)
      * 
@@ -126,6 +135,14 @@ public class DSClientFactory extends CassandraClientFactory
         }
         schemaManager = null;
         externalProperties = null;
+        if (statementCache != null)
+        {
+            statementCache.clear();
+        }
+        if (speculativeExecutionPolicy != null)
+        {
+            speculativeExecutionPolicy.shutdown();
+        }
         releaseConnection(this.session);
         ((Cluster) getConnectionPoolOrConnection()).closeAsync();
     }
@@ -164,6 +181,7 @@ public class DSClientFactory extends CassandraClientFactory
 
         // initialize timestamp generator.
         initializeTimestampGenerator(externalProperty);
+        initializeSpeculativeExecution(externalProperty);
     }
 
     /*
@@ -272,6 +290,7 @@ public class DSClientFactory extends CassandraClientFactory
             keyspace = (String) props.get(PersistenceProperties.KUNDERA_KEYSPACE);
         }
         setSessionObject(cluster); // TODO custom session
+        initializeStatementCache(connectionProperties);
         return cluster; // TODO custom cluster
     }
 
@@ -299,6 +318,46 @@ public class DSClientFactory extends CassandraClientFactory
         this.session = cluster.connect("\"" + keyspace + "\"");
     }
 
+    /**
+     * Enables prepared statement execution, if configured via external or
+     * connection properties.
+     * 
+     * @param connectionProperties
+     *            the connection properties
+     */
+    private void initializeStatementCache(Properties connectionProperties)
+    {
+        String enabled = getStatementProperty(PREPARED_STATEMENTS, connectionProperties);
+        if (Boolean.valueOf(enabled) && this.session != null)
+        {
+            String cacheSize = getStatementProperty(PREPARED_STATEMENT_CACHE_SIZE, connectionProperties);
+            statementCache = new DSPreparedStatementCache(this.session,
+                    StringUtils.isBlank(cacheSize) ? DSPreparedStatementCache.DEFAULT_MAX_SIZE : new Integer(
+                            cacheSize.trim()));
+        }
+    }
+
+    /**
+     * Returns property value out of external properties, falling back to
+     * connection properties.
+     */
+    private String getStatementProperty(String name, Properties connectionProperties)
+    {
+        Object value = externalProperties != null ? externalProperties.get(name) : null;
+        return value != null ? value.toString() : connectionProperties.getProperty(name);
+    }
+
+    /**
+     * Gets the prepared statement cache.
+     * 
+     * @return the prepared statement cache, null if prepared statements are
+     *         disabled
+     */
+    DSPreparedStatementCache getStatementCache()
+    {
+        return statementCache;
+    }
+
     /**
      * Gets the connection.
      * 
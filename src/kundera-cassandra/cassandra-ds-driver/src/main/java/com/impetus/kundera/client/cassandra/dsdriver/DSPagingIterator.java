@@ -0,0 +1,273 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.persistence.metamodel.EntityType;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.impetus.client.cassandra.common.CassandraConstants;
+import com.impetus.client.cassandra.query.CassQuery;
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl.KunderaMetadata;
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Iterates over CQL3 query results using native paging of datastax driver.
+ * Pages are fetched on demand and their rows are converted into entities one
+ * at a time, so only a single page is held in memory. If
+ * {@link CassandraConstants#PAGING_STATE} query hint is set, iteration starts
+ * from paging state it holds, and paging state of next page is published into
+ * it once all entities of a page are returned, so an iteration can be resumed
+ * by another query instance. A caller stopping within a page resumes from
+ * start of that page, getting its returned entities again rather than missing
+ * the rest.
+ * 
+ * @param <E>
+ *            the element type
+ */
+class DSPagingIterator<E> implements IResultIterator<E>
+{
+    /** Maximum number of rows fetched in a single page. */
+    static final int DEFAULT_PAGE_SIZE = 5000;
+
+    /** The client. */
+    private final DSClient client;
+
+    /** The query. */
+    private final CassQuery query;
+
+    /** The entity metadata. */
+    private final EntityMetadata entityMetadata;
+
+    /** The meta model. */
+    private final MetamodelImpl metaModel;
+
+    /** The entity type. */
+    private final EntityType entityType;
+
+    /** Query without limit. */
+    private final String cqlQuery;
+
+    /** Maximum number of entities iterated over. */
+    private final int maxResults;
+
+    /** Whether entity has relations to be populated. */
+    private final boolean hasRelations;
+
+    /** Whether paging state is published into query hint. */
+    private final boolean resumable;
+
+    /** Paging state of next page, null once last page is fetched. */
+    private PagingState pagingState;
+
+    /** Whether last page is fetched. */
+    private boolean exhausted;
+
+    /** Rows of current page. */
+    private Iterator<Row> rows = Collections.<Row> emptyList().iterator();
+
+    /** Number of rows left in current page. */
+    private int available;
+
+    /** Next entity, converted ahead by hasNext. */
+    private E next;
+
+    /** Number of entities iterated over. */
+    private int count;
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param client
+     *            the client
+     * @param query
+     *            the query
+     * @param m
+     *            the entity metadata
+     * @param cqlQuery
+     *            cql3 query without limit
+     * @param maxResults
+     *            maximum number of entities iterated over
+     * @param kunderaMetadata
+     *            the kundera metadata
+     */
+    DSPagingIterator(final DSClient client, final CassQuery query, final EntityMetadata m, final String cqlQuery,
+            final int maxResults, final KunderaMetadata kunderaMetadata)
+    {
+        this.client = client;
+        this.query = query;
+        this.entityMetadata = m;
+        this.cqlQuery = cqlQuery;
+        this.maxResults = maxResults;
+        this.metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        this.entityType = metaModel.entity(m.getEntityClazz());
+        this.hasRelations = m.isRelationViaJoinTable()
+                || (m.getRelationNames() != null && !m.getRelationNames().isEmpty());
+
+        this.resumable = query.getHints().containsKey(CassandraConstants.PAGING_STATE);
+        Object state = query.getHints().get(CassandraConstants.PAGING_STATE);
+        if (state != null && !state.toString().isEmpty())
+        {
+            this.pagingState = state instanceof PagingState ? (PagingState) state : PagingState.fromString(state
+                    .toString());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.Iterator#hasNext()
+     */
+    @Override
+    public boolean hasNext()
+    {
+        while (next == null && count < maxResults)
+        {
+            if (available == 0)
+            {
+                if (exhausted)
+                {
+                    publishPagingState();
+                    return false;
+                }
+                fetchPage();
+                continue;
+            }
+            available--;
+            next = toEntity(rows.next());
+        }
+        return next != null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.Iterator#next()
+     */
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + entityMetadata.getEntityClazz());
+        }
+        E entity = next;
+        next = null;
+        count++;
+        if (available == 0)
+        {
+            publishPagingState();
+        }
+        return entity;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.Iterator#remove()
+     */
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.IResultIterator#next(int)
+     */
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> chunk = new ArrayList<E>(chunkSize);
+        while (chunk.size() < chunkSize && hasNext())
+        {
+            chunk.add(next());
+        }
+        return chunk;
+    }
+
+    /**
+     * Fetches next page, sized not to run past maximum results so that
+     * iteration ends on a page boundary.
+     */
+    private void fetchPage()
+    {
+        // rows of previous page, if any, are all returned or skipped.
+        publishPagingState();
+
+        int fetchSize = Math.min(DEFAULT_PAGE_SIZE, maxResults - count);
+        ResultSet rSet = client.executePage(cqlQuery, fetchSize, pagingState);
+
+        // only rows of fetched page, iterating further would fetch next one.
+        available = rSet.getAvailableWithoutFetching();
+        rows = rSet.iterator();
+        pagingState = rSet.getExecutionInfo().getPagingState();
+        exhausted = pagingState == null;
+    }
+
+    /**
+     * Publishes paging state of page following returned entities into query
+     * hint, null once last page is returned.
+     */
+    private void publishPagingState()
+    {
+        if (resumable)
+        {
+            query.setHint(CassandraConstants.PAGING_STATE, exhausted || pagingState == null ? null : pagingState
+                    .toString());
+        }
+    }
+
+    /**
+     * Converts row into entity, populating its relations if any.
+     * 
+     * @param row
+     *            the row
+     * @return the entity, or null if row holds no entity
+     */
+    private E toEntity(Row row)
+    {
+        Object entity = client.populateEntity(row, entityMetadata, metaModel, entityType,
+                new HashMap<String, Object>());
+        if (entity == null)
+        {
+            return null;
+        }
+
+        if (hasRelations)
+        {
+            List<Object> results = new ArrayList<Object>(1);
+            results.add(entity);
+            query.setRelationalEntities(results, client, entityMetadata);
+        }
+        return (E) (entity.getClass().isAssignableFrom(EnhanceEntity.class) ? ((EnhanceEntity) entity).getEntity()
+                : entity);
+    }
+}
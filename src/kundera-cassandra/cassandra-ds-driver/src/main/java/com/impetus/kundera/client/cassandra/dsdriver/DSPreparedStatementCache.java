@@ -0,0 +1,391 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.utils.Bytes;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.impetus.kundera.client.cassandra.dsdriver.CQLParameterizer.Literal;
+import com.impetus.kundera.client.cassandra.dsdriver.CQLParameterizer.ParameterizedBatch;
+import com.impetus.kundera.client.cassandra.dsdriver.CQLParameterizer.ParameterizedStatement;
+
+/**
+ * Per session cache of {@link PreparedStatement}s, so that Cassandra parses
+ * each entity/operation shape once instead of once per request. Statements
+ * built by client with bind markers are keyed by entity class and operation
+ * (see {@link #get(Object)} and {@link #prepare(Object, String)}), any other
+ * CQL generated by kundera is keyed by its template (see
+ * {@link CQLParameterizer}).
+ * 
+ * Statements which can not be parameterized, prepared or bound are returned as
+ * null and executed as simple statements by caller. Once size limit is
+ * reached, least recently used statements are evicted.
+ */
+public class DSPreparedStatementCache
+{
+    /** The logger. */
+    private static Logger logger = LoggerFactory.getLogger(DSPreparedStatementCache.class);
+
+    /** Default number of prepared statements held per session. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final Session session;
+
+    /** Prepared statements, by statement key. */
+    private final Cache<Object, PreparedStatement> statements;
+
+    /** Keys of statements rejected by server on preparation. */
+    private final Cache<Object, Boolean> unpreparable;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong prepareCount = new AtomicLong();
+
+    private final AtomicLong bypassCount = new AtomicLong();
+
+    /**
+     * Instantiates a new prepared statement cache.
+     * 
+     * @param session
+     *            session to prepare statements with.
+     * @param maxSize
+     *            maximum number of prepared statements to hold.
+     */
+    public DSPreparedStatementCache(final Session session, final int maxSize)
+    {
+        this.session = session;
+        this.statements = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.unpreparable = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Returns bound statement (or batch of bound statements) for given CQL.
+     * 
+     * @param cql
+     *            CQL query.
+     * @return bound statement or null, if query is to be executed as it is.
+     */
+    public Statement getStatement(final String cql)
+    {
+        try
+        {
+            ParameterizedBatch batch = CQLParameterizer.parameterizeBatch(cql);
+            if (batch != null)
+            {
+                return bind(batch);
+            }
+
+            ParameterizedStatement statement = CQLParameterizer.parameterize(cql);
+            return statement != null ? bind(statement) : bypass();
+        }
+        catch (IllegalArgumentException e)
+        {
+            // values not matching column types, leave it to server.
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Unable to bind values of {}, Caused by {}.", cql, e.getMessage());
+            }
+            return bypass();
+        }
+    }
+
+    private Statement bind(ParameterizedBatch batch)
+    {
+        BatchStatement batchStatement = new BatchStatement(batch.getType() == null ? BatchStatement.Type.LOGGED
+                : BatchStatement.Type.valueOf(batch.getType()));
+
+        for (ParameterizedStatement statement : batch.getStatements())
+        {
+            Statement bound = bind(statement);
+            if (bound == null)
+            {
+                return null;
+            }
+            batchStatement.add(bound);
+        }
+        return batchStatement;
+    }
+
+    private Statement bind(ParameterizedStatement statement)
+    {
+        PreparedStatement prepared = get(statement.getTemplate());
+        if (prepared == null)
+        {
+            prepared = prepare(statement.getTemplate(), statement.getTemplate());
+            if (prepared == null)
+            {
+                return null;
+            }
+        }
+
+        List<Literal> literals = statement.getLiterals();
+        ColumnDefinitions variables = prepared.getVariables();
+        if (variables.size() != literals.size())
+        {
+            return bypass();
+        }
+
+        Object[] values = new Object[literals.size()];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = toValue(variables.getType(i), literals.get(i));
+        }
+        return prepared.bind(values);
+    }
+
+    /**
+     * Returns prepared statement held for given key.
+     * 
+     * @param key
+     *            statement key, e.g. entity class and operation.
+     * @return prepared statement or null, if not prepared yet.
+     */
+    public PreparedStatement get(final Object key)
+    {
+        PreparedStatement prepared = statements.getIfPresent(key);
+        if (prepared != null)
+        {
+            hitCount.incrementAndGet();
+        }
+        return prepared;
+    }
+
+    /**
+     * Prepares given template and holds it for given key.
+     * 
+     * @param key
+     *            statement key, e.g. entity class and operation.
+     * @param template
+     *            CQL having bind markers in place of values.
+     * @return prepared statement or null, if server rejects template.
+     */
+    public PreparedStatement prepare(final Object key, final String template)
+    {
+        if (unpreparable.getIfPresent(key) != null)
+        {
+            bypassCount.incrementAndGet();
+            return null;
+        }
+
+        PreparedStatement prepared;
+        try
+        {
+            prepared = session.prepare(template);
+        }
+        catch (RuntimeException e)
+        {
+            logger.warn("Unable to prepare {}, it will be executed without preparation, Caused by {}.", template,
+                    e.getMessage());
+            unpreparable.put(key, Boolean.TRUE);
+            bypassCount.incrementAndGet();
+            return null;
+        }
+
+        prepareCount.incrementAndGet();
+        statements.put(key, prepared);
+        return prepared;
+    }
+
+    /**
+     * Binds given values to prepared statement.
+     * 
+     * @param prepared
+     *            prepared statement.
+     * @param values
+     *            values, of java types expected by driver.
+     * @return bound statement or null, if values do not match variable types.
+     */
+    public BoundStatement bind(final PreparedStatement prepared, final Object... values)
+    {
+        try
+        {
+            return prepared.bind(values);
+        }
+        catch (IllegalArgumentException e)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Unable to bind values of {}, Caused by {}.", prepared.getQueryString(),
+                        e.getMessage());
+            }
+            bypassCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    private Statement bypass()
+    {
+        bypassCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Converts literal value to java type expected by driver for given CQL
+     * type.
+     * 
+     * @param type
+     *            bind variable type.
+     * @param literal
+     *            literal value.
+     * @return value to be bound.
+     */
+    static Object toValue(DataType type, Literal literal)
+    {
+        String value = literal.getValue();
+        switch (type.getName())
+        {
+        case LIST:
+            if (literal.getType() == CQLParameterizer.LiteralType.LIST)
+            {
+                List<Object> values = new ArrayList<Object>(literal.getElements().size());
+                for (Literal element : literal.getElements())
+                {
+                    values.add(toValue(type.getTypeArguments().get(0), element));
+                }
+                return values;
+            }
+            break;
+
+        case ASCII:
+        case TEXT:
+        case VARCHAR:
+            if (literal.getType() == CQLParameterizer.LiteralType.BLOB)
+            {
+                break;
+            }
+            return value;
+
+        case INT:
+            return Integer.valueOf(value);
+
+        case BIGINT:
+        case COUNTER:
+            return Long.valueOf(value);
+
+        case FLOAT:
+            return Float.valueOf(value);
+
+        case DOUBLE:
+            return Double.valueOf(value);
+
+        case DECIMAL:
+            return new BigDecimal(value);
+
+        case VARINT:
+            return new BigInteger(value);
+
+        case BOOLEAN:
+            return Boolean.valueOf(value);
+
+        case UUID:
+        case TIMEUUID:
+            return UUID.fromString(value);
+
+        case TIMESTAMP:
+            return new Date(Long.parseLong(value));
+
+        case BLOB:
+            if (literal.getType() == CQLParameterizer.LiteralType.BLOB)
+            {
+                return Bytes.fromHexString(value);
+            }
+            break;
+
+        case INET:
+            try
+            {
+                return InetAddress.getByName(value);
+            }
+            catch (UnknownHostException e)
+            {
+                throw new IllegalArgumentException(e);
+            }
+
+        default:
+            break;
+        }
+        throw new IllegalArgumentException("Can not bind " + literal + " to " + type);
+    }
+
+    /**
+     * @return number of statements served out of cache.
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of statements prepared.
+     */
+    public long getPrepareCount()
+    {
+        return prepareCount.get();
+    }
+
+    /**
+     * @return number of statements executed without preparation.
+     */
+    public long getBypassCount()
+    {
+        return bypassCount.get();
+    }
+
+    /**
+     * @return number of prepared statements evicted to bound cache.
+     */
+    public long getEvictionCount()
+    {
+        return statements.stats().evictionCount();
+    }
+
+    /**
+     * @return number of prepared statements held.
+     */
+    public long size()
+    {
+        return statements.size();
+    }
+
+    /**
+     * Removes all prepared statements.
+     */
+    public void clear()
+    {
+        statements.invalidateAll();
+        unpreparable.invalidateAll();
+    }
+}
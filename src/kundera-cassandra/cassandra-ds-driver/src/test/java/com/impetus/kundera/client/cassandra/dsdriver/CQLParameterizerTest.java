@@ -0,0 +1,138 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.DataType;
+import com.impetus.kundera.client.cassandra.dsdriver.CQLParameterizer.LiteralType;
+import com.impetus.kundera.client.cassandra.dsdriver.CQLParameterizer.ParameterizedBatch;
+import com.impetus.kundera.client.cassandra.dsdriver.CQLParameterizer.ParameterizedStatement;
+
+/**
+ * Test case for {@link CQLParameterizer}.
+ */
+public class CQLParameterizerTest
+{
+
+    @Test
+    public void testSelect()
+    {
+        ParameterizedStatement statement = CQLParameterizer
+                .parameterize("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" = 'it''s' AND \"AGE\" > -10 LIMIT 100");
+
+        Assert.assertEquals("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" = ? AND \"AGE\" > ? LIMIT ?",
+                statement.getTemplate());
+        Assert.assertEquals(3, statement.getLiterals().size());
+        Assert.assertEquals("it's", statement.getLiterals().get(0).getValue());
+        Assert.assertEquals(LiteralType.STRING, statement.getLiterals().get(0).getType());
+        Assert.assertEquals("-10", statement.getLiterals().get(1).getValue());
+        Assert.assertEquals(LiteralType.NUMBER, statement.getLiterals().get(1).getType());
+        Assert.assertEquals("100", statement.getLiterals().get(2).getValue());
+    }
+
+    @Test
+    public void testSameShapeSameTemplate()
+    {
+        ParameterizedStatement first = CQLParameterizer
+                .parameterize("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" = '1'");
+        ParameterizedStatement second = CQLParameterizer
+                .parameterize("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" = '2'");
+        Assert.assertEquals(first.getTemplate(), second.getTemplate());
+    }
+
+    @Test
+    public void testInsert()
+    {
+        ParameterizedStatement statement = CQLParameterizer
+                .parameterize("INSERT INTO \"PERSON\"(\"PERSON_ID\",\"A\",\"ALIVE\",\"UID\",\"SALARY\") "
+                        + "VALUES('1',0x0a0b,true,123e4567-e89b-12d3-a456-426655440000,1.5E3) USING TTL 5");
+
+        Assert.assertEquals("INSERT INTO \"PERSON\"(\"PERSON_ID\",\"A\",\"ALIVE\",\"UID\",\"SALARY\") "
+                + "VALUES(?,?,?,?,?) USING TTL ?", statement.getTemplate());
+
+        List<CQLParameterizer.Literal> literals = statement.getLiterals();
+        Assert.assertEquals(LiteralType.BLOB, literals.get(1).getType());
+        Assert.assertEquals(LiteralType.BOOLEAN, literals.get(2).getType());
+        Assert.assertEquals(LiteralType.UUID, literals.get(3).getType());
+        Assert.assertEquals("123e4567-e89b-12d3-a456-426655440000", literals.get(3).getValue());
+        Assert.assertEquals(LiteralType.NUMBER, literals.get(4).getType());
+        Assert.assertEquals("5", literals.get(5).getValue());
+    }
+
+    @Test
+    public void testCounterUpdate()
+    {
+        ParameterizedStatement statement = CQLParameterizer
+                .parameterize("UPDATE \"COUNTERS\" SET \"C1\"=\"C1\"+5 WHERE \"KEY\" = 'k'");
+        Assert.assertEquals("UPDATE \"COUNTERS\" SET \"C1\"=\"C1\"+? WHERE \"KEY\" = ?", statement.getTemplate());
+    }
+
+    @Test
+    public void testInList()
+    {
+        ParameterizedStatement two = CQLParameterizer
+                .parameterize("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" IN ('1', '2') LIMIT 100");
+        ParameterizedStatement three = CQLParameterizer
+                .parameterize("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" IN ('1','2','it''s') LIMIT 100");
+
+        Assert.assertEquals("SELECT * FROM \"PERSON\" WHERE \"PERSON_ID\" IN ? LIMIT ?", two.getTemplate());
+        Assert.assertEquals(two.getTemplate(), three.getTemplate());
+
+        CQLParameterizer.Literal inList = three.getLiterals().get(0);
+        Assert.assertEquals(LiteralType.LIST, inList.getType());
+        Assert.assertEquals(3, inList.getElements().size());
+        Assert.assertEquals("it's", inList.getElements().get(2).getValue());
+
+        Assert.assertEquals(Arrays.asList("1", "2", "it's"),
+                DSPreparedStatementCache.toValue(DataType.list(DataType.text()), inList));
+        Assert.assertEquals(Arrays.asList(1, 2),
+                DSPreparedStatementCache.toValue(DataType.list(DataType.cint()),
+                        CQLParameterizer.parameterize("SELECT * FROM \"T\" WHERE \"K\" IN (1, 2)").getLiterals()
+                                .get(0)));
+    }
+
+    @Test
+    public void testNotParameterized()
+    {
+        Assert.assertNull(CQLParameterizer.parameterize("CREATE TABLE \"T\" (\"KEY\" text PRIMARY KEY)"));
+        Assert.assertNull(CQLParameterizer.parameterize("INSERT INTO \"T\"(\"KEY\",\"L\") VALUES('1',['a','b'])"));
+        Assert.assertNull(CQLParameterizer.parameterize("SELECT * FROM \"T\" WHERE \"KEY\" = ?"));
+    }
+
+    @Test
+    public void testBatch()
+    {
+        ParameterizedBatch batch = CQLParameterizer.parameterizeBatch("BEGIN BATCH  INSERT INTO \"T\"(\"KEY\",\"V\") "
+                + "VALUES('update','delete') DELETE FROM \"T\" WHERE \"KEY\" = '2' APPLY BATCH");
+
+        Assert.assertNull(batch.getType());
+        Assert.assertEquals(2, batch.getStatements().size());
+        Assert.assertEquals("INSERT INTO \"T\"(\"KEY\",\"V\") VALUES(?,?)", batch.getStatements().get(0).getTemplate());
+        Assert.assertEquals("DELETE FROM \"T\" WHERE \"KEY\" = ?", batch.getStatements().get(1).getTemplate());
+
+        batch = CQLParameterizer.parameterizeBatch("BEGIN COUNTER BATCH UPDATE \"C\" SET \"V\"=\"V\"+1 "
+                + "WHERE \"KEY\" = '1' APPLY BATCH");
+        Assert.assertEquals("COUNTER", batch.getType());
+
+        Assert.assertNull(CQLParameterizer.parameterizeBatch("SELECT * FROM \"T\""));
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.impetus.client.crud.PersonCassandra;
+import com.impetus.kundera.client.cassandra.persistence.CassandraCli;
+import com.impetus.kundera.persistence.api.AsyncEntityManager;
+import com.impetus.kundera.query.QueryResultCache;
+
+/**
+ * Test case for asynchronous operations served natively by {@link DSClient}.
+ */
+public class DSAsyncClientTest
+{
+    private static final String PERSISTENCE_UNIT = "cassandra_ds_pu";
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    private AsyncEntityManager asyncEm;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        CassandraCli.createKeySpace("KunderaExamples");
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+        em = emf.createEntityManager();
+        asyncEm = em.unwrap(AsyncEntityManager.class);
+    }
+
+    @Test
+    public void testCrud() throws Exception
+    {
+        PersonCassandra person = prepare("1", "vivek", 10);
+        Assert.assertSame(person, get(asyncEm.persist(person)));
+
+        PersonCassandra found = get(asyncEm.find(PersonCassandra.class, "1"));
+        Assert.assertNotNull(found);
+        Assert.assertEquals("vivek", found.getPersonName());
+        Assert.assertEquals(10, found.getAge().intValue());
+
+        found.setPersonName("kuldeep");
+        get(asyncEm.merge(found));
+        Assert.assertEquals("kuldeep", em.find(PersonCassandra.class, "1").getPersonName());
+        em.clear();
+
+        get(asyncEm.remove(found));
+        Assert.assertNull(get(asyncEm.find(PersonCassandra.class, "1")));
+        Assert.assertNull(em.find(PersonCassandra.class, "1"));
+    }
+
+    @Test
+    public void testManyInFlight() throws Exception
+    {
+        List<ListenableFuture<PersonCassandra>> writes = new ArrayList<ListenableFuture<PersonCassandra>>();
+        for (int i = 0; i < 100; i++)
+        {
+            writes.add(asyncEm.persist(prepare("" + i, "name" + i, i)));
+        }
+        get(Futures.allAsList(writes));
+
+        List<ListenableFuture<PersonCassandra>> reads = new ArrayList<ListenableFuture<PersonCassandra>>();
+        for (int i = 0; i < 100; i++)
+        {
+            reads.add(asyncEm.find(PersonCassandra.class, "" + i));
+        }
+
+        List<PersonCassandra> persons = get(Futures.allAsList(reads));
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertEquals("name" + i, persons.get(i).getPersonName());
+        }
+
+        List<PersonCassandra> results = get(asyncEm.<PersonCassandra> getResultList(
+                "Select p from PersonCassandra p", null));
+        Assert.assertEquals(100, results.size());
+    }
+
+    @Test
+    public void testPersistChecked() throws Exception
+    {
+        // persist goes through checks of synchronous one.
+        try
+        {
+            get(asyncEm.persist(prepare(null, "vivek", 10)));
+            Assert.fail("Should have failed on null primary key.");
+        }
+        catch (ExecutionException e)
+        {
+            // expected.
+        }
+    }
+
+    @Test
+    public void testQueryResultsInvalidated() throws Exception
+    {
+        get(asyncEm.persist(prepare("1", "vivek", 10)));
+
+        Query query = em.createQuery("Select p from PersonCassandra p");
+        query.setHint(QueryResultCache.QUERY_RESULT_CACHE_HINT, true);
+        Assert.assertEquals(1, query.getResultList().size());
+
+        // cached ids of query are invalidated once native write completes.
+        get(asyncEm.merge(prepare("2", "kuldeep", 20)));
+        Assert.assertEquals(2, query.getResultList().size());
+
+        get(asyncEm.remove(prepare("1", "vivek", 10)));
+        em.clear();
+        Assert.assertEquals(1, query.getResultList().size());
+    }
+
+    private PersonCassandra prepare(String id, String name, int age)
+    {
+        PersonCassandra person = new PersonCassandra();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        return person;
+    }
+
+    private <T> T get(ListenableFuture<T> future) throws Exception
+    {
+        return future.get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+        CassandraCli.dropKeySpace("KunderaExamples");
+    }
+}
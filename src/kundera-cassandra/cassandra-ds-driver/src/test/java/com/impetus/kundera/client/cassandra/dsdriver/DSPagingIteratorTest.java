@@ -0,0 +1,164 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.cassandra.common.CassandraConstants;
+import com.impetus.client.crud.PersonCassandra;
+import com.impetus.kundera.client.cassandra.persistence.CassandraCli;
+
+/**
+ * Test case for {@link DSPagingIterator}, query iteration over driver's
+ * paging.
+ */
+public class DSPagingIteratorTest
+{
+    private static final String PERSISTENCE_UNIT = "cassandra_ds_pu";
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        CassandraCli.createKeySpace("KunderaExamples");
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+        em = emf.createEntityManager();
+        for (int i = 0; i < 10; i++)
+        {
+            em.persist(prepare("" + i, "vivek", i));
+        }
+        em.clear();
+    }
+
+    @Test
+    public void testResumeFromHint()
+    {
+        Set<String> ids = new HashSet<String>();
+        Object pagingState = "";
+        int requests = 0;
+        do
+        {
+            // a new query on each request, as a stateless caller would do.
+            Query query = createQuery(pagingState, 4);
+            Iterator<PersonCassandra> persons = ((com.impetus.kundera.query.Query) query).iterate();
+            while (persons.hasNext())
+            {
+                Assert.assertTrue(ids.add(persons.next().getPersonId()));
+            }
+            pagingState = query.getHints().get(CassandraConstants.PAGING_STATE);
+            requests++;
+        }
+        while (pagingState != null);
+
+        Assert.assertEquals(10, ids.size());
+        Assert.assertEquals(3, requests);
+    }
+
+    @Test
+    public void testResumeWithinPage()
+    {
+        Query query = createQuery("", 4);
+        Assert.assertEquals(4, iterate(query, 4).size());
+        Object pagingState = query.getHints().get(CassandraConstants.PAGING_STATE);
+        Assert.assertNotNull(pagingState);
+
+        // stopping within a page leaves paging state at its start.
+        query = createQuery(pagingState, 4);
+        List<String> partial = iterate(query, 2);
+        Assert.assertEquals(2, partial.size());
+        Assert.assertEquals(pagingState, query.getHints().get(CassandraConstants.PAGING_STATE));
+
+        query = createQuery(pagingState, 4);
+        List<String> resumed = iterate(query, 4);
+        Assert.assertEquals(4, resumed.size());
+        Assert.assertEquals(partial, resumed.subList(0, 2));
+    }
+
+    @Test
+    public void testIterateWithoutHint()
+    {
+        Query query = em.createQuery("Select p from PersonCassandra p");
+        ((com.impetus.kundera.query.Query) query).setFetchSize(4);
+        List<String> first = iterate(query, 10);
+        Assert.assertEquals(4, first.size());
+        Assert.assertFalse(query.getHints().containsKey(CassandraConstants.PAGING_STATE));
+
+        // same query iterates from first page again.
+        Assert.assertEquals(first, iterate(query, 10));
+
+        // limit clause is taken off, fetched rows are bound by max results.
+        ((com.impetus.kundera.query.Query) query).setFetchSize(null);
+        query.setMaxResults(7);
+        Assert.assertEquals(7, iterate(query, 10).size());
+        query.setMaxResults(20);
+        Assert.assertEquals(10, iterate(query, 20).size());
+    }
+
+    private Query createQuery(Object pagingState, int fetchSize)
+    {
+        Query query = em.createQuery("Select p from PersonCassandra p");
+        query.setHint(CassandraConstants.PAGING_STATE, pagingState);
+        ((com.impetus.kundera.query.Query) query).setFetchSize(fetchSize);
+        return query;
+    }
+
+    private List<String> iterate(Query query, int count)
+    {
+        List<String> ids = new ArrayList<String>();
+        Iterator<PersonCassandra> persons = ((com.impetus.kundera.query.Query) query).iterate();
+        while (ids.size() < count && persons.hasNext())
+        {
+            ids.add(persons.next().getPersonId());
+        }
+        return ids;
+    }
+
+    private PersonCassandra prepare(String id, String name, int age)
+    {
+        PersonCassandra person = new PersonCassandra();
+        person.setPersonId(id);
+        person.setPersonName(name);
+        person.setAge(age);
+        return person;
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+        CassandraCli.dropKeySpace("KunderaExamples");
+    }
+}
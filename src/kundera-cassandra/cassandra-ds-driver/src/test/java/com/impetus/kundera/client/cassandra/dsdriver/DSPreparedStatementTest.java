@@ -0,0 +1,205 @@
+/**
+ * Copyright 2015 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.client.cassandra.dsdriver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.crud.PersonCassandra;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.cassandra.persistence.CassandraCli;
+
+/**
+ * Test case for prepared statement execution mode of {@link DSClient}. Checks
+ * values bound to prepared statements through query results, and statement
+ * reuse and eviction through {@link DSPreparedStatementCache} counters.
+ */
+public class DSPreparedStatementTest
+{
+    private static final String PERSISTENCE_UNIT = "cassandra_ds_pu";
+
+    private static final int NO_OF_RECORDS = 10;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        CassandraCli.createKeySpace("KunderaExamples");
+    }
+
+    @Test
+    public void testPreparedCRUD()
+    {
+        EntityManagerFactory emf = createEntityManagerFactory(null);
+        EntityManager em = emf.createEntityManager();
+
+        PersonCassandra person = new PersonCassandra();
+        person.setPersonId("1");
+        person.setPersonName("vivek's");
+        person.setAge(-10);
+        em.persist(person);
+        em.clear();
+
+        PersonCassandra found = em.find(PersonCassandra.class, "1");
+        Assert.assertNotNull(found);
+        Assert.assertEquals("vivek's", found.getPersonName());
+        Assert.assertEquals(-10, found.getAge().intValue());
+
+        found.setPersonName("kuldeep");
+        em.merge(found);
+        em.clear();
+
+        Query query = em.createQuery("Select p from PersonCassandra p where p.personId = '1'");
+        List<PersonCassandra> results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("kuldeep", results.get(0).getPersonName());
+
+        em.remove(em.find(PersonCassandra.class, "1"));
+        em.clear();
+        Assert.assertNull(em.find(PersonCassandra.class, "1"));
+
+        DSPreparedStatementCache statementCache = getStatementCache(em);
+        Assert.assertNotNull(statementCache);
+        Assert.assertTrue(statementCache.getPrepareCount() > 0);
+        Assert.assertTrue(statementCache.getHitCount() > 0);
+
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testStatementReuse()
+    {
+        EntityManagerFactory emf = createEntityManagerFactory(null);
+        EntityManager em = emf.createEntityManager();
+        persistPersons(em);
+
+        DSPreparedStatementCache statementCache = getStatementCache(em);
+        long prepared = statementCache.getPrepareCount();
+        long hits = statementCache.getHitCount();
+
+        // every find by id binds its own key to one statement, prepared once.
+        for (int i = 0; i < NO_OF_RECORDS; i++)
+        {
+            PersonCassandra person = em.find(PersonCassandra.class, i + "");
+            Assert.assertNotNull(person);
+            Assert.assertEquals("vivek" + i, person.getPersonName());
+            Assert.assertEquals(i, person.getAge().intValue());
+        }
+        em.clear();
+        Assert.assertEquals(prepared + 1, statementCache.getPrepareCount());
+        Assert.assertEquals(hits + NO_OF_RECORDS - 1, statementCache.getHitCount());
+
+        // IN lists of any length share one template.
+        List<PersonCassandra> results = em.createQuery(
+                "Select p from PersonCassandra p where p.personId IN ('1', '2')").getResultList();
+        Assert.assertEquals(2, results.size());
+        em.clear();
+        prepared = statementCache.getPrepareCount();
+
+        results = em.createQuery("Select p from PersonCassandra p where p.personId IN ('3', '4', '5')")
+                .getResultList();
+        Assert.assertEquals(3, results.size());
+        for (PersonCassandra person : results)
+        {
+            Assert.assertEquals("vivek" + person.getPersonId(), person.getPersonName());
+        }
+        Assert.assertEquals(prepared, statementCache.getPrepareCount());
+        Assert.assertEquals(0, statementCache.getEvictionCount());
+
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testEviction()
+    {
+        EntityManagerFactory emf = createEntityManagerFactory("1");
+        EntityManager em = emf.createEntityManager();
+        persistPersons(em);
+
+        DSPreparedStatementCache statementCache = getStatementCache(em);
+        Assert.assertEquals(1, statementCache.size());
+
+        PersonCassandra person = em.find(PersonCassandra.class, "1");
+        Assert.assertEquals("vivek1", person.getPersonName());
+        em.clear();
+        long prepared = statementCache.getPrepareCount();
+
+        // a query evicts find statement, which is prepared again on next use.
+        List<PersonCassandra> results = em.createQuery(
+                "Select p from PersonCassandra p where p.personId IN ('1', '2')").getResultList();
+        Assert.assertEquals(2, results.size());
+        em.clear();
+        person = em.find(PersonCassandra.class, "2");
+        Assert.assertEquals("vivek2", person.getPersonName());
+
+        Assert.assertEquals(prepared + 2, statementCache.getPrepareCount());
+        Assert.assertEquals(1, statementCache.size());
+        Assert.assertTrue(statementCache.getEvictionCount() >= 2);
+
+        em.close();
+        emf.close();
+    }
+
+    private void persistPersons(EntityManager em)
+    {
+        for (int i = 0; i < NO_OF_RECORDS; i++)
+        {
+            PersonCassandra person = new PersonCassandra();
+            person.setPersonId(i + "");
+            person.setPersonName("vivek" + i);
+            person.setAge(i);
+            em.persist(person);
+        }
+        em.clear();
+    }
+
+    private EntityManagerFactory createEntityManagerFactory(String cacheSize)
+    {
+        Map<String, Object> propertyMap = new HashMap<String, Object>();
+        propertyMap.put(DSClientFactory.PREPARED_STATEMENTS, "true");
+        if (cacheSize != null)
+        {
+            propertyMap.put(DSClientFactory.PREPARED_STATEMENT_CACHE_SIZE, cacheSize);
+        }
+        return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, propertyMap);
+    }
+
+    private DSPreparedStatementCache getStatementCache(EntityManager em)
+    {
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        return ((DSClient) clients.get(PERSISTENCE_UNIT)).getClientFactory().getStatementCache();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        CassandraCli.dropKeySpace("KunderaExamples");
+    }
+}
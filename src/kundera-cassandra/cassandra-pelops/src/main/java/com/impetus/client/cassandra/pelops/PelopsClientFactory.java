@@ -56,6 +56,7 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.service.Host;
 import com.impetus.kundera.service.HostConfiguration;
+import com.impetus.kundera.service.policy.LatencyAwareBalancingPolicy;
 import com.impetus.kundera.service.policy.LeastActiveBalancingPolicy;
 import com.impetus.kundera.service.policy.RoundRobinBalancingPolicy;
 
@@ -216,6 +217,9 @@ public class PelopsClientFactory extends CassandraClientFactory
         case LEASTACTIVE:
             loadBalancingPolicy = new PelopsLeastActiveBalancingPolcy();
             break;
+        case LATENCYAWARE:
+            loadBalancingPolicy = new LatencyAwareBalancingPolicy();
+            break;
         default:
             loadBalancingPolicy = new RoundRobinBalancingPolicy();
             break;
@@ -257,7 +261,7 @@ public class PelopsClientFactory extends CassandraClientFactory
                     {
                         // logger.info("Returning connection of {} :{} .",
                         // nodes[0].getAddress(), thriftPort);
-                        return iThriftPool.getConnection();
+                        return acquireConnection(iThriftPool);
                     }
                     removePool(iThriftPool);
                 }
@@ -265,7 +269,7 @@ public class PelopsClientFactory extends CassandraClientFactory
                 {
                     // logger.info("Returning connection of {} :{} .",
                     // nodes[0].getAddress(), thriftPort);
-                    return iThriftPool.getConnection();
+                    return acquireConnection(iThriftPool);
                 }
                 removePool(iThriftPool);
             }
@@ -384,10 +388,32 @@ public class PelopsClientFactory extends CassandraClientFactory
 
     }
 
+    /**
+     * Gets connection from pool, recording its use for latency aware
+     * balancing.
+     * 
+     * @param pool
+     *            the pool
+     * @return the connection
+     */
+    private IPooledConnection acquireConnection(IThriftPool pool)
+    {
+        IPooledConnection conn = pool.getConnection();
+        if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+        {
+            ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onAcquire(pool, conn);
+        }
+        return conn;
+    }
+
     void releaseConnection(IPooledConnection conn)
     {
         if (conn != null)
         {
+            if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+            {
+                ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onRelease(conn);
+            }
             conn.release();
         }
     }
@@ -442,6 +468,10 @@ public class PelopsClientFactory extends CassandraClientFactory
         CassandraHost cassandraHost = ((CassandraHostConfiguration) configuration).getCassandraHost(
                 nodes[0].getAddress(), ((CommonsBackedPool) pool).getCluster().getConnectionConfig().getThriftPort());
         hostPools.remove(cassandraHost);
+        if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+        {
+            ((LatencyAwareBalancingPolicy) loadBalancingPolicy).remove(pool);
+        }
     }
 
     /**
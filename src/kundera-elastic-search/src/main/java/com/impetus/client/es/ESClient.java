@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import javax.persistence.GenerationType;
 import javax.persistence.PersistenceException;
@@ -31,12 +32,19 @@ import javax.persistence.metamodel.EntityType;
 import org.eclipse.persistence.jpa.jpql.parser.Expression;
 import org.eclipse.persistence.jpa.jpql.parser.OrderByItem;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexRequestBuilder;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
@@ -51,13 +59,19 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.fetch.source.FetchSourceContext;
 import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.impetus.client.es.utils.ESResponseWrapper;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.AsyncClient;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientBase;
 import com.impetus.kundera.client.ClientPropertiesSetter;
@@ -85,7 +99,7 @@ import com.impetus.kundera.utils.KunderaCoreUtils;
  * 
  * @author vivek.mishra Elastic search client implementation on {@link Client}
  */
-public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, ClientPropertiesSetter
+public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, ClientPropertiesSetter, AsyncClient
 {
     /** The factory. */
     private ESClientFactory factory;
@@ -150,33 +164,43 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        try
-        {
-            Map<String, Object> values = new HashMap<String, Object>();
+        IndexResponse response = prepareIndex(entityMetadata, entity, id, rlHolders).execute().actionGet();
 
-            MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
-                    entityMetadata.getPersistenceUnit());
+        assert response.getId() != null;
+    }
 
-            EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
+    /**
+     * Prepares index request for given entity.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param entity
+     *            the entity
+     * @param id
+     *            the id
+     * @param rlHolders
+     *            the rl holders
+     * @return the index request builder
+     */
+    private IndexRequestBuilder prepareIndex(EntityMetadata entityMetadata, Object entity, Object id,
+            List<RelationHolder> rlHolders)
+    {
+        Map<String, Object> values = new HashMap<String, Object>();
 
-            String keyAsString = getKeyAsString(id, entityMetadata, metaModel);
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
 
-            addSource(entity, values, entityType);
+        EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
 
-            addRelations(rlHolders, values);
-            addDiscriminator(values, entityType);
+        String keyAsString = getKeyAsString(id, entityMetadata, metaModel);
 
-            IndexResponse response = txClient
-                    .prepareIndex(entityMetadata.getSchema().toLowerCase(), entityMetadata.getTableName(), keyAsString)
-                    .setSource(values).execute().actionGet();
+        addSource(entity, values, entityType);
 
-            assert response.getId() != null;
-        }
-        finally
-        {
-            // Nothing as of now.
-        }
+        addRelations(rlHolders, values);
+        addDiscriminator(values, entityType);
 
+        return txClient.prepareIndex(entityMetadata.getSchema().toLowerCase(), entityMetadata.getTableName(),
+                keyAsString).setSource(values);
     }
 
     /**
@@ -276,6 +300,27 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
             throw new PersistenceException(eex);
         }
 
+        return wrapFindResult(get, entityClass, key, metadata, entityType);
+    }
+
+    /**
+     * Converts get response into entity.
+     * 
+     * @param get
+     *            the get response
+     * @param entityClass
+     *            the entity class
+     * @param key
+     *            the key
+     * @param metadata
+     *            the metadata
+     * @param entityType
+     *            the entity type
+     * @return the entity, null if not found
+     */
+    private Object wrapFindResult(GetResponse get, Class entityClass, Object key, EntityMetadata metadata,
+            EntityType entityType)
+    {
         Map<String, Object> results = get.getSource();
 
         Object result = null;
@@ -290,6 +335,98 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         return result;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.client.AsyncClient#findAsync(java.lang.Class,
+     * java.lang.Object, java.util.concurrent.Executor)
+     */
+    @Override
+    public ListenableFuture<Object> findAsync(final Class entityClass, final Object key, Executor executor)
+    {
+        final EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClass);
+
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        final EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        String keyAsString = getKeyAsString(key, metadata, metaModel);
+
+        SettableFuture<Object> future = SettableFuture.create();
+        txClient.prepareGet(metadata.getSchema().toLowerCase(), metadata.getTableName(), keyAsString).execute(
+                new FutureListener<GetResponse>(future)
+                {
+                    @Override
+                    Object onResult(GetResponse response)
+                    {
+                        return response;
+                    }
+                });
+        return Futures.transform(future, new Function<Object, Object>()
+        {
+            @Override
+            public Object apply(Object response)
+            {
+                return wrapFindResult((GetResponse) response, entityClass, key, metadata, entityType);
+            }
+        }, executor);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.AsyncClient#persistAsync(java.lang.Object,
+     * java.lang.Object)
+     */
+    @Override
+    public ListenableFuture<?> persistAsync(Object entity, Object id)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entity.getClass());
+
+        SettableFuture<Object> future = SettableFuture.create();
+        prepareIndex(metadata, entity, id, null).execute(new FutureListener<IndexResponse>(future)
+        {
+            @Override
+            Object onResult(IndexResponse response)
+            {
+                return response.getId();
+            }
+        });
+        return future;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.client.AsyncClient#removeAsync(java.lang.Object,
+     * java.lang.Object)
+     */
+    @Override
+    public ListenableFuture<?> removeAsync(Object entity, Object pKey)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entity.getClass());
+
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        String keyAsString = getKeyAsString(pKey, metadata, metaModel);
+
+        SettableFuture<Object> future = SettableFuture.create();
+        txClient.prepareDelete(metadata.getSchema().toLowerCase(), metadata.getTableName(), keyAsString).execute(
+                new FutureListener<DeleteResponse>(future)
+                {
+                    @Override
+                    Object onResult(DeleteResponse response)
+                    {
+                        return response.isFound();
+                    }
+                });
+        return future;
+    }
+
     /**
      * Execute query.
      * 
@@ -425,7 +562,110 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        return null;
+        List<E> results = new ArrayList<E>();
+        if (keys == null || keys.length == 0)
+        {
+            return results;
+        }
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClass);
+
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        FetchSourceContext sourceContext = getSourceContext(columnsToSelect, metadata, entityType);
+
+        for (int start = 0; start < keys.length; start += ESConstants.MULTI_GET_SIZE)
+        {
+            int end = Math.min(start + ESConstants.MULTI_GET_SIZE, keys.length);
+
+            MultiGetRequestBuilder builder = txClient.prepareMultiGet();
+            for (int i = start; i < end; i++)
+            {
+                MultiGetRequest.Item item = new MultiGetRequest.Item(metadata.getSchema().toLowerCase(),
+                        metadata.getTableName(), getKeyAsString(keys[i], metadata, metaModel));
+                builder.add(item.fetchSourceContext(sourceContext));
+            }
+
+            MultiGetResponse response = null;
+            try
+            {
+                response = builder.execute().actionGet();
+            }
+            catch (ElasticsearchException e)
+            {
+                logger.error("Error while find records of {}, Caused by :.", entityClass.getSimpleName(), e);
+                throw new PersistenceException(e);
+            }
+
+            // responses are returned in the order items were added.
+            MultiGetItemResponse[] items = response.getResponses();
+            for (int i = 0; i < items.length; i++)
+            {
+                if (items[i].isFailed())
+                {
+                    logger.error("Error while find record of {} for id {}, Caused by : {}.", new Object[] {
+                            entityClass.getSimpleName(), items[i].getId(), items[i].getFailure().getMessage() });
+                    throw new PersistenceException(items[i].getFailure().getMessage());
+                }
+
+                Object result = wrapFindResult(items[i].getResponse(), entityClass, keys[start + i], metadata,
+                        entityType);
+                if (result != null)
+                {
+                    results.add((E) result);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Builds the source filter for selected columns. Id and association
+     * columns are always fetched so that fetched entities can be identified
+     * and their relations loaded.
+     * 
+     * @param columnsToSelect
+     *            the columns to select
+     * @param metadata
+     *            the metadata
+     * @param entityType
+     *            the entity type
+     * @return the fetch source context, null to fetch complete source
+     */
+    private FetchSourceContext getSourceContext(String[] columnsToSelect, EntityMetadata metadata,
+            EntityType entityType)
+    {
+        List<String> includes = new ArrayList<String>();
+        if (columnsToSelect != null)
+        {
+            for (String column : columnsToSelect)
+            {
+                if (column != null)
+                {
+                    Attribute attribute = entityType.getAttribute(column);
+                    includes.add(((AbstractAttribute) attribute).getJPAColumnName());
+                }
+            }
+        }
+
+        if (includes.isEmpty())
+        {
+            return null;
+        }
+
+        includes.add(((AbstractAttribute) metadata.getIdAttribute()).getJPAColumnName());
+        for (Object attribute : entityType.getAttributes())
+        {
+            if (((Attribute) attribute).isAssociation())
+            {
+                includes.add(((AbstractAttribute) attribute).getJPAColumnName());
+            }
+        }
+        return new FetchSourceContext(includes.toArray(new String[includes.size()]));
     }
 
     /*
@@ -941,4 +1181,41 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         throw new UnsupportedOperationException(GenerationType.class.getSimpleName()
                 + " Strategies not supported by this client : ESClient");
     }
-}
\ No newline at end of file
+
+    /**
+     * Completes a future with outcome of an elastic search action.
+     */
+    private abstract static class FutureListener<T> implements ActionListener<T>
+    {
+        private final SettableFuture<Object> future;
+
+        FutureListener(SettableFuture<Object> future)
+        {
+            this.future = future;
+        }
+
+        @Override
+        public void onResponse(T response)
+        {
+            try
+            {
+                future.set(onResult(response));
+            }
+            catch (RuntimeException e)
+            {
+                future.setException(e);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable e)
+        {
+            future.setException(e);
+        }
+
+        /**
+         * Converts action response into future value.
+         */
+        abstract Object onResult(T response);
+    }
+}
@@ -51,4 +51,7 @@ public interface ESConstants
 
     /** The Constant DEFAULT. */
     public static final String DEFAULT = "DEFAULT";
+
+    /** Maximum number of ids sent in a single multi get request. */
+    public static final int MULTI_GET_SIZE = 1000;
 }
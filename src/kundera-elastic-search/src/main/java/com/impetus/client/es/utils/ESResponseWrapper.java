@@ -661,7 +661,7 @@ public final class ESResponseWrapper
      */
     private Object onEnum(Attribute attribute, Object fieldValue)
     {
-        if (((Field) attribute.getJavaMember()).getType().isEnum())
+        if (fieldValue != null && ((Field) attribute.getJavaMember()).getType().isEnum())
         {
             EnumAccessor accessor = new EnumAccessor();
             fieldValue = accessor.fromString(((AbstractAttribute) attribute).getBindableJavaType(),
@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.persistence.EntityManagerFactory;
@@ -112,6 +113,32 @@ public class ESClientTest
         client.delete(result, "1");
         result = (PersonES) client.find(PersonES.class, "1");
         Assert.assertNull(result);
+
+        entity.setPersonId("2");
+        client.onPersist(metadata, entity, "2", null);
+        entity.setPersonId("3");
+        entity.setPersonName("amit");
+        client.onPersist(metadata, entity, "3", null);
+
+        Thread.sleep(3000);
+        List<PersonES> results = client.findAll(PersonES.class, null, "2", "1", "3");
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("2", results.get(0).getPersonId());
+        Assert.assertEquals("vivek", results.get(0).getPersonName());
+        Assert.assertEquals("3", results.get(1).getPersonId());
+        Assert.assertEquals("amit", results.get(1).getPersonName());
+
+        results = client.findAll(PersonES.class, new String[] { "personName" }, "3");
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("3", results.get(0).getPersonId());
+        Assert.assertEquals("amit", results.get(0).getPersonName());
+        Assert.assertNull(results.get(0).getAge());
+        Assert.assertNull(results.get(0).getDay());
+
+        Assert.assertTrue(client.findAll(PersonES.class, null).isEmpty());
+
+        client.delete(results.get(0), "3");
+        client.delete(results.get(0), "2");
     }
 
     private EntityManagerFactory getEntityManagerFactory()
@@ -42,6 +42,8 @@ import com.impetus.client.hbase.admin.DataHandler;
 import com.impetus.client.hbase.admin.HBaseDataHandler;
 import com.impetus.client.hbase.admin.HBaseRow;
 import com.impetus.client.hbase.query.HBaseQuery;
+import com.impetus.client.hbase.service.HBaseBufferedWriter;
+import com.impetus.client.hbase.service.HBaseScanOptions;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
@@ -86,6 +88,9 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
     /** The batch size. */
     private int batchSize;
 
+    /** Number of mutations buffered since last flush, in buffered write mode. */
+    private int buffered;
+
     /**
      * Instantiates a new h base client.
      * 
@@ -95,6 +100,8 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      *            the conf
      * @param connection
      *            the connection
+     * @param bufferedWriter
+     *            buffered writer of this client, null in direct write mode
      * @param reader
      *            the reader
      * @param persistenceUnit
@@ -106,13 +113,14 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      * @param kunderaMetadata
      *            the kundera metadata
      */
-    public HBaseClient(IndexManager indexManager, Configuration conf, Connection connection, EntityReader reader,
-            String persistenceUnit, Map<String, Object> externalProperties, ClientMetadata clientMetadata,
+    public HBaseClient(IndexManager indexManager, Configuration conf, Connection connection,
+            HBaseBufferedWriter bufferedWriter, EntityReader reader, String persistenceUnit,
+            Map<String, Object> externalProperties, ClientMetadata clientMetadata,
             final KunderaMetadata kunderaMetadata)
     {
         super(kunderaMetadata, externalProperties, persistenceUnit);
         this.indexManager = indexManager;
-        this.handler = new HBaseDataHandler(kunderaMetadata, connection);
+        this.handler = new HBaseDataHandler(kunderaMetadata, connection, bufferedWriter);
         this.reader = reader;
         this.clientMetadata = clientMetadata;
         this.batchSize = getBatchSize(persistenceUnit, this.externalProperties);
@@ -246,12 +254,40 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      */
     public <E> List<E> findData(EntityMetadata m, Object rowKey, byte[] startRow, byte[] endRow,
             List<Map<String, Object>> columnsToOutput, Filter filters)
+    {
+        return findData(m, rowKey, startRow, endRow, columnsToOutput, filters, getScanOptions());
+    }
+
+    /**
+     * Find data, scanning with given scan options.
+     * 
+     * @param <E>
+     *            the element type
+     * @param m
+     *            the m
+     * @param rowKey
+     *            the row key
+     * @param startRow
+     *            the start row
+     * @param endRow
+     *            the end row
+     * @param columnsToOutput
+     *            the columns to output
+     * @param filters
+     *            the filters
+     * @param scanOptions
+     *            the scan options
+     * @return the list
+     */
+    public <E> List<E> findData(EntityMetadata m, Object rowKey, byte[] startRow, byte[] endRow,
+            List<Map<String, Object>> columnsToOutput, Filter filters, HBaseScanOptions scanOptions)
     {
         String tableName = HBaseUtils.getHTableName(m.getSchema(), m.getTableName());
         FilterList filterList = getFilterList(filters);
         try
         {
-            return handler.readData(tableName, m, rowKey, startRow, endRow, columnsToOutput, filterList);
+            return ((HBaseDataHandler) handler).readData(tableName, m, rowKey, startRow, endRow, columnsToOutput,
+                    filterList, scanOptions);
         }
         catch (IOException ioex)
         {
@@ -340,6 +376,27 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         ((HBaseDataHandler) handler).setFetchSize(fetchSize);
     }
 
+    /**
+     * Sets the scan options, used by queries without scan hints.
+     * 
+     * @param scanOptions
+     *            the new scan options
+     */
+    public void setScanOptions(HBaseScanOptions scanOptions)
+    {
+        ((HBaseDataHandler) handler).setScanOptions(scanOptions);
+    }
+
+    /**
+     * Gets the scan options.
+     * 
+     * @return the scan options
+     */
+    public HBaseScanOptions getScanOptions()
+    {
+        return ((HBaseDataHandler) handler).getScanOptions();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -354,7 +411,7 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         String tableName = HBaseUtils.getHTableName(entityMetadata.getSchema(), entityMetadata.getTableName());
         try
         {
-            handler.writeData(tableName, entityMetadata, entity, id, relations, showQuery);
+            handler.writeData(tableName, entityMetadata, entity, id, relations, dirtyAttributes, showQuery);
         }
         catch (IOException e)
         {
@@ -560,6 +617,12 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
     @Override
     public int getBatchSize()
     {
+        // in buffered write mode, nodes are handed to mutators one by one
+        // unless batch size is set, write buffer batching them instead.
+        if (batchSize == 0 && ((HBaseDataHandler) handler).isBuffered())
+        {
+            return 1;
+        }
         return batchSize;
     }
 
@@ -585,6 +648,32 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      */
     @Override
     public int executeBatch()
+    {
+        int size = applyBatch();
+        HBaseDataHandler dataHandler = (HBaseDataHandler) handler;
+        if (dataHandler.isBuffered())
+        {
+            size += buffered;
+            buffered = 0;
+            try
+            {
+                dataHandler.flush();
+            }
+            catch (IOException ioex)
+            {
+                log.error("Error while flushing buffered mutations, Caused by: .", ioex);
+                throw new KunderaException(ioex);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes batched nodes, through mutators in buffered write mode.
+     * 
+     * @return number of tables written to
+     */
+    private int applyBatch()
     {
         Map<String, List<Row>> batchData = new HashMap<String, List<Row>>();
         try
@@ -605,10 +694,19 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
                     }
                     else
                     {
-                        HBaseRow hbaseRow = ((HBaseDataHandler) handler).createHbaseRow(m, entity, rowKey, null);
-                        action = handler.preparePut(hbaseRow);
+                        Set<String> attributeNames = getDirtyAttributes(node, m);
+                        HBaseRow hbaseRow = ((HBaseDataHandler) handler).createHbaseRow(m, entity, rowKey, null,
+                                attributeNames);
+                        if (attributeNames == null || !hbaseRow.getRowCells().isEmpty())
+                        {
+                            action = handler.preparePut(hbaseRow);
+                        }
                     }
                     node.handlePostEvent();
+                    if (action == null)
+                    {
+                        continue;
+                    }
                     if (!batchData.containsKey(tableName))
                     {
                         batchData.put(tableName, new ArrayList<Row>());
@@ -621,6 +719,14 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
             {
                 ((HBaseDataHandler) handler).batchProcess(batchData);
             }
+            if (((HBaseDataHandler) handler).isBuffered())
+            {
+                for (List<Row> actions : batchData.values())
+                {
+                    buffered += actions.size();
+                }
+                return 0;
+            }
             return batchData.size();
         }
         catch (IOException ioex)
@@ -636,9 +742,10 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      */
     private void onBatchLimit()
     {
-        if (batchSize > 0 && batchSize == nodes.size())
+        int size = getBatchSize();
+        if (size > 0 && size == nodes.size())
         {
-            executeBatch();
+            applyBatch();
             nodes.clear();
         }
     }
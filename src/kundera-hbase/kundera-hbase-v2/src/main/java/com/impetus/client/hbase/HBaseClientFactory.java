@@ -16,7 +16,11 @@
 package com.impetus.client.hbase;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
@@ -26,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.config.HBasePropertyReader;
 import com.impetus.client.hbase.schemamanager.HBaseSchemaManager;
+import com.impetus.client.hbase.service.HBaseBufferedWriter;
+import com.impetus.client.hbase.service.HBaseScanOptions;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
@@ -53,6 +59,21 @@ public class HBaseClientFactory extends GenericClientFactory
     /** The connection. */
     private org.apache.hadoop.hbase.client.Connection connection;
 
+    /** Whether clients write through buffered writers. */
+    private boolean bufferedWrite;
+
+    /** Write buffer size in bytes of buffered writers, 0 for hbase default. */
+    private long writeBufferSize;
+
+    /** Flush interval in milliseconds of buffered writers. */
+    private long flushInterval;
+
+    /** Executor flushing buffered writers periodically, null if there is none. */
+    private ScheduledExecutorService flushScheduler;
+
+    /** Scan options set on persistence unit. */
+    private HBaseScanOptions scanOptions = new HBaseScanOptions();
+
     /** The Constant DEFAULT_ZOOKEEPER_PORT. */
     private static final String DEFAULT_ZOOKEEPER_PORT = "2181";
 
@@ -115,6 +136,74 @@ public class HBaseClientFactory extends GenericClientFactory
         reader = new HBaseEntityReader(kunderaMetadata);
     }
 
+    /**
+     * Returns value of given property, external properties taking precedence
+     * over persistence unit ones.
+     * 
+     * @param puMetadata
+     *            the persistence unit metadata
+     * @param name
+     *            the property name
+     * @return the property value
+     */
+    private String getProperty(PersistenceUnitMetadata puMetadata, String name)
+    {
+        Object value = externalProperties != null ? externalProperties.get(name) : null;
+        return value != null ? value.toString() : puMetadata.getProperties().getProperty(name);
+    }
+
+    /**
+     * Initializes options of buffered writers, if buffered write mode is set.
+     * Each client gets a writer of its own, for failures of its mutations to
+     * be surfaced to it only.
+     */
+    private void initializeBufferedWriter()
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                getPersistenceUnit());
+        if (HBaseConstants.WRITE_MODE_BUFFERED.equalsIgnoreCase(getProperty(puMetadata, HBaseConstants.WRITE_MODE)))
+        {
+            String bufferSize = getProperty(puMetadata, HBaseConstants.WRITE_BUFFER_SIZE);
+            String interval = getProperty(puMetadata, HBaseConstants.WRITE_FLUSH_INTERVAL);
+            bufferedWrite = true;
+            writeBufferSize = bufferSize != null ? Long.parseLong(bufferSize.trim()) : 0;
+            flushInterval = interval != null ? Long.parseLong(interval.trim())
+                    : HBaseConstants.DEFAULT_WRITE_FLUSH_INTERVAL;
+            if (flushInterval > 0)
+            {
+                flushScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "kundera-hbase-flush");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Initializes scan options from persistence unit properties.
+     */
+    private void initializeScanOptions()
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                getPersistenceUnit());
+        Map<String, String> properties = new HashMap<String, String>();
+        for (String name : HBaseScanOptions.NAMES)
+        {
+            String value = getProperty(puMetadata, name);
+            if (value != null)
+            {
+                properties.put(name, value);
+            }
+        }
+        scanOptions = new HBaseScanOptions().with(properties);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -127,6 +216,8 @@ public class HBaseClientFactory extends GenericClientFactory
         try
         {
             this.connection = ConnectionFactory.createConnection(conf);
+            initializeBufferedWriter();
+            initializeScanOptions();
             return connection;
         }
         catch (IOException e)
@@ -146,8 +237,12 @@ public class HBaseClientFactory extends GenericClientFactory
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
-        return new HBaseClient(indexManager, conf, connection, reader, persistenceUnit, externalProperties,
-                clientMetadata, kunderaMetadata);
+        HBaseBufferedWriter bufferedWriter = bufferedWrite ? new HBaseBufferedWriter(connection, writeBufferSize,
+                flushScheduler, flushInterval) : null;
+        HBaseClient client = new HBaseClient(indexManager, conf, connection, bufferedWriter, reader,
+                persistenceUnit, externalProperties, clientMetadata, kunderaMetadata);
+        client.setScanOptions(scanOptions);
+        return client;
     }
 
     /*
@@ -175,6 +270,11 @@ public class HBaseClientFactory extends GenericClientFactory
             {
                 schemaManager.dropSchema();
             }
+            if (flushScheduler != null)
+            {
+                flushScheduler.shutdown();
+                flushScheduler = null;
+            }
             externalProperties = null;
             schemaManager = null;
             connection.close();
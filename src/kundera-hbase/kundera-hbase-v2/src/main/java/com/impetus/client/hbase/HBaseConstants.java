@@ -31,4 +31,34 @@ public final class HBaseConstants
 
     /** The Constant ZOOKEEPER_HOST. */
     public static final String ZOOKEEPER_HOST = "zookeeper.host";
+
+    /** Write mode, direct (default) or buffered. */
+    public static final String WRITE_MODE = "hbase.write.mode";
+
+    /** The Constant WRITE_MODE_DIRECT. */
+    public static final String WRITE_MODE_DIRECT = "direct";
+
+    /** The Constant WRITE_MODE_BUFFERED. */
+    public static final String WRITE_MODE_BUFFERED = "buffered";
+
+    /** Write buffer size in bytes of buffered write mode. */
+    public static final String WRITE_BUFFER_SIZE = "hbase.write.buffer.size";
+
+    /** Flush interval in milliseconds of buffered write mode. */
+    public static final String WRITE_FLUSH_INTERVAL = "hbase.write.flush.interval";
+
+    /** The Constant DEFAULT_WRITE_FLUSH_INTERVAL. */
+    public static final long DEFAULT_WRITE_FLUSH_INTERVAL = 1000;
+
+    /** Rows fetched per scanner call, property or query hint. */
+    public static final String SCAN_CACHING = "hbase.scan.caching";
+
+    /** Maximum bytes fetched per scanner call, property or query hint. */
+    public static final String SCAN_MAX_RESULT_SIZE = "hbase.scan.max.result.size";
+
+    /** Whether scanned blocks are cached by region servers, property or query hint. */
+    public static final String SCAN_CACHE_BLOCKS = "hbase.scan.cache.blocks";
+
+    /** Number of regions scanned concurrently, property or query hint. */
+    public static final String SCAN_PARALLELISM = "hbase.scan.parallelism";
 }
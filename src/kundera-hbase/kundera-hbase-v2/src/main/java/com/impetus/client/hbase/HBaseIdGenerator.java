@@ -25,6 +25,8 @@ import com.impetus.client.hbase.admin.HBaseDataHandler;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.client.ClientBase;
+import com.impetus.kundera.generator.PooledIdAllocator;
+import com.impetus.kundera.generator.PooledIdAllocator.BlockSource;
 import com.impetus.kundera.generator.TableGenerator;
 import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 
@@ -47,26 +49,56 @@ public class HBaseIdGenerator implements TableGenerator
      * com.impetus.kundera.client.ClientBase, java.lang.Object)
      */
     @Override
-    public Object generate(TableGeneratorDiscriptor discriptor, ClientBase client, String dataType)
+    public Object generate(final TableGeneratorDiscriptor discriptor, final ClientBase client, String dataType)
     {
-        String tableName = HBaseUtils.getHTableName(discriptor.getSchema(), discriptor.getPkColumnValue());
-        try
+        return client.getIdAllocator(discriptor).next(new BlockSource()
         {
-            Table hTable = ((HBaseDataHandler) ((HBaseClient) client).handler).gethTable(tableName);
-            Long latestCount = hTable.incrementColumnValue(HBaseUtils.AUTO_ID_ROW.getBytes(), discriptor
-                    .getPkColumnValue().getBytes(), discriptor.getValueColumnName().getBytes(), 1);
-            if (latestCount == 1)
-            {
-                return (long) discriptor.getInitialValue();
-            }
-            else if (discriptor.getAllocationSize() == 1)
-            {
-                return latestCount + discriptor.getInitialValue();
-            }
-            else
+            @Override
+            public long reserve()
             {
-                return (latestCount - 1) * discriptor.getAllocationSize() + discriptor.getInitialValue();
+                return getBlockStart(incrementCounter(discriptor, (HBaseClient) client), discriptor);
             }
+        });
+    }
+
+    /**
+     * Returns first id of a block. Before pooling, an allocationSize of 1
+     * issued counter value + initialValue past the first id, which is kept so
+     * that ids issued from an existing counter are never handed out again.
+     * 
+     * @param blockNumber
+     *            block number, starting from 1.
+     * @param discriptor
+     *            the discriptor
+     * @return first id of block.
+     */
+    static long getBlockStart(long blockNumber, TableGeneratorDiscriptor discriptor)
+    {
+        if (discriptor.getAllocationSize() == 1 && blockNumber > 1)
+        {
+            return blockNumber + discriptor.getInitialValue();
+        }
+        return PooledIdAllocator.getBlockStart(blockNumber, discriptor.getInitialValue(),
+                discriptor.getAllocationSize());
+    }
+
+    /**
+     * Increments counter of reserved blocks.
+     * 
+     * @param discriptor
+     *            the discriptor
+     * @param client
+     *            the client
+     * @return number of blocks reserved, including this one.
+     */
+    private long incrementCounter(TableGeneratorDiscriptor discriptor, HBaseClient client)
+    {
+        String tableName = HBaseUtils.getHTableName(discriptor.getSchema(), discriptor.getPkColumnValue());
+        try
+        {
+            Table hTable = ((HBaseDataHandler) client.handler).gethTable(tableName);
+            return hTable.incrementColumnValue(HBaseUtils.AUTO_ID_ROW.getBytes(), discriptor.getPkColumnValue()
+                    .getBytes(), discriptor.getValueColumnName().getBytes(), 1);
         }
         catch (IOException ioex)
         {
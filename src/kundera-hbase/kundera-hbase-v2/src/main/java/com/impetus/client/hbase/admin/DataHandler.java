@@ -18,6 +18,7 @@ package com.impetus.client.hbase.admin;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Row;
@@ -155,13 +156,15 @@ public interface DataHandler
      *            the row id
      * @param relations
      *            the relations
+     * @param attributeNames
+     *            names of attributes to be written, null for all attributes
      * @param showQuery
      *            the show query
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
     void writeData(String schemaName, EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations,
-            boolean showQuery) throws IOException;
+            Set<String> attributeNames, boolean showQuery) throws IOException;
 
     /**
      * Write join table data.
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +35,7 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
+import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Row;
 import org.apache.hadoop.hbase.client.Table;
@@ -48,7 +50,9 @@ import org.slf4j.LoggerFactory;
 import com.impetus.client.hbase.HBaseDataWrapper;
 import com.impetus.client.hbase.Reader;
 import com.impetus.client.hbase.Writer;
+import com.impetus.client.hbase.service.HBaseBufferedWriter;
 import com.impetus.client.hbase.service.HBaseReader;
+import com.impetus.client.hbase.service.HBaseScanOptions;
 import com.impetus.client.hbase.service.HBaseWriter;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.Constants;
@@ -82,7 +86,7 @@ public class HBaseDataHandler implements DataHandler
     private Connection connection;
 
     /** The hbase reader. */
-    private Reader hbaseReader = new HBaseReader();
+    private Reader hbaseReader;
 
     /** The hbase writer. */
     private Writer hbaseWriter = new HBaseWriter();
@@ -96,6 +100,12 @@ public class HBaseDataHandler implements DataHandler
     /** The kundera metadata. */
     private KunderaMetadata kunderaMetadata;
 
+    /** The buffered writer, null in direct write mode. */
+    private HBaseBufferedWriter bufferedWriter;
+
+    /** The scan options. */
+    private HBaseScanOptions scanOptions = new HBaseScanOptions();
+
     /**
      * Instantiates a new hBase data handler.
      * 
@@ -108,6 +118,25 @@ public class HBaseDataHandler implements DataHandler
     {
         this.kunderaMetadata = kunderaMetadata;
         this.connection = connection;
+        this.hbaseReader = new HBaseReader(connection);
+    }
+
+    /**
+     * Instantiates a new hBase data handler, writing batches through given
+     * buffered writer.
+     * 
+     * @param kunderaMetadata
+     *            the kundera metadata
+     * @param connection
+     *            the connection
+     * @param bufferedWriter
+     *            the buffered writer, null in direct write mode
+     */
+    public HBaseDataHandler(final KunderaMetadata kunderaMetadata, final Connection connection,
+            final HBaseBufferedWriter bufferedWriter)
+    {
+        this(kunderaMetadata, connection);
+        this.bufferedWriter = bufferedWriter;
     }
 
     /*
@@ -163,6 +192,37 @@ public class HBaseDataHandler implements DataHandler
     public List readData(String tableName, EntityMetadata m, final Object rowKey, byte[] startRow, byte[] endRow,
             List<Map<String, Object>> columnsToOutput, FilterList filterList) throws IOException
     {
+        return readData(tableName, m, rowKey, startRow, endRow, columnsToOutput, filterList, scanOptions);
+    }
+
+    /**
+     * Read data, scanning with given scan options.
+     * 
+     * @param tableName
+     *            the table name
+     * @param m
+     *            the m
+     * @param rowKey
+     *            the row key
+     * @param startRow
+     *            the start row
+     * @param endRow
+     *            the end row
+     * @param columnsToOutput
+     *            the columns to output
+     * @param filterList
+     *            the filter list
+     * @param scanOptions
+     *            the scan options
+     * @return the list
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public List readData(String tableName, EntityMetadata m, final Object rowKey, byte[] startRow, byte[] endRow,
+            List<Map<String, Object>> columnsToOutput, FilterList filterList, HBaseScanOptions scanOptions)
+            throws IOException
+    {
+        ((HBaseReader) hbaseReader).setScanOptions(scanOptions);
         Table hTable = gethTable(tableName);
         filterList = getExtPropertyFilters(m, filterList);
         boolean isFindKeyOnly = HBaseUtils.isFindKeyOnly(m, columnsToOutput);
@@ -227,10 +287,14 @@ public class HBaseDataHandler implements DataHandler
      */
     @Override
     public void writeData(String tableName, EntityMetadata m, Object entity, Object rowId,
-            List<RelationHolder> relations, boolean showQuery) throws IOException
+            List<RelationHolder> relations, Set<String> attributeNames, boolean showQuery) throws IOException
     {
-        HBaseRow hbaseRow = createHbaseRow(m, entity, rowId, relations);
-        writeHbaseRowInATable(tableName, hbaseRow);
+        HBaseRow hbaseRow = createHbaseRow(m, entity, rowId, relations, attributeNames);
+        // nothing to write if none of changed attributes is stored in this row.
+        if (attributeNames == null || !hbaseRow.getRowCells().isEmpty())
+        {
+            writeHbaseRowInATable(tableName, hbaseRow);
+        }
     }
 
     /**
@@ -250,11 +314,46 @@ public class HBaseDataHandler implements DataHandler
      */
     public HBaseRow createHbaseRow(EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations)
             throws IOException
+    {
+        return createHbaseRow(m, entity, rowId, relations, null);
+    }
+
+    /**
+     * Creates the hbase row holding cells of given attributes only.
+     * 
+     * @param m
+     *            the m
+     * @param entity
+     *            the entity
+     * @param rowId
+     *            the row id
+     * @param relations
+     *            the relations
+     * @param attributeNames
+     *            names of changed attributes, null for all attributes
+     * @return the hBase row
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public HBaseRow createHbaseRow(EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations,
+            Set<String> attributeNames) throws IOException
     {
         MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
         EntityType entityType = metaModel.entity(m.getEntityClazz());
         Set<Attribute> attributes = entityType.getAttributes();
+        if (attributeNames != null)
+        {
+            Set<Attribute> changedAttributes = new HashSet<Attribute>();
+            for (Attribute attribute : attributes)
+            {
+                if (attributeNames.contains(attribute.getName()))
+                {
+                    changedAttributes.add(attribute);
+                }
+            }
+            attributes = changedAttributes;
+        }
         if (metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType()))
         {
             rowId = KunderaCoreUtils.prepareCompositeKey(m, rowId);
@@ -501,6 +600,10 @@ public class HBaseDataHandler implements DataHandler
     @Override
     public void shutdown()
     {
+        if (bufferedWriter != null)
+        {
+            bufferedWriter.close();
+        }
     }
 
     /**
@@ -1060,12 +1163,35 @@ public class HBaseDataHandler implements DataHandler
      */
     public HBaseDataHandler getHandle()
     {
-        HBaseDataHandler handler = new HBaseDataHandler(this.kunderaMetadata, this.connection);
+        HBaseDataHandler handler = new HBaseDataHandler(this.kunderaMetadata, this.connection,
+                this.bufferedWriter);
         handler.filter = this.filter;
         handler.filters = this.filters;
+        handler.scanOptions = this.scanOptions;
         return handler;
     }
 
+    /**
+     * Sets the scan options.
+     * 
+     * @param scanOptions
+     *            the new scan options
+     */
+    public void setScanOptions(HBaseScanOptions scanOptions)
+    {
+        this.scanOptions = scanOptions;
+    }
+
+    /**
+     * Gets the scan options.
+     * 
+     * @return the scan options
+     */
+    public HBaseScanOptions getScanOptions()
+    {
+        return scanOptions;
+    }
+
     /**
      * Gets the filter.
      * 
@@ -1115,6 +1241,16 @@ public class HBaseDataHandler implements DataHandler
             List<Row> actions = batchData.get(tableName);
             try
             {
+                if (bufferedWriter != null)
+                {
+                    List<Mutation> mutations = new ArrayList<Mutation>(actions.size());
+                    for (Row action : actions)
+                    {
+                        mutations.add((Mutation) action);
+                    }
+                    bufferedWriter.mutate(tableName, mutations);
+                    continue;
+                }
                 Table hTable = gethTable(tableName);
                 hTable.batch(actions, new Object[actions.size()]);
             }
@@ -1127,4 +1263,28 @@ public class HBaseDataHandler implements DataHandler
         }
 
     }
+
+    /**
+     * Checks if batches are written through buffered writer.
+     * 
+     * @return true, if buffered
+     */
+    public boolean isBuffered()
+    {
+        return bufferedWriter != null;
+    }
+
+    /**
+     * Sends mutations buffered so far.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void flush() throws IOException
+    {
+        if (bufferedWriter != null)
+        {
+            bufferedWriter.flush();
+        }
+    }
 }
\ No newline at end of file
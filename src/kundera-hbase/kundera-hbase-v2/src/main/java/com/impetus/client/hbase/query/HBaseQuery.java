@@ -50,6 +50,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.HBaseClient;
 import com.impetus.client.hbase.HBaseEntityReader;
+import com.impetus.client.hbase.service.HBaseScanOptions;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
@@ -168,7 +169,7 @@ public class HBaseQuery extends QueryImpl
         if (!translator.isWhereOrAggregationQuery() || !useLuceneOrES)
         {
             return ((HBaseClient) client).findData(m, null, translator.getStartRow(), translator.getEndRow(),
-                    columnsToOutput, filters);
+                    columnsToOutput, filters, getScanOptions((HBaseClient) client));
         }
         else
         {
@@ -205,7 +206,20 @@ public class HBaseQuery extends QueryImpl
         }
         List<Map<String, Object>> columns = translator.getColumnsToOutput(m, getKunderaQuery(), useLuceneOrES);
         return new ResultIterator((HBaseClient) client, m, persistenceDelegeator,
-                getFetchSize() != null ? getFetchSize() : this.maxResult, translator, columns);
+                getFetchSize() != null ? getFetchSize() : this.maxResult, translator, columns,
+                getScanOptions((HBaseClient) client));
+    }
+
+    /**
+     * Gets scan options of client, overridden by scan hints set on query.
+     * 
+     * @param client
+     *            the client
+     * @return the scan options
+     */
+    private HBaseScanOptions getScanOptions(HBaseClient client)
+    {
+        return client.getScanOptions().with(getHints());
     }
 
     /*
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.HBaseClient;
 import com.impetus.client.hbase.admin.HBaseDataHandler;
+import com.impetus.client.hbase.service.HBaseScanOptions;
 import com.impetus.client.hbase.query.HBaseQuery.QueryTranslator;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.KunderaException;
@@ -93,15 +94,18 @@ class ResultIterator<E> implements IResultIterator<E>
      *            the translator
      * @param columns
      *            the columns
+     * @param scanOptions
+     *            the scan options
      */
     public ResultIterator(HBaseClient client, EntityMetadata m, PersistenceDelegator pd, int fetchSize,
-            QueryTranslator translator, List<Map<String, Object>> columns)
+            QueryTranslator translator, List<Map<String, Object>> columns, HBaseScanOptions scanOptions)
     {
         this.entityMetadata = m;
         this.client = client;
         this.persistenceDelegator = pd;
         this.handler = client.getHandle();
         this.handler.setFetchSize(fetchSize);
+        this.handler.setScanOptions(scanOptions);
         this.fetchSize = fetchSize;
         this.translator = translator;
         this.columns = columns;
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.PersistenceException;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HBaseBufferedWriter writes mutations of a client through one
+ * {@link BufferedMutator} per table, sending them to region servers in bulk
+ * once write buffer is full, flush interval elapses or {@link #flush()} is
+ * invoked.
+ * 
+ * Each client has a writer of its own, so mutations failing in background
+ * are logged and surfaced to the client that wrote them, by its next call to
+ * {@link #mutate(String, List)} or {@link #flush()}.
+ */
+public class HBaseBufferedWriter implements BufferedMutator.ExceptionListener
+{
+    /** the log used by this class. */
+    private static Logger logger = LoggerFactory.getLogger(HBaseBufferedWriter.class);
+
+    /** The connection. */
+    private final Connection connection;
+
+    /** Write buffer size in bytes, 0 for hbase default. */
+    private final long writeBufferSize;
+
+    /** Mutators by table name. */
+    private final ConcurrentMap<String, BufferedMutator> mutators = new ConcurrentHashMap<String, BufferedMutator>();
+
+    /** Failure of mutations of client, not yet surfaced to it. */
+    private final AtomicReference<RetriesExhaustedWithDetailsException> failure =
+            new AtomicReference<RetriesExhaustedWithDetailsException>();
+
+    /** Periodic flush of mutators, null if there is none. */
+    private ScheduledFuture<?> periodicFlush;
+
+    /**
+     * Instantiates a new hbase buffered writer.
+     * 
+     * @param connection
+     *            the connection
+     * @param writeBufferSize
+     *            write buffer size in bytes, 0 for hbase default
+     * @param scheduler
+     *            executor flushing mutators periodically, null to flush on
+     *            full buffer or demand only
+     * @param flushInterval
+     *            flush interval in milliseconds, 0 to flush on full buffer
+     *            or demand only
+     */
+    public HBaseBufferedWriter(Connection connection, long writeBufferSize, ScheduledExecutorService scheduler,
+            long flushInterval)
+    {
+        this.connection = connection;
+        this.writeBufferSize = writeBufferSize;
+        if (scheduler != null && flushInterval > 0)
+        {
+            periodicFlush = scheduler.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        flushMutators();
+                    }
+                    catch (IOException ioex)
+                    {
+                        logger.error("Error while flushing buffered mutations, Caused by: .", ioex);
+                    }
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Buffers mutations of given table.
+     * 
+     * @param tableName
+     *            the table name
+     * @param mutations
+     *            the mutations
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void mutate(String tableName, List<? extends Mutation> mutations) throws IOException
+    {
+        onFailure();
+        getMutator(tableName).mutate(mutations);
+    }
+
+    /**
+     * Sends buffered mutations of all tables.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void flush() throws IOException
+    {
+        flushMutators();
+        onFailure();
+    }
+
+    /**
+     * Flushes and closes all mutators, failed mutations being logged only.
+     */
+    public void close()
+    {
+        if (periodicFlush != null)
+        {
+            periodicFlush.cancel(false);
+        }
+        for (BufferedMutator mutator : mutators.values())
+        {
+            try
+            {
+                mutator.close();
+            }
+            catch (IOException ioex)
+            {
+                logger.error("Error while closing mutator of table {}, Caused by: .", mutator.getName(), ioex);
+            }
+        }
+        mutators.clear();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.apache.hadoop.hbase.client.BufferedMutator.ExceptionListener#onException
+     * (org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException,
+     * org.apache.hadoop.hbase.client.BufferedMutator)
+     */
+    @Override
+    public void onException(RetriesExhaustedWithDetailsException exception, BufferedMutator mutator)
+    {
+        for (int i = 0; i < exception.getNumExceptions(); i++)
+        {
+            logger.error("Mutation of row {} in table {} failed on {}, Caused by: .", new Object[] {
+                    exception.getRow(i), mutator.getName(), exception.getHostnamePort(i), exception.getCause(i) });
+        }
+        failure.compareAndSet(null, exception);
+    }
+
+    /**
+     * Throws failure of mutations sent in background, if any.
+     */
+    private void onFailure()
+    {
+        RetriesExhaustedWithDetailsException exception = failure.getAndSet(null);
+        if (exception != null)
+        {
+            throw new PersistenceException(exception.getNumExceptions() + " buffered mutations failed. Caused by: ",
+                    exception);
+        }
+    }
+
+    /**
+     * Flushes all mutators.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void flushMutators() throws IOException
+    {
+        for (BufferedMutator mutator : mutators.values())
+        {
+            mutator.flush();
+        }
+    }
+
+    /**
+     * Returns mutator of given table, creating it if needed.
+     * 
+     * @param tableName
+     *            the table name
+     * @return the mutator
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private BufferedMutator getMutator(String tableName) throws IOException
+    {
+        BufferedMutator mutator = mutators.get(tableName);
+        if (mutator == null)
+        {
+            synchronized (mutators)
+            {
+                mutator = mutators.get(tableName);
+                if (mutator == null)
+                {
+                    BufferedMutatorParams params = new BufferedMutatorParams(TableName.valueOf(tableName))
+                            .listener(this);
+                    if (writeBufferSize > 0)
+                    {
+                        params.writeBufferSize(writeBufferSize);
+                    }
+                    mutator = connection.getBufferedMutator(params);
+                    mutators.put(tableName, mutator);
+                }
+            }
+        }
+        return mutator;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -58,6 +59,42 @@ public class HBaseReader implements Reader
     /** The table name. */
     private String tableName = null;
 
+    /** The connection, used by parallel scans. */
+    private final Connection connection;
+
+    /** The scan options. */
+    private HBaseScanOptions scanOptions = new HBaseScanOptions();
+
+    /**
+     * Instantiates a new h base reader.
+     */
+    public HBaseReader()
+    {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new h base reader, which can scan regions in parallel.
+     * 
+     * @param connection
+     *            the connection
+     */
+    public HBaseReader(Connection connection)
+    {
+        this.connection = connection;
+    }
+
+    /**
+     * Sets the scan options.
+     * 
+     * @param scanOptions
+     *            the new scan options
+     */
+    public void setScanOptions(HBaseScanOptions scanOptions)
+    {
+        this.scanOptions = scanOptions;
+    }
+
     /**
      * Sets the table name.
      * 
@@ -107,7 +144,16 @@ public class HBaseReader implements Reader
                 scan.setStopRow(endRow);
             }
             setScanCriteria(scan, columnFamily, outputColumns, filter);
-            scanner = hTable.getScanner(scan);
+            scanOptions.apply(scan);
+            if (connection != null && scanOptions.getParallelism() > 1)
+            {
+                scanner = new ParallelResultScanner(connection, hTable.getName(), scan,
+                        scanOptions.getParallelism());
+            }
+            else
+            {
+                scanner = hTable.getScanner(scan);
+            }
             resultsIter = scanner.iterator();
         }
         return scanResults(tableName, results);
@@ -157,6 +203,7 @@ public class HBaseReader implements Reader
                 results.add(data);
             }
 
+            scanner.close();
             scanner = null;
             resultsIter = null;
         }
@@ -305,6 +352,10 @@ public class HBaseReader implements Reader
      */
     public void reset()
     {
+        if (scanner != null)
+        {
+            scanner.close();
+        }
         scanner = null;
         fetchSize = null;
         resultsIter = null;
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.util.Map;
+
+import org.apache.hadoop.hbase.client.Scan;
+
+import com.impetus.client.hbase.HBaseConstants;
+
+/**
+ * HBaseScanOptions holds scanner caching, max result size, block caching and
+ * parallelism of scans. Persistence unit properties set defaults, query hints
+ * of same name override them per query. Unset options are left to hbase.
+ */
+public final class HBaseScanOptions
+{
+    /** Names of scan options, as properties or query hints. */
+    public static final String[] NAMES = { HBaseConstants.SCAN_CACHING, HBaseConstants.SCAN_MAX_RESULT_SIZE,
+            HBaseConstants.SCAN_CACHE_BLOCKS, HBaseConstants.SCAN_PARALLELISM };
+
+    /** Rows fetched per scanner call. */
+    private Integer caching;
+
+    /** Maximum bytes fetched per scanner call. */
+    private Long maxResultSize;
+
+    /** Whether scanned blocks are cached. */
+    private Boolean cacheBlocks;
+
+    /** Number of regions scanned concurrently. */
+    private int parallelism = 1;
+
+    /**
+     * Returns copy of these options, overridden by given values, keyed by
+     * option name.
+     * 
+     * @param values
+     *            properties or query hints
+     * @return scan options
+     */
+    public HBaseScanOptions with(Map<String, ?> values)
+    {
+        HBaseScanOptions options = new HBaseScanOptions();
+        options.caching = caching;
+        options.maxResultSize = maxResultSize;
+        options.cacheBlocks = cacheBlocks;
+        options.parallelism = parallelism;
+        if (values != null)
+        {
+            Object value = values.get(HBaseConstants.SCAN_CACHING);
+            if (value != null)
+            {
+                options.caching = Integer.valueOf(value.toString().trim());
+            }
+            value = values.get(HBaseConstants.SCAN_MAX_RESULT_SIZE);
+            if (value != null)
+            {
+                options.maxResultSize = Long.valueOf(value.toString().trim());
+            }
+            value = values.get(HBaseConstants.SCAN_CACHE_BLOCKS);
+            if (value != null)
+            {
+                options.cacheBlocks = Boolean.valueOf(value.toString().trim());
+            }
+            value = values.get(HBaseConstants.SCAN_PARALLELISM);
+            if (value != null)
+            {
+                options.parallelism = Math.max(1, Integer.parseInt(value.toString().trim()));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Applies these options to given scan.
+     * 
+     * @param scan
+     *            the scan
+     */
+    public void apply(Scan scan)
+    {
+        if (caching != null)
+        {
+            scan.setCaching(caching);
+        }
+        if (maxResultSize != null)
+        {
+            scan.setMaxResultSize(maxResultSize);
+        }
+        if (cacheBlocks != null)
+        {
+            scan.setCacheBlocks(cacheBlocks);
+        }
+    }
+
+    /**
+     * Gets the parallelism.
+     * 
+     * @return number of regions scanned concurrently
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+}
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.PersistenceException;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ParallelResultScanner splits a scan by region boundaries and scans the
+ * regions concurrently. Every region has its own bounded queue which is
+ * drained in region order, so rows are returned sorted by row key as with a
+ * plain scanner, and at most a few queues of rows are held in memory.
+ */
+public class ParallelResultScanner implements ResultScanner
+{
+    /** The log. */
+    private static Logger logger = LoggerFactory.getLogger(ParallelResultScanner.class);
+
+    /** Marks end of region in a queue. */
+    private static final Result END = new Result();
+
+    /** Rows buffered per region, when scanner caching is not set. */
+    private static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    /** The queues, one per region in region order. */
+    private final List<BlockingQueue<Result>> queues = new ArrayList<BlockingQueue<Result>>();
+
+    /** The first failure of a region scan. */
+    private final AtomicReference<IOException> error = new AtomicReference<IOException>();
+
+    /** The executor. */
+    private final ExecutorService executor;
+
+    /** Index of queue being drained. */
+    private int current;
+
+    /**
+     * Instantiates a new parallel result scanner and starts region scans.
+     * 
+     * @param connection
+     *            the connection
+     * @param tableName
+     *            the table name
+     * @param scan
+     *            the scan
+     * @param parallelism
+     *            number of regions scanned concurrently
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public ParallelResultScanner(final Connection connection, final TableName tableName, final Scan scan,
+            final int parallelism) throws IOException
+    {
+        byte[][] startKeys;
+        RegionLocator locator = connection.getRegionLocator(tableName);
+        try
+        {
+            startKeys = locator.getStartKeys();
+        }
+        finally
+        {
+            locator.close();
+        }
+        executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, startKeys.length)),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "kundera-hbase-scan");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        int capacity = scan.getCaching() > 0 ? scan.getCaching() : DEFAULT_QUEUE_CAPACITY;
+        for (int i = 0; i < startKeys.length; i++)
+        {
+            byte[] regionStart = startKeys[i];
+            byte[] regionEnd = i + 1 < startKeys.length ? startKeys[i + 1] : new byte[0];
+            byte[] startRow = max(scan.getStartRow(), regionStart);
+            byte[] stopRow = min(scan.getStopRow(), regionEnd);
+            if (stopRow.length > 0 && Bytes.compareTo(startRow, stopRow) >= 0)
+            {
+                continue;
+            }
+            Scan regionScan = new Scan(scan);
+            regionScan.setStartRow(startRow);
+            regionScan.setStopRow(stopRow);
+            BlockingQueue<Result> queue = new LinkedBlockingQueue<Result>(capacity);
+            queues.add(queue);
+            // tasks start in region order, so the region drained next always
+            // has a thread and later regions can only wait on their own queue.
+            executor.execute(new RegionScan(connection, tableName, regionScan, queue));
+        }
+        executor.shutdown();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.apache.hadoop.hbase.client.ResultScanner#next()
+     */
+    @Override
+    public Result next() throws IOException
+    {
+        while (current < queues.size())
+        {
+            Result result;
+            try
+            {
+                result = queues.get(current).take();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for region scan");
+            }
+            if (result != END)
+            {
+                return result;
+            }
+            if (error.get() != null)
+            {
+                throw error.get();
+            }
+            current++;
+        }
+        return null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.apache.hadoop.hbase.client.ResultScanner#next(int)
+     */
+    @Override
+    public Result[] next(int nbRows) throws IOException
+    {
+        List<Result> results = new ArrayList<Result>(nbRows);
+        for (int i = 0; i < nbRows; i++)
+        {
+            Result result = next();
+            if (result == null)
+            {
+                break;
+            }
+            results.add(result);
+        }
+        return results.toArray(new Result[results.size()]);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.apache.hadoop.hbase.client.ResultScanner#close()
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+        current = queues.size();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Iterable#iterator()
+     */
+    @Override
+    public Iterator<Result> iterator()
+    {
+        return new Iterator<Result>()
+        {
+            private Result next;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (next == null)
+                {
+                    try
+                    {
+                        next = ParallelResultScanner.this.next();
+                    }
+                    catch (IOException e)
+                    {
+                        throw new PersistenceException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Result next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                Result result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Greater of two start rows, empty being the lowest.
+     * 
+     * @param row
+     *            the row
+     * @param other
+     *            the other
+     * @return the byte[]
+     */
+    private static byte[] max(byte[] row, byte[] other)
+    {
+        return Bytes.compareTo(row, other) >= 0 ? row : other;
+    }
+
+    /**
+     * Lesser of two stop rows, empty being unbounded.
+     * 
+     * @param row
+     *            the row
+     * @param other
+     *            the other
+     * @return the byte[]
+     */
+    private static byte[] min(byte[] row, byte[] other)
+    {
+        if (row.length == 0)
+        {
+            return other;
+        }
+        if (other.length == 0)
+        {
+            return row;
+        }
+        return Bytes.compareTo(row, other) <= 0 ? row : other;
+    }
+
+    /**
+     * Scans one region into its queue.
+     */
+    private class RegionScan implements Runnable
+    {
+        /** The connection. */
+        private final Connection connection;
+
+        /** The table name. */
+        private final TableName tableName;
+
+        /** The scan. */
+        private final Scan scan;
+
+        /** The queue. */
+        private final BlockingQueue<Result> queue;
+
+        /**
+         * Instantiates a new region scan.
+         * 
+         * @param connection
+         *            the connection
+         * @param tableName
+         *            the table name
+         * @param scan
+         *            the scan
+         * @param queue
+         *            the queue
+         */
+        RegionScan(Connection connection, TableName tableName, Scan scan, BlockingQueue<Result> queue)
+        {
+            this.connection = connection;
+            this.tableName = tableName;
+            this.scan = scan;
+            this.queue = queue;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run()
+        {
+            try
+            {
+                Table table = connection.getTable(tableName);
+                try
+                {
+                    ResultScanner scanner = table.getScanner(scan);
+                    try
+                    {
+                        for (Result result : scanner)
+                        {
+                            queue.put(result);
+                        }
+                    }
+                    finally
+                    {
+                        scanner.close();
+                    }
+                }
+                finally
+                {
+                    table.close();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                // scanner closed, nobody drains the queue any more.
+                return;
+            }
+            catch (IOException | RuntimeException e)
+            {
+                logger.error("Error while scanning region of table {}, Caused by: .", tableName, e);
+                error.compareAndSet(null, e instanceof IOException ? (IOException) e : new IOException(e));
+            }
+            try
+            {
+                queue.put(END);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
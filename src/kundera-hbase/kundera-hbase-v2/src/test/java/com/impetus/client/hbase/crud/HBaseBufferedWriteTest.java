@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.crud;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.impetus.client.hbase.HBaseConstants;
+import com.impetus.client.hbase.service.HBaseBufferedWriter;
+import com.impetus.client.hbase.testingutil.HBaseTestingUtils;
+
+/**
+ * The Class HBaseBufferedWriteTest.
+ */
+public class HBaseBufferedWriteTest
+{
+
+    /** The Constant SCHEMA. */
+    private static final String SCHEMA = "HBaseNew";
+
+    /** The Constant HBASE_PU. */
+    private static final String HBASE_PU = "crudTest";
+
+    /** The emf. */
+    private static EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    /**
+     * Sets the up before class.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception
+    {
+        Map<String, String> propertyMap = new HashMap<String, String>();
+        propertyMap.put(HBaseConstants.WRITE_MODE, HBaseConstants.WRITE_MODE_BUFFERED);
+        // no periodic flush, mutations are sent on flush only.
+        propertyMap.put(HBaseConstants.WRITE_FLUSH_INTERVAL, "0");
+        emf = Persistence.createEntityManagerFactory(HBASE_PU, propertyMap);
+    }
+
+    /**
+     * Sets the up.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        em = emf.createEntityManager();
+    }
+
+    /**
+     * Test case for buffered writes.
+     */
+    @Test
+    public void onBufferedWrite()
+    {
+        List<PersonHBase> rows = prepareData(10);
+        for (PersonHBase entity : rows)
+        {
+            em.persist(entity);
+        }
+        em.flush();
+        em.clear();
+
+        for (PersonHBase entity : rows)
+        {
+            PersonHBase p = em.find(PersonHBase.class, entity.getPersonId());
+            Assert.assertNotNull(p);
+            Assert.assertEquals("vivek", p.getPersonName());
+            p.setPersonName("dev");
+            em.merge(p);
+        }
+        em.flush();
+        em.clear();
+
+        for (PersonHBase entity : rows)
+        {
+            PersonHBase p = em.find(PersonHBase.class, entity.getPersonId());
+            Assert.assertEquals("dev", p.getPersonName());
+            em.remove(p);
+        }
+        em.flush();
+        em.clear();
+
+        for (PersonHBase entity : rows)
+        {
+            Assert.assertNull(em.find(PersonHBase.class, entity.getPersonId()));
+        }
+    }
+
+    /**
+     * Test case for failure of buffered mutations, surfaced to writer of
+     * client that wrote them only.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void onBufferedWriteFailure() throws Exception
+    {
+        HBaseBufferedWriter failed = new HBaseBufferedWriter(null, 0, null, 0);
+        HBaseBufferedWriter other = new HBaseBufferedWriter(null, 0, null, 0);
+        failed.onException(new RetriesExhaustedWithDetailsException(new ArrayList<Throwable>(),
+                new ArrayList<Row>(), new ArrayList<String>()), null);
+
+        other.flush();
+        try
+        {
+            failed.flush();
+            Assert.fail();
+        }
+        catch (PersistenceException pex)
+        {
+            Assert.assertTrue(pex.getCause() instanceof RetriesExhaustedWithDetailsException);
+        }
+
+        // failure is surfaced once.
+        failed.flush();
+    }
+
+    /**
+     * Tear down.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+    }
+
+    /**
+     * Tear down after class.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception
+    {
+        emf.close();
+        emf = null;
+        HBaseTestingUtils.dropSchema(SCHEMA);
+    }
+
+    /**
+     * Prepare data.
+     * 
+     * @param noOfRecords
+     *            the no of records
+     * @return the list
+     */
+    private List<PersonHBase> prepareData(Integer noOfRecords)
+    {
+        List<PersonHBase> persons = new ArrayList<PersonHBase>();
+        for (int i = 1; i <= noOfRecords; i++)
+        {
+            PersonHBase o = new PersonHBase();
+            o.setPersonId(i + "");
+            o.setPersonName("vivek");
+            o.setAge(10);
+            persons.add(o);
+        }
+        return persons;
+    }
+
+}
@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.crud;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.impetus.client.hbase.HBaseConstants;
+import com.impetus.client.hbase.service.HBaseReader;
+import com.impetus.client.hbase.service.HBaseScanOptions;
+import com.impetus.client.hbase.testingutil.HBaseTestingUtils;
+
+/**
+ * The Class HBaseScanTest.
+ */
+public class HBaseScanTest
+{
+
+    /** The Constant SCHEMA. */
+    private static final String SCHEMA = "HBaseNew";
+
+    /** The Constant HBASE_PU. */
+    private static final String HBASE_PU = "crudTest";
+
+    /** The Constant TABLE. */
+    private static final TableName TABLE = TableName.valueOf("HBaseNew:PERSON_HBASE");
+
+    /**
+     * Keys table is split at, regions starting at 199 and 3 holding no rows
+     * of 10 to 29.
+     */
+    private static final String[] SPLIT_KEYS = { "15", "199", "20", "25", "3" };
+
+    /** Scan options set on persistence unit. */
+    private static final Map<String, String> SCAN_OPTIONS = new HashMap<String, String>();
+
+    /** The emf. */
+    private static EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    /**
+     * Sets the up before class.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception
+    {
+        SCAN_OPTIONS.put(HBaseConstants.SCAN_CACHING, "5");
+        SCAN_OPTIONS.put(HBaseConstants.SCAN_CACHE_BLOCKS, "false");
+        emf = Persistence.createEntityManagerFactory(HBASE_PU, SCAN_OPTIONS);
+        splitTable();
+    }
+
+    /**
+     * Recreates table split at {@link #SPLIT_KEYS}, for scans to span
+     * several regions.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static void splitTable() throws IOException
+    {
+        Connection connection = ConnectionFactory.createConnection();
+        try
+        {
+            Admin admin = connection.getAdmin();
+            HTableDescriptor descriptor = admin.getTableDescriptor(TABLE);
+            admin.disableTable(TABLE);
+            admin.deleteTable(TABLE);
+            byte[][] splitKeys = new byte[SPLIT_KEYS.length][];
+            for (int i = 0; i < SPLIT_KEYS.length; i++)
+            {
+                splitKeys[i] = Bytes.toBytes(SPLIT_KEYS[i]);
+            }
+            admin.createTable(descriptor, splitKeys);
+            admin.close();
+
+            RegionLocator locator = connection.getRegionLocator(TABLE);
+            Assert.assertEquals(SPLIT_KEYS.length + 1, locator.getStartKeys().length);
+            locator.close();
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+
+    /**
+     * Sets the up.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        em = emf.createEntityManager();
+        for (int i = 10; i < 30; i++)
+        {
+            PersonHBase p = new PersonHBase();
+            p.setPersonId(i + "");
+            p.setPersonName("vivek");
+            p.setAge(i);
+            em.persist(p);
+        }
+        em.clear();
+    }
+
+    /**
+     * Test case for scan with persistence unit scan options.
+     */
+    @Test
+    public void onScan()
+    {
+        Query query = em.createQuery("Select p from PersonHBase p");
+        assertRows(query.getResultList());
+    }
+
+    /**
+     * Test case for scan settings, set on persistence unit and overridden by
+     * query hints.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void onScanOptions() throws Exception
+    {
+        HBaseScanOptions options = new HBaseScanOptions().with(SCAN_OPTIONS);
+        Scan scan = scan(options);
+        Assert.assertEquals(5, scan.getCaching());
+        Assert.assertFalse(scan.getCacheBlocks());
+
+        Map<String, Object> hints = new HashMap<String, Object>();
+        hints.put(HBaseConstants.SCAN_CACHING, 2);
+        hints.put(HBaseConstants.SCAN_MAX_RESULT_SIZE, 1024);
+        scan = scan(options.with(hints));
+        Assert.assertEquals(2, scan.getCaching());
+        Assert.assertEquals(1024, scan.getMaxResultSize());
+        Assert.assertFalse(scan.getCacheBlocks());
+    }
+
+    /**
+     * Test case for parallel scan set through query hints, over regions the
+     * table is split into.
+     */
+    @Test
+    public void onParallelScan()
+    {
+        Query query = em.createQuery("Select p from PersonHBase p");
+        query.setHint(HBaseConstants.SCAN_PARALLELISM, 4);
+        query.setHint(HBaseConstants.SCAN_CACHING, 2);
+        assertRows(query.getResultList());
+
+        // range spanning an empty region.
+        query = em.createQuery("Select p from PersonHBase p where p.personId >= '17' and p.personId < '22'");
+        query.setHint(HBaseConstants.SCAN_PARALLELISM, 4);
+        List<PersonHBase> results = query.getResultList();
+        Assert.assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++)
+        {
+            Assert.assertEquals(17 + i + "", results.get(i).getPersonId());
+        }
+
+        com.impetus.kundera.query.Query queryObject = (com.impetus.kundera.query.Query) em
+                .createQuery("Select p from PersonHBase p");
+        queryObject.setHint(HBaseConstants.SCAN_PARALLELISM, 4);
+        queryObject.setFetchSize(15);
+        Iterator<PersonHBase> iterator = queryObject.iterate();
+        int counter = 0;
+        while (iterator.hasNext())
+        {
+            Assert.assertEquals(10 + counter++ + "", iterator.next().getPersonId());
+        }
+        Assert.assertEquals(15, counter);
+    }
+
+    /**
+     * Returns scan sent by reader to a table, with given options applied.
+     * 
+     * @param options
+     *            the scan options
+     * @return the scan
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private Scan scan(HBaseScanOptions options) throws IOException
+    {
+        final List<Scan> scans = new ArrayList<Scan>();
+        final ResultScanner scanner = proxy(ResultScanner.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("iterator"))
+                {
+                    return Collections.<Result> emptyList().iterator();
+                }
+                if (method.getName().equals("close"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        Table table = proxy(Table.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getName"))
+                {
+                    return TABLE;
+                }
+                if (method.getName().equals("getScanner") && args[0] instanceof Scan)
+                {
+                    scans.add((Scan) args[0]);
+                    return scanner;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        HBaseReader reader = new HBaseReader();
+        reader.setScanOptions(options);
+        reader.loadData(table, null, null, null, null, null, null);
+        Assert.assertEquals(1, scans.size());
+        return scans.get(0);
+    }
+
+    /**
+     * Creates proxy of given interface.
+     * 
+     * @param type
+     *            the interface
+     * @param handler
+     *            the handler
+     * @return the proxy
+     */
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    /**
+     * Asserts all rows are returned in row key order.
+     * 
+     * @param results
+     *            the results
+     */
+    private void assertRows(List<PersonHBase> results)
+    {
+        Assert.assertEquals(20, results.size());
+        for (int i = 0; i < results.size(); i++)
+        {
+            Assert.assertEquals(10 + i + "", results.get(i).getPersonId());
+            Assert.assertEquals(Integer.valueOf(10 + i), results.get(i).getAge());
+        }
+    }
+
+    /**
+     * Tear down.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        for (int i = 10; i < 30; i++)
+        {
+            PersonHBase p = em.find(PersonHBase.class, i + "");
+            if (p != null)
+            {
+                em.remove(p);
+            }
+        }
+        em.close();
+    }
+
+    /**
+     * Tear down after class.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception
+    {
+        emf.close();
+        emf = null;
+        HBaseTestingUtils.dropSchema(SCHEMA);
+    }
+}
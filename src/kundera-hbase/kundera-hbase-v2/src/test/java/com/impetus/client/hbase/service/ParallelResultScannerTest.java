@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Junit for merge of region scans of {@link ParallelResultScanner}, over a
+ * table split into regions, two of which are empty.
+ */
+public class ParallelResultScannerTest
+{
+    /** The Constant TABLE. */
+    private static final TableName TABLE = TableName.valueOf("HBaseNew:PERSON_HBASE");
+
+    /** Start keys of regions, regions starting at 199 and 3 are empty. */
+    private static final String[] START_KEYS = { "", "15", "199", "20", "25", "3" };
+
+    /** Scans sent to regions. */
+    private final List<Scan> regionScans = Collections.synchronizedList(new ArrayList<Scan>());
+
+    /** Start row of region failing to scan, null if none fails. */
+    private String failingRegion;
+
+    /** The rows, 10 to 29. */
+    private final List<String> rows = new ArrayList<String>();
+
+    /**
+     * Sets the up.
+     */
+    @Before
+    public void setUp()
+    {
+        for (int i = 10; i < 30; i++)
+        {
+            rows.add(i + "");
+        }
+    }
+
+    /**
+     * Rows of all regions are returned in row key order, with settings of
+     * scan applied to every region scan.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testScanAcrossRegions() throws Exception
+    {
+        Scan scan = new Scan();
+        scan.setCaching(2);
+        scan.setCacheBlocks(false);
+        ParallelResultScanner scanner = new ParallelResultScanner(connection(), TABLE, scan, 3);
+
+        Assert.assertEquals(rows, drain(scanner));
+        Assert.assertNull(scanner.next());
+        scanner.close();
+
+        Assert.assertEquals(START_KEYS.length, regionScans.size());
+        for (Scan regionScan : regionScans)
+        {
+            Assert.assertEquals(2, regionScan.getCaching());
+            Assert.assertFalse(regionScan.getCacheBlocks());
+        }
+    }
+
+    /**
+     * Only regions overlapping range of scan are scanned.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRangeScan() throws Exception
+    {
+        Scan scan = new Scan(Bytes.toBytes("17"), Bytes.toBytes("22"));
+        ParallelResultScanner scanner = new ParallelResultScanner(connection(), TABLE, scan, 4);
+
+        Assert.assertEquals(rows.subList(7, 12), drain(scanner));
+        scanner.close();
+        Assert.assertEquals(3, regionScans.size());
+    }
+
+    /**
+     * Failure of a region scan is thrown once rows of regions before it are
+     * returned.
+     * 
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRegionFailure() throws Exception
+    {
+        failingRegion = "20";
+        ParallelResultScanner scanner = new ParallelResultScanner(connection(), TABLE, new Scan(), 1);
+        for (String row : rows.subList(0, 10))
+        {
+            Assert.assertEquals(row, Bytes.toString(scanner.next().getRow()));
+        }
+        try
+        {
+            scanner.next();
+            Assert.fail();
+        }
+        catch (IOException ioex)
+        {
+            Assert.assertEquals("region 20 unavailable", ioex.getMessage());
+        }
+        scanner.close();
+    }
+
+    /**
+     * Returns row keys of all results of given scanner.
+     * 
+     * @param scanner
+     *            the scanner
+     * @return the row keys
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private List<String> drain(ResultScanner scanner) throws IOException
+    {
+        List<String> results = new ArrayList<String>();
+        for (Result result = scanner.next(); result != null; result = scanner.next())
+        {
+            results.add(Bytes.toString(result.getRow()));
+        }
+        return results;
+    }
+
+    /**
+     * Returns connection to a table of regions starting at
+     * {@link #START_KEYS}, holding {@link #rows}.
+     * 
+     * @return the connection
+     */
+    private Connection connection()
+    {
+        final RegionLocator locator = proxy(RegionLocator.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getStartKeys"))
+                {
+                    byte[][] startKeys = new byte[START_KEYS.length][];
+                    for (int i = 0; i < START_KEYS.length; i++)
+                    {
+                        startKeys[i] = Bytes.toBytes(START_KEYS[i]);
+                    }
+                    return startKeys;
+                }
+                return unsupported(method);
+            }
+        });
+        final Table table = proxy(Table.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws IOException
+            {
+                if (method.getName().equals("getScanner") && args[0] instanceof Scan)
+                {
+                    return scan((Scan) args[0]);
+                }
+                return unsupported(method);
+            }
+        });
+        return proxy(Connection.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getRegionLocator"))
+                {
+                    return locator;
+                }
+                if (method.getName().equals("getTable"))
+                {
+                    return table;
+                }
+                return unsupported(method);
+            }
+        });
+    }
+
+    /**
+     * Scans rows within range of given region scan.
+     * 
+     * @param scan
+     *            the region scan
+     * @return the scanner
+     * @throws IOException
+     *             if region is failing
+     */
+    private ResultScanner scan(Scan scan) throws IOException
+    {
+        regionScans.add(scan);
+        String startRow = Bytes.toString(scan.getStartRow());
+        String stopRow = Bytes.toString(scan.getStopRow());
+        if (startRow.equals(failingRegion))
+        {
+            throw new IOException("region " + failingRegion + " unavailable");
+        }
+
+        List<Result> results = new ArrayList<Result>();
+        for (String row : rows)
+        {
+            if (row.compareTo(startRow) >= 0 && (stopRow.isEmpty() || row.compareTo(stopRow) < 0))
+            {
+                byte[] key = Bytes.toBytes(row);
+                results.add(Result.create(new KeyValue[] { new KeyValue(key, Bytes.toBytes("PERSON_HBASE"),
+                        Bytes.toBytes("PERSON_NAME"), key) }));
+            }
+        }
+        final Iterator<Result> iterator = results.iterator();
+        return proxy(ResultScanner.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("iterator"))
+                {
+                    return iterator;
+                }
+                if (method.getName().equals("next") && args == null)
+                {
+                    return iterator.hasNext() ? iterator.next() : null;
+                }
+                if (method.getName().equals("close"))
+                {
+                    return null;
+                }
+                return unsupported(method);
+            }
+        });
+    }
+
+    /**
+     * Creates proxy of given interface.
+     * 
+     * @param type
+     *            the interface
+     * @param handler
+     *            the handler
+     * @return the proxy
+     */
+    private static <T> T proxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    /**
+     * Handles methods not used by scanner, closing being a no-op.
+     * 
+     * @param method
+     *            the method
+     * @return null for close
+     */
+    private static Object unsupported(Method method)
+    {
+        if (method.getName().equals("close"))
+        {
+            return null;
+        }
+        throw new UnsupportedOperationException(method.getName());
+    }
+}
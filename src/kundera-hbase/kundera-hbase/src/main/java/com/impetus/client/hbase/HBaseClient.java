@@ -532,7 +532,7 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         try
         {
             // Write data to HBase
-            handler.writeData(tableName, entityMetadata, entity, id, relations, showQuery);
+            handler.writeData(tableName, entityMetadata, entity, id, relations, dirtyAttributes, showQuery);
         }
         catch (IOException e)
         {
@@ -844,9 +844,11 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
                         List<HBaseDataWrapper> embeddableData = new ArrayList<HBaseDataHandler.HBaseDataWrapper>();
 
                         hTable = ((HBaseDataHandler) handler).gethTable(metadata.getSchema());
+                        Set<Attribute> attributes = ((HBaseDataHandler) handler).getAttributes(metadata, entityType,
+                                getDirtyAttributes(node, metadata));
                         ((HBaseDataHandler) handler).preparePersistentData(metadata.getSchema(),
-                                metadata.getTableName(), entity, rowKey, metaModel, entityType.getAttributes(),
-                                columnWrapper, embeddableData, showQuery);
+                                metadata.getTableName(), entity, rowKey, metaModel, attributes, columnWrapper,
+                                embeddableData, showQuery);
 
                         List<HBaseDataWrapper> dataSet = null;
                         if (data.containsKey(hTable))
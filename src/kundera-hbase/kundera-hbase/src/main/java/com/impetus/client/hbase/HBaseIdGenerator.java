@@ -24,6 +24,8 @@ import org.slf4j.LoggerFactory;
 import com.impetus.client.hbase.admin.HBaseDataHandler;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.client.ClientBase;
+import com.impetus.kundera.generator.PooledIdAllocator;
+import com.impetus.kundera.generator.PooledIdAllocator.BlockSource;
 import com.impetus.kundera.generator.TableGenerator;
 import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 
@@ -46,26 +48,55 @@ public class HBaseIdGenerator implements TableGenerator
      * com.impetus.kundera.client.ClientBase, java.lang.Object)
      */
     @Override
-    public Object generate(TableGeneratorDiscriptor discriptor, ClientBase client, String dataType)
+    public Object generate(final TableGeneratorDiscriptor discriptor, final ClientBase client, String dataType)
     {
-        try
+        return client.getIdAllocator(discriptor).next(new BlockSource()
         {
-            HTableInterface hTable = ((HBaseDataHandler) ((HBaseClient) client).handler).gethTable(discriptor
-                    .getSchema());
-            Long latestCount = hTable.incrementColumnValue(discriptor.getPkColumnValue().getBytes(), discriptor
-                    .getTable().getBytes(), discriptor.getValueColumnName().getBytes(), 1);
-            if (latestCount == 1)
-            {
-                return (long) discriptor.getInitialValue();
-            }
-            else if (discriptor.getAllocationSize() == 1)
-            {
-                return latestCount + discriptor.getInitialValue();
-            }
-            else
+            @Override
+            public long reserve()
             {
-                return (latestCount - 1) * discriptor.getAllocationSize() + discriptor.getInitialValue();
+                return getBlockStart(incrementCounter(discriptor, (HBaseClient) client), discriptor);
             }
+        });
+    }
+
+    /**
+     * Returns first id of a block. Before pooling, an allocationSize of 1
+     * issued counter value + initialValue past the first id, which is kept so
+     * that ids issued from an existing counter are never handed out again.
+     * 
+     * @param blockNumber
+     *            block number, starting from 1.
+     * @param discriptor
+     *            the discriptor
+     * @return first id of block.
+     */
+    static long getBlockStart(long blockNumber, TableGeneratorDiscriptor discriptor)
+    {
+        if (discriptor.getAllocationSize() == 1 && blockNumber > 1)
+        {
+            return blockNumber + discriptor.getInitialValue();
+        }
+        return PooledIdAllocator.getBlockStart(blockNumber, discriptor.getInitialValue(),
+                discriptor.getAllocationSize());
+    }
+
+    /**
+     * Increments counter of reserved blocks.
+     * 
+     * @param discriptor
+     *            the discriptor
+     * @param client
+     *            the client
+     * @return number of blocks reserved, including this one.
+     */
+    private long incrementCounter(TableGeneratorDiscriptor discriptor, HBaseClient client)
+    {
+        try
+        {
+            HTableInterface hTable = ((HBaseDataHandler) client.handler).gethTable(discriptor.getSchema());
+            return hTable.incrementColumnValue(discriptor.getPkColumnValue().getBytes(), discriptor.getTable()
+                    .getBytes(), discriptor.getValueColumnName().getBytes(), 1);
         }
         catch (IOException ioex)
         {
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -348,7 +349,7 @@ public class HBaseDataHandler implements DataHandler
      */
     @Override
     public void writeData(String tableName, EntityMetadata m, Object entity, Object rowId,
-            List<RelationHolder> relations, boolean showQuery) throws IOException
+            List<RelationHolder> relations, Set<String> attributeNames, boolean showQuery) throws IOException
     {
         HTableInterface hTable = gethTable(tableName);
 
@@ -357,7 +358,7 @@ public class HBaseDataHandler implements DataHandler
 
         EntityType entityType = metaModel.entity(m.getEntityClazz());
 
-        Set<Attribute> attributes = entityType.getAttributes();
+        Set<Attribute> attributes = getAttributes(m, entityType, attributeNames);
 
         if (metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType()))
         {
@@ -404,6 +405,36 @@ public class HBaseDataHandler implements DataHandler
         puthTable(hTable);
     }
 
+    /**
+     * Returns attributes to be written, id attribute is always included.
+     * 
+     * @param m
+     *            the entity metadata
+     * @param entityType
+     *            the entity type
+     * @param attributeNames
+     *            names of changed attributes, null for all attributes
+     * @return the attributes
+     */
+    public Set<Attribute> getAttributes(EntityMetadata m, EntityType entityType, Set<String> attributeNames)
+    {
+        Set<Attribute> attributes = entityType.getAttributes();
+        if (attributeNames == null)
+        {
+            return attributes;
+        }
+
+        Set<Attribute> changedAttributes = new HashSet<Attribute>();
+        for (Attribute attribute : attributes)
+        {
+            if (attribute.equals(m.getIdAttribute()) || attributeNames.contains(attribute.getName()))
+            {
+                changedAttributes.add(attribute);
+            }
+        }
+        return changedAttributes;
+    }
+
     private void writeColumnData(HTableInterface hTable, Object entity, Map<String, HBaseDataWrapper> columnWrappers)
             throws IOException
     {
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase;
+
+import java.lang.reflect.Field;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
+
+/**
+ * To test block starts of pooled table generator ids.
+ */
+public class HBaseIdGeneratorTest
+{
+
+    /**
+     * Test method for
+     * {@link com.impetus.client.hbase.HBaseIdGenerator#getBlockStart(long, TableGeneratorDiscriptor)}
+     * .
+     */
+    @Test
+    public void testGetBlockStart() throws Exception
+    {
+        TableGeneratorDiscriptor discriptor = new TableGeneratorDiscriptor("KunderaExamples", "test");
+
+        Assert.assertEquals(1, HBaseIdGenerator.getBlockStart(1, discriptor));
+        Assert.assertEquals(51, HBaseIdGenerator.getBlockStart(2, discriptor));
+        Assert.assertEquals(101, HBaseIdGenerator.getBlockStart(3, discriptor));
+
+        Field allocationSize = TableGeneratorDiscriptor.class.getDeclaredField("allocationSize");
+        allocationSize.setAccessible(true);
+        allocationSize.set(discriptor, 1);
+
+        // ids issued before pooling, from counter values 1, 2 and 3.
+        Assert.assertEquals(1, HBaseIdGenerator.getBlockStart(1, discriptor));
+        Assert.assertEquals(3, HBaseIdGenerator.getBlockStart(2, discriptor));
+        Assert.assertEquals(4, HBaseIdGenerator.getBlockStart(3, discriptor));
+    }
+}
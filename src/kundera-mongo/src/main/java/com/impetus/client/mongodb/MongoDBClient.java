@@ -58,6 +58,7 @@ import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.utils.KunderaCoreUtils;
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
 import com.mongodb.BulkWriteException;
 import com.mongodb.BulkWriteOperation;
 import com.mongodb.DB;
@@ -636,10 +637,9 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
                 entityMetadata.getPersistenceUnit());
         AbstractManagedType managedType = (AbstractManagedType) metaModel.entity(entityMetadata.getEntityClazz());
 
-        DBObject query = new BasicDBObject();
-
         if (managedType.hasLobAttribute())
         {
+            DBObject query = new BasicDBObject();
             GridFS gfs = new GridFS(mongoDb, entityMetadata.getTableName());
             String id = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
             query.put("metadata." + id, pKey);
@@ -648,20 +648,9 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
         else
         {
-            if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-            {
-                MongoDBUtils.populateCompoundKey(query, entityMetadata, metaModel, pKey);
-            }
-            else
-            {
-                query.put("_id", MongoDBUtils.populateValue(pKey, pKey.getClass()));
-            }
-            // For secondary tables.
-            List<String> secondaryTables = ((DefaultEntityAnnotationProcessor) managedType.getEntityAnnotation())
-                    .getSecondaryTablesName();
-            secondaryTables.add(entityMetadata.getTableName());
+            DBObject query = getDeleteQuery(entityMetadata, metaModel, pKey);
 
-            for (String collectionName : secondaryTables)
+            for (String collectionName : getCollectionNames(entityMetadata, managedType))
             {
                 KunderaCoreUtils.printQuery("Drop existing collection:" + query, showQuery);
                 DBCollection dbCollection = mongoDb.getCollection(collectionName);
@@ -672,6 +661,48 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         }
     }
 
+    /**
+     * Returns query matching document of given primary key.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param metaModel
+     *            the meta model
+     * @param pKey
+     *            the primary key
+     * @return the delete query
+     */
+    private DBObject getDeleteQuery(EntityMetadata entityMetadata, MetamodelImpl metaModel, Object pKey)
+    {
+        DBObject query = new BasicDBObject();
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            MongoDBUtils.populateCompoundKey(query, entityMetadata, metaModel, pKey);
+        }
+        else
+        {
+            query.put("_id", MongoDBUtils.populateValue(pKey, pKey.getClass()));
+        }
+        return query;
+    }
+
+    /**
+     * Returns collections holding an entity, secondary tables included.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param managedType
+     *            the managed type
+     * @return the collection names
+     */
+    private List<String> getCollectionNames(EntityMetadata entityMetadata, AbstractManagedType managedType)
+    {
+        List<String> collectionNames = ((DefaultEntityAnnotationProcessor) managedType.getEntityAnnotation())
+                .getSecondaryTablesName();
+        collectionNames.add(entityMetadata.getTableName());
+        return collectionNames;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -993,10 +1024,9 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
             if (node.isDirty())
             {
                 node.handlePreEvent();
-                // delete can not be executed in batch
                 if (node.isInState(RemovedState.class))
                 {
-                    delete(node.getData(), node.getEntityId());
+                    size += onDeleteBatch(bulkWriteOperationMap, node);
                 }
                 else
                 {
@@ -1005,32 +1035,34 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
                             node.getDataClass());
                     Map<String, DBObject> documents = handler.getDocumentFromEntity(metadata, node.getData(),
                             relationHolders, kunderaMetadata);
+                    Set<String> attributeNames = node.isUpdate() ? getDirtyAttributes(node, metadata) : null;
                     for (String tableName : documents.keySet())
                     {
-                        if (!bulkWriteOperationMap.containsKey(tableName))
+                        DBObject update = null;
+                        if (attributeNames != null)
+                        {
+                            update = getUpdateDocument(documents.get(tableName), tableName, metadata,
+                                    relationHolders, attributeNames);
+                        }
+                        else if (node.isUpdate())
                         {
-                            DBCollection collection = mongoDb.getCollection(tableName);
-                            BulkWriteOperation builder = null;
-                            if (isOrderedBulkOperation())
-                            {
-                                builder = collection.initializeOrderedBulkOperation();
-                            }
-                            else
-                            {
-                                builder = collection.initializeUnorderedBulkOperation();
-                            }
-                            bulkWriteOperationMap.put(tableName, builder);
+                            update = getUpdateDocument(documents.get(tableName), tableName, metadata);
                         }
 
-                        if (!node.isUpdate())
+                        if (node.isUpdate() && update == null)
                         {
-                            bulkWriteOperationMap.get(tableName).insert(documents.get(tableName));
+                            continue;
                         }
 
+                        BulkWriteOperation builder = getBulkWriteOperation(bulkWriteOperationMap, tableName);
+
+                        if (!node.isUpdate())
+                        {
+                            builder.insert(documents.get(tableName));
+                        }
                         else
                         {
-                            bulkWriteOperationMap.get(tableName).find(new BasicDBObject("_id", node.getEntityId()))
-                                    .upsert().replaceOne(documents.get(tableName));
+                            builder.find(new BasicDBObject("_id", node.getEntityId())).upsert().updateOne(update);
                         }
                         size++;
                     }
@@ -1043,6 +1075,70 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         return size;
     }
 
+    /**
+     * Adds removal of node's documents to bulk write operations, entities
+     * with lob attributes being deleted from grid fs right away.
+     * 
+     * @param bulkWriteOperationMap
+     *            the bulk write operation map
+     * @param node
+     *            the removed node
+     * @return number of operations added
+     */
+    private int onDeleteBatch(Map<String, BulkWriteOperation> bulkWriteOperationMap, Node node)
+    {
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, node.getDataClass());
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        AbstractManagedType managedType = (AbstractManagedType) metaModel.entity(entityMetadata.getEntityClazz());
+
+        if (managedType.hasLobAttribute())
+        {
+            delete(node.getData(), node.getEntityId());
+            return 0;
+        }
+
+        DBObject query = getDeleteQuery(entityMetadata, metaModel, node.getEntityId());
+        List<String> collectionNames = getCollectionNames(entityMetadata, managedType);
+        for (String collectionName : collectionNames)
+        {
+            KunderaCoreUtils.printQuery("Drop existing collection:" + query, showQuery);
+            getBulkWriteOperation(bulkWriteOperationMap, collectionName).find(query).remove();
+        }
+        getIndexManager().remove(entityMetadata, node.getData(), node.getEntityId());
+        return collectionNames.size();
+    }
+
+    /**
+     * Returns bulk write operation of given collection, initializing it as
+     * ordered or unordered one if needed.
+     * 
+     * @param bulkWriteOperationMap
+     *            the bulk write operation map
+     * @param collectionName
+     *            the collection name
+     * @return the bulk write operation
+     */
+    private BulkWriteOperation getBulkWriteOperation(Map<String, BulkWriteOperation> bulkWriteOperationMap,
+            String collectionName)
+    {
+        BulkWriteOperation builder = bulkWriteOperationMap.get(collectionName);
+        if (builder == null)
+        {
+            DBCollection collection = mongoDb.getCollection(collectionName);
+            if (isOrderedBulkOperation())
+            {
+                builder = collection.initializeOrderedBulkOperation();
+            }
+            else
+            {
+                builder = collection.initializeUnorderedBulkOperation();
+            }
+            bulkWriteOperationMap.put(collectionName, builder);
+        }
+        return builder;
+    }
+
     /**
      * On flush batch.
      * 
@@ -1053,17 +1149,22 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
     {
         if (!bulkWriteOperationMap.isEmpty())
         {
-            for (BulkWriteOperation builder : bulkWriteOperationMap.values())
+            for (Map.Entry<String, BulkWriteOperation> entry : bulkWriteOperationMap.entrySet())
             {
                 try
                 {
-                    builder.execute(getWriteConcern());
+                    entry.getValue().execute(getWriteConcern());
                 }
                 catch (BulkWriteException bwex)
                 {
+                    for (BulkWriteError error : bwex.getWriteErrors())
+                    {
+                        log.error("Batch operation {} on collection {} failed with code {}, Caused By: {}.",
+                                new Object[] { error.getIndex(), entry.getKey(), error.getCode(), error.getMessage() });
+                    }
                     log.error("Batch insertion is not performed due to error in write command. Caused By: ", bwex);
-                    throw new KunderaException(
-                            "Batch insertion is not performed due to error in write command. Caused By: ", bwex);
+                    throw new KunderaException(bwex.getWriteErrors().size() + " of batch operations on collection "
+                            + entry.getKey() + " are not performed due to error in write command. Caused By: ", bwex);
                 }
                 catch (MongoException mex)
                 {
@@ -1143,7 +1244,20 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
                 DBCollection dbCollection = mongoDb.getCollection(documentName);
                 KunderaCoreUtils.printQuery("Persist collection:" + documentName, showQuery);
 
-                dbCollection.save(documents.get(documentName));
+                if (dirtyAttributes != null)
+                {
+                    DBObject update = getUpdateDocument(documents.get(documentName), documentName, metadata,
+                            relationHolders, dirtyAttributes);
+                    if (update != null)
+                    {
+                        dbCollection.update(new BasicDBObject("_id", documents.get(documentName).get("_id")),
+                                update, true, false, getWriteConcern());
+                    }
+                }
+                else
+                {
+                    dbCollection.save(documents.get(documentName));
+                }
             }
         }
         else
@@ -1169,6 +1283,130 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
         return collections;
     }
 
+    /**
+     * Builds update document setting only given attributes of an already
+     * persisted document, attributes without value are unset.
+     * 
+     * @param document
+     *            document built out of entity
+     * @param documentName
+     *            collection name
+     * @param metadata
+     *            entity metadata
+     * @param relationHolders
+     *            relation holders
+     * @param attributeNames
+     *            names of changed attributes
+     * @return update document, null if nothing changed in this collection.
+     */
+    private DBObject getUpdateDocument(DBObject document, String documentName, EntityMetadata metadata,
+            List<RelationHolder> relationHolders, Set<String> attributeNames)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        BasicDBObject setClause = new BasicDBObject();
+        BasicDBObject unsetClause = new BasicDBObject();
+        for (String attributeName : attributeNames)
+        {
+            AbstractAttribute attribute = (AbstractAttribute) entityType.getAttribute(attributeName);
+            String columnName = attribute.getJPAColumnName();
+            String tableName = attribute.getTableName() != null ? attribute.getTableName() : metadata.getTableName();
+            if (document.containsField(columnName))
+            {
+                setClause.put(columnName, document.get(columnName));
+            }
+            else if (!attribute.isAssociation() && tableName.equals(documentName))
+            {
+                unsetClause.put(columnName, "");
+            }
+        }
+
+        if (relationHolders != null && documentName.equals(metadata.getTableName()))
+        {
+            for (RelationHolder rh : relationHolders)
+            {
+                setClause.put(rh.getRelationName(), document.get(rh.getRelationName()));
+            }
+        }
+
+        if (setClause.isEmpty() && unsetClause.isEmpty())
+        {
+            return null;
+        }
+
+        BasicDBObject update = new BasicDBObject();
+        if (!setClause.isEmpty())
+        {
+            update.put("$set", setClause);
+        }
+        if (!unsetClause.isEmpty())
+        {
+            update.put("$unset", unsetClause);
+        }
+        return update;
+    }
+
+    /**
+     * Builds update document setting all fields of an already persisted
+     * document, attributes without value are unset. Used when changed
+     * attributes are not tracked.
+     * 
+     * @param document
+     *            document built out of entity
+     * @param documentName
+     *            collection name
+     * @param metadata
+     *            entity metadata
+     * @return update document, null if there is nothing to write in this
+     *         collection.
+     */
+    private DBObject getUpdateDocument(DBObject document, String documentName, EntityMetadata metadata)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        BasicDBObject setClause = new BasicDBObject();
+        for (String field : document.keySet())
+        {
+            if (!field.equals("_id"))
+            {
+                setClause.put(field, document.get(field));
+            }
+        }
+
+        BasicDBObject unsetClause = new BasicDBObject();
+        for (Object object : entityType.getAttributes())
+        {
+            AbstractAttribute attribute = (AbstractAttribute) object;
+            String columnName = attribute.getJPAColumnName();
+            String tableName = attribute.getTableName() != null ? attribute.getTableName() : metadata.getTableName();
+            if (!attribute.isAssociation() && !attribute.equals(metadata.getIdAttribute())
+                    && tableName.equals(documentName) && !document.containsField(columnName))
+            {
+                unsetClause.put(columnName, "");
+            }
+        }
+
+        if (setClause.isEmpty() && unsetClause.isEmpty())
+        {
+            return null;
+        }
+
+        BasicDBObject update = new BasicDBObject();
+        if (!setClause.isEmpty())
+        {
+            update.put("$set", setClause);
+        }
+        if (!unsetClause.isEmpty())
+        {
+            update.put("$unset", unsetClause);
+        }
+        return update;
+    }
+
     /**
      * Check on batch limit.
      */
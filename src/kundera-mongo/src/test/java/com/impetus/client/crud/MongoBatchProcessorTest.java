@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.impetus.client.crud;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -33,10 +34,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.impetus.client.crud.entities.PersonBatchMongoEntity;
+import com.impetus.client.mongodb.MongoDBClient;
 import com.impetus.client.mongodb.MongoDBClientProperties;
 import com.impetus.client.utils.MongoUtils;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.persistence.api.Batcher;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
 import com.mongodb.WriteConcern;
 
 /**
@@ -194,6 +200,75 @@ public class MongoBatchProcessorTest
         }
     }
 
+    /**
+     * Test case for batch removal.
+     */
+    @Test
+    public void onBatchRemove()
+    {
+        rows = new ArrayList<PersonBatchMongoEntity>();
+        List<PersonBatchMongoEntity> persons = prepareData(5);
+        for (PersonBatchMongoEntity entity : persons)
+        {
+            em.persist(entity);
+        }
+        em.clear();
+
+        // removals are sent in one bulk operation, on reaching batch size.
+        for (PersonBatchMongoEntity entity : persons)
+        {
+            em.remove(em.find(PersonBatchMongoEntity.class, entity.getPersonId()));
+        }
+        em.clear();
+
+        for (PersonBatchMongoEntity entity : persons)
+        {
+            Assert.assertNull(em.find(PersonBatchMongoEntity.class, entity.getPersonId()));
+        }
+    }
+
+    /**
+     * Test case for batch update without change tracking, sent as $set and
+     * $unset of mapped fields rather than replacing documents.
+     */
+    @Test
+    public void onBatchUpdate() throws Exception
+    {
+        rows = prepareData(5);
+        for (PersonBatchMongoEntity entity : rows)
+        {
+            em.persist(entity);
+        }
+        em.clear();
+
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        Field mongoDb = MongoDBClient.class.getDeclaredField("mongoDb");
+        mongoDb.setAccessible(true);
+        DBCollection collection = ((DB) mongoDb.get(clients.get(MONGO_PU))).getCollection("PERSON_BATCH");
+        collection.update(new BasicDBObject(), new BasicDBObject("$set", new BasicDBObject("EXTRA", "kundera")),
+                false, true);
+
+        for (PersonBatchMongoEntity entity : rows)
+        {
+            PersonBatchMongoEntity found = em.find(PersonBatchMongoEntity.class, entity.getPersonId());
+            found.setPersonName(null);
+            found.setAge(30);
+            em.merge(found);
+        }
+        em.clear();
+
+        for (PersonBatchMongoEntity entity : rows)
+        {
+            PersonBatchMongoEntity found = em.find(PersonBatchMongoEntity.class, entity.getPersonId());
+            Assert.assertNull(found.getPersonName());
+            Assert.assertEquals(30, found.getAge());
+
+            DBObject document = collection.findOne(new BasicDBObject("_id", entity.getPersonId()));
+            Assert.assertEquals("kundera", document.get("EXTRA"));
+            Assert.assertFalse(document.containsField("PERSON_NAME"));
+        }
+    }
+
     /**
      * Prepare data.
      * 
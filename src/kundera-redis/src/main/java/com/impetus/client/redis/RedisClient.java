@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -102,6 +103,9 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     /** batch size. */
     private int batchSize;
 
+    /** number of hashes read through one pipeline. */
+    private int pipelineSize;
+
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(RedisClient.class);
 
@@ -133,6 +137,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         initializeIndexer();
         this.clientMetadata = factory.getClientMetadata();
         setBatchSize(persistenceUnit, factory.getOverridenProperties());
+        setPipelineSize(persistenceUnit, factory.getOverridenProperties());
     }
 
     /*
@@ -146,7 +151,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        Object connection = getConnection();
+        Object connection = getConnection(entityMetadata.getTableName());
         // Create a hashset and populate data into it
         //
 
@@ -200,7 +205,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     public Object find(Class entityClass, Object key)
     {
         Object result = null;
-        Object connection = getConnection();
+        Object connection = getConnection(KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClass)
+                .getTableName());
         try
         {
             result = fetch(entityClass, key, connection, null);
@@ -247,22 +253,9 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, clazz);
 
-        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
-                entityMetadata.getPersistenceUnit());
+        String rowKey = getRowKey(entityMetadata, key);
 
-        String rowKey = null;
-        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-        {
-            rowKey = KunderaCoreUtils.prepareCompositeKey(entityMetadata, key);
-        }
-        else
-        {
-            ObjectAccessor accessor = new ObjectAccessor();
-
-            rowKey = accessor.toString(key);
-        }
-
-        String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
+        String hashKey = getHashKey(entityMetadata, rowKey);
         KunderaCoreUtils
                 .printQuery("Fetch data from " + entityMetadata.getTableName() + " for PK " + rowKey, showQuery);
         try
@@ -280,7 +273,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     ((RedisTransaction) resource).onExecute(((Transaction) connection));
 
                     fieldValues = (List<byte[]>) response.get();
-                    connection = getConnection();
+                    connection = getConnection(entityMetadata.getTableName());
 
                 }
                 else
@@ -288,20 +281,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     fieldValues = ((Jedis) connection).hmget(getEncodedBytes(hashKey), fields);
                 }
 
-                if (fieldValues != null && !fieldValues.isEmpty())
-                {
-                    for (int i = 0; i < fields.length; i++)
-                    {
-                        if (fieldValues.get(i) != null)
-                        {
-                            columns.put(fields[i], fieldValues.get(i));
-                        }
-                    }
-                }
+                columns = getColumns(fields, fieldValues);
             }
             else
             {
-                columns = getColumns(connection, hashKey, columns);
+                columns = getColumns(connection, entityMetadata.getTableName(), hashKey, columns);
             }
             // Map<byte[], byte[]>
             result = unwrap(entityMetadata, columns, key);
@@ -316,18 +300,175 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return result;
     }
 
+    /**
+     * Retrieves entity instances of given class, row keys and specific fields.
+     * Hashes are read through one pipeline per chunk of keys and decoded once
+     * pipeline is synced, instead of a round trip per key.
+     * 
+     * @param clazz
+     *            entity class
+     * @param keys
+     *            row keys
+     * @param connection
+     *            connection instance.
+     * @param fields
+     *            fields.
+     * @return entity instances, in order of keys.
+     * @throws InstantiationException
+     *             throws in case of runtime exception
+     * @throws IllegalAccessException
+     *             throws in case of runtime exception
+     */
+    private List fetchAll(Class clazz, Collection<?> keys, Object connection, byte[][] fields)
+            throws InstantiationException, IllegalAccessException
+    {
+        List results = new ArrayList();
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, clazz);
+        if (resource != null && resource.isActive())
+        {
+            // commands are queued in MULTI block, so fetch one by one.
+            for (Object key : keys)
+            {
+                Object result = fetch(clazz, key, getConnection(entityMetadata.getTableName()), fields);
+                if (result != null)
+                {
+                    results.add(result);
+                }
+            }
+            return results;
+        }
+
+        List<Object> chunk = new ArrayList<Object>(Math.min(keys.size(), pipelineSize));
+        for (Object key : keys)
+        {
+            chunk.add(key);
+            if (chunk.size() == pipelineSize)
+            {
+                fetchAll(entityMetadata, chunk, (Jedis) connection, fields, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+        {
+            fetchAll(entityMetadata, chunk, (Jedis) connection, fields, results);
+        }
+        return results;
+    }
+
+    /**
+     * Reads hashes of given row keys through a single pipeline and adds
+     * entities found to results.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param keys
+     *            row keys
+     * @param connection
+     *            connection instance.
+     * @param fields
+     *            fields.
+     * @param results
+     *            the results
+     * @throws InstantiationException
+     *             throws in case of runtime exception
+     * @throws IllegalAccessException
+     *             throws in case of runtime exception
+     */
+    private void fetchAll(EntityMetadata entityMetadata, List<Object> keys, Jedis connection, byte[][] fields,
+            List results) throws InstantiationException, IllegalAccessException
+    {
+        Pipeline pipeline = connection.pipelined();
+        List<Response<?>> responses = new ArrayList<Response<?>>(keys.size());
+        for (Object key : keys)
+        {
+            String rowKey = getRowKey(entityMetadata, key);
+            KunderaCoreUtils.printQuery("Fetch data from " + entityMetadata.getTableName() + " for PK " + rowKey,
+                    showQuery);
+            byte[] hashKey = getEncodedBytes(getHashKey(entityMetadata, rowKey));
+            if (fields != null)
+            {
+                responses.add(pipeline.hmget(hashKey, fields));
+            }
+            else
+            {
+                responses.add(pipeline.hgetAll(hashKey));
+            }
+        }
+        pipeline.sync();
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            Map<byte[], byte[]> columns = fields != null ? getColumns(fields, (List<byte[]>) responses.get(i).get())
+                    : (Map<byte[], byte[]>) responses.get(i).get();
+            Object result = unwrap(entityMetadata, columns, keys.get(i));
+            if (result != null)
+            {
+                results.add(result);
+            }
+        }
+    }
+
+    /**
+     * Gets the row key.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param key
+     *            the key
+     * @return the row key
+     */
+    private String getRowKey(EntityMetadata entityMetadata, Object key)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) kunderaMetadata.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            return KunderaCoreUtils.prepareCompositeKey(entityMetadata, key);
+        }
+        return new ObjectAccessor().toString(key);
+    }
+
+    /**
+     * Gets the columns of selected fields.
+     * 
+     * @param fields
+     *            the fields
+     * @param fieldValues
+     *            the field values
+     * @return the columns
+     */
+    private Map<byte[], byte[]> getColumns(byte[][] fields, List<byte[]> fieldValues)
+    {
+        Map<byte[], byte[]> columns = new HashMap<byte[], byte[]>();
+        if (fieldValues != null && !fieldValues.isEmpty())
+        {
+            for (int i = 0; i < fields.length; i++)
+            {
+                if (fieldValues.get(i) != null)
+                {
+                    columns.put(fields[i], fieldValues.get(i));
+                }
+            }
+        }
+        return columns;
+    }
+
     /**
      * Gets the columns.
      * 
      * @param connection
      *            the connection
+     * @param tableName
+     *            the table name
      * @param hashKey
      *            the hash key
      * @param columns
      *            the columns
      * @return the columns
      */
-    private Map<byte[], byte[]> getColumns(Object connection, String hashKey, Map<byte[], byte[]> columns)
+    private Map<byte[], byte[]> getColumns(Object connection, String tableName, String hashKey,
+            Map<byte[], byte[]> columns)
     {
         if (resource != null && resource.isActive())
         {
@@ -336,7 +477,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             ((RedisTransaction) resource).onExecute(((Transaction) connection));
             // ((Transaction) connection).exec();
             Map<String, String> cols = (Map<String, String>) response.get();
-            connection = getConnection();
+            connection = getConnection(tableName);
 
             if (cols != null)
             {
@@ -362,30 +503,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        Object connection = getConnection();
-        List results = new ArrayList();
-        try
-        {
-            for (Object key : keys)
-            {
-                Object result = fetch(entityClass, key, connection, null);
-                if (result != null)
-                {
-                    results.add(result);
-                }
-            }
-        }
-        catch (InstantiationException e)
-        {
-            logger.error("Error during find by key:", e);
-            throw new PersistenceException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            logger.error("Error during find by key:", e);
-            throw new PersistenceException(e);
-        }
-        return results;
+        return findAllColumns(entityClass, null, keys);
     }
 
     /*
@@ -433,7 +551,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     public void delete(Object entity, Object pKey)
     {
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entity.getClass());
-        Object connection = getConnection();
+        Object connection = getConnection(metadata.getTableName());
         Pipeline pipeLine = null;
         try
         {
@@ -478,12 +596,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             {
                 if (resource != null && resource.isActive())
                 {
-                    ((Transaction) connection).hdel(getHashKey(entityMetadata.getTableName(), rowKey), relation);
+                    ((Transaction) connection).hdel(getHashKey(entityMetadata, rowKey), relation);
 
                 }
                 else
                 {
-                    ((Pipeline) connection).hdel(getHashKey(entityMetadata.getTableName(), rowKey), relation);
+                    ((Pipeline) connection).hdel(getHashKey(entityMetadata, rowKey), relation);
 
                 }
             }
@@ -530,7 +648,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         // String rowKey =
         try
         {
-            connection = getConnection();
+            connection = getConnection(tableName);
             if (isBoundTransaction())
             {
                 pipeline = ((Jedis) connection).pipelined();
@@ -547,7 +665,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 {
                     Map<byte[], byte[]> redisFields = new HashMap<byte[], byte[]>(1);
                     String inverseJoinKeyAsStr = PropertyAccessorHelper.getString(inverseKey);
-                    String redisKey = getHashKey(tableName, joinKeyAsStr + "_" + inverseJoinKeyAsStr);
+                    String redisKey = getHashKey(getTableKey(tableName), joinKeyAsStr + "_" + inverseJoinKeyAsStr);
                     redisFields.put(getEncodedBytes(joinColumn), getEncodedBytes(joinKeyAsStr)); // put
                                                                                                  // join
                                                                                                  // column
@@ -564,20 +682,20 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     {
                         ((Transaction) connection).hmset(getEncodedBytes(redisKey), redisFields);
                         // add index
-                        ((Transaction) connection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
+                        ((Transaction) connection).zadd(getHashKey(getTableKey(tableName), inverseJoinKeyAsStr),
                                 getDouble(inverseJoinKeyAsStr), redisKey);
-                        ((Transaction) connection).zadd(getHashKey(tableName, joinKeyAsStr), getDouble(joinKeyAsStr),
-                                redisKey);
+                        ((Transaction) connection).zadd(getHashKey(getTableKey(tableName), joinKeyAsStr),
+                                getDouble(joinKeyAsStr), redisKey);
 
                     }
                     else
                     {
                         ((Jedis) connection).hmset(getEncodedBytes(redisKey), redisFields);
                         // add index
-                        ((Jedis) connection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
+                        ((Jedis) connection).zadd(getHashKey(getTableKey(tableName), inverseJoinKeyAsStr),
                                 getDouble(inverseJoinKeyAsStr), redisKey);
-                        ((Jedis) connection).zadd(getHashKey(tableName, joinKeyAsStr), getDouble(joinKeyAsStr),
-                                redisKey);
+                        ((Jedis) connection).zadd(getHashKey(getTableKey(tableName), joinKeyAsStr),
+                                getDouble(joinKeyAsStr), redisKey);
 
                     }
                     redisFields.clear();
@@ -628,7 +746,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         try
         {
-            connection = getConnection();
+            connection = getConnection(tableName);
 
             String valueAsStr = PropertyAccessorHelper.getString(pKeyColumnValue);
 
@@ -637,8 +755,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             Set<String> resultKeys = null;
             if (resource != null && resource.isActive())
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score,
-                        score);
+                Response response = ((Transaction) connection).zrangeByScore(
+                        getHashKey(getTableKey(tableName), valueAsStr), score, score);
                 // ((Transaction) connection).exec();
                 ((RedisTransaction) resource).onExecute(((Transaction) connection));
 
@@ -650,7 +768,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
             else
             {
-                resultKeys = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                resultKeys = ((Jedis) connection).zrangeByScore(getHashKey(getTableKey(tableName), valueAsStr), score,
+                        score);
             }
 
             results = fetchColumn(columnName, connection, results, resultKeys);
@@ -726,15 +845,15 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         try
         {
-            connection = getConnection();
+            connection = getConnection(tableName);
             String valueAsStr = PropertyAccessorHelper.getString(columnValue);
 
             Set<String> results = null;
 
             if (resource != null && resource.isActive())
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
-                        getDouble(valueAsStr), getDouble(valueAsStr));
+                Response response = ((Transaction) connection).zrangeByScore(
+                        getHashKey(getTableKey(tableName), valueAsStr), getDouble(valueAsStr), getDouble(valueAsStr));
                 // ((Transaction) connection).exec();
                 ((RedisTransaction) resource).onExecute(((Transaction) connection));
 
@@ -742,8 +861,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
             else
             {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), getDouble(valueAsStr),
-                        getDouble(valueAsStr));
+                results = ((Jedis) connection).zrangeByScore(getHashKey(getTableKey(tableName), valueAsStr),
+                        getDouble(valueAsStr), getDouble(valueAsStr));
 
             }
 
@@ -778,7 +897,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         try
         {
 
-            connection = getConnection();
+            connection = getConnection(tableName);
 
             if (isBoundTransaction())
             {
@@ -790,8 +909,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             Set<String> results = null;
             if (resource != null && resource.isActive())
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score,
-                        score);
+                Response response = ((Transaction) connection).zrangeByScore(
+                        getHashKey(getTableKey(tableName), valueAsStr), score, score);
                 // ((Transaction) connection).exec();
                 ((RedisTransaction) resource).onExecute(((Transaction) connection));
 
@@ -799,7 +918,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
             else
             {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                results = ((Jedis) connection).zrangeByScore(getHashKey(getTableKey(tableName), valueAsStr), score,
+                        score);
             }
             // Set<String> results =
             // connection.zrangeByScore(getHashKey(tableName, valueAsStr),
@@ -813,7 +933,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     // rowKey));
 
                     Map<byte[], byte[]> columns = null;
-                    columns = getColumns(connection, rowKey, columns);
+                    columns = getColumns(connection, tableName, rowKey, columns);
 
                     for (byte[] column : columns.keySet()) // delete each
                                                            // column(e.g.
@@ -826,7 +946,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                         {
                             ((Transaction) connection).hdel(getEncodedBytes(rowKey), column); // delete
                             // record
-                            ((Transaction) connection).zrem(getHashKey(tableName, colName), rowKey); // delete
+                            ((Transaction) connection).zrem(getHashKey(getTableKey(tableName), colName), rowKey);
+                            // delete
                             // inverted
                             // index.
 
@@ -835,7 +956,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                         {
                             ((Jedis) connection).hdel(getEncodedBytes(rowKey), column); // delete
                             // record
-                            ((Jedis) connection).zrem(getHashKey(tableName, colName), rowKey); // delete
+                            ((Jedis) connection).zrem(getHashKey(getTableKey(tableName), colName), rowKey); // delete
                             // inverted
                             // index.
 
@@ -941,7 +1062,39 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public int executeBatch()
     {
-        Object connection = getConnection();
+        // one pipeline per redis node, a single one if not sharded.
+        Map<String, List<Node>> batches = new LinkedHashMap<String, List<Node>>();
+        for (Node node : nodes)
+        {
+            String shard = factory.getNode(KunderaMetadataManager.getEntityMetadata(kunderaMetadata,
+                    node.getDataClass()).getTableName());
+            List<Node> batch = batches.get(shard);
+            if (batch == null)
+            {
+                batch = new ArrayList<Node>();
+                batches.put(shard, batch);
+            }
+            batch.add(node);
+        }
+
+        for (List<Node> batch : batches.values())
+        {
+            executeBatch(batch);
+        }
+
+        return nodes.size();
+    }
+
+    /**
+     * Executes batch of nodes held by one redis node.
+     * 
+     * @param batch
+     *            the batch
+     */
+    private void executeBatch(List<Node> batch)
+    {
+        Object connection = getConnection(KunderaMetadataManager.getEntityMetadata(kunderaMetadata,
+                batch.get(0).getDataClass()).getTableName());
         // Create a hashset and populate data into it
         Pipeline pipeLine = null;
         if (isBoundTransaction())
@@ -950,7 +1103,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
         try
         {
-            for (Node node : nodes)
+            for (Node node : batch)
             {
                 if (node.isDirty())
                 {
@@ -985,8 +1138,6 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
             onCleanup(connection);
         }
-
-        return nodes.size();
     }
 
     /*
@@ -1032,15 +1183,15 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         try
         {
-            connection = getConnection();
+            connection = getConnection(tableName);
             String valueAsStr = PropertyAccessorHelper.getString(columnValue);
 
             Set<String> results = null;
 
             if (resource != null && resource.isActive())
             {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, columnName),
-                        getDouble(valueAsStr), getDouble(valueAsStr));
+                Response response = ((Transaction) connection).zrangeByScore(
+                        getHashKey(getTableKey(tableName), columnName), getDouble(valueAsStr), getDouble(valueAsStr));
                 // ((Transaction) connection).exec();
                 ((RedisTransaction) resource).onExecute(((Transaction) connection));
 
@@ -1048,8 +1199,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
             else
             {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, columnName), getDouble(valueAsStr),
-                        getDouble(valueAsStr));
+                results = ((Jedis) connection).zrangeByScore(getHashKey(getTableKey(tableName), columnName),
+                        getDouble(valueAsStr), getDouble(valueAsStr));
 
             }
             if (results != null)
@@ -1181,6 +1332,34 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return builder.toString();
     }
 
+    /**
+     * Returns hash key prefixed by table of given entity.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param rowKey
+     *            row key
+     * @return concatenated hash key
+     */
+    private String getHashKey(final EntityMetadata entityMetadata, final String rowKey)
+    {
+        return getHashKey(getTableKey(entityMetadata.getTableName()), rowKey);
+    }
+
+    /**
+     * Returns table name as key prefix. If keys are sharded, it is a hash tag,
+     * so hashes and index sets of a table share node and slot and can be
+     * intersected or unioned.
+     * 
+     * @param tableName
+     *            table name
+     * @return key prefix
+     */
+    private String getTableKey(final String tableName)
+    {
+        return factory.isSharded() ? "{" + tableName + "}" : tableName;
+    }
+
     /**
      * Returns encoded bytes.
      * 
@@ -1228,13 +1407,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         {
             // Add row key to list(Required for wild search over table).
             wrapper.addIndex(
-                    getHashKey(metadata.getTableName(),
+                    getHashKey(metadata,
                             ((AbstractAttribute) metadata.getIdAttribute()).getJPAColumnName()), getDouble(rowKey));
 
             // Add row-key as inverted index as well needed for multiple clause
             // search with key and non row key.
             wrapper.addIndex(
-                    getHashKey(metadata.getTableName(),
+                    getHashKey(metadata,
                             getHashKey(((AbstractAttribute) metadata.getIdAttribute()).getJPAColumnName(), rowKey)),
                     getDouble(rowKey));
 
@@ -1445,11 +1624,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             {
                 String valueAsStr = PropertyAccessorHelper.getString(embeddedObject, (Field) attrib.getJavaMember());
                 wrapper.addIndex(
-                        getHashKey(entityMetadata.getTableName(), ((AbstractAttribute) attrib).getJPAColumnName()),
+                        getHashKey(entityMetadata, ((AbstractAttribute) attrib).getJPAColumnName()),
                         getDouble(valueAsStr));
 
                 wrapper.addIndex(
-                        getHashKey(entityMetadata.getTableName(),
+                        getHashKey(entityMetadata,
                                 getHashKey(((AbstractAttribute) attrib).getJPAColumnName(), valueAsStr)),
                         getDouble(valueAsStr));
             }
@@ -1601,9 +1780,9 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         List<Object> results = new ArrayList<Object>();
         try
         {
-            connection = getConnection();
-            Set<String> rowKeys = new HashSet<String>();
             EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClazz);
+            connection = getConnection(entityMetadata.getTableName());
+            Set<String> rowKeys = new HashSet<String>();
             String printQuery = null;
 
             if (showQuery)
@@ -1613,7 +1792,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
             if (queryParameter.getClause() != null && !queryParameter.isByRange())
             {
-                String destStore = entityClazz.getSimpleName() + System.currentTimeMillis();
+                // hash tag of table keeps intermediate store on node and slot of
+                // its sets, if sharded.
+                String destStore = (factory.isSharded() ? getTableKey(entityMetadata.getTableName()) : "")
+                        + entityClazz.getSimpleName() + System.currentTimeMillis();
 
                 Map<String, Object> fieldSets = queryParameter.getFields();
 
@@ -1622,7 +1804,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 for (String column : fieldSets.keySet())
                 {
                     String valueAsStr = PropertyAccessorHelper.getString(fieldSets.get(column));
-                    String key = getHashKey(entityMetadata.getTableName(), getHashKey(column, valueAsStr));
+                    String key = getHashKey(entityMetadata, getHashKey(column, valueAsStr));
                     keySets.add(key);
                     if (showQuery)
                     {
@@ -1698,7 +1880,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 if (resource != null && resource.isActive())
                 {
                     Response response = ((Transaction) connection)
-                            .zrangeByScore(getHashKey(entityMetadata.getTableName(), column), minimum.get(column),
+                            .zrangeByScore(getHashKey(entityMetadata, column), minimum.get(column),
                                     maximum.get(column));
                     // ((Transaction) connection).exec();
                     ((RedisTransaction) resource).onExecute(((Transaction) connection));
@@ -1708,7 +1890,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 }
                 else
                 {
-                    rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata.getTableName(), column),
+                    rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata, column),
                             minimum.get(column), maximum.get(column));
                 }
             }
@@ -1732,7 +1914,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     if (resource != null && resource.isActive())
                     {
                         Response response = ((Transaction) connection).zrangeByScore(
-                                getHashKey(entityMetadata.getTableName(), column), value, value);
+                                getHashKey(entityMetadata, column), value, value);
                         // ((Transaction) connection).exec();
                         ((RedisTransaction) resource).onExecute(((Transaction) connection));
 
@@ -1742,7 +1924,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     }
                     else
                     {
-                        rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata.getTableName(), column),
+                        rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata, column),
                                 value, value);
                     }
                 }
@@ -1752,7 +1934,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 if (resource != null && resource.isActive())
                 {
                     Response response = ((Transaction) connection).zrange(
-                            getHashKey(entityMetadata.getTableName(),
+                            getHashKey(entityMetadata,
                                     ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), 0, -1);
                     // resource.onCommit()
                     // ((Transaction) connection).exec();
@@ -1763,21 +1945,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 else
                 {
                     rowKeys = new HashSet<String>(((Jedis) connection).zrange(
-                            getHashKey(entityMetadata.getTableName(),
+                            getHashKey(entityMetadata,
                                     ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), 0, -1));
                 }
             }
 
-            for (String k : rowKeys)
-            {
-                connection = reInitialize(connection, rowKeys);
-                Object record = fetch(entityClazz, k, connection, (queryParameter.getColumns() != null ? queryParameter
-                        .getColumns().toArray(new byte[][] {}) : null));
-                if (record != null)
-                {
-                    results.add(record);
-                }
-            }
+            results.addAll(fetchAll(entityClazz, rowKeys, connection, (queryParameter.getColumns() != null
+                    ? queryParameter.getColumns().toArray(new byte[][] {}) : null)));
 
         }
         catch (InstantiationException e)
@@ -1804,25 +1978,6 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return results;
     }
 
-    /**
-     * Re initialize.
-     * 
-     * @param connection
-     *            the connection
-     * @param rowKeys
-     *            the row keys
-     * @return the object
-     */
-    private Object reInitialize(Object connection, Set<String> rowKeys)
-    {
-        /*
-         * if(!rowKeys.isEmpty()) {
-         */
-        connection = getConnection();
-        // }
-        return connection;
-    }
-
     /**
      * Find all columns.
      * 
@@ -1838,19 +1993,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
      */
     private <E> List<E> findAllColumns(Class<E> entityClass, byte[][] columns, Object... keys)
     {
-        Object connection = getConnection();
-        // connection.co
-        List results = new ArrayList();
+        Object connection = getConnection(KunderaMetadataManager.getEntityMetadata(kunderaMetadata, entityClass)
+                .getTableName());
         try
         {
-            for (Object key : keys)
-            {
-                Object result = fetch(entityClass, key, connection, columns);
-                if (result != null)
-                {
-                    results.add(result);
-                }
-            }
+            return fetchAll(entityClass, Arrays.asList(keys), connection, columns);
         }
         catch (InstantiationException e)
         {
@@ -1862,7 +2009,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             logger.error("Error during find by key:", e);
             throw new PersistenceException(e);
         }
-        return results;
+        finally
+        {
+            onCleanup(connection);
+        }
     }
 
     /*
@@ -1910,11 +2060,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     }
 
     /**
-     * Returns jedis connection.
+     * Returns jedis connection to node holding keys of given table.
      * 
+     * @param tableName
+     *            the table name
      * @return jedis resource.
      */
-    private Object getConnection()
+    private Object getConnection(String tableName)
     {
         /*
          * Jedis connection = factory.getConnection();
@@ -1931,7 +2083,9 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
          */
         // means either transaction resource is not bound or it is not active,
         // but connection has already by initialized
-        if (isBoundTransaction() && this.connection != null)
+        if (isBoundTransaction() && this.connection != null
+                && (!factory.isSharded() || factory.getNode(tableName).equals(
+                        factory.getConnectionNode(this.connection))))
         {
             return this.connection;
         }
@@ -1940,21 +2094,22 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         if (resource != null && resource.isActive())
         {
             // no need to get a connection from pool, as nested MULTI is not yet
-            // supported.
-            if (((RedisTransaction) resource).isResourceBound())
+            // supported. If sharded, a MULTI is bound per node.
+            String node = factory.getNode(tableName);
+            if (((RedisTransaction) resource).isResourceBound(node))
             {
-                return ((RedisTransaction) resource).getResource();
+                return ((RedisTransaction) resource).getResource(node);
             }
             else
             {
-                Jedis conn = getAndSetConnection();
-                return ((RedisTransaction) resource).bindResource(conn);
+                Jedis conn = getAndSetConnection(tableName);
+                return ((RedisTransaction) resource).bindResource(node, conn);
             }
 
         }
         else
         {
-            Jedis conn = getAndSetConnection();
+            Jedis conn = getAndSetConnection(tableName);
             return conn;
         }
     }
@@ -1962,11 +2117,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     /**
      * Gets the and set connection.
      * 
+     * @param tableName
+     *            the table name
      * @return the and set connection
      */
-    private Jedis getAndSetConnection()
+    private Jedis getAndSetConnection(String tableName)
     {
-        Jedis conn = factory.getConnection();
+        Jedis conn = factory.getConnection(tableName);
         this.connection = conn;
         // If resource is not null means a transaction in progress.
 
@@ -2008,6 +2165,28 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
     }
 
+    /**
+     * Sets the pipeline size, external properties taking precedence over
+     * persistence unit ones.
+     * 
+     * @param persistenceUnit
+     *            the persistence unit
+     * @param puProperties
+     *            the pu properties
+     */
+    private void setPipelineSize(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        Object pipeline_Size = puProperties != null ? puProperties.get(RedisConstants.PIPELINE_SIZE) : null;
+        if (pipeline_Size == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(kunderaMetadata,
+                    persistenceUnit);
+            pipeline_Size = puMetadata.getProperties().getProperty(RedisConstants.PIPELINE_SIZE);
+        }
+        this.pipelineSize = pipeline_Size != null ? Math.max(1, Integer.parseInt(pipeline_Size.toString().trim()))
+                : RedisConstants.DEFAULT_PIPELINE_SIZE;
+    }
+
     /**
      * Sets the batch size.
      * 
@@ -2051,12 +2230,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 byte[] nameInBytes = getEncodedBytes(name);
                 String valueAsStr = PropertyAccessorHelper.getString(value);
                 wrapper.addColumn(nameInBytes, valueInBytes);
-                wrapper.addIndex(getHashKey(entityMetadata.getTableName(), name), getDouble(valueAsStr));
+                wrapper.addIndex(getHashKey(entityMetadata, name), getDouble(valueAsStr));
 
                 // this index is required to work for UNION/INTERSECT
                 // support.
 
-                wrapper.addIndex(getHashKey(entityMetadata.getTableName(), getHashKey(name, valueAsStr)),
+                wrapper.addIndex(getHashKey(entityMetadata, getHashKey(name, valueAsStr)),
                         getDouble(valueAsStr));
             }
         }
@@ -2077,8 +2256,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             byte[] valueInBytes = PropertyAccessorHelper.getBytes(discrValue);
             byte[] nameInBytes = getEncodedBytes(discrColumn);
             wrapper.addColumn(nameInBytes, valueInBytes);
-            wrapper.addIndex(getHashKey(entityMetadata.getTableName(), discrColumn), getDouble(discrValue));
-            wrapper.addIndex(getHashKey(entityMetadata.getTableName(), getHashKey(discrColumn, discrValue)),
+            wrapper.addIndex(getHashKey(entityMetadata, discrColumn), getDouble(discrValue));
+            wrapper.addIndex(getHashKey(entityMetadata, getHashKey(discrColumn, discrValue)),
                     getDouble(discrValue));
         }
 
@@ -2095,7 +2274,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             // entityMetadata.getIdAttribute().getJavaMember())*/ ;
         }
 
-        String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
+        String hashKey = getHashKey(entityMetadata, rowKey);
 
         if (resource != null && resource.isActive())
         {
@@ -2164,13 +2343,13 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         {
             if (resource != null && resource.isActive())
             {
-                ((Transaction) connection).hdel(getHashKey(entityMetadata.getTableName(), rowKey),
+                ((Transaction) connection).hdel(getHashKey(entityMetadata, rowKey),
                         PropertyAccessorFactory.STRING.fromBytes(String.class, name));
 
             }
             else
             {
-                ((Pipeline) connection).hdel(getHashKey(entityMetadata.getTableName(), rowKey),
+                ((Pipeline) connection).hdel(getHashKey(entityMetadata, rowKey),
                         PropertyAccessorFactory.STRING.fromBytes(String.class, name));
 
             }
@@ -2186,14 +2365,14 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         if (resource != null && resource.isActive())
         {
             ((Transaction) connection).zrem(
-                    getHashKey(entityMetadata.getTableName(),
+                    getHashKey(entityMetadata,
                             ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), rowKey);
 
         }
         else
         {
             ((Pipeline) connection).zrem(
-                    getHashKey(entityMetadata.getTableName(),
+                    getHashKey(entityMetadata,
                             ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), rowKey);
 
         }
@@ -2227,7 +2406,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         if (this.indexManager.getIndexer() != null
                 && this.indexManager.getIndexer().getClass().getSimpleName().equals("RedisIndexer"))
         {
-            ((RedisIndexer) this.indexManager.getIndexer()).assignConnection(getConnection());
+            ((RedisIndexer) this.indexManager.getIndexer()).assignConnection(getConnection(null));
         }
     }
 
@@ -16,6 +16,9 @@
 
 package com.impetus.client.redis;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -26,6 +29,8 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.util.Sharded;
 
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
@@ -45,6 +50,12 @@ public class RedisClientFactory extends GenericClientFactory
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(RedisClientFactory.class);
 
+    /** Pools of nodes keyed by host:port, when keys are sharded over nodes. */
+    private Map<String, JedisPool> shardPools;
+
+    /** Consistent hash ring of nodes, when keys are sharded over nodes. */
+    private Sharded<Jedis, JedisShardInfo> shards;
+
     /*
      * (non-Javadoc)
      * 
@@ -146,6 +157,12 @@ public class RedisClientFactory extends GenericClientFactory
         
 
         JedisPool pool = null;
+        if (contactNode != null && contactNode.indexOf(',') > 0)
+        {
+            return onShards(contactNode, defaultPort, password, poolConfig != null ? poolConfig
+                    : new JedisPoolConfig(), txTimeOut != null && StringUtils.isNumeric(txTimeOut) ? Integer
+                    .parseInt(txTimeOut) : -1);
+        }
         onValidation(contactNode, defaultPort);
 
         if (poolConfig != null)
@@ -196,6 +213,98 @@ public class RedisClientFactory extends GenericClientFactory
         return new RedisClient(this, externalProperties, persistenceUnit, kunderaMetadata);
     }
 
+    /**
+     * Creates a pool per node and a consistent hash ring over them. Each
+     * table is held by the node its name hashes to, same as a hash tag of
+     * table name would with ShardedJedis.
+     * 
+     * @param contactNodes
+     *            comma separated nodes, as host or host:port
+     * @param defaultPort
+     *            port of nodes given as host only
+     * @param password
+     *            the password
+     * @param poolConfig
+     *            the pool config
+     * @param timeout
+     *            the timeout
+     * @return pools keyed by host:port
+     */
+    private Map<String, JedisPool> onShards(String contactNodes, String defaultPort, String password,
+            JedisPoolConfig poolConfig, int timeout)
+    {
+        logger.info("Initializing Redis connection pools of sharded nodes {}", contactNodes);
+        shardPools = new LinkedHashMap<String, JedisPool>();
+        List<JedisShardInfo> shardInfos = new ArrayList<JedisShardInfo>();
+        for (String contactNode : contactNodes.split(","))
+        {
+            String host = StringUtils.substringBefore(contactNode, ":").trim();
+            String port = contactNode.indexOf(':') > 0 ? StringUtils.substringAfter(contactNode, ":").trim()
+                    : defaultPort;
+            onValidation(host, port);
+            String node = host + ":" + port;
+            shardPools.put(node, new JedisPool(poolConfig, host, Integer.parseInt(port), timeout, password));
+            shardInfos.add(new JedisShardInfo(host, Integer.parseInt(port), node));
+        }
+        shards = new Sharded<Jedis, JedisShardInfo>(shardInfos, Sharded.DEFAULT_KEY_TAG_PATTERN);
+        return shardPools;
+    }
+
+    /**
+     * Checks if keys are sharded over several nodes.
+     * 
+     * @return true, if sharded
+     */
+    boolean isSharded()
+    {
+        return shards != null;
+    }
+
+    /**
+     * Returns node holding keys of given table, first node for keys without
+     * table.
+     * 
+     * @param tableName
+     *            the table name
+     * @return node as host:port, null if not sharded
+     */
+    String getNode(String tableName)
+    {
+        if (shards == null)
+        {
+            return null;
+        }
+        return tableName != null ? shards.getShardInfo(tableName).getName() : shardPools.keySet().iterator().next();
+    }
+
+    /**
+     * Returns node of given connection.
+     * 
+     * @param connection
+     *            jedis connection
+     * @return node as host:port, null if not sharded
+     */
+    String getConnectionNode(Jedis connection)
+    {
+        return shards != null ? connection.getClient().getHost() + ":" + connection.getClient().getPort() : null;
+    }
+
+    /**
+     * Retrieves connection to node holding keys of given table.
+     * 
+     * @param tableName
+     *            the table name
+     * @return returns jedis instance.
+     */
+    Jedis getConnection(String tableName)
+    {
+        if (shards == null)
+        {
+            return getConnection();
+        }
+        return getConnection(shardPools.get(getNode(tableName)));
+    }
+
     Map<String, Object> getOverridenProperties()
     {
         return this.externalProperties;
@@ -223,7 +332,16 @@ public class RedisClientFactory extends GenericClientFactory
         // if(logger.isDebugEnabled())
         logger.info("on close destroying connection pool");
 
-        if (getConnectionPoolOrConnection() != null && getConnectionPoolOrConnection() instanceof JedisPool)
+        if (shardPools != null)
+        {
+            for (JedisPool pool : shardPools.values())
+            {
+                pool.destroy();
+            }
+            shardPools = null;
+            shards = null;
+        }
+        else if (getConnectionPoolOrConnection() != null && getConnectionPoolOrConnection() instanceof JedisPool)
         {
             ((JedisPool) getConnectionPoolOrConnection()).destroy();
         }
@@ -244,24 +362,13 @@ public class RedisClientFactory extends GenericClientFactory
         if (logger.isDebugEnabled())
             logger.info("borrowing connection from pool");
         Object poolOrConnection = getConnectionPoolOrConnection();
-        if (poolOrConnection != null && poolOrConnection instanceof JedisPool)
+        if (shardPools != null)
         {
-
-            Jedis connection = ((JedisPool) getConnectionPoolOrConnection()).getResource();
-            connection.getClient().setTimeoutInfinite();
-            Map props = RedisPropertyReader.rsmd.getProperties();
-
-            // set external xml properties.
-            if (props != null)
-            {
-                // props.
-                for (Object key : props.keySet())
-                {
-                    connection.configSet(key.toString(), props.get(key).toString());
-                }
-            }
-            return connection;
-            
+            return getConnection((String) null);
+        }
+        else if (poolOrConnection != null && poolOrConnection instanceof JedisPool)
+        {
+            return getConnection((JedisPool) poolOrConnection);
         }
         else
         {
@@ -320,12 +427,41 @@ public class RedisClientFactory extends GenericClientFactory
         if (logger.isDebugEnabled())
             logger.info("releasing connection from pool");
         Object poolOrConnection = getConnectionPoolOrConnection();
-        if (poolOrConnection instanceof JedisPool)
+        if (shardPools != null)
+        {
+            shardPools.get(getConnectionNode(res)).returnResource(res);
+        }
+        else if (poolOrConnection instanceof JedisPool)
         {
             ((JedisPool) poolOrConnection).returnResource(res);
         }
     }
 
+    /**
+     * Borrows connection from given pool.
+     * 
+     * @param pool
+     *            the pool
+     * @return returns jedis instance.
+     */
+    private Jedis getConnection(JedisPool pool)
+    {
+        Jedis connection = pool.getResource();
+        connection.getClient().setTimeoutInfinite();
+        Map props = RedisPropertyReader.rsmd.getProperties();
+
+        // set external xml properties.
+        if (props != null)
+        {
+            // props.
+            for (Object key : props.keySet())
+            {
+                connection.configSet(key.toString(), props.get(key).toString());
+            }
+        }
+        return connection;
+    }
+
     IndexManager getIndexManager()
     {
         return indexManager;
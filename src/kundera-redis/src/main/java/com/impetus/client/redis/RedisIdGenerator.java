@@ -18,6 +18,8 @@ package com.impetus.client.redis;
 import redis.clients.jedis.Jedis;
 
 import com.impetus.kundera.client.Client;
+import com.impetus.kundera.generator.PooledIdAllocator;
+import com.impetus.kundera.generator.PooledIdAllocator.BlockSource;
 import com.impetus.kundera.generator.SequenceGenerator;
 import com.impetus.kundera.metadata.model.SequenceGeneratorDiscriptor;
 
@@ -38,19 +40,27 @@ public class RedisIdGenerator implements SequenceGenerator
      * com.impetus.kundera.client.Client, java.lang.Object)
      */
     @Override
-    public Object generate(SequenceGeneratorDiscriptor discriptor, Client<?> client, String dataType)
+    public Object generate(final SequenceGeneratorDiscriptor discriptor, final Client<?> client, String dataType)
     {
-        Jedis jedis = ((RedisClient) client).factory.getConnection();
-
-        Long latestCount = jedis.incr(((RedisClient) client).getEncodedBytes(discriptor.getSequenceName()));
-        if (latestCount == 1)
-        {
-            return discriptor.getInitialValue();
-        }
-        else
+        return ((RedisClient) client).getIdAllocator(discriptor).next(new BlockSource()
         {
-            return (latestCount - 1) * discriptor.getAllocationSize();
-        }
+            @Override
+            public long reserve()
+            {
+                Jedis jedis = ((RedisClient) client).factory.getConnection(discriptor.getSequenceName());
+                try
+                {
+                    Long latestCount = jedis.incr(((RedisClient) client).getEncodedBytes(discriptor
+                            .getSequenceName()));
+                    return PooledIdAllocator.getBlockStart(latestCount, discriptor.getInitialValue(),
+                            discriptor.getAllocationSize());
+                }
+                finally
+                {
+                    ((RedisClient) client).factory.releaseConnection(jedis);
+                }
+            }
+        });
     }
 
 }
@@ -17,7 +17,9 @@
 package com.impetus.client.redis;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.Transaction;
@@ -36,6 +38,9 @@ public class RedisTransaction implements TransactionResource
 
     private List<Transaction> resources = new ArrayList<Transaction>();
 
+    /** bound resources keyed by node, a single null key if not sharded. */
+    private Map<String, Transaction> nodeResources = new HashMap<String, Transaction>();
+
     private boolean isTransactionInProgress;
 
     /**
@@ -87,6 +92,7 @@ public class RedisTransaction implements TransactionResource
         }
 
         resources.clear();
+        nodeResources.clear();
         resources = new ArrayList<Transaction>();
         isTransactionInProgress = false;
 
@@ -125,7 +131,7 @@ public class RedisTransaction implements TransactionResource
         return isTransactionInProgress;
     }
 
-    Transaction bindResource(Jedis resource)
+    Transaction bindResource(String node, Jedis resource)
     {
         Transaction tx = null;
         // Multi not supported.
@@ -135,25 +141,27 @@ public class RedisTransaction implements TransactionResource
          */
         tx = resource.multi();
         resources.add(tx);
+        nodeResources.put(node, tx);
         /*
          * } else { // tx = resource.multi(); // resources.add(tx); tx =
          * resources.get(0); }
          */return tx;
     }
 
-    Transaction getResource()
+    Transaction getResource(String node)
     {
-        return resources.get(0);
+        return nodeResources.get(node);
     }
 
-    boolean isResourceBound()
+    boolean isResourceBound(String node)
     {
-        return !resources.isEmpty();
+        return nodeResources.containsKey(node);
     }
 
     synchronized void onExecute(Transaction tx)
     {
         tx.exec();
         resources.remove(tx);
+        nodeResources.values().remove(tx);
     }
 }
@@ -46,6 +46,7 @@ import com.impetus.client.entities.Month;
 import com.impetus.client.entities.PersonRedis;
 import com.impetus.client.entities.PersonRedis.Day;
 import com.impetus.client.redis.RedisClient;
+import com.impetus.client.redis.RedisConstants;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.graph.Node;
@@ -151,6 +152,42 @@ public class RedisClientTest
 
     }
 
+    @Test
+    public void testFindAllPipelined()
+    {
+        Map<String, String> pipelineProperty = new HashMap<String, String>(1);
+        pipelineProperty.put(RedisConstants.PIPELINE_SIZE, "3");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory(REDIS_PU, pipelineProperty);
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        RedisClient client = (RedisClient) clients.get(REDIS_PU);
+
+        Object[] keys = new Object[8];
+        for (int i = 0; i < 7; i++)
+        {
+            PersonRedis object = new PersonRedis();
+            object.setAge(30 + i);
+            object.setPersonId(ROW_KEY + i);
+            object.setPersonName("vivek");
+            em.persist(object);
+            keys[i] = ROW_KEY + i;
+        }
+        keys[7] = "missing";
+        em.clear();
+
+        // 8 keys over pipelines of 3, missing key skipped.
+        List<PersonRedis> results = client.findAll(PersonRedis.class, null, keys);
+        Assert.assertEquals(7, results.size());
+        for (int i = 0; i < 7; i++)
+        {
+            Assert.assertEquals(ROW_KEY + i, results.get(i).getPersonId());
+            Assert.assertEquals(Integer.valueOf(30 + i), results.get(i).getAge());
+            Assert.assertEquals("vivek", results.get(i).getPersonName());
+        }
+        em.close();
+        emf.close();
+    }
+
     @Test
     public void testPersistJoinTableData()
     {
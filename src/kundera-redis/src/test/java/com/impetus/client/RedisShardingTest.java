@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * * Copyright 2015 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+import com.impetus.client.entities.PersonRedis;
+import com.impetus.kundera.PersistenceProperties;
+
+/**
+ * Junit for keys sharded over two redis nodes, needs redis servers on ports
+ * 6379 and 6380.
+ */
+public class RedisShardingTest
+{
+
+    /** The Constant REDIS_PU. */
+    private static final String REDIS_PU = "redis_pu";
+
+    /** The Constant PASSWORD. */
+    private static final String PASSWORD = "Kundera@123";
+
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(PersistenceProperties.KUNDERA_NODES, "localhost:6379,localhost:6380");
+        emf = Persistence.createEntityManagerFactory(REDIS_PU, properties);
+        em = emf.createEntityManager();
+    }
+
+    @Test
+    public void testShardedCRUDAndQuery()
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            PersonRedis person = new PersonRedis();
+            person.setPersonId("" + i);
+            person.setPersonName(i % 2 == 0 ? "vivek" : "amit");
+            person.setAge(30);
+            em.persist(person);
+        }
+        em.clear();
+
+        PersonRedis found = em.find(PersonRedis.class, "3");
+        Assert.assertNotNull(found);
+        Assert.assertEquals("amit", found.getPersonName());
+
+        // intersection of index sets, all on node of table.
+        Query query = em.createQuery("Select p from PersonRedis p where p.personName = vivek and p.age = 30");
+        List<PersonRedis> results = query.getResultList();
+        Assert.assertEquals(3, results.size());
+
+        // hash of each row is on exactly one node, keyed by table hash tag.
+        int shardsHoldingRow = 0;
+        for (int port : new int[] { 6379, 6380 })
+        {
+            Jedis jedis = new Jedis("localhost", port);
+            try
+            {
+                jedis.auth(PASSWORD);
+                if (jedis.exists("{PERSON_REDIS}:3"))
+                {
+                    shardsHoldingRow++;
+                }
+            }
+            finally
+            {
+                jedis.disconnect();
+            }
+        }
+        Assert.assertEquals(1, shardsHoldingRow);
+
+        for (int i = 0; i < 5; i++)
+        {
+            em.remove(em.find(PersonRedis.class, "" + i));
+        }
+        em.clear();
+        Assert.assertNull(em.find(PersonRedis.class, "3"));
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+        emf = null;
+    }
+}